@@ -19,6 +19,7 @@
  */
 package org.xwiki.display.internal;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -45,6 +46,10 @@
 @Component(roles = DocumentContentAsyncRenderer.class)
 public class DocumentContentAsyncRenderer extends AbstractBlockAsyncRenderer
 {
+    private static final String CONTEXT_LOCALE = "locale";
+
+    private static final String CONTEXT_USER = "user";
+
     @Inject
     private DocumentContentAsyncExecutor executor;
 
@@ -64,6 +69,8 @@ public class DocumentContentAsyncRenderer extends AbstractBlockAsyncRenderer
 
     private AsyncProperties asyncProperties;
 
+    private boolean cacheAllowed;
+
     private DocumentReference documentReference;
 
     private List<String> id;
@@ -85,7 +92,11 @@ public Set<String> initialize(DocumentModelBridge document, DocumentDisplayerPar
 
         this.documentReference = document.getDocumentReference();
 
-        if (this.asyncProperties.isAsyncAllowed() || this.asyncProperties.isCacheAllowed()) {
+        // Caching the result of a display which does not transform the content would not bring anything
+        this.cacheAllowed = this.asyncProperties.isCacheAllowed()
+            || (parameters.isCacheAllowed() && parameters.isContentTransformed());
+
+        if (this.asyncProperties.isAsyncAllowed() || this.cacheAllowed) {
             this.id = createId("display", "document", "content",
                 this.defaultEntityReferenceSerializer.serialize(this.documentReference), this.parameters.getSectionId(),
                 this.parameters.getTargetSyntax() != null ? this.parameters.getTargetSyntax().toIdString() : "",
@@ -95,7 +106,32 @@ public Set<String> initialize(DocumentModelBridge document, DocumentDisplayerPar
 
         this.executor.initialize(transformationId, document, parameters);
 
-        return this.asyncProperties.getContextElements();
+        return getContextElements();
+    }
+
+    private Set<String> getContextElements()
+    {
+        if (!this.parameters.isCacheAllowed() || !this.cacheAllowed) {
+            return this.asyncProperties.getContextElements();
+        }
+
+        Set<String> contextElements = new HashSet<>();
+        if (this.asyncProperties.getContextElements() != null) {
+            contextElements.addAll(this.asyncProperties.getContextElements());
+        }
+        if (this.parameters.getCacheContextEntries() != null) {
+            contextElements.addAll(this.parameters.getCacheContextEntries());
+        }
+        // The displayed content is translated
+        contextElements.add(CONTEXT_LOCALE);
+        // The caching was requested by the caller and not by the displayed document: the author of the call does not
+        // control the displayed content, which can depend on the current user in many ways (rights checks, filtered
+        // queries, user preferences, scripts), so never share the result between users
+        if (!this.asyncProperties.isCacheAllowed()) {
+            contextElements.add(CONTEXT_USER);
+        }
+
+        return contextElements;
     }
 
     @Override
@@ -122,7 +158,7 @@ public boolean isAsyncAllowed()
     @Override
     public boolean isCacheAllowed()
     {
-        return this.asyncProperties.isCacheAllowed();
+        return this.cacheAllowed;
     }
 
     @Override
@@ -66,6 +66,11 @@ public XDOM display(DocumentModelBridge document, DocumentDisplayerParameters pa
         try {
             Block block = this.executor.execute(renderer, configuration);
 
+            // The cached result is shared and the caller is free to modify what it gets
+            if (renderer.isCacheAllowed()) {
+                block = block.clone();
+            }
+
             return block instanceof XDOM ? (XDOM) block : new XDOM(Arrays.asList(block));
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
@@ -19,6 +19,8 @@
  */
 package org.xwiki.display.internal;
 
+import java.util.Set;
+
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.util.IdGenerator;
 
@@ -79,6 +81,10 @@ public class DocumentDisplayerParameters implements Cloneable
 
     private boolean asyncAllowed = true;
 
+    private boolean cacheAllowed;
+
+    private Set<String> cacheContextEntries;
+
     /**
      * The id generator to generate ids that are unique also in the parent document.
      *
@@ -254,6 +260,44 @@ public void setAsyncAllowed(boolean asyncAllowed)
         this.asyncAllowed = asyncAllowed;
     }
 
+    /**
+     * @return true if the result of the display can be cached, whatever the document itself indicates
+     * @since 15.0RC1
+     */
+    public boolean isCacheAllowed()
+    {
+        return this.cacheAllowed;
+    }
+
+    /**
+     * @param cacheAllowed true if the result of the display can be cached, whatever the document itself indicates (the
+     *            result is only cached when the content is transformed)
+     * @since 15.0RC1
+     */
+    public void setCacheAllowed(boolean cacheAllowed)
+    {
+        this.cacheAllowed = cacheAllowed;
+    }
+
+    /**
+     * @return the context entries on which the cached result depends, in addition to the ones declared by the document
+     * @since 15.0RC1
+     */
+    public Set<String> getCacheContextEntries()
+    {
+        return this.cacheContextEntries;
+    }
+
+    /**
+     * @param cacheContextEntries the context entries on which the cached result depends, in addition to the ones
+     *            declared by the document
+     * @since 15.0RC1
+     */
+    public void setCacheContextEntries(Set<String> cacheContextEntries)
+    {
+        this.cacheContextEntries = cacheContextEntries;
+    }
+
     /**
      * @return the id generator to use for unique ids
      * @since 14.2RC1
@@ -21,6 +21,7 @@
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -31,8 +32,10 @@
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.rendering.async.internal.AsyncRendererConfiguration;
 import org.xwiki.rendering.async.internal.block.BlockAsyncRendererExecutor;
 import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.WordBlock;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.listener.MetaData;
 import org.xwiki.rendering.transformation.TransformationContext;
@@ -43,8 +46,10 @@
 import org.xwiki.test.junit5.mockito.MockComponent;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
@@ -140,4 +145,40 @@ public Void answer(InvocationOnMock invocation)
         verify(this.transformationManager, times(1)).performTransformations(same(content),
             any(TransformationContext.class));
     }
+
+    @Test
+    void displayCached() throws Exception
+    {
+        XDOM cached = new XDOM(Collections.singletonList(new WordBlock("cached")));
+        when(this.executor.execute(same(this.documentRenderer), argThat(
+            (AsyncRendererConfiguration configuration) -> configuration.getContextEntries()
+                .equals(Set.of("locale", "user"))))).thenReturn(cached);
+
+        DocumentDisplayerParameters parameters = new DocumentDisplayerParameters();
+        parameters.setCacheAllowed(true);
+
+        XDOM result = this.documentDisplayer.display(this.document, parameters);
+
+        assertEquals("cached", ((WordBlock) result.getChildren().get(0)).getWord());
+        // The cached result must never be modified by the caller
+        assertNotSame(cached, result);
+        assertNotSame(cached.getChildren().get(0), result.getChildren().get(0));
+    }
+
+    @Test
+    void displayCachedWithCacheContext() throws Exception
+    {
+        XDOM cached = new XDOM(Collections.singletonList(new WordBlock("cached")));
+        when(this.executor.execute(same(this.documentRenderer),
+            argThat((AsyncRendererConfiguration configuration) -> configuration.getContextEntries()
+                .equals(Set.of("locale", "user", "request.parameters"))))).thenReturn(cached);
+
+        DocumentDisplayerParameters parameters = new DocumentDisplayerParameters();
+        parameters.setCacheAllowed(true);
+        parameters.setCacheContextEntries(Set.of("request.parameters"));
+
+        XDOM result = this.documentDisplayer.display(this.document, parameters);
+
+        assertEquals("cached", ((WordBlock) result.getChildren().get(0)).getWord());
+    }
 }
@@ -109,6 +109,8 @@ public List<Block> execute(DisplayMacroParameters parameters, String content, Ma
         displayParameters.setTransformationContextIsolated(displayParameters.isContentTransformed());
         displayParameters.setTargetSyntax(context.getTransformationContext().getTargetSyntax());
         displayParameters.setContentTranslated(true);
+        displayParameters.setCacheAllowed(parameters.isCached());
+        displayParameters.setCacheContextEntries(parameters.getCacheContext());
         if (context.getXDOM() != null) {
             displayParameters.setIdGenerator(context.getXDOM().getIdGenerator());
         }
@@ -19,6 +19,8 @@
  */
 package org.xwiki.rendering.macro.display;
 
+import java.util.Set;
+
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.EntityReferenceString;
 import org.xwiki.model.reference.PageReference;
@@ -58,6 +60,10 @@
      */
     private boolean excludeFirstHeading;
 
+    private boolean cached;
+
+    private Set<String> cacheContext;
+
     /**
      * @param reference the reference to display
      * @since 3.4M1
@@ -161,4 +167,49 @@ public void setPage(String page)
         this.reference = page;
         this.type = EntityType.PAGE;
     }
+
+    /**
+     * @param cached true if the result of the display can be cached and shared with other executions of the macro,
+     *            but the result is never shared between users
+     * @since 15.0RC1
+     */
+    @PropertyDescription("Cache the result of the display until the displayed page or one of its dependencies is"
+        + " modified. The result is cached for each user and locale. Should only be used when the displayed content"
+        + " does not depend on other context entries (request, etc.) than the ones listed in the cache context.")
+    @PropertyAdvanced
+    public void setCached(boolean cached)
+    {
+        this.cached = cached;
+    }
+
+    /**
+     * @return true if the result of the display can be cached and shared with other executions of the macro
+     * @since 15.0RC1
+     */
+    public boolean isCached()
+    {
+        return this.cached;
+    }
+
+    /**
+     * @param cacheContext the context entries (e.g. "request.parameters") on which the displayed content
+     *            depends, to cache a different result for each value of these entries
+     * @since 15.0RC1
+     */
+    @PropertyDescription("The context entries (e.g. \"request.parameters\") on which the displayed content"
+        + " depends, when the result is cached.")
+    @PropertyAdvanced
+    public void setCacheContext(Set<String> cacheContext)
+    {
+        this.cacheContext = cacheContext;
+    }
+
+    /**
+     * @return the context entries on which the displayed content depends, when the result is cached
+     * @since 15.0RC1
+     */
+    public Set<String> getCacheContext()
+    {
+        return this.cacheContext;
+    }
 }
@@ -52,6 +52,10 @@ public interface EventSearchResult extends AutoCloseable
     long getSize();
 
     /**
+     * Some implementations fetch the events lazily while the returned stream is consumed. When they fail to do so, the
+     * consuming operation throws an {@link IllegalStateException} with the {@link EventStreamException} which caused
+     * it as cause.
+     * 
      * @return a {@link Stream} containing the found events
      */
     Stream<Event> stream();
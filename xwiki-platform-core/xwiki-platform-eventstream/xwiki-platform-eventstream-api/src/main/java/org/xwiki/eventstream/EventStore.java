@@ -21,12 +21,15 @@
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Save and access store events.
@@ -160,6 +163,29 @@
      */
     EventSearchResult search(EventQuery query, Set<String> fields) throws EventStreamException;
 
+    /**
+     * Execute several searches at once, typically the same search for many different users. Stores which support it
+     * execute the queries as a single request when they share the same sort, offset and limit.
+     * 
+     * @param <K> the type of the keys used to identify each query
+     * @param queries the queries to execute
+     * @param fields the fields included in the result, null or empty means all fields
+     * @return the result of each query, associated with the same key as the query
+     * @throws EventStreamException when failing to execute the search
+     * @since 15.0RC1
+     */
+    @Unstable
+    default <K> Map<K, EventSearchResult> searchGrouped(Map<K, ? extends EventQuery> queries, Set<String> fields)
+        throws EventStreamException
+    {
+        Map<K, EventSearchResult> results = new LinkedHashMap<>(queries.size());
+        for (Map.Entry<K, ? extends EventQuery> entry : queries.entrySet()) {
+            results.put(entry.getKey(), search(entry.getValue(), fields));
+        }
+
+        return results;
+    }
+
     /**
      * Get the list of statuses concerning the given events and the given entities.
      *
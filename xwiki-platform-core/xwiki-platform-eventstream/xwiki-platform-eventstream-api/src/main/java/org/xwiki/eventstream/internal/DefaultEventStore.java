@@ -22,6 +22,7 @@
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -370,6 +371,21 @@ public EventSearchResult search(EventQuery query, Set<String> fields) throws Eve
         return EventSearchResult.EMPTY;
     }
 
+    @Override
+    public <K> Map<K, EventSearchResult> searchGrouped(Map<K, ? extends EventQuery> queries, Set<String> fields)
+        throws EventStreamException
+    {
+        if (this.store != null) {
+            return this.store.searchGrouped(queries, fields);
+        }
+
+        if (this.legacyStore != null) {
+            return this.legacyStore.searchGrouped(queries, fields);
+        }
+
+        return EventStore.super.searchGrouped(queries, fields);
+    }
+
     /**
      * Generate event ID for the given ID. Note that this method does not perform the set of the ID in the event object.
      *
@@ -29,11 +29,17 @@
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -44,12 +50,21 @@
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrQuery.ORDER;
+import org.apache.solr.client.solrj.SolrRequest.METHOD;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.GroupCommand;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.GroupParams;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.eventstream.EntityEvent;
 import org.xwiki.eventstream.Event;
@@ -87,6 +102,11 @@
 
 /**
  * Solr based implementation of {@link EventStore}.
+ * <p>
+ * The results of searches are fetched with Solr cursors. The event id is always used as last sort, which means that
+ * results of queries without explicit sort are ordered by event id. The result of large searches is fetched lazily
+ * while {@link EventSearchResult#stream()} is consumed, so failing to fetch it is reported as an
+ * {@link IllegalStateException} wrapping an {@link EventStreamException} at that moment.
  *
  * @version $Id$
  * @since 12.4RC1
@@ -98,6 +118,23 @@ public class SolrEventStore extends AbstractAsynchronousEventStore
 {
     private static final Map<String, SearchFieldMapping> SEARCH_FIELD_MAPPING = new HashMap<>();
 
+    /**
+     * The maximum number of events fetched from Solr at once when streaming the result of a search.
+     */
+    private static final int BLOCK_SIZE = 1000;
+
+    /**
+     * The maximum number of cursors to remember.
+     */
+    private static final int CURSORS_SIZE = 1000;
+
+    /**
+     * How long a cursor is reused for the same query, in milliseconds.
+     */
+    private static final long CURSOR_TIMEOUT = 60000L;
+
+    private static final char CURSOR_KEY_SEPARATOR = '#';
+
     private static class SearchFieldMapping
     {
         String solrFieldName;
@@ -148,8 +185,119 @@ public class SolrEventStore extends AbstractAsynchronousEventStore
     @Named("compactwiki")
     private EntityReferenceSerializer<String> compactwiki;
 
+    @Inject
+    private CacheManager cacheManager;
+
     private SolrClient client;
 
+    /**
+     * The Solr cursor marks located at the end of the last searched pages, so that the search of the next page does not
+     * have to go through all the previous events again (which is what happens with a classic offset).
+     */
+    private Cache<CursorMark> cursors;
+
+    private static final class CursorMark
+    {
+        private final String mark;
+
+        private final long date = System.currentTimeMillis();
+
+        CursorMark(String mark)
+        {
+            this.mark = mark;
+        }
+
+        boolean isExpired()
+        {
+            return System.currentTimeMillis() - this.date > CURSOR_TIMEOUT;
+        }
+    }
+
+    /**
+     * Lazily go through all the events matching a query, one block at a time, using Solr cursors.
+     */
+    private final class CursorIterator implements Iterator<SolrDocument>
+    {
+        private final SolrQuery solrQuery;
+
+        private final String cursorKey;
+
+        private long position;
+
+        private long remaining;
+
+        private SolrDocumentList documents;
+
+        private Iterator<SolrDocument> iterator;
+
+        private String cursorMark;
+
+        private String nextCursorMark;
+
+        CursorIterator(SolrQuery solrQuery, String cursorKey, long offset, long limit, String cursorMark,
+            QueryResponse response)
+        {
+            this.solrQuery = solrQuery;
+            this.cursorKey = cursorKey;
+            this.position = offset;
+            this.remaining = limit;
+            this.cursorMark = cursorMark;
+
+            setResponse(response);
+        }
+
+        private void setResponse(QueryResponse response)
+        {
+            this.documents = response.getResults();
+            this.iterator = this.documents.iterator();
+            this.nextCursorMark = response.getNextCursorMark();
+
+            this.position += this.documents.size();
+            rememberCursor(this.cursorKey, this.position, this.nextCursorMark);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (this.remaining == 0) {
+                return false;
+            }
+
+            if (!this.iterator.hasNext()) {
+                // Solr returns the same cursor mark when there is nothing left
+                if (this.documents.size() < this.solrQuery.getRows()
+                    || Objects.equals(this.cursorMark, this.nextCursorMark)) {
+                    return false;
+                }
+
+                this.cursorMark = this.nextCursorMark;
+                this.solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, this.cursorMark);
+                try {
+                    setResponse(query(this.solrQuery));
+                } catch (EventStreamException e) {
+                    // Iterator cannot throw checked exceptions, see EventSearchResult#stream()
+                    throw new IllegalStateException("Failed to get the next block of events", e);
+                }
+            }
+
+            return this.iterator.hasNext();
+        }
+
+        @Override
+        public SolrDocument next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (this.remaining > 0) {
+                this.remaining--;
+            }
+
+            return this.iterator.next();
+        }
+    }
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -160,6 +308,23 @@ public void initialize() throws InitializationException
         } catch (SolrException e) {
             throw new InitializationException("Failed to get the events Solr core", e);
         }
+
+        try {
+            this.cursors =
+                this.cacheManager.createNewCache(new LRUCacheConfiguration("eventstream.solr.cursors", CURSORS_SIZE));
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to create the Solr cursors cache", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        super.dispose();
+
+        if (this.cursors != null) {
+            this.cursors.dispose();
+        }
     }
 
     @Override
@@ -491,39 +656,40 @@ private Event toEvent(SolrDocument document)
 
     private SolrQuery toSolrQuery(EventQuery query, Set<String> fields)
     {
-        SolrQuery solrQuery = new SolrQuery();
+        SolrQuery solrQuery = createSolrQuery(query, fields);
 
-        if (CollectionUtils.isNotEmpty(fields)) {
-            fields.forEach(solrQuery::setFields);
+        if (query instanceof SimpleEventQuery) {
+            SimpleEventQuery simpleQuery = (SimpleEventQuery) query;
+
+            addConditions(simpleQuery.isOr() && simpleQuery.getConditions().size() > 1
+                ? Collections.singletonList(simpleQuery) : simpleQuery.getConditions(), solrQuery);
         }
 
-        if (query instanceof PageableEventQuery) {
-            PageableEventQuery pageableQuery = (PageableEventQuery) query;
+        return solrQuery;
+    }
 
-            if (pageableQuery.getOffset() > 0) {
-                solrQuery.setStart((int) pageableQuery.getOffset());
-            }
+    private SolrQuery createSolrQuery(EventQuery query, Set<String> fields)
+    {
+        SolrQuery solrQuery = new SolrQuery();
 
-            // FIXME: this should probably be fixed in the future, we shouldn't allow to try retrieving unlimited
-            // results since it's not allowed by Solr API.
-            if (pageableQuery.getLimit() >= 0) {
-                solrQuery.setRows((int) pageableQuery.getLimit());
-            } else {
-                solrQuery.setRows(Integer.MAX_VALUE - 1);
-            }
+        if (CollectionUtils.isNotEmpty(fields)) {
+            solrQuery.setFields(fields.toArray(new String[0]));
         }
 
+        boolean sortedById = false;
         if (query instanceof SortableEventQuery) {
             for (SortClause sort : ((SortableEventQuery) query).getSorts()) {
-                solrQuery.addSort(toSolrFieldName(sort), sort.getOrder() == Order.ASC ? ORDER.asc : ORDER.desc);
+                String fieldName = toSolrFieldName(sort);
+                solrQuery.addSort(fieldName, sort.getOrder() == Order.ASC ? ORDER.asc : ORDER.desc);
+                sortedById |= fieldName.equals(EventsSolrCoreInitializer.SOLR_FIELD_ID);
             }
         }
 
-        if (query instanceof SimpleEventQuery) {
-            SimpleEventQuery simpleQuery = (SimpleEventQuery) query;
-
-            addConditions(simpleQuery.isOr() && simpleQuery.getConditions().size() > 1
-                ? Collections.singletonList(simpleQuery) : simpleQuery.getConditions(), solrQuery);
+        // Cursors require the unique key to be part of the sort. It's added on purpose to unsorted queries too: any
+        // query may start a cursor or continue one (whose sort must be identical) and it makes the order of unsorted
+        // results stable from one page to another, instead of relying on the Solr index order.
+        if (!sortedById) {
+            solrQuery.addSort(EventsSolrCoreInitializer.SOLR_FIELD_ID, ORDER.asc);
         }
 
         return solrQuery;
@@ -840,16 +1006,179 @@ public EventSearchResult search(EventQuery query, Set<String> fields) throws Eve
     {
         SolrQuery solrQuery = toSolrQuery(query, fields);
 
+        long offset = 0;
+        long limit = -1;
+        if (query instanceof PageableEventQuery) {
+            PageableEventQuery pageableQuery = (PageableEventQuery) query;
+
+            offset = Math.max(0, pageableQuery.getOffset());
+            limit = pageableQuery.getLimit();
+        }
+
+        // Reuse the cursor left by the search of the previous page if any
+        String cursorKey = solrQuery.toQueryString();
+        String cursorMark = getCursor(cursorKey, offset);
+
+        if (limit == 0 || cursorMark == null) {
+            return searchPage(solrQuery, offset, limit);
+        }
+
+        // Stream the result one block at a time
+        solrQuery.setRows(limit > 0 && limit < BLOCK_SIZE ? (int) limit : BLOCK_SIZE);
+        solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+
+        QueryResponse response = query(solrQuery);
+
+        long totalHits = response.getResults().getNumFound();
+        long size = Math.max(0, totalHits - offset);
+        if (limit > 0) {
+            size = Math.min(size, limit);
+        }
+
+        CursorIterator iterator = new CursorIterator(solrQuery, cursorKey, offset, limit, cursorMark, response);
+
+        return new StreamEventSearchResult(totalHits, offset, size,
+            StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .map(this::toEvent));
+    }
+
+    private EventSearchResult searchPage(SolrQuery solrQuery, long offset, long limit) throws EventStreamException
+    {
+        if (offset > 0) {
+            solrQuery.setStart((int) offset);
+        }
+
+        // FIXME: this should probably be fixed in the future, we shouldn't allow to try retrieving unlimited
+        // results since it's not allowed by Solr API.
+        if (limit >= 0) {
+            solrQuery.setRows((int) limit);
+        } else {
+            solrQuery.setRows(Integer.MAX_VALUE - 1);
+        }
+
+        SolrDocumentList documents = query(solrQuery).getResults();
+
+        return new StreamEventSearchResult(documents.getNumFound(), documents.getStart(), documents.size(),
+            documents.stream().map(this::toEvent));
+    }
+
+    private QueryResponse query(SolrQuery solrQuery) throws EventStreamException
+    {
+        try {
+            return this.client.query(solrQuery);
+        } catch (Exception e) {
+            throw new EventStreamException("Failed to execute Solr query", e);
+        }
+    }
+
+    private String getCursor(String cursorKey, long offset)
+    {
+        if (offset == 0) {
+            return CursorMarkParams.CURSOR_MARK_START;
+        }
+
+        String key = cursorKey + CURSOR_KEY_SEPARATOR + offset;
+        CursorMark cursor = this.cursors.get(key);
+        if (cursor != null) {
+            // A cursor can only be used once since the search moves it
+            this.cursors.remove(key);
+        }
+
+        return cursor != null && !cursor.isExpired() ? cursor.mark : null;
+    }
+
+    private void rememberCursor(String cursorKey, long position, String cursorMark)
+    {
+        if (cursorMark != null) {
+            this.cursors.set(cursorKey + CURSOR_KEY_SEPARATOR + position, new CursorMark(cursorMark));
+        }
+    }
+
+    @Override
+    public <K> Map<K, EventSearchResult> searchGrouped(Map<K, ? extends EventQuery> queries, Set<String> fields)
+        throws EventStreamException
+    {
+        if (queries.size() < 2 || !isGroupable(queries.values())) {
+            return super.searchGrouped(queries, fields);
+        }
+
+        SimpleEventQuery firstQuery = (SimpleEventQuery) queries.values().iterator().next();
+
+        // The common part of the queries (sort and fields)
+        SolrQuery solrQuery = createSolrQuery(firstQuery, fields);
+        solrQuery.setRows(queries.size());
+        solrQuery.set(GroupParams.GROUP, true);
+        solrQuery.set(GroupParams.GROUP_SORT, solrQuery.getSortField());
+        solrQuery.set(GroupParams.GROUP_OFFSET, (int) Math.max(0, firstQuery.getOffset()));
+        solrQuery.set(GroupParams.GROUP_LIMIT, (int) firstQuery.getLimit());
+        solrQuery.clearSorts();
+        for (EventQuery query : queries.values()) {
+            solrQuery.add(GroupParams.GROUP_QUERY, serializeGroupQuery((SimpleEventQuery) query));
+        }
+
         QueryResponse response;
         try {
-            response = this.client.query(solrQuery);
+            // The queries can be big
+            response = this.client.query(solrQuery, METHOD.POST);
         } catch (Exception e) {
             throw new EventStreamException("Failed to execute Solr query", e);
         }
 
-        SolrDocumentList documents = response.getResults();
+        // There is one command per group query, in the same order
+        Map<K, EventSearchResult> results = new LinkedHashMap<>(queries.size());
+        Iterator<GroupCommand> commands = response.getGroupResponse().getValues().iterator();
+        for (K key : queries.keySet()) {
+            SolrDocumentList documents = commands.next().getValues().get(0).getResult();
 
-        return new StreamEventSearchResult(documents.getNumFound(), documents.getStart(), documents.size(),
-            documents.stream().map(this::toEvent));
+            results.put(key, new StreamEventSearchResult(documents.getNumFound(), documents.getStart(),
+                documents.size(), documents.stream().map(this::toEvent)));
+        }
+
+        return results;
+    }
+
+    private boolean isGroupable(Collection<? extends EventQuery> queries)
+    {
+        SimpleEventQuery firstQuery = null;
+        for (EventQuery query : queries) {
+            if (!(query instanceof SimpleEventQuery)) {
+                return false;
+            }
+
+            SimpleEventQuery simpleQuery = (SimpleEventQuery) query;
+            if (firstQuery == null) {
+                firstQuery = simpleQuery;
+
+                // Don't retrieve all the events of all the queries at once
+                if (firstQuery.getLimit() < 0) {
+                    return false;
+                }
+            } else if (simpleQuery.getOffset() != firstQuery.getOffset()
+                || simpleQuery.getLimit() != firstQuery.getLimit()
+                || !simpleQuery.getSorts().equals(firstQuery.getSorts())) {
+                // Solr grouping only support the same paging and sort for all the groups
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private String serializeGroupQuery(SimpleEventQuery query)
+    {
+        StringBuilder builder = new StringBuilder("*:*");
+
+        // Same as the filter queries of a standard search
+        for (QueryCondition condition : query.isOr() && query.getConditions().size() > 1
+            ? Collections.singletonList(query) : query.getConditions()) {
+            String conditionString = serializeCondition(condition);
+            if (conditionString != null) {
+                builder.append(condition.isReversed() ? " AND -(" : " AND (");
+                builder.append(conditionString);
+                builder.append(')');
+            }
+        }
+
+        return builder.toString();
     }
 }
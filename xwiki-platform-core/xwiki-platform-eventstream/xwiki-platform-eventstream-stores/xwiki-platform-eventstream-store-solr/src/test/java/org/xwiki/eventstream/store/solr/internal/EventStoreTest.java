@@ -43,6 +43,8 @@
 import org.apache.solr.common.SolrDocument;
 import org.junit.jupiter.api.Test;
 import org.xwiki.bridge.event.WikiDeletedEvent;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.internal.MapCache;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.environment.Environment;
 import org.xwiki.eventstream.Event;
@@ -81,6 +83,7 @@
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 /**
@@ -165,6 +168,9 @@
     @MockComponent
     private WikiDescriptorManager wikis;
 
+    @MockComponent
+    private CacheManager cacheManager;
+
     @InjectComponentManager
     private MockitoComponentManager componentManager;
 
@@ -178,6 +184,8 @@ public void afterComponent() throws Exception
         when(this.mockEnvironment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
         FileUtils.deleteDirectory(this.permanentDirectory);
         this.permanentDirectory.mkdirs();
+
+        when(this.cacheManager.createNewCache(any())).thenReturn(new MapCache<>());
     }
 
     private static DefaultEvent event(String id)
@@ -551,6 +559,72 @@ void searchCustom() throws EventStreamException, InterruptedException, Execution
             new SimpleEventQuery().custom(TypeUtils.parameterize(List.class, Integer.class)).eq("listint", 2));
     }
 
+    @Test
+    void searchPages() throws EventStreamException, InterruptedException, ExecutionException
+    {
+        DefaultEvent event1 = event("page1");
+        DefaultEvent event2 = event("page2");
+        DefaultEvent event3 = event("page3");
+        DefaultEvent event4 = event("page4");
+        DefaultEvent event5 = event("page5");
+
+        this.eventStore.saveEvent(event1);
+        this.eventStore.saveEvent(event2);
+        this.eventStore.saveEvent(event3);
+        this.eventStore.saveEvent(event4);
+        this.eventStore.saveEvent(event5).get();
+
+        // The second and third pages reuse the cursor left by the previous one
+        SimpleEventQuery query = new SimpleEventQuery().setLimit(2).addSort(Event.FIELD_ID, Order.ASC);
+        EventSearchResult result = assertSearch(Arrays.asList(event1, event2), query);
+        assertEquals(5, result.getTotalHits());
+        assertEquals(0, result.getOffset());
+        assertEquals(2, result.getSize());
+
+        result = assertSearch(Arrays.asList(event3, event4), query.setOffset(2));
+        assertEquals(5, result.getTotalHits());
+        assertEquals(2, result.getOffset());
+        assertEquals(2, result.getSize());
+
+        result = assertSearch(Arrays.asList(event5), query.setOffset(4));
+        assertEquals(1, result.getSize());
+
+        // Without cursor
+        assertSearch(Arrays.asList(event2, event3),
+            new SimpleEventQuery().setOffset(1).setLimit(2).addSort(Event.FIELD_ID, Order.ASC));
+
+        // Unlimited
+        result = assertSearch(Arrays.asList(event1, event2, event3, event4, event5), new SimpleEventQuery());
+        assertEquals(5, result.getSize());
+    }
+
+    @Test
+    void searchGrouped() throws EventStreamException, InterruptedException, ExecutionException
+    {
+        DefaultEvent event1 = event("group1");
+        event1.setUser(new DocumentReference("wiki", "space", "user1"));
+        DefaultEvent event2 = event("group2");
+        event2.setUser(new DocumentReference("wiki", "space", "user2"));
+        DefaultEvent event3 = event("group3");
+        event3.setUser(new DocumentReference("wiki", "space", "user1"));
+
+        this.eventStore.saveEvent(event1);
+        this.eventStore.saveEvent(event2);
+        this.eventStore.saveEvent(event3).get();
+
+        Map<String, SimpleEventQuery> queries = new HashMap<>();
+        queries.put("user1", new SimpleEventQuery(0, 10).eq(Event.FIELD_USER, event1.getUser()));
+        queries.put("user2", new SimpleEventQuery(0, 10).eq(Event.FIELD_USER, event2.getUser()));
+        queries.put("notuser1", new SimpleEventQuery(0, 10).not().eq(Event.FIELD_USER, event1.getUser()));
+
+        Map<String, EventSearchResult> results = this.eventStore.searchGrouped(queries, null);
+
+        assertEqualsResult(Arrays.asList(event1, event3), results.get("user1"));
+        assertEquals(2, results.get("user1").getTotalHits());
+        assertEqualsResult(Arrays.asList(event2), results.get("user2"));
+        assertEqualsResult(Arrays.asList(event2), results.get("notuser1"));
+    }
+
     @Test
     void searchDate() throws EventStreamException, InterruptedException, ExecutionException
     {
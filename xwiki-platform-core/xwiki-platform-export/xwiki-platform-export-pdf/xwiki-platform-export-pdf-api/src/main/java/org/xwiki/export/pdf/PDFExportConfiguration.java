@@ -135,6 +135,17 @@ default int getThreadPoolSize()
         return 3;
     }
 
+    /**
+     * @return the number of (incognito) web browser tabs to create in advance, so that PDF exports don't have to wait
+     *         for a new tab to be created; each tab is used by a single PDF export and then closed; {@code 0} disables
+     *         the pool; defaults to {@code 2}
+     * @since 15.0RC1
+     */
+    default int getChromeTabPoolSize()
+    {
+        return 2;
+    }
+
     /**
      * @return whether to replace or not the old PDF export based on Apache Formatting Objects Processor (FOP)
      * @since 14.10
@@ -117,6 +117,12 @@ public int getMaxContentSize()
         return getWrapped().getMaxContentSize();
     }
 
+    @Override
+    public int getChromeTabPoolSize()
+    {
+        return getWrapped().getChromeTabPoolSize();
+    }
+
     @Override
     public int getThreadPoolSize()
     {
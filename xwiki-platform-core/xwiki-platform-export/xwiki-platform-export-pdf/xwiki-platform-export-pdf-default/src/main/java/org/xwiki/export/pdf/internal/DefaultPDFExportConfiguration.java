@@ -121,6 +121,12 @@ public int getMaxContentSize()
         return getProperty("maxContentSize", PDFExportConfiguration.super.getMaxContentSize());
     }
 
+    @Override
+    public int getChromeTabPoolSize()
+    {
+        return getProperty("chromeTabPoolSize", PDFExportConfiguration.super.getChromeTabPoolSize());
+    }
+
     @Override
     public int getThreadPoolSize()
     {
@@ -20,23 +20,36 @@
 package org.xwiki.export.pdf.internal.chrome;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.export.pdf.PDFExportConfiguration;
 import org.xwiki.export.pdf.browser.BrowserManager;
 import org.xwiki.export.pdf.browser.BrowserTab;
+import org.xwiki.management.JMXBeanRegistration;
 
 import com.github.kklisura.cdt.protocol.commands.Target;
 import com.github.kklisura.cdt.services.ChromeDevToolsService;
 import com.github.kklisura.cdt.services.ChromeService;
-import com.github.kklisura.cdt.services.types.ChromeTab;
 import com.github.kklisura.cdt.services.types.ChromeVersion;
 
 /**
@@ -49,19 +62,30 @@
 @Component
 @Singleton
 @Named("chrome")
-public class ChromeManager implements BrowserManager
+public class ChromeManager implements BrowserManager, Initializable, Disposable
 {
     /**
      * The number of seconds to wait for Chrome remote debugging before giving up.
      */
     static final int REMOTE_DEBUGGING_TIMEOUT = 10;
 
+    /**
+     * The name of the JMX mbean exposing the statistics of the incognito tabs.
+     */
+    static final String MBEAN_NAME = "type=PDFExport,name=ChromeManager";
+
     @Inject
     private Logger logger;
 
     @Inject
     private ChromeServiceFactory chromeServiceFactory;
 
+    @Inject
+    private PDFExportConfiguration configuration;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
     /**
      * The top level service used to interact with the browser.
      */
@@ -73,6 +97,42 @@ public class ChromeManager implements BrowserManager
      */
     private ChromeDevToolsService browserDevToolsService;
 
+    /**
+     * Incognito tabs created in advance, in order to avoid the cost of creating a new browser context and a new tab
+     * when a PDF export is requested. The tabs are not shared between PDF exports: a tab taken from the pool is closed
+     * (and its browser context disposed) after being used, since it holds the cookies of the user that requested the
+     * export.
+     */
+    private final BlockingQueue<ChromeTab> warmTabs = new LinkedBlockingQueue<>();
+
+    /**
+     * Make sure a warm tab created while the connection is being closed is not added to the pool after it was emptied.
+     */
+    private final Object warmTabsLock = new Object();
+
+    /**
+     * Used to create the warm tabs in the background, {@code null} when the pool is disabled or the connection closed.
+     */
+    private volatile ExecutorService tabWarmer;
+
+    private final AtomicLong createdTabCount = new AtomicLong();
+
+    private final AtomicLong warmTabHitCount = new AtomicLong();
+
+    private final AtomicLong warmTabMissCount = new AtomicLong();
+
+    @Override
+    public void initialize()
+    {
+        this.jmxRegistration.registerMBean(new JMXChromeManager(this), MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+    }
+
     @Override
     public void connect(String host, int remoteDebuggingPort) throws TimeoutException
     {
@@ -87,6 +147,12 @@ public void connect(String host, int remoteDebuggingPort) throws TimeoutExceptio
         // Create a new WebSocket session.
         ChromeVersion chromeVersion = waitForChromeService(REMOTE_DEBUGGING_TIMEOUT);
         this.browserDevToolsService = this.chromeServiceFactory.createBrowserDevToolsService(chromeVersion);
+
+        if (this.configuration.getChromeTabPoolSize() > 0) {
+            this.tabWarmer = Executors.newSingleThreadExecutor(
+                new BasicThreadFactory.Builder().namingPattern("Chrome tab warmer").daemon(true).build());
+            warmUp();
+        }
     }
 
     @Override
@@ -146,8 +212,88 @@ public BrowserTab createIncognitoTab() throws IOException
             throw new IllegalStateException("The Chrome web browser is not connected.");
         }
 
+        BrowserTab tab = pollWarmTab();
+        if (tab != null) {
+            this.warmTabHitCount.incrementAndGet();
+            this.logger.debug("Reusing warm incognito tab.");
+        } else {
+            this.warmTabMissCount.incrementAndGet();
+            tab = createNewIncognitoTab();
+        }
+
+        // Replace the tab we just took from the pool.
+        warmUp();
+
+        return tab;
+    }
+
+    private ChromeTab pollWarmTab()
+    {
+        for (ChromeTab tab = this.warmTabs.poll(); tab != null; tab = this.warmTabs.poll()) {
+            // The connection with the tab is lost when the browser is restarted or the tab crashes.
+            if (!tab.isClosed()) {
+                return tab;
+            }
+
+            this.logger.debug("Discarding warm incognito tab whose connection was closed.");
+            closeTab(tab);
+        }
+
+        return null;
+    }
+
+    private void warmUp()
+    {
+        ExecutorService warmer = this.tabWarmer;
+        if (warmer != null) {
+            try {
+                warmer.execute(() -> fillTabPool(warmer));
+            } catch (RejectedExecutionException e) {
+                // The connection was closed in the meantime.
+            }
+        }
+    }
+
+    private void fillTabPool(ExecutorService warmer)
+    {
+        try {
+            while (!warmer.isShutdown() && this.warmTabs.size() < this.configuration.getChromeTabPoolSize()) {
+                ChromeTab tab = createNewIncognitoTab();
+
+                boolean added = false;
+                synchronized (this.warmTabsLock) {
+                    if (!warmer.isShutdown()) {
+                        added = this.warmTabs.add(tab);
+                    }
+                }
+                if (!added) {
+                    // The connection was closed while the tab was being created.
+                    closeTab(tab);
+                }
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to create a warm incognito tab. Root cause: [{}]",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private void closeTab(BrowserTab tab)
+    {
+        try {
+            tab.close();
+        } catch (Exception e) {
+            this.logger.debug("Failed to close warm incognito tab. Root cause: [{}]",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private ChromeTab createNewIncognitoTab() throws IOException
+    {
         this.logger.debug("Creating incognito tab.");
-        Target browserTarget = this.browserDevToolsService.getTarget();
+        // Use the same connection all along, even if it's closed in the meantime by another thread.
+        ChromeService service = this.chromeService;
+        ChromeDevToolsService browserService = this.browserDevToolsService;
+        Target browserTarget = browserService.getTarget();
 
         String browserContextId = browserTarget.createBrowserContext(true, null, null);
         this.logger.debug("Created browser context [{}].", browserContextId);
@@ -155,19 +301,65 @@ public BrowserTab createIncognitoTab() throws IOException
         String tabTargetId = browserTarget.createTarget("", null, null, browserContextId, false, false, false);
         this.logger.debug("Created incognito tab [{}].", tabTargetId);
 
-        Optional<ChromeTab> tab =
-            this.chromeService.getTabs().stream().filter(t -> tabTargetId.equals(t.getId())).findFirst();
+        Optional<com.github.kklisura.cdt.services.types.ChromeTab> tab =
+            service.getTabs().stream().filter(t -> tabTargetId.equals(t.getId())).findFirst();
         if (tab.isPresent()) {
-            return new org.xwiki.export.pdf.internal.chrome.ChromeTab(
-                this.chromeService.createDevToolsService(tab.get()), this.browserDevToolsService);
+            this.createdTabCount.incrementAndGet();
+            return new ChromeTab(service.createDevToolsService(tab.get()), browserService);
         } else {
             throw new IOException(String.format("The incognito tab [%s] we just created is missing.", tabTargetId));
         }
     }
 
+    /**
+     * @return the number of incognito tabs created since this component was initialized
+     * @since 15.0RC1
+     */
+    public long getCreatedTabCount()
+    {
+        return this.createdTabCount.get();
+    }
+
+    /**
+     * @return the number of times an incognito tab was requested and a warm tab was available
+     * @since 15.0RC1
+     */
+    public long getWarmTabHitCount()
+    {
+        return this.warmTabHitCount.get();
+    }
+
+    /**
+     * @return the number of times an incognito tab was requested but it had to be created on the spot
+     * @since 15.0RC1
+     */
+    public long getWarmTabMissCount()
+    {
+        return this.warmTabMissCount.get();
+    }
+
+    /**
+     * @return the number of warm incognito tabs currently available
+     * @since 15.0RC1
+     */
+    public int getWarmTabCount()
+    {
+        return this.warmTabs.size();
+    }
+
     @Override
     public void close()
     {
+        List<ChromeTab> tabs = new ArrayList<>();
+        synchronized (this.warmTabsLock) {
+            if (this.tabWarmer != null) {
+                this.tabWarmer.shutdownNow();
+                this.tabWarmer = null;
+            }
+            this.warmTabs.drainTo(tabs);
+        }
+        tabs.forEach(this::closeTab);
+
         this.chromeService = null;
         if (this.browserDevToolsService != null) {
             this.browserDevToolsService.close();
@@ -86,6 +86,15 @@ public class ChromeTab implements BrowserTab
         this.browserDevToolsService = browserDevToolsService;
     }
 
+    /**
+     * @return {@code true} if the connection with this tab was closed (e.g. because the browser was restarted)
+     * @since 15.0RC1
+     */
+    boolean isClosed()
+    {
+        return this.tabDevToolsService.isClosed();
+    }
+
     @Override
     public void close()
     {
@@ -0,0 +1,63 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.export.pdf.internal.chrome;
+
+/**
+ * Expose the statistics of the incognito tabs of the {@link ChromeManager} as JMX mbean.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class JMXChromeManager implements JMXChromeManagerMBean
+{
+    private final ChromeManager manager;
+
+    /**
+     * @param manager the Chrome manager
+     */
+    public JMXChromeManager(ChromeManager manager)
+    {
+        this.manager = manager;
+    }
+
+    @Override
+    public long getCreatedTabCount()
+    {
+        return this.manager.getCreatedTabCount();
+    }
+
+    @Override
+    public long getWarmTabHitCount()
+    {
+        return this.manager.getWarmTabHitCount();
+    }
+
+    @Override
+    public long getWarmTabMissCount()
+    {
+        return this.manager.getWarmTabMissCount();
+    }
+
+    @Override
+    public int getWarmTabCount()
+    {
+        return this.manager.getWarmTabCount();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.export.pdf.internal.chrome;
+
+/**
+ * Interface of the {@link JMXChromeManager} MBean.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public interface JMXChromeManagerMBean
+{
+    /**
+     * @return the number of incognito tabs created since the component was initialized
+     */
+    long getCreatedTabCount();
+
+    /**
+     * @return the number of times an incognito tab was requested and a warm tab was available
+     */
+    long getWarmTabHitCount();
+
+    /**
+     * @return the number of times an incognito tab was requested but it had to be created on the spot
+     */
+    long getWarmTabMissCount();
+
+    /**
+     * @return the number of warm incognito tabs currently available
+     */
+    int getWarmTabCount();
+}
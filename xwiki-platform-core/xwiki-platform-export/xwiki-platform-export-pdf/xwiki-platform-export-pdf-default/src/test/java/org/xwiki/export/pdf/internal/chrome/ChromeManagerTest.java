@@ -20,11 +20,14 @@
 package org.xwiki.export.pdf.internal.chrome;
 
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.export.pdf.PDFExportConfiguration;
+import org.xwiki.management.JMXBeanRegistration;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
@@ -32,6 +35,7 @@
 import com.github.kklisura.cdt.protocol.commands.Browser;
 import com.github.kklisura.cdt.protocol.commands.Target;
 import com.github.kklisura.cdt.protocol.types.browser.Version;
+import com.github.kklisura.cdt.protocol.types.target.TargetInfo;
 import com.github.kklisura.cdt.services.ChromeDevToolsService;
 import com.github.kklisura.cdt.services.ChromeService;
 import com.github.kklisura.cdt.services.types.ChromeTab;
@@ -42,7 +46,12 @@
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -59,6 +68,12 @@
     @MockComponent
     private ChromeServiceFactory chromeServiceFactory;
 
+    @MockComponent
+    private PDFExportConfiguration configuration;
+
+    @MockComponent
+    private JMXBeanRegistration jmxRegistration;
+
     @Mock
     private ChromeService chromeService;
 
@@ -80,6 +95,12 @@ void configure() throws Exception
         when(browser.getVersion()).thenReturn(new Version());
     }
 
+    @Test
+    void registerMBean()
+    {
+        verify(this.jmxRegistration).registerMBean(any(JMXChromeManager.class), eq(ChromeManager.MBEAN_NAME));
+    }
+
     @Test
     void connectAndReconnect() throws Exception
     {
@@ -135,5 +156,105 @@ void createIncognitoTab() throws Exception
         when(this.chromeService.getTabs()).thenReturn(Arrays.asList(firstTab, secondTab));
 
         assertNotNull(this.chromeManager.createIncognitoTab());
+
+        // The tab pool is disabled by default in tests.
+        assertEquals(1, this.chromeManager.getCreatedTabCount());
+        assertEquals(1, this.chromeManager.getWarmTabMissCount());
+        assertEquals(0, this.chromeManager.getWarmTabHitCount());
+    }
+
+    private Target mockTabCreation(ChromeDevToolsService tabDevToolsService)
+    {
+        Target browserTarget = mock(Target.class, "browser");
+        when(this.browserDevToolsService.getTarget()).thenReturn(browserTarget);
+        when(browserTarget.createBrowserContext(true, null, null)).thenReturn("browserContextId");
+        when(browserTarget.createTarget("", null, null, "browserContextId", false, false, false)).thenReturn("tabId");
+
+        ChromeTab chromeTab = new ChromeTab();
+        ReflectionUtils.setFieldValue(chromeTab, "id", "tabId");
+        when(this.chromeService.getTabs()).thenReturn(Arrays.asList(chromeTab));
+        when(this.chromeService.createDevToolsService(chromeTab)).thenReturn(tabDevToolsService);
+
+        TargetInfo tabInfo = new TargetInfo();
+        tabInfo.setTargetId("tabId");
+        tabInfo.setBrowserContextId("browserContextId");
+        Target tabTarget = mock(Target.class, "tab");
+        when(tabDevToolsService.getTarget()).thenReturn(tabTarget);
+        when(tabTarget.getTargetInfo()).thenReturn(tabInfo);
+
+        return browserTarget;
+    }
+
+    private void waitForWarmTabs(int count) throws InterruptedException
+    {
+        for (int i = 0; i < 500 && this.chromeManager.getWarmTabCount() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, this.chromeManager.getWarmTabCount());
+    }
+
+    @Test
+    void createIncognitoTabWithPool() throws Exception
+    {
+        when(this.configuration.getChromeTabPoolSize()).thenReturn(1);
+        when(this.chromeServiceFactory.createChromeService("localhost", 9222)).thenReturn(this.chromeService);
+        ChromeDevToolsService tabDevToolsService = mock(ChromeDevToolsService.class, "tab");
+        Target browserTarget = mockTabCreation(tabDevToolsService);
+
+        this.chromeManager.connect("localhost", 9222);
+        waitForWarmTabs(1);
+
+        assertNotNull(this.chromeManager.createIncognitoTab());
+        assertEquals(1, this.chromeManager.getWarmTabHitCount());
+        assertEquals(0, this.chromeManager.getWarmTabMissCount());
+
+        // The tab taken from the pool is replaced.
+        waitForWarmTabs(1);
+        assertEquals(2, this.chromeManager.getCreatedTabCount());
+
+        // The warm tabs whose connection was lost (e.g. because the browser was restarted) are not reused.
+        when(tabDevToolsService.isClosed()).thenReturn(true);
+        assertNotNull(this.chromeManager.createIncognitoTab());
+        assertEquals(1, this.chromeManager.getWarmTabHitCount());
+        assertEquals(1, this.chromeManager.getWarmTabMissCount());
+
+        // The warm tabs are closed with the connection.
+        waitForWarmTabs(1);
+        this.chromeManager.close();
+        assertEquals(0, this.chromeManager.getWarmTabCount());
+        // Both the discarded tab and the warm tab are closed.
+        verify(browserTarget, times(2)).disposeBrowserContext("browserContextId");
+    }
+
+    @Test
+    void closeWhileCreatingWarmTab() throws Exception
+    {
+        when(this.configuration.getChromeTabPoolSize()).thenReturn(1);
+        when(this.chromeServiceFactory.createChromeService("localhost", 9222)).thenReturn(this.chromeService);
+        Target browserTarget = mockTabCreation(mock(ChromeDevToolsService.class, "tab"));
+
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        when(browserTarget.createBrowserContext(true, null, null)).then(invocation -> {
+            creating.countDown();
+            // Like a blocking WebSocket call, ignore the interruption caused by the shutdown of the warmer.
+            while (closed.getCount() > 0) {
+                try {
+                    closed.await();
+                } catch (InterruptedException e) {
+                    // Keep waiting.
+                }
+            }
+            return "browserContextId";
+        });
+
+        this.chromeManager.connect("localhost", 9222);
+        creating.await();
+        this.chromeManager.close();
+        closed.countDown();
+
+        // The tab created after the connection was closed is not leaked.
+        verify(browserTarget, timeout(5000)).disposeBrowserContext("browserContextId");
+        assertEquals(0, this.chromeManager.getWarmTabCount());
     }
 }
@@ -20,6 +20,7 @@
 package org.xwiki.extension.xar;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Various configuration related to XAR extensions support.
@@ -126,4 +127,15 @@ public boolean isSimple()
      * @return the protection to apply
      */
     DocumentProtection getDocumentProtection();
+
+    /**
+     * @return the number of threads used to parse, load and merge the documents of a XAR extension when installing or
+     *         upgrading it, 1 to do everything in the job thread
+     * @since 15.0RC1
+     */
+    @Unstable
+    default int getImportThreads()
+    {
+        return 1;
+    }
 }
@@ -362,7 +362,7 @@ private void invalidateNextSecurityCache(WikiReference wikiReference, Map<XarEnt
                 }
 
                 if (previousPlanEntry != null) {
-                    XarEntry previousXarEntry = previousPlanEntry.extension.getXarPackage().getEntry(nextXarEntry);
+                    XarEntry previousXarEntry = previousPlanEntry.extension.getXarEntry(nextXarEntry);
 
                     if (previousXarEntry.getType() != nextXarEntry.getType()) {
                         // Different type
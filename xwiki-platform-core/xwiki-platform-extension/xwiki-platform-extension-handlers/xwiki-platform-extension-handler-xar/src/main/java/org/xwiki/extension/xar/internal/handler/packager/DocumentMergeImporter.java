@@ -76,6 +76,28 @@
      */
     public void importDocument(String comment, XWikiDocument previousDocument, XWikiDocument currentDocument,
         XWikiDocument nextDocument, PackageConfiguration configuration) throws Exception
+    {
+        XWikiDocument documentToSave = merge(previousDocument, currentDocument, nextDocument, configuration);
+
+        if (documentToSave != null) {
+            saveDocument(documentToSave, comment, configuration);
+        }
+    }
+
+    /**
+     * Merge the document without saving it, so that it can be done by another thread than the save.
+     * 
+     * @param currentDocument the document currently in database
+     * @param previousDocument the standard version of the document
+     * @param nextDocument the new standard version of the document
+     * @param configuration the configuration of the import
+     * @return the document to save with {@link #saveDocument(XWikiDocument, String, PackageConfiguration)} or null if
+     *         there is nothing to save
+     * @throws Exception when failing to merge the document
+     * @since 15.0RC1
+     */
+    public XWikiDocument merge(XWikiDocument previousDocument, XWikiDocument currentDocument,
+        XWikiDocument nextDocument, PackageConfiguration configuration) throws Exception
     {
         XarEntryType type = this.typeResolver.getDefault();
         XWikiDocumentMerger merger = this.defaultMerger;
@@ -113,9 +135,7 @@ public void importDocument(String comment, XWikiDocument previousDocument, XWiki
             merger.merge(currentDocument != null && !currentDocument.isNew() ? currentDocument : null, previousDocument,
                 nextDocument, mergeConfiguration);
 
-        if (documentToSave != null && documentToSave != currentDocument) {
-            saveDocument(documentToSave, comment, configuration);
-        }
+        return documentToSave != currentDocument ? documentToSave : null;
     }
 
     private UpgradeType getUpgradeType(XarEntryType type)
@@ -127,7 +147,15 @@ private UpgradeType getUpgradeType(XarEntryType type)
         return null;
     }
 
-    private void saveDocument(XWikiDocument document, String comment, PackageConfiguration configuration)
+    /**
+     * @param document the document returned by
+     *            {@link #merge(XWikiDocument, XWikiDocument, XWikiDocument, PackageConfiguration)}
+     * @param comment the comment to use when saving the document
+     * @param configuration the configuration of the import
+     * @throws Exception when failing to save the document
+     * @since 15.0RC1
+     */
+    public void saveDocument(XWikiDocument document, String comment, PackageConfiguration configuration)
         throws Exception
     {
         XWikiContext xcontext = this.xcontextProvider.get();
@@ -19,13 +19,23 @@
  */
 package org.xwiki.extension.xar.internal.handler.packager;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -34,11 +44,16 @@
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.function.FailableRunnable;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.context.concurrent.ExecutionContextRunnable;
 import org.xwiki.extension.ExtensionId;
 import org.xwiki.extension.repository.InstalledExtensionRepository;
+import org.xwiki.extension.xar.XarExtensionConfiguration;
 import org.xwiki.extension.xar.XarExtensionException;
 import org.xwiki.extension.xar.internal.handler.XarExtensionHandler;
 import org.xwiki.extension.xar.internal.handler.XarExtensionPlan;
@@ -48,6 +63,9 @@
 import org.xwiki.filter.input.DefaultInputStreamInputSource;
 import org.xwiki.filter.instance.output.DocumentInstanceOutputProperties;
 import org.xwiki.filter.xar.input.XARInputProperties;
+import org.xwiki.logging.LogQueue;
+import org.xwiki.logging.LoggerManager;
+import org.xwiki.logging.event.LoggerListener;
 import org.xwiki.logging.marker.BeginTranslationMarker;
 import org.xwiki.logging.marker.EndTranslationMarker;
 import org.xwiki.logging.marker.TranslationMarker;
@@ -72,6 +90,7 @@
 import com.xpn.xwiki.internal.event.XARImportedEvent;
 import com.xpn.xwiki.internal.event.XARImportingEvent;
 import com.xpn.xwiki.internal.filter.XWikiDocumentFilterUtils;
+import com.xpn.xwiki.internal.thread.ThreadFactoryManager;
 
 /**
  * Default implementation of {@link Packager}.
@@ -130,6 +149,87 @@
     @Named(XarExtensionHandler.TYPE)
     private InstalledExtensionRepository installedXARs;
 
+    @Inject
+    private XarExtensionConfiguration xarConfiguration;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private ThreadFactoryManager threadFactoryManager;
+
+    @Inject
+    private LoggerManager loggerManager;
+
+    /**
+     * A XAR entry to import, read in memory so that it can be parsed by a worker thread.
+     */
+    private static final class ImportEntry
+    {
+        private final String name;
+
+        private final XarEntry xarEntry;
+
+        private final byte[] content;
+
+        ImportEntry(String name, XarEntry xarEntry, byte[] content)
+        {
+            this.name = name;
+            this.xarEntry = xarEntry;
+            this.content = content;
+        }
+    }
+
+    /**
+     * The result of the import of a XAR in a wiki by a worker thread.
+     */
+    private static final class WikiImport
+    {
+        private final LogQueue log = new LogQueue();
+
+        private Exception error;
+    }
+
+    /**
+     * The documents involved in the import of a XAR entry in a wiki, loaded and merged by a worker thread.
+     */
+    private static final class LoadedEntry
+    {
+        private final ImportEntry entry;
+
+        private final WikiReference wikiReference;
+
+        private final PackageConfiguration configuration;
+
+        private final LogQueue log = new LogQueue();
+
+        private XWikiDocument nextDocument;
+
+        private XWikiDocument previousDocument;
+
+        private XWikiDocument currentDocument;
+
+        private String currentVersion;
+
+        private boolean merged;
+
+        private XWikiDocument documentToSave;
+
+        private Exception parseError;
+
+        private Exception loadError;
+
+        private Exception mergeError;
+
+        LoadedEntry(ImportEntry entry, WikiReference wikiReference, PackageConfiguration configuration)
+        {
+            this.entry = entry;
+            this.wikiReference = wikiReference;
+            this.configuration = configuration;
+        }
+    }
+
     private XarInstalledExtensionRepository getXarInstalledExtensionRepository()
     {
         return (XarInstalledExtensionRepository) this.installedXARs;
@@ -138,14 +238,311 @@ private XarInstalledExtensionRepository getXarInstalledExtensionRepository()
     public void importXAR(String comment, File xarFile, PackageConfiguration configuration)
         throws IOException, XWikiException, XarException, WikiManagerException
     {
+        Collection<String> wikis;
         if (configuration.getWiki() == null) {
-            Collection<String> wikis = this.wikiDescriptors.getAllIds();
+            wikis = this.wikiDescriptors.getAllIds();
+        } else {
+            wikis = Collections.singletonList(configuration.getWiki());
+        }
 
-            for (String subwiki : wikis) {
-                importXARToWiki(comment, xarFile, new WikiReference(subwiki), configuration);
+        int threads = this.xarConfiguration.getImportThreads();
+        if (threads > 1) {
+            importXARConcurrently(comment, xarFile, wikis, threads, configuration);
+        } else {
+            for (String wiki : wikis) {
+                importXARToWiki(comment, xarFile, new WikiReference(wiki), configuration);
             }
+        }
+    }
+
+    /**
+     * Parse, load and merge the documents in worker threads while the save of each document (which triggers all kind
+     * of listeners) is done by a single thread per wiki, in the order of the XAR entries. The wikis are imported in
+     * parallel.
+     * <p>
+     * Interactive imports might ask questions to the user while merging the documents, so the merge stays in the
+     * importing thread and the wikis are imported one after the other in that case.
+     */
+    private void importXARConcurrently(String comment, File xarFile, Collection<String> wikis, int threads,
+        PackageConfiguration configuration) throws IOException, XarException, XWikiException
+    {
+        ExecutorService executor =
+            Executors.newFixedThreadPool(threads, this.threadFactoryManager.newThreadFactory("XAR import"));
+
+        try {
+            if (wikis.size() > 1 && !configuration.isInteractive()) {
+                importXARToWikisConcurrently(comment, xarFile, wikis, executor, threads, configuration);
+            } else {
+                for (String wiki : wikis) {
+                    importXARToWikiConcurrently(comment, xarFile, new WikiReference(wiki), executor, threads,
+                        configuration);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void importXARToWikisConcurrently(String comment, File xarFile, Collection<String> wikis,
+        ExecutorService executor, int threads, PackageConfiguration configuration)
+        throws IOException, XarException, XWikiException
+    {
+        DocumentReference userReference = this.xcontextProvider.get().getUserReference();
+        ComponentManager componentManager = this.componentManagerProvider.get();
+
+        // The wikis get their own pool since they wait for the entries loaded by the workers
+        ExecutorService wikiExecutor = Executors.newFixedThreadPool(Math.min(threads, wikis.size()),
+            this.threadFactoryManager.newThreadFactory("XAR wiki import"));
+
+        try {
+            List<Future<WikiImport>> futures = new ArrayList<>(wikis.size());
+            for (String wiki : wikis) {
+                WikiImport wikiImport = new WikiImport();
+                futures.add(wikiExecutor.submit(new ExecutionContextRunnable(
+                    () -> importXARToWikiInWorker(comment, xarFile, new WikiReference(wiki), executor, threads,
+                        userReference, configuration, wikiImport),
+                    componentManager), wikiImport));
+            }
+
+            // Wait for all the wikis and copy their log in the job log, in the order of the wikis
+            Exception error = null;
+            for (Future<WikiImport> future : futures) {
+                try {
+                    WikiImport wikiImport = getFuture(future);
+
+                    wikiImport.log.log(this.logger);
+
+                    if (error == null) {
+                        error = wikiImport.error;
+                    }
+                } catch (XarException e) {
+                    if (error == null) {
+                        error = e;
+                    }
+                }
+            }
+
+            throwImportError(error, "Failed to import a XAR in a wiki");
+        } finally {
+            wikiExecutor.shutdownNow();
+        }
+    }
+
+    private void importXARToWikiInWorker(String comment, File xarFile, WikiReference wikiReference,
+        ExecutorService executor, int threads, DocumentReference userReference, PackageConfiguration configuration,
+        WikiImport wikiImport)
+    {
+        this.xcontextProvider.get().setUserReference(userReference);
+
+        // Isolate the log since it's not produced by the job thread
+        this.loggerManager.pushLogListener(new LoggerListener(UUID.randomUUID().toString(), wikiImport.log));
+
+        try {
+            // The configuration keeps the currently imported XAR entry
+            importXARToWikiConcurrently(comment, xarFile, wikiReference, executor, threads, configuration.clone());
+        } catch (Exception e) {
+            wikiImport.error = e;
+        } finally {
+            this.loggerManager.popLogListener();
+        }
+    }
+
+    private void importXARToWikiConcurrently(String comment, File xarFile, WikiReference wikiReference,
+        ExecutorService executor, int threads, PackageConfiguration configuration)
+        throws IOException, XarException, XWikiException
+    {
+        try (FileInputStream fis = new FileInputStream(xarFile)) {
+            // Don't read too many entries in advance to keep the memory under control
+            importXARToWikiConcurrently(comment, new ZipArchiveInputStream(fis), wikiReference, executor, threads * 2,
+                configuration);
+        }
+    }
+
+    private void importXARToWikiConcurrently(String comment, ZipArchiveInputStream zis, WikiReference wikiReference,
+        ExecutorService executor, int windowSize, PackageConfiguration configuration)
+        throws IOException, XarException, XWikiException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        DocumentReference userReference = xcontext.getUserReference();
+        ComponentManager componentManager = this.componentManagerProvider.get();
+        boolean merge = !configuration.isInteractive();
+
+        Deque<Future<LoadedEntry>> pending = new ArrayDeque<>(windowSize);
+
+        String currentWiki = xcontext.getWikiId();
+        try {
+            xcontext.setWikiId(wikiReference.getName());
+
+            this.observation.notify(new XARImportingEvent(), null, xcontext);
+
+            ImportEntry entry = readEntry(zis, configuration);
+            while (entry != null || !pending.isEmpty()) {
+                for (; entry != null && pending.size() < windowSize; entry = readEntry(zis, configuration)) {
+                    // Each entry gets its own configuration since the XAR entry is needed by the merge
+                    PackageConfiguration entryConfiguration = configuration.clone();
+                    entryConfiguration.setXarEntry(entry.xarEntry);
+                    LoadedEntry loadedEntry = new LoadedEntry(entry, wikiReference, entryConfiguration);
+                    pending.add(executor.submit(new ExecutionContextRunnable(
+                        () -> loadEntry(loadedEntry, userReference, merge), componentManager), loadedEntry));
+                }
+
+                importLoadedEntry(comment, getFuture(pending.poll()));
+            }
+        } finally {
+            // Don't load documents which are not going to be imported
+            pending.forEach(future -> future.cancel(true));
+
+            this.observation.notify(new XARImportedEvent(), null, xcontext);
+
+            xcontext.setWikiId(currentWiki);
+        }
+    }
+
+    private ImportEntry readEntry(ZipArchiveInputStream zis, PackageConfiguration configuration) throws IOException
+    {
+        for (ArchiveEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+            // Only import what should be imported
+            if (!entry.isDirectory() && !entry.getName().equals(XarModel.PATH_PACKAGE)) {
+                XarEntry xarEntry = null;
+                if (configuration.getEntriesToImport() != null) {
+                    xarEntry = configuration.getEntriesToImport().get(entry.getName());
+                    if (xarEntry == null) {
+                        continue;
+                    }
+                }
+
+                return new ImportEntry(entry.getName(), xarEntry, IOUtils.toByteArray(zis));
+            }
+        }
+
+        return null;
+    }
+
+    private <T> T getFuture(Future<T> future) throws XarException
+    {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new XarException("Interrupted while waiting for a XAR import worker", e);
+        } catch (ExecutionException e) {
+            throw new XarException("Failed to execute a XAR import worker", e.getCause());
+        }
+    }
+
+    private void throwImportError(Exception error, String message) throws XWikiException, XarException, IOException
+    {
+        // Same behavior as when everything is done in the current thread
+        if (error instanceof XWikiException) {
+            throw (XWikiException) error;
+        } else if (error instanceof XarException) {
+            throw (XarException) error;
+        } else if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error != null) {
+            throw new XarException(message, error);
+        }
+    }
+
+    private void loadEntry(LoadedEntry loadedEntry, DocumentReference userReference, boolean merge)
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        xcontext.setWikiId(loadedEntry.wikiReference.getName());
+        xcontext.setUserReference(userReference);
+
+        // Isolate the log (of the merge for example) so that it's copied in the right place by the importing thread
+        this.loggerManager.pushLogListener(new LoggerListener(UUID.randomUUID().toString(), loadedEntry.log));
+
+        try {
+            loadEntry(loadedEntry, merge);
+        } finally {
+            this.loggerManager.popLogListener();
+        }
+    }
+
+    private void loadEntry(LoadedEntry loadedEntry, boolean merge)
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        try {
+            loadedEntry.nextDocument =
+                getXWikiDocument(new ByteArrayInputStream(loadedEntry.entry.content), loadedEntry.wikiReference);
+        } catch (Exception e) {
+            loadedEntry.parseError = e;
+
+            return;
+        }
+
+        DocumentReference reference = loadedEntry.nextDocument.getDocumentReferenceWithLocale();
+        try {
+            XarExtensionPlan xarExtensionPlan = loadedEntry.configuration.getXarExtensionPlan();
+            if (xarExtensionPlan != null) {
+                loadedEntry.previousDocument = xarExtensionPlan.getPreviousXWikiDocument(reference, this);
+            }
+
+            if (merge) {
+                loadedEntry.currentDocument = xcontext.getWiki().getDocument(reference, xcontext);
+                loadedEntry.currentDocument.loadAttachmentsContentSafe(xcontext);
+                loadedEntry.currentVersion = getVersion(loadedEntry.currentDocument);
+            }
+        } catch (Exception e) {
+            loadedEntry.loadError = e;
+
+            return;
+        }
+
+        if (merge) {
+            try {
+                loadedEntry.documentToSave = this.importer.merge(loadedEntry.previousDocument,
+                    loadedEntry.currentDocument, loadedEntry.nextDocument, loadedEntry.configuration);
+            } catch (Exception e) {
+                loadedEntry.mergeError = e;
+            }
+
+            loadedEntry.merged = true;
+        }
+    }
+
+    private String getVersion(XWikiDocument document)
+    {
+        return document.isNew() ? null : document.getVersion();
+    }
+
+    private void importLoadedEntry(String comment, LoadedEntry loadedEntry)
+        throws XWikiException, XarException, IOException
+    {
+        loadedEntry.log.log(this.logger);
+
+        if (loadedEntry.parseError != null) {
+            this.logger.error("Failed to parse XAR entry [{}]", loadedEntry.entry.name, loadedEntry.parseError);
+
+            return;
+        }
+
+        throwImportError(loadedEntry.loadError,
+            "Failed to load the documents associated with XAR entry [" + loadedEntry.entry.name + "]");
+
+        XWikiContext xcontext = this.xcontextProvider.get();
+        XWikiDocument currentDocument =
+            xcontext.getWiki().getDocument(loadedEntry.nextDocument.getDocumentReferenceWithLocale(), xcontext);
+
+        // The document might have been modified by the listeners of the documents saved since it was merged
+        if (loadedEntry.merged && Objects.equals(loadedEntry.currentVersion, getVersion(currentDocument))) {
+            importDocument(loadedEntry.nextDocument, loadedEntry.configuration, () -> {
+                if (loadedEntry.mergeError != null) {
+                    throw loadedEntry.mergeError;
+                }
+
+                if (loadedEntry.documentToSave != null) {
+                    this.importer.saveDocument(loadedEntry.documentToSave, comment, loadedEntry.configuration);
+                }
+            });
         } else {
-            importXARToWiki(comment, xarFile, new WikiReference(configuration.getWiki()), configuration);
+            currentDocument.loadAttachmentsContentSafe(xcontext);
+
+            importDocument(comment, loadedEntry.previousDocument, currentDocument, loadedEntry.nextDocument,
+                loadedEntry.configuration);
         }
     }
 
@@ -221,13 +618,27 @@ private void importDocumentToWiki(String comment, WikiReference wikiReference, I
             previousDocument = null;
         }
 
+        importDocument(comment, previousDocument, currentDocument, nextDocument, configuration);
+    }
+
+    private void importDocument(String comment, XWikiDocument previousDocument, XWikiDocument currentDocument,
+        XWikiDocument nextDocument, PackageConfiguration configuration)
+    {
+        importDocument(nextDocument, configuration,
+            () -> this.importer.importDocument(comment, previousDocument, currentDocument, nextDocument,
+                configuration));
+    }
+
+    private void importDocument(XWikiDocument nextDocument, PackageConfiguration configuration,
+        FailableRunnable<Exception> importer)
+    {
         if (configuration.isVerbose()) {
             this.logger.info(LOG_INSTALLDOCUMENT_BEGIN, "Installing document [{}]",
                 nextDocument.getDocumentReferenceWithLocale());
         }
 
         try {
-            this.importer.importDocument(comment, previousDocument, currentDocument, nextDocument, configuration);
+            importer.run();
 
             if (configuration.isVerbose()) {
                 this.logger.info(LOG_INSTALLDOCUMENT_SUCCESS_END, "Done installing document [{}]",
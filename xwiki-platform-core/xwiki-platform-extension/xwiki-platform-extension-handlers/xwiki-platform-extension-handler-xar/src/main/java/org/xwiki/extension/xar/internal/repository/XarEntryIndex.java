@@ -0,0 +1,193 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.xar.internal.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.LocaleUtils;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.xar.XarEntry;
+
+/**
+ * Persistent index of the entries of an installed XAR extension, stored next to the XAR file so that the XAR
+ * repository does not have to open and parse every installed XAR package at startup.
+ * <p>
+ * The index remembers the size and the last modification date of the XAR file it was generated from and is ignored
+ * when they don't match anymore.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+final class XarEntryIndex
+{
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String INDEX_EXTENSION = ".xarindex";
+
+    private XarEntryIndex()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param xarFile the XAR file
+     * @return the file containing the index of the passed XAR file
+     */
+    static File getIndexFile(File xarFile)
+    {
+        return new File(xarFile.getParentFile(), xarFile.getName() + INDEX_EXTENSION);
+    }
+
+    /**
+     * @param xarFile the XAR file
+     * @return the indexed entries of the XAR file or {@code null} if there is no up to date index for it
+     * @throws IOException when failing to read the index
+     */
+    static List<XarEntry> read(File xarFile) throws IOException
+    {
+        File indexFile = getIndexFile(xarFile);
+
+        if (xarFile.isDirectory() || !indexFile.exists()) {
+            return null;
+        }
+
+        try (DataInputStream stream =
+            new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile.toPath())))) {
+            int version = stream.readInt();
+            if (version != FORMAT_VERSION) {
+                // Written by a different version, it will be regenerated
+                return null;
+            }
+
+            // Make sure the index is still about the same XAR file
+            long length = stream.readLong();
+            long lastModified = stream.readLong();
+            if (length != xarFile.length() || lastModified != xarFile.lastModified()) {
+                return null;
+            }
+
+            int size = stream.readInt();
+            List<XarEntry> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                entries.add(readEntry(stream));
+            }
+
+            return entries;
+        }
+    }
+
+    /**
+     * @param xarFile the XAR file
+     * @param entries the entries of the XAR file
+     * @throws IOException when failing to write the index
+     */
+    static void write(File xarFile, Collection<XarEntry> entries) throws IOException
+    {
+        if (xarFile.isDirectory()) {
+            return;
+        }
+
+        File indexFile = getIndexFile(xarFile);
+
+        // Write in a temporary file first to never end up with a half written index
+        File tmpFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        try (DataOutputStream stream =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+            stream.writeInt(FORMAT_VERSION);
+            stream.writeLong(xarFile.length());
+            stream.writeLong(xarFile.lastModified());
+            stream.writeInt(entries.size());
+            for (XarEntry entry : entries) {
+                writeEntry(entry, stream);
+            }
+        }
+
+        Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param xarFile the XAR file
+     * @throws IOException when failing to delete the index
+     */
+    static void delete(File xarFile) throws IOException
+    {
+        Files.deleteIfExists(getIndexFile(xarFile).toPath());
+    }
+
+    private static void writeEntry(XarEntry entry, DataOutputStream stream) throws IOException
+    {
+        List<EntityReference> elements = entry.getReversedReferenceChain();
+        stream.writeInt(elements.size());
+        for (EntityReference element : elements) {
+            stream.writeUTF(element.getType().name());
+            stream.writeUTF(element.getName());
+        }
+
+        writeNullable(entry.getLocale() != null ? entry.getLocale().toString() : null, stream);
+        writeNullable(entry.getEntryName(), stream);
+        stream.writeInt(entry.getDefaultAction());
+        writeNullable(entry.getEntryType(), stream);
+    }
+
+    private static XarEntry readEntry(DataInputStream stream) throws IOException
+    {
+        EntityReference reference = null;
+        int size = stream.readInt();
+        for (int i = 0; i < size; ++i) {
+            EntityType type = EntityType.valueOf(stream.readUTF());
+            reference = new EntityReference(stream.readUTF(), type, reference);
+        }
+
+        String localeString = readNullable(stream);
+        Locale locale = localeString != null ? LocaleUtils.toLocale(localeString) : null;
+        String entryName = readNullable(stream);
+        int defaultAction = stream.readInt();
+        String entryType = readNullable(stream);
+
+        return new XarEntry(new LocalDocumentReference(reference, locale), entryName, defaultAction, entryType);
+    }
+
+    private static void writeNullable(String value, DataOutputStream stream) throws IOException
+    {
+        stream.writeBoolean(value != null);
+        if (value != null) {
+            stream.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream stream) throws IOException
+    {
+        return stream.readBoolean() ? stream.readUTF() : null;
+    }
+}
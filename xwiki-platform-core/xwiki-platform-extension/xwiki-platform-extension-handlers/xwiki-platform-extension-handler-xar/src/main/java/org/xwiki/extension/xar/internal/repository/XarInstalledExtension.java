@@ -21,10 +21,19 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xwiki.extension.InstalledExtension;
 import org.xwiki.extension.repository.ExtensionRepository;
 import org.xwiki.extension.wrap.WrappingInstalledExtension;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.xar.XarEntry;
 import org.xwiki.xar.XarException;
 import org.xwiki.xar.XarPackage;
 
@@ -34,9 +43,15 @@
  */
 public class XarInstalledExtension extends WrappingInstalledExtension<InstalledExtension>
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(XarInstalledExtension.class);
+
     private XarInstalledExtensionRepository repository;
 
-    private XarPackage xarPackage;
+    private final File xarFile;
+
+    private final Map<LocalDocumentReference, XarEntry> entries = new LinkedHashMap<>();
+
+    private volatile XarPackage xarPackage;
 
     public XarInstalledExtension(InstalledExtension installedExtension, XarInstalledExtensionRepository repository)
         throws IOException, XarException
@@ -44,17 +59,100 @@ public XarInstalledExtension(InstalledExtension installedExtension, XarInstalled
         super(installedExtension);
 
         this.repository = repository;
-        this.xarPackage = new XarPackage(new File(getFile().getAbsolutePath()));
+        this.xarFile = new File(getFile().getAbsolutePath());
+
+        // Try the persistent index first to avoid opening and parsing the whole XAR package
+        List<XarEntry> indexedEntries = readIndex();
+        if (indexedEntries != null) {
+            indexedEntries.forEach(entry -> this.entries.put(entry, entry));
+        } else {
+            this.xarPackage = new XarPackage(this.xarFile);
+            this.xarPackage.getEntries().forEach(entry -> this.entries.put(entry, entry));
+
+            writeIndex();
+        }
+    }
+
+    private List<XarEntry> readIndex()
+    {
+        try {
+            return XarEntryIndex.read(this.xarFile);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to read the index of XAR extension [{}], the package will be parsed instead: {}",
+                getId(), ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        }
+    }
+
+    private void writeIndex()
+    {
+        try {
+            XarEntryIndex.write(this.xarFile, this.entries.values());
+        } catch (Exception e) {
+            LOGGER.warn("Failed to write the index of XAR extension [{}]: {}", getId(),
+                ExceptionUtils.getRootCauseMessage(e));
+        }
     }
 
     /**
+     * Delete the persistent index of the extension entries.
+     */
+    void deleteIndex()
+    {
+        try {
+            XarEntryIndex.delete(this.xarFile);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to delete the index of XAR extension [{}]: {}", getId(),
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * The XAR package is parsed lazily when the extension was loaded from its index.
+     * 
      * @since 5.4M1
      */
     public XarPackage getXarPackage()
     {
+        if (this.xarPackage == null) {
+            synchronized (this) {
+                if (this.xarPackage == null) {
+                    try {
+                        this.xarPackage = new XarPackage(this.xarFile);
+                    } catch (Exception e) {
+                        LOGGER.error("Failed to parse XAR extension [{}], falling back on its indexed entries",
+                            getId(), e);
+
+                        // Remember the fallback to not try (and log) again for each call
+                        this.xarPackage = new XarPackage(getXarEntries());
+                    }
+                }
+            }
+        }
+
         return this.xarPackage;
     }
 
+    /**
+     * @return the entries of the XAR package, without parsing the package if it was indexed
+     * @since 15.0RC1
+     */
+    public Collection<XarEntry> getXarEntries()
+    {
+        return this.entries.values();
+    }
+
+    /**
+     * @param reference the reference of the document
+     * @return the entry associated to the passed reference, without parsing the package if it was indexed
+     * @since 15.0RC1
+     */
+    public XarEntry getXarEntry(LocalDocumentReference reference)
+    {
+        return this.entries.get(reference);
+    }
+
     // ExtensionRepository
 
     @Override
@@ -122,7 +122,7 @@ private void pagesUpdated(XarInstalledExtension installedExtension, String names
         throws UnsupportedNamespaceException
     {
         if (installedExtension != null) {
-            for (XarEntry xarEntry : installedExtension.getXarPackage().getEntries()) {
+            for (XarEntry xarEntry : installedExtension.getXarEntries()) {
                 if (namespace != null) {
                     DocumentReference reference = new DocumentReference(xarEntry,
                         new WikiReference(XarHandlerUtils.getWikiFromNamespace(namespace)));
@@ -196,6 +196,9 @@ protected void removeCachedXarExtension(ExtensionId extensionId)
 
         if (extension != null) {
             super.removeCachedExtension(extension);
+
+            // The extension is not installed anymore, its index will be regenerated if it's installed again
+            extension.deleteIndex();
         }
     }
 
@@ -282,7 +285,7 @@ public boolean isAllowed(DocumentReference documentReference, Right right)
         }
 
         for (XarInstalledExtension extension : extensions) {
-            XarEntry entry = extension.getXarPackage().getEntry(localDocumentReference);
+            XarEntry entry = extension.getXarEntry(localDocumentReference);
 
             XarEntryType type = this.typeResolver.resolve(entry, true);
 
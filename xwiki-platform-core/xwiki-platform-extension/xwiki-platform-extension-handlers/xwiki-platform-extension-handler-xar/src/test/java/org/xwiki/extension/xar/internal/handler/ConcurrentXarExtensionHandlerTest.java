@@ -0,0 +1,50 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.xar.internal.handler;
+
+import org.junit.Before;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.extension.xar.XarExtensionConfiguration;
+import org.xwiki.extension.xar.internal.handler.packager.Packager;
+import org.xwiki.test.annotation.AllComponents;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Run the {@link XarExtensionHandlerTest} tests with the documents parsed, loaded and merged by several threads.
+ *
+ * @version $Id$
+ */
+@AllComponents
+public class ConcurrentXarExtensionHandlerTest extends XarExtensionHandlerTest
+{
+    @Before
+    public void setUpImportThreads() throws Exception
+    {
+        XarExtensionConfiguration configuration =
+            spy(getComponentManager().<XarExtensionConfiguration>getInstance(XarExtensionConfiguration.class));
+        // Make sure the documents are parsed, loaded and merged by the worker threads
+        doReturn(2).when(configuration).getImportThreads();
+
+        ReflectionUtils.setFieldValue(getComponentManager().getInstance(Packager.class), "xarConfiguration",
+            configuration);
+    }
+}
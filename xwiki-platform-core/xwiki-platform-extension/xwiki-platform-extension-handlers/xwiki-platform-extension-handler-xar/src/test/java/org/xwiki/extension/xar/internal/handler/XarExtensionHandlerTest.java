@@ -125,6 +125,11 @@ private void importXIP(InputStream stream) throws IOException
 
     private DocumentReference contextUser;
 
+    protected MockitoComponentManager getComponentManager()
+    {
+        return this.componentManager;
+    }
+
     @Before
     public void setUp() throws Exception
     {
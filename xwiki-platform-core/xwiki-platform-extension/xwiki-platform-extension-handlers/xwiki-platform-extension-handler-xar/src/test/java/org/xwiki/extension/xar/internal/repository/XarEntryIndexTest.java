@@ -0,0 +1,104 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.xar.internal.repository;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.xar.XarEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link XarEntryIndex}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XarEntryIndexTest
+{
+    @XWikiTempDir
+    private File tmpDir;
+
+    @Test
+    void writeAndRead() throws Exception
+    {
+        File xarFile = new File(this.tmpDir, "extension.xar");
+        Files.write(xarFile.toPath(), new byte[] { 1, 2, 3 });
+
+        XarEntry entry1 = new XarEntry(
+            new LocalDocumentReference(new LocalDocumentReference(Arrays.asList("Space", "Nested"), "Page"),
+                Locale.ROOT),
+            "Space/Nested/Page.xml", 0, "demo");
+        XarEntry entry2 = new XarEntry(new LocalDocumentReference("Space", "Page", Locale.FRENCH),
+            "Space/Page.fr.xml", 1, null);
+        XarEntry entry3 = new XarEntry(new LocalDocumentReference("Space", "NoLocale"), "Space/NoLocale.xml");
+
+        assertNull(XarEntryIndex.read(xarFile));
+
+        XarEntryIndex.write(xarFile, Arrays.asList(entry1, entry2, entry3));
+
+        List<XarEntry> entries = XarEntryIndex.read(xarFile);
+
+        assertEquals(Arrays.asList(entry1, entry2, entry3), entries);
+        assertEquals(Locale.ROOT, entries.get(0).getLocale());
+        assertEquals(Locale.FRENCH, entries.get(1).getLocale());
+        assertNull(entries.get(2).getLocale());
+        assertEquals("Space/Nested/Page.xml", entries.get(0).getEntryName());
+        assertEquals(0, entries.get(0).getDefaultAction());
+        assertEquals("demo", entries.get(0).getEntryType());
+        assertEquals(1, entries.get(1).getDefaultAction());
+        assertNull(entries.get(1).getEntryType());
+
+        // The index is ignored as soon as the XAR file is modified
+        Files.write(xarFile.toPath(), new byte[] { 1, 2, 3, 4 });
+
+        assertNull(XarEntryIndex.read(xarFile));
+    }
+
+    @Test
+    void delete() throws Exception
+    {
+        File xarFile = new File(this.tmpDir, "extension.xar");
+        Files.write(xarFile.toPath(), new byte[] { 1, 2, 3 });
+
+        // Deleting a missing index is not an error
+        XarEntryIndex.delete(xarFile);
+
+        XarEntryIndex.write(xarFile, Arrays.asList());
+
+        assertTrue(XarEntryIndex.getIndexFile(xarFile).exists());
+
+        XarEntryIndex.delete(xarFile);
+
+        assertFalse(XarEntryIndex.getIndexFile(xarFile).exists());
+        assertNull(XarEntryIndex.read(xarFile));
+    }
+}
@@ -19,6 +19,7 @@
  */
 package org.xwiki.extension.xar.internal.repository;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Locale;
 
@@ -37,8 +38,10 @@
 import org.xwiki.wiki.descriptor.WikiDescriptorManager;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @AllComponents
 public class XarInstalledExtensionRepositoryTest
@@ -96,4 +99,21 @@ public void testInit() throws ResolveException, SearchException
         assertEquals(0, this.installedExtensionRepository
             .getXarInstalledExtensions(new DocumentReference("xwiki", "space", "page", Locale.ENGLISH)).size());
     }
+
+    @Test
+    public void testUninstallDeletesIndex() throws Exception
+    {
+        ExtensionId extensionId = new ExtensionId("xarinstalledextension", "1.0");
+        XarInstalledExtension xarInstalledExtension = this.installedExtensionRepository.resolve(extensionId);
+        File indexFile = XarEntryIndex.getIndexFile(new File(xarInstalledExtension.getFile().getAbsolutePath()));
+
+        assertTrue(indexFile.exists());
+
+        InstalledExtensionRepository coreRepository = this.mocker.getInstance(InstalledExtensionRepository.class);
+        coreRepository.uninstallExtension(coreRepository.getInstalledExtension(extensionId), null);
+        this.installedExtensionRepository.updateCachedXarExtension(extensionId);
+
+        assertNull(this.installedExtensionRepository.getInstalledExtension(extensionId));
+        assertFalse(indexFile.exists());
+    }
 }
@@ -20,7 +20,9 @@
 package org.xwiki.notifications.sources.internal;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -68,6 +70,29 @@ public List<Event> searchEvents(int offset, int limit, NotificationParameters pa
         return searchStreamEvents(offset, limit, parameters);
     }
 
+    @Override
+    public <K> Map<K, List<Event>> searchEvents(int offset, int limit, Map<K, NotificationParameters> parameters)
+        throws QueryException, EventStreamException
+    {
+        // Try event store if enabled
+        if (this.configuration.isEventStoreEnabled()) {
+            try {
+                return super.searchEvents(offset, limit, parameters);
+            } catch (EventStreamException e) {
+                this.logger.warn("Failed to get events from the EventStore. Reason: [{}]. Trying the legacy store.",
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        // Fallback on legacy event stream
+        Map<K, List<Event>> results = new LinkedHashMap<>(parameters.size());
+        for (Map.Entry<K, NotificationParameters> entry : parameters.entrySet()) {
+            results.put(entry.getKey(), searchStreamEvents(offset, limit, entry.getValue()));
+        }
+
+        return results;
+    }
+
     /**
      * @param offset the index where to start returning events
      * @param limit the maximum number of events to return
@@ -73,7 +73,7 @@
  * @version $Id$
  */
 @ComponentTest
-@ComponentList({SimilarityCalculator.class, LegacyEventSearcher.class})
+@ComponentList({SimilarityCalculator.class, CompositeEventGrouper.class, LegacyEventSearcher.class})
 public class DefaultParametrizedNotificationManagerTest
 {
     @InjectMockComponents
@@ -19,11 +19,15 @@
  */
 package org.xwiki.like;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.security.authorization.Right;
+import org.xwiki.stability.Unstable;
 import org.xwiki.user.UserReference;
 
 /**
@@ -75,6 +79,25 @@
      */
     long getEntityLikes(EntityReference target) throws LikeException;
 
+    /**
+     * Retrieve like information of several entities at once, which is cheaper than calling
+     * {@link #getEntityLikes(EntityReference)} for each of them when displaying a list of entities.
+     *
+     * @param targets the pages or objects for which to retrieve the like information.
+     * @return the number of likes indexed by entity, in the same order as the given entities.
+     * @throws LikeException in case of problem when getting the likes.
+     * @since 15.0RC1
+     */
+    @Unstable
+    default Map<EntityReference, Long> getEntityLikes(Collection<EntityReference> targets) throws LikeException
+    {
+        Map<EntityReference, Long> result = new LinkedHashMap<>();
+        for (EntityReference target : targets) {
+            result.put(target, getEntityLikes(target));
+        }
+        return result;
+    }
+
     /**
      * Allow a user to unlike an entity.
      *
@@ -95,6 +118,28 @@
      */
     boolean isLiked(UserReference source, EntityReference target) throws LikeException;
 
+    /**
+     * Check if several entities are liked by an user at once, which is cheaper than calling
+     * {@link #isLiked(UserReference, EntityReference)} for each of them when displaying a list of entities.
+     *
+     * @param source the user who might have liked.
+     * @param targets the entities which might have been liked.
+     * @return {@code true} for each entity the user liked already, indexed by entity in the same order as the given
+     *         entities.
+     * @throws LikeException in case of problem for loading the result.
+     * @since 15.0RC1
+     */
+    @Unstable
+    default Map<EntityReference, Boolean> isLiked(UserReference source, Collection<EntityReference> targets)
+        throws LikeException
+    {
+        Map<EntityReference, Boolean> result = new LinkedHashMap<>();
+        for (EntityReference target : targets) {
+            result.put(target, isLiked(source, target));
+        }
+        return result;
+    }
+
     /**
      * Retrieve the users who liked the given reference.
      *
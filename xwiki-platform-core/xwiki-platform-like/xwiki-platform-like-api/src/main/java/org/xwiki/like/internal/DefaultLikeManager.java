@@ -20,6 +20,7 @@
 package org.xwiki.like.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -286,6 +287,37 @@ public long getEntityLikes(EntityReference target) throws LikeException
         return result;
     }
 
+    @Override
+    public Map<EntityReference, Long> getEntityLikes(Collection<EntityReference> targets) throws LikeException
+    {
+        Map<EntityReference, Long> result = new LinkedHashMap<>();
+        List<EntityReference> missingTargets = new ArrayList<>();
+        for (EntityReference target : targets) {
+            Long cachedCount = this.likeCountCache.get(this.entityReferenceSerializer.serialize(target));
+            result.put(target, cachedCount);
+            if (cachedCount == null) {
+                missingTargets.add(target);
+            }
+        }
+
+        // Resolve all the cache misses with a single query
+        if (!missingTargets.isEmpty()) {
+            try {
+                Map<EntityReference, Long> counts =
+                    this.ratingsManager.countRatings(Collections.emptyMap(), missingTargets);
+                for (EntityReference target : missingTargets) {
+                    Long count = counts.getOrDefault(target, 0L);
+                    this.likeCountCache.set(this.entityReferenceSerializer.serialize(target), count);
+                    result.put(target, count);
+                }
+            } catch (RatingsException e) {
+                throw new LikeException(String.format("Error while getting ratings for entities [%s]", missingTargets),
+                    e);
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean removeLike(UserReference source, EntityReference target) throws LikeException
     {
@@ -343,6 +375,40 @@ public boolean isLiked(UserReference source, EntityReference target) throws Like
         return result;
     }
 
+    @Override
+    public Map<EntityReference, Boolean> isLiked(UserReference source, Collection<EntityReference> targets)
+        throws LikeException
+    {
+        Map<EntityReference, Boolean> result = new LinkedHashMap<>();
+        Map<EntityReference, EntityReference> missingTargets = new LinkedHashMap<>();
+        for (EntityReference target : targets) {
+            Pair<EntityReference, Boolean> cacheValue = this.likeExistCache.get(getExistCacheKey(source, target));
+            Boolean liked = (cacheValue != null) ? cacheValue.getRight() : null;
+            result.put(target, liked);
+            if (liked == null) {
+                missingTargets.put(this.entityReferenceFactory.getReference(target), target);
+            }
+        }
+
+        // Resolve all the cache misses with a single query
+        if (!missingTargets.isEmpty()) {
+            try {
+                Map<EntityReference, Long> counts = this.ratingsManager.countRatings(
+                    Collections.singletonMap(RatingsManager.RatingQueryField.USER_REFERENCE, source),
+                    missingTargets.keySet());
+                for (Map.Entry<EntityReference, EntityReference> missingTarget : missingTargets.entrySet()) {
+                    EntityReference dedupTarget = missingTarget.getKey();
+                    boolean liked = counts.getOrDefault(dedupTarget, 0L) > 0;
+                    this.likeExistCache.set(getExistCacheKey(source, dedupTarget), Pair.of(dedupTarget, liked));
+                    result.put(missingTarget.getValue(), liked);
+                }
+            } catch (RatingsException e) {
+                throw new LikeException("Error while checking if ratings exist", e);
+            }
+        }
+        return result;
+    }
+
     @Override
     public List<UserReference> getLikers(EntityReference target, int offset, int limit) throws LikeException
     {
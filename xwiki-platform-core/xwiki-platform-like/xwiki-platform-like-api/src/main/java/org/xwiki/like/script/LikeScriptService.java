@@ -19,8 +19,10 @@
  */
 package org.xwiki.like.script;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.inject.Inject;
@@ -39,6 +41,7 @@
 import org.xwiki.script.service.ScriptService;
 import org.xwiki.security.authorization.AuthorizationManager;
 import org.xwiki.security.authorization.Right;
+import org.xwiki.stability.Unstable;
 import org.xwiki.user.UserReference;
 import org.xwiki.user.UserReferenceResolver;
 
@@ -194,6 +197,26 @@ public Optional<Long> getLikes(EntityReference entityReference)
         return Optional.empty();
     }
 
+    /**
+     * Retrieve like information for several references at once. This should be preferred over calling
+     * {@link #getLikes(EntityReference)} for each row when displaying a list of entities.
+     *
+     * @param entityReferences the references for which to retrieve like information.
+     * @return the number of likes indexed by reference, or an empty map in case of problem.
+     * @since 15.0RC1
+     */
+    @Unstable
+    public Map<EntityReference, Long> getLikes(Collection<EntityReference> entityReferences)
+    {
+        try {
+            return this.likeManager.getEntityLikes(entityReferences);
+        } catch (LikeException e) {
+            this.logger.warn("Error while getting like information for [{}]", entityReferences,
+                ExceptionUtils.getRootCause(e));
+        }
+        return Collections.emptyMap();
+    }
+
     /**
      * Retrieve likes performed by the given user.
      *
@@ -250,6 +273,28 @@ public boolean isLiked(EntityReference entityReference)
         return false;
     }
 
+    /**
+     * Determine if the current user already liked each of the given references. This should be preferred over calling
+     * {@link #isLiked(EntityReference)} for each row when displaying a list of entities.
+     *
+     * @param entityReferences the references for which to check if the current user liked them or not already.
+     * @return {@code true} for each entity already liked, indexed by reference, or an empty map in case of problem.
+     * @since 15.0RC1
+     */
+    @Unstable
+    public Map<EntityReference, Boolean> isLiked(Collection<EntityReference> entityReferences)
+    {
+        UserReference userReference = this.userReferenceResolver.resolve(this.contextProvider.get().getUserReference());
+
+        try {
+            return this.likeManager.isLiked(userReference, entityReferences);
+        } catch (LikeException e) {
+            this.logger.warn("Error while checking if [{}] are liked by [{}]", entityReferences, userReference,
+                ExceptionUtils.getRootCause(e));
+        }
+        return Collections.emptyMap();
+    }
+
     /**
      * Return the likers of a reference.
      *
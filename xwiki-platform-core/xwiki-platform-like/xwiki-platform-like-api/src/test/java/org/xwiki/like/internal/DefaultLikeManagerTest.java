@@ -202,6 +202,26 @@ void getEntityLikes() throws Exception
         verify(this.likedEntityCache).set("xwiki:Foo.WebHome", 43L);
     }
 
+    @Test
+    void getEntityLikesBulk() throws Exception
+    {
+        DocumentReference cachedTarget = new DocumentReference("xwiki", "Bar", "WebHome");
+        when(this.entityReferenceSerializer.serialize(cachedTarget)).thenReturn("xwiki:Bar.WebHome");
+        when(this.likedEntityCache.get("xwiki:Bar.WebHome")).thenReturn(2L);
+
+        // Only the cache misses are queried
+        Map<EntityReference, Long> counts = Collections.singletonMap(target, 43L);
+        when(this.ratingsManager.countRatings(Collections.emptyMap(), Collections.singletonList(target)))
+            .thenReturn(counts);
+
+        Map<EntityReference, Long> expected = new LinkedHashMap<>();
+        expected.put(cachedTarget, 2L);
+        expected.put(target, 43L);
+        assertEquals(expected, this.defaultLikeManager.getEntityLikes(Arrays.asList(cachedTarget, target)));
+        verify(this.likedEntityCache).set("xwiki:Foo.WebHome", 43L);
+        verify(this.ratingsManager, never()).countRatings(any());
+    }
+
     @Test
     void getLikeRight()
     {
@@ -249,6 +269,28 @@ void isLiked() throws Exception
         verify(this.likeExistCache).set("xwiki:XWiki.User_xwiki:Foo.WebHome", Pair.of(target, true));
     }
 
+    @Test
+    void isLikedBulk() throws Exception
+    {
+        DocumentReference otherTarget = new DocumentReference("xwiki", "Bar", "WebHome");
+        when(this.entityReferenceSerializer.serialize(otherTarget)).thenReturn("xwiki:Bar.WebHome");
+
+        Map<EntityReference, Long> counts = new LinkedHashMap<>();
+        counts.put(target, 1L);
+        counts.put(otherTarget, 0L);
+        when(this.ratingsManager.countRatings(
+            Collections.singletonMap(RatingsManager.RatingQueryField.USER_REFERENCE, this.userReference),
+            counts.keySet())).thenReturn(counts);
+
+        Map<EntityReference, Boolean> expected = new LinkedHashMap<>();
+        expected.put(target, true);
+        expected.put(otherTarget, false);
+        assertEquals(expected, this.defaultLikeManager.isLiked(this.userReference, Arrays.asList(target, otherTarget)));
+        verify(this.likeExistCache).set("xwiki:XWiki.User_xwiki:Foo.WebHome", Pair.of(target, true));
+        verify(this.likeExistCache).set("xwiki:XWiki.User_xwiki:Bar.WebHome", Pair.of(otherTarget, false));
+        verify(this.ratingsManager, never()).getRatings(any(), eq(0), eq(1), any(), eq(false));
+    }
+
     @Test
     void removeLike() throws Exception
     {
@@ -19,6 +19,7 @@
  */
 package org.xwiki.localization.internal;
 
+import java.util.Collection;
 import java.util.Locale;
 
 import javax.inject.Inject;
@@ -78,10 +79,25 @@ public class DefaultLocalizationManager implements LocalizationManager
     @Inject
     private Logger logger;
 
+    @Inject
+    private TranslationIndex index;
+
     @Override
     public Translation getTranslation(String key, Locale locale)
     {
-        for (TranslationBundle bundle : this.bundleContext.getBundles()) {
+        Collection<TranslationBundle> bundles = this.bundleContext.getBundles();
+
+        if (bundles instanceof TranslationBundleSet) {
+            return this.index.getTranslation((TranslationBundleSet) bundles, key, locale,
+                () -> getTranslation(bundles, key, locale));
+        }
+
+        return getTranslation(bundles, key, locale);
+    }
+
+    private Translation getTranslation(Collection<TranslationBundle> bundles, String key, Locale locale)
+    {
+        for (TranslationBundle bundle : bundles) {
             try {
                 Translation translation = bundle.getTranslation(key, locale);
                 if (translation != null && translation.getLocale().equals(locale)) {
@@ -95,7 +111,7 @@ public Translation getTranslation(String key, Locale locale)
         // Try parent locale
         Locale parentLocale = LocaleUtils.getParentLocale(locale);
         if (parentLocale != null) {
-            return getTranslation(key, parentLocale);
+            return getTranslation(bundles, key, parentLocale);
         }
 
         return null;
@@ -24,7 +24,6 @@
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -80,9 +79,9 @@ public class DefaultTranslationBundleContext implements TranslationBundleContext
     @Inject
     private ModelContext modelContext;
 
-    private SortedSet<TranslationBundle> initializeCurrentBundles()
+    private SortedSet<TranslationBundle> initializeCurrentBundles(String currentWiki)
     {
-        SortedSet<TranslationBundle> currentBundles = new TreeSet<>();
+        SortedSet<TranslationBundle> currentBundles = new TranslationBundleSet(currentWiki);
 
         try {
             ComponentManager componentManager = this.componentManagerProvider.get();
@@ -127,7 +126,7 @@ private SortedSet<TranslationBundle> getCurrentBundlesInternal()
 
         if (currentBundles == null) {
             // The context wiki has changed, initialize the bundles for the new current wiki.
-            currentBundles = initializeCurrentBundles();
+            currentBundles = initializeCurrentBundles(currentWiki);
             bundlesMap.put(currentWiki, currentBundles);
         }
 
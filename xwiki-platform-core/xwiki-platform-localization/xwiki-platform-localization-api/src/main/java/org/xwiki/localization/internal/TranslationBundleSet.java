@@ -0,0 +1,144 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import org.xwiki.localization.TranslationBundle;
+
+/**
+ * The sorted set of {@link TranslationBundle}s applying to a wiki in a given context, with a unique identifier
+ * representing its content (used as key of the {@link TranslationIndex}).
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class TranslationBundleSet extends TreeSet<TranslationBundle>
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final char SEPARATOR = '/';
+
+    private final String wiki;
+
+    private transient String id;
+
+    /**
+     * @param wiki the wiki where the bundles apply
+     */
+    public TranslationBundleSet(String wiki)
+    {
+        this.wiki = wiki;
+    }
+
+    /**
+     * @return the wiki where the bundles apply
+     */
+    public String getWiki()
+    {
+        return this.wiki;
+    }
+
+    /**
+     * @return a String uniquely representing the bundles (and their order) applying to the wiki
+     */
+    public String getId()
+    {
+        String currentId = this.id;
+
+        if (currentId == null) {
+            StringBuilder builder = new StringBuilder();
+
+            builder.append(this.wiki.length()).append(SEPARATOR).append(this.wiki);
+            for (TranslationBundle bundle : this) {
+                String bundleId = String.valueOf(bundle.getId());
+                builder.append(SEPARATOR).append(bundleId.length()).append(SEPARATOR).append(bundleId);
+            }
+
+            currentId = builder.toString();
+            this.id = currentId;
+        }
+
+        return currentId;
+    }
+
+    private void reset()
+    {
+        this.id = null;
+    }
+
+    @Override
+    public boolean add(TranslationBundle e)
+    {
+        reset();
+
+        return super.add(e);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends TranslationBundle> c)
+    {
+        reset();
+
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        reset();
+
+        return super.remove(o);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c)
+    {
+        reset();
+
+        return super.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c)
+    {
+        reset();
+
+        return super.retainAll(c);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super TranslationBundle> filter)
+    {
+        reset();
+
+        return super.removeIf(filter);
+    }
+
+    @Override
+    public void clear()
+    {
+        reset();
+
+        super.clear();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.localization.Translation;
+
+/**
+ * Remember the result of the resolution of a translation key for a given set of bundles and a given locale so that
+ * resolving the same key again is a single lookup instead of a walk through all the bundles (and the parent locales).
+ * <p>
+ * The bundles don't expose the list of keys they contain so the index is filled as keys are resolved. Misses are
+ * remembered too since a lot of keys are searched (for example to check if a more specific translation exist) without
+ * being defined. Modifications of the bundles content are expected to call {@link #invalidate()}.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = TranslationIndex.class)
+@Singleton
+public class TranslationIndex
+{
+    /**
+     * The maximum number of distinct bundle sets to remember (they vary with the wiki, the user and the on demand
+     * bundles).
+     */
+    private static final int MAX_BUNDLE_SETS = 200;
+
+    /**
+     * The maximum number of keys to remember for a given bundle set and locale. This is mostly a protection against
+     * scripts resolving random keys.
+     */
+    private static final int MAX_KEYS = 50000;
+
+    private final Map<String, Map<Locale, Map<String, Optional<Translation>>>> index = new ConcurrentHashMap<>();
+
+    /**
+     * @param bundles the bundles to search
+     * @param key the key to translate
+     * @param locale the locale to translate into
+     * @param resolver the resolver to call when the translation is not already indexed
+     * @return the {@link Translation} or null if none can be found
+     */
+    public Translation getTranslation(TranslationBundleSet bundles, String key, Locale locale,
+        Supplier<Translation> resolver)
+    {
+        // The map is retrieved before the resolution so that a concurrent invalidation (which replace the maps) cannot
+        // lead to index a result computed from outdated bundles
+        Map<String, Optional<Translation>> translations = getTranslations(bundles.getId(), locale);
+
+        Optional<Translation> translation = translations.get(key);
+        if (translation == null) {
+            translation = Optional.ofNullable(resolver.get());
+
+            if (translations.size() >= MAX_KEYS) {
+                translations.clear();
+            }
+            translations.put(key, translation);
+        }
+
+        return translation.orElse(null);
+    }
+
+    private Map<String, Optional<Translation>> getTranslations(String bundlesId, Locale locale)
+    {
+        Map<Locale, Map<String, Optional<Translation>>> locales = this.index.get(bundlesId);
+        if (locales == null) {
+            if (this.index.size() >= MAX_BUNDLE_SETS) {
+                this.index.clear();
+            }
+            locales = this.index.computeIfAbsent(bundlesId, k -> new ConcurrentHashMap<>());
+        }
+
+        return locales.computeIfAbsent(locale, k -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Forget everything indexed so far.
+     */
+    public void invalidate()
+    {
+        this.index.clear();
+    }
+}
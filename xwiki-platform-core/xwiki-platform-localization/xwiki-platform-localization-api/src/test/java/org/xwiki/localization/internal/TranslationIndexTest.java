@@ -0,0 +1,121 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.localization.Translation;
+import org.xwiki.localization.TranslationBundle;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link TranslationIndex}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class TranslationIndexTest
+{
+    @InjectMockComponents
+    private TranslationIndex index;
+
+    private TranslationBundle mockBundle(String id, int priority)
+    {
+        TranslationBundle bundle = mock(TranslationBundle.class);
+        when(bundle.getId()).thenReturn(id);
+        when(bundle.getPriority()).thenReturn(priority);
+        when(bundle.compareTo(bundle)).thenReturn(0);
+
+        return bundle;
+    }
+
+    @Test
+    void getTranslation()
+    {
+        TranslationBundleSet bundles = new TranslationBundleSet("wiki");
+        bundles.add(mockBundle("bundle", 0));
+
+        Translation translation = mock(Translation.class);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Translation> resolver = () -> {
+            calls.incrementAndGet();
+            return translation;
+        };
+
+        assertSame(translation, this.index.getTranslation(bundles, "key", Locale.ROOT, resolver));
+        assertSame(translation, this.index.getTranslation(bundles, "key", Locale.ROOT, resolver));
+        assertEquals(1, calls.get());
+
+        // Other locale
+        assertSame(translation, this.index.getTranslation(bundles, "key", Locale.FRENCH, resolver));
+        assertEquals(2, calls.get());
+
+        // Other bundles
+        assertSame(translation,
+            this.index.getTranslation(new TranslationBundleSet("otherwiki"), "key", Locale.ROOT, resolver));
+        assertEquals(3, calls.get());
+
+        this.index.invalidate();
+
+        assertSame(translation, this.index.getTranslation(bundles, "key", Locale.ROOT, resolver));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void getMissingTranslation()
+    {
+        TranslationBundleSet bundles = new TranslationBundleSet("wiki");
+
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Translation> resolver = () -> {
+            calls.incrementAndGet();
+            return null;
+        };
+
+        assertNull(this.index.getTranslation(bundles, "key", Locale.ROOT, resolver));
+        assertNull(this.index.getTranslation(bundles, "key", Locale.ROOT, resolver));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void getTranslationWhenBundlesChange()
+    {
+        TranslationBundleSet bundles = new TranslationBundleSet("wiki");
+
+        Translation translation1 = mock(Translation.class);
+        Translation translation2 = mock(Translation.class);
+
+        assertSame(translation1, this.index.getTranslation(bundles, "key", Locale.ROOT, () -> translation1));
+
+        bundles.add(mockBundle("bundle", 0));
+
+        assertSame(translation2, this.index.getTranslation(bundles, "key", Locale.ROOT, () -> translation2));
+    }
+}
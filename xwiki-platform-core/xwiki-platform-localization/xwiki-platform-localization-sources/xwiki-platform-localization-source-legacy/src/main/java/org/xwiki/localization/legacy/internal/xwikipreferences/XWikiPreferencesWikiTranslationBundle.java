@@ -28,6 +28,7 @@
 import java.util.Map;
 import java.util.Set;
 
+import org.slf4j.LoggerFactory;
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.cache.DisposableCacheValue;
 import org.xwiki.component.manager.ComponentLookupException;
@@ -36,6 +37,7 @@
 import org.xwiki.localization.Translation;
 import org.xwiki.localization.TranslationBundle;
 import org.xwiki.localization.internal.AbstractTranslationBundle;
+import org.xwiki.localization.internal.TranslationIndex;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
@@ -67,6 +69,8 @@ public class XWikiPreferencesWikiTranslationBundle extends AbstractTranslationBu
      */
     private static final String JOIN_SEPARATOR = ",";
 
+    private ComponentManager componentManager;
+
     private ObservationManager observation;
 
     private DocumentAccessBridge documentAccessBridge;
@@ -89,6 +93,10 @@ public XWikiPreferencesWikiTranslationBundle(String wiki, XWikiPreferencesTransl
         this.wiki = wiki;
         this.parent = parent;
 
+        this.componentManager = componentManager;
+
+        this.logger = LoggerFactory.getLogger(getClass());
+
         this.observation = componentManager.getInstance(ObservationManager.class);
         this.documentAccessBridge = componentManager.getInstance(DocumentAccessBridge.class);
         this.resolver = componentManager.getInstance(DocumentReferenceResolver.TYPE_STRING);
@@ -161,6 +169,20 @@ public List<Event> getEvents()
     public void onEvent(Event arg0, Object arg1, Object arg2)
     {
         intializeBundles();
+
+        invalidateTranslationIndex();
+    }
+
+    private void invalidateTranslationIndex()
+    {
+        // Make sure the localization manager does not keep returning the translations of the previous version
+        if (this.componentManager.hasComponent(TranslationIndex.class)) {
+            try {
+                this.componentManager.<TranslationIndex>getInstance(TranslationIndex.class).invalidate();
+            } catch (ComponentLookupException e) {
+                this.logger.error("Failed to lookup the translation index", e);
+            }
+        }
     }
 
     // Bundle
@@ -44,6 +44,7 @@
 import org.xwiki.localization.internal.DefaultLocalizedTranslationBundle;
 import org.xwiki.localization.internal.DefaultTranslation;
 import org.xwiki.localization.internal.LocalizedTranslationBundle;
+import org.xwiki.localization.internal.TranslationIndex;
 import org.xwiki.localization.message.TranslationMessage;
 import org.xwiki.localization.message.TranslationMessageParser;
 import org.xwiki.model.reference.DocumentReference;
@@ -239,6 +240,20 @@ public void onEvent(Event event, Object source, Object data)
                 this.bundleCache.remove(document.getDefaultLocale());
             }
         }
+
+        invalidateTranslationIndex();
+    }
+
+    private void invalidateTranslationIndex()
+    {
+        // Make sure the localization manager does not keep returning the translations of the previous version
+        if (this.componentManager.hasComponent(TranslationIndex.class)) {
+            try {
+                this.componentManager.<TranslationIndex>getInstance(TranslationIndex.class).invalidate();
+            } catch (ComponentLookupException e) {
+                this.logger.error("Failed to lookup the translation index", e);
+            }
+        }
     }
 
     @Override
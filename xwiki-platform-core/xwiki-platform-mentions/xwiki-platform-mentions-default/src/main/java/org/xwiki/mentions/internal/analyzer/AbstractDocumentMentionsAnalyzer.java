@@ -19,17 +19,21 @@
  */
 package org.xwiki.mentions.internal.analyzer;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.xwiki.mentions.DisplayStyle;
+import org.xwiki.mentions.internal.MentionXDOMService;
 import org.xwiki.mentions.internal.MentionedActorReference;
 import org.xwiki.mentions.notifications.MentionNotificationParameter;
 import org.xwiki.mentions.notifications.MentionNotificationParameters;
 import org.xwiki.rendering.block.MacroBlock;
 
+import com.xpn.xwiki.doc.XWikiDocument;
+
 /**
  * Common class for the mention analyzers.
  *
@@ -38,6 +42,26 @@
  */
 public abstract class AbstractDocumentMentionsAnalyzer
 {
+    /**
+     * The identifier of the analysis of the document content listing the mention macros.
+     */
+    static final String ANALYSIS_MENTIONS = "mentions/1.0";
+
+    /**
+     * List the mention macros of the content of a document. The result is shared with the other components analyzing
+     * the same document version and must not be modified.
+     *
+     * @param document the document
+     * @param xdomService the service used to find the mention macros in the parsed content
+     * @return the mention macros of the content of the document
+     * @since 15.0RC1
+     */
+    protected List<MacroBlock> listContentMentions(XWikiDocument document, MentionXDOMService xdomService)
+    {
+        return document.getContentAnalysis(ANALYSIS_MENTIONS,
+            xdom -> Collections.unmodifiableList(xdomService.listMentionMacros(xdom)));
+    }
+
     protected void addNewMention(MentionNotificationParameters mentionNotificationParameters, String type,
         MentionNotificationParameter mentionedActorReference)
     {
@@ -38,7 +38,6 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.rendering.block.MacroBlock;
-import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.syntax.Syntax;
 
 import com.xpn.xwiki.doc.XWikiDocument;
@@ -76,7 +75,8 @@ public List<MentionNotificationParameters> analyze(XWikiDocument doc,
     {
         Syntax syntax = doc.getSyntax();
         List<MentionNotificationParameters> mentionNotificationParametersList = new ArrayList<>();
-        handleContentOnCreate(doc.getXDOM(), documentReference, version, authorReference, DOCUMENT)
+        handleContentOnCreate(listContentMentions(doc, this.xdomService), documentReference, version,
+            authorReference, DOCUMENT)
             .ifPresent(mentionNotificationParametersList::add);
         mentionNotificationParametersList
             .addAll(traverseXObjectsOnCreate(doc.getXObjects(), version, authorReference, syntax));
@@ -110,7 +110,7 @@ private List<MentionNotificationParameters> traverseXObjectsOnCreate(
     /**
      * Handles the analysis of a created content and search for new mentions.
      *
-     * @param xdom the xdom of the content
+     * @param blocks the mention macros of the content
      * @param entityReference the reference to the analyzed entity
      * @param version the version of the document holding the analyzed entity
      * @param authorReference the reference of the author of the created document
@@ -118,14 +118,12 @@ private List<MentionNotificationParameters> traverseXObjectsOnCreate(
      * @return an empty {@link Optional} if no new mention is found, an {@link Optional} holding an {@link
      *     MentionNotificationParameters} if a new mention is found
      */
-    private Optional<MentionNotificationParameters> handleContentOnCreate(XDOM xdom, EntityReference entityReference,
-        String version, String authorReference, MentionLocation location)
+    private Optional<MentionNotificationParameters> handleContentOnCreate(List<MacroBlock> blocks,
+        EntityReference entityReference, String version, String authorReference, MentionLocation location)
     {
         MentionNotificationParameters mentionNotificationParameters =
             new MentionNotificationParameters(authorReference, entityReference, location, version);
 
-        List<MacroBlock> blocks = this.xdomService.listMentionMacros(xdom);
-
         Map<MentionedActorReference, List<String>> counts = this.xdomService.groupAnchorsByUserReference(blocks);
 
         addAllMentions(mentionNotificationParameters, counts, blocks);
@@ -165,8 +163,8 @@ private List<MentionNotificationParameters> handleBaseObjectOnCreate(BaseObject
                 String content = largeStringProperty.getValue();
                 this.xdomService
                     .parse(content, syntax)
-                    .flatMap(xdom -> handleContentOnCreate(xdom, largeStringProperty.getReference(), version,
-                        authorReference, AWM_FIELD))
+                    .flatMap(xdom -> handleContentOnCreate(this.xdomService.listMentionMacros(xdom),
+                        largeStringProperty.getReference(), version, authorReference, AWM_FIELD))
                     .ifPresent(mentionNotificationParametersList::add);
             }
         }
@@ -88,7 +88,9 @@ public List<MentionNotificationParameters> analyze(XWikiDocument oldDoc, XWikiDo
         String version, String authorReference)
     {
         List<MentionNotificationParameters> mentionNotificationParametersList = new ArrayList<>();
-        handleUpdatedContent(oldDoc.getXDOM(), newDoc.getXDOM(), documentReference, version, authorReference, DOCUMENT)
+        List<MacroBlock> oldMentions = listContentMentions(oldDoc, this.xdomService);
+        List<MacroBlock> newMentions = listContentMentions(newDoc, this.xdomService);
+        handleUpdatedContent(oldMentions, newMentions, documentReference, version, authorReference, DOCUMENT)
             .ifPresent(mentionNotificationParametersList::add);
         mentionNotificationParametersList
             .addAll(traverseXObjectsOnUpdate(oldDoc.getXObjects(), newDoc.getXObjects(), version, authorReference,
@@ -99,8 +101,8 @@ public List<MentionNotificationParameters> analyze(XWikiDocument oldDoc, XWikiDo
     /**
      * Handles the analysis of an updated content to search for new mentions to notify.
      *
-     * @param oldXDOM the old xdom of the content before the update
-     * @param newXDOM the new xom of the content after the update
+     * @param oldMentions the mention macros of the content before the update
+     * @param newMentions the mention macros of the content after the update
      * @param entityReference the reference to the analyzed entity
      * @param version the version of the document holding the analyzed entity  when it was updated
      * @param authorReference the reference of the author of the update
@@ -108,16 +110,13 @@ public List<MentionNotificationParameters> analyze(XWikiDocument oldDoc, XWikiDo
      * @return an empty {@link Optional} if no new mention is found, an {@link Optional} holding an {@link
      *     MentionNotificationParameters} if a new mention is found
      */
-    private Optional<MentionNotificationParameters> handleUpdatedContent(XDOM oldXDOM, XDOM newXDOM,
-        EntityReference entityReference,
+    private Optional<MentionNotificationParameters> handleUpdatedContent(List<MacroBlock> oldMentions,
+        List<MacroBlock> newMentions, EntityReference entityReference,
         String version, String authorReference, MentionLocation location)
     {
         MentionNotificationParameters ret =
             new MentionNotificationParameters(authorReference, entityReference, location, version);
 
-        List<MacroBlock> oldMentions = this.xdomService.listMentionMacros(oldXDOM);
-        List<MacroBlock> newMentions = this.xdomService.listMentionMacros(newXDOM);
-
         Map<MentionedActorReference, List<String>> oldCounts =
             this.xdomService.groupAnchorsByUserReference(oldMentions);
         Map<MentionedActorReference, List<String>> newCounts =
@@ -256,7 +255,8 @@ private Optional<MentionNotificationParameters> handleProperty(Optional<BaseObje
         return this.xdomService.parse(largeStringProperty.getValue(), syntax).flatMap(xdom -> {
             EntityReference entityReference = largeStringProperty.getReference();
             return oldDom
-                .map(value -> handleUpdatedContent(value, xdom, entityReference, version, authorReference, location))
+                .map(value -> handleUpdatedContent(this.xdomService.listMentionMacros(value),
+                    this.xdomService.listMentionMacros(xdom), entityReference, version, authorReference, location))
                 .orElseGet(() -> handleCreatedContent(xdom, entityReference, version, authorReference, location));
         });
     }
@@ -23,6 +23,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
 import org.xwiki.mentions.DisplayStyle;
@@ -48,6 +49,8 @@
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.xwiki.mentions.DisplayStyle.FIRST_NAME;
@@ -77,13 +80,19 @@
     @MockComponent
     private MentionXDOMService xdomService;
 
+    private void mockContent(XWikiDocument document, XDOM xdom)
+    {
+        when(document.getContentAnalysis(eq(AbstractDocumentMentionsAnalyzer.ANALYSIS_MENTIONS), any()))
+            .then(invocation -> invocation.<Function<XDOM, ?>>getArgument(1).apply(xdom));
+    }
+
     @Test
     void analyzeNoMentionFound()
     {
         XWikiDocument doc = mock(XWikiDocument.class);
         when(doc.getSyntax()).thenReturn(XWIKI_2_1);
         XDOM xdom = new XDOM(asList());
-        when(doc.getXDOM()).thenReturn(xdom);
+        mockContent(doc, xdom);
         when(this.xdomService.listMentionMacros(xdom)).thenReturn(asList());
         when(this.xdomService.groupAnchorsByUserReference(asList())).thenReturn(new HashMap<>());
 
@@ -116,7 +125,7 @@ void analyzeNewMentionInBody()
         XWikiDocument doc = mock(XWikiDocument.class);
         when(doc.getSyntax()).thenReturn(XWIKI_2_1);
         XDOM xdom = new XDOM(asList());
-        when(doc.getXDOM()).thenReturn(xdom);
+        mockContent(doc, xdom);
         List<MacroBlock> blocks = asList(buildMentionMacro(USER_U1, "anchor0", FIRST_NAME));
         when(this.xdomService.listMentionMacros(xdom)).thenReturn(blocks);
         Map<MentionedActorReference, List<String>> mapAnchors = new HashMap<>();
@@ -139,7 +148,7 @@ void analyzeNewMentionInXObject()
         XWikiDocument doc = mock(XWikiDocument.class);
         when(doc.getSyntax()).thenReturn(XWIKI_2_1);
         XDOM xdom = new XDOM(asList());
-        when(doc.getXDOM()).thenReturn(xdom);
+        mockContent(doc, xdom);
         when(this.xdomService.listMentionMacros(xdom)).thenReturn(asList());
         when(this.xdomService.groupAnchorsByUserReference(asList())).thenReturn(new HashMap<>());
 
@@ -23,6 +23,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
 import org.xwiki.mentions.DisplayStyle;
@@ -49,6 +50,8 @@
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.xwiki.annotation.Annotation.SELECTION_FIELD;
@@ -84,6 +87,12 @@
     @MockComponent
     private MentionXDOMService xdomService;
 
+    private void mockContent(XWikiDocument document, XDOM xdom)
+    {
+        when(document.getContentAnalysis(eq(AbstractDocumentMentionsAnalyzer.ANALYSIS_MENTIONS), any()))
+            .then(invocation -> invocation.<Function<XDOM, ?>>getArgument(1).apply(xdom));
+    }
+
     /**
      * test empty anchors
      */
@@ -94,7 +103,7 @@ void analyzeNoNewMention()
         XWikiDocument newDoc = mock(XWikiDocument.class);
 
         XDOM oldXDOM = new XDOM(asList(new WordBlock("v1.0")));
-        when(oldDoc.getXDOM()).thenReturn(oldXDOM);
+        mockContent(oldDoc, oldXDOM);
         Map<DocumentReference, List<BaseObject>> oldXObjects = new HashMap<>();
         BaseObject oldAWMField = mock(BaseObject.class);
         LargeStringProperty oldLSP = new LargeStringProperty();
@@ -103,7 +112,7 @@ void analyzeNoNewMention()
         oldXObjects.put(ACLASS_DOCUMENT_REFERENCE, asList(oldAWMField));
         when(oldDoc.getXObjects()).thenReturn(oldXObjects);
         XDOM newXDOM = new XDOM(asList(new WordBlock("v1.1")));
-        when(newDoc.getXDOM()).thenReturn(newXDOM);
+        mockContent(newDoc, newXDOM);
         Map<DocumentReference, List<BaseObject>> newXObjects = new HashMap<>();
         BaseObject newAWMField = mock(BaseObject.class);
         when(newAWMField.getXClassReference()).thenReturn(ACLASS_DOCUMENT_REFERENCE);
@@ -149,9 +158,9 @@ void analyzeNewMentionInBody()
         XWikiDocument newDoc = mock(XWikiDocument.class);
 
         XDOM oldXDOM = new XDOM(asList(new WordBlock("v1.0")));
-        when(oldDoc.getXDOM()).thenReturn(oldXDOM);
+        mockContent(oldDoc, oldXDOM);
         XDOM newXDOM = new XDOM(asList(new WordBlock("v1.1")));
-        when(newDoc.getXDOM()).thenReturn(newXDOM);
+        mockContent(newDoc, newXDOM);
 
         List<MacroBlock> oldMentions = asList(
             buildMentionMacro(USER_U1, "anchor0", FIRST_NAME),
@@ -190,7 +199,7 @@ void analyzeNewMentionInUpdatedAWMField()
         XWikiDocument oldDoc = mock(XWikiDocument.class);
         XWikiDocument newDoc = mock(XWikiDocument.class);
 
-        when(oldDoc.getXDOM()).thenReturn(new XDOM(asList(new WordBlock("v1.0"))));
+        mockContent(oldDoc, new XDOM(asList(new WordBlock("v1.0"))));
         Map<DocumentReference, List<BaseObject>> oldXObjects = new HashMap<>();
         BaseObject oldAWMField = mock(BaseObject.class);
         LargeStringProperty oldLSP = new LargeStringProperty();
@@ -198,7 +207,7 @@ void analyzeNewMentionInUpdatedAWMField()
         when(oldAWMField.getField("lspfield")).thenReturn(oldLSP);
         oldXObjects.put(ACLASS_DOCUMENT_REFERENCE, asList(oldAWMField));
         when(oldDoc.getXObjects()).thenReturn(oldXObjects);
-        when(newDoc.getXDOM()).thenReturn(new XDOM(asList(new WordBlock("v1.1"))));
+        mockContent(newDoc, new XDOM(asList(new WordBlock("v1.1"))));
         Map<DocumentReference, List<BaseObject>> newXObjects = new HashMap<>();
         BaseObject newAWMField = mock(BaseObject.class);
         when(newAWMField.getXClassReference()).thenReturn(ACLASS_DOCUMENT_REFERENCE);
@@ -255,7 +264,7 @@ void analyzeNewMentionInNewAWMField()
         XWikiDocument oldDoc = mock(XWikiDocument.class);
         XWikiDocument newDoc = mock(XWikiDocument.class);
 
-        when(oldDoc.getXDOM()).thenReturn(new XDOM(asList(new WordBlock("v1.0"))));
+        mockContent(oldDoc, new XDOM(asList(new WordBlock("v1.0"))));
         Map<DocumentReference, List<BaseObject>> oldXObjects = new HashMap<>();
         BaseObject oldAWMField = mock(BaseObject.class);
         LargeStringProperty oldLSP = new LargeStringProperty();
@@ -263,7 +272,7 @@ void analyzeNewMentionInNewAWMField()
         when(oldAWMField.getField("lspfield")).thenReturn(oldLSP);
 //        oldXObjects.put(ACLASS_DOCUMENT_REFERENCE, asList(oldAWMField));
         when(oldDoc.getXObjects()).thenReturn(oldXObjects);
-        when(newDoc.getXDOM()).thenReturn(new XDOM(asList(new WordBlock("v1.1"))));
+        mockContent(newDoc, new XDOM(asList(new WordBlock("v1.1"))));
         Map<DocumentReference, List<BaseObject>> newXObjects = new HashMap<>();
         BaseObject newAWMField = mock(BaseObject.class);
         when(newAWMField.getXClassReference()).thenReturn(ACLASS_DOCUMENT_REFERENCE);
@@ -321,7 +330,7 @@ void analyzeNewMentionInUpdatedCommentField()
         XWikiDocument oldDoc = mock(XWikiDocument.class);
         XWikiDocument newDoc = mock(XWikiDocument.class);
 
-        when(oldDoc.getXDOM()).thenReturn(new XDOM(asList(new WordBlock("v1.0"))));
+        mockContent(oldDoc, new XDOM(asList(new WordBlock("v1.0"))));
         Map<DocumentReference, List<BaseObject>> oldXObjects = new HashMap<>();
         BaseObject oldAWMField = mock(BaseObject.class);
         LargeStringProperty oldLSP = new LargeStringProperty();
@@ -330,7 +339,7 @@ void analyzeNewMentionInUpdatedCommentField()
         when(oldAWMField.getField(fieldName)).thenReturn(oldLSP);
         oldXObjects.put(COMMENTS_DOCUMENT_REFERENCE, asList(oldAWMField));
         when(oldDoc.getXObjects()).thenReturn(oldXObjects);
-        when(newDoc.getXDOM()).thenReturn(new XDOM(asList(new WordBlock("v1.1"))));
+        mockContent(newDoc, new XDOM(asList(new WordBlock("v1.1"))));
         Map<DocumentReference, List<BaseObject>> newXObjects = new HashMap<>();
         BaseObject newAWMField = mock(BaseObject.class);
         when(newAWMField.getXClassReference()).thenReturn(COMMENTS_DOCUMENT_REFERENCE);
@@ -386,7 +395,7 @@ void analyzeNewMentionInUpdatedAnnotationField()
         XWikiDocument oldDoc = mock(XWikiDocument.class);
         XWikiDocument newDoc = mock(XWikiDocument.class);
 
-        when(oldDoc.getXDOM()).thenReturn(new XDOM(asList(new WordBlock("v1.0"))));
+        mockContent(oldDoc, new XDOM(asList(new WordBlock("v1.0"))));
         Map<DocumentReference, List<BaseObject>> oldXObjects = new HashMap<>();
         BaseObject oldAWMField = mock(BaseObject.class);
         LargeStringProperty oldLSP = new LargeStringProperty();
@@ -395,7 +404,7 @@ void analyzeNewMentionInUpdatedAnnotationField()
         when(oldAWMField.getField(fieldName)).thenReturn(oldLSP);
         oldXObjects.put(COMMENTS_DOCUMENT_REFERENCE, asList(oldAWMField));
         when(oldDoc.getXObjects()).thenReturn(oldXObjects);
-        when(newDoc.getXDOM()).thenReturn(new XDOM(asList(new WordBlock("v1.1"))));
+        mockContent(newDoc, new XDOM(asList(new WordBlock("v1.1"))));
         Map<DocumentReference, List<BaseObject>> newXObjects = new HashMap<>();
         BaseObject newAWMField = mock(BaseObject.class);
         when(newAWMField.getXClassReference()).thenReturn(COMMENTS_DOCUMENT_REFERENCE);
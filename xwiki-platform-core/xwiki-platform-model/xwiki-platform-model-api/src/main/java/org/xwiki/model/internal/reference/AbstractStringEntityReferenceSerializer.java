@@ -31,6 +31,8 @@
  */
 public abstract class AbstractStringEntityReferenceSerializer implements EntityReferenceSerializer<String>
 {
+    private final EntityReferenceSerializationCache cache = new EntityReferenceSerializationCache();
+
     @Override
     public String serialize(EntityReference reference, Object... parameters)
     {
@@ -38,6 +40,25 @@ public String serialize(EntityReference reference, Object... parameters)
             return null;
         }
 
+        if ((parameters == null || parameters.length == 0) && isCacheable()) {
+            return this.cache.get(reference, this::serializeReference);
+        }
+
+        return serializeReference(reference, parameters);
+    }
+
+    /**
+     * @return true if the result of the serialization (without parameters) only depends on the passed reference and
+     *         can be remembered
+     * @since 15.0RC1
+     */
+    protected boolean isCacheable()
+    {
+        return false;
+    }
+
+    private String serializeReference(EntityReference reference, Object... parameters)
+    {
         StringBuilder representation = new StringBuilder();
 
         for (EntityReference currentReference : reference.getReversedReferenceChain()) {
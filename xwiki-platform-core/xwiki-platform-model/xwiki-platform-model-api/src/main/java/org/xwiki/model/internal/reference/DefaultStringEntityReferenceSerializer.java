@@ -130,6 +130,13 @@ private void serializeParameters(String defaultParameter, char separator, Map<St
         }
     }
 
+    @Override
+    protected boolean isCacheable()
+    {
+        // Extending classes might depend on the context so they need to explicitly enable the cache
+        return getClass() == DefaultStringEntityReferenceSerializer.class;
+    }
+
     protected SymbolScheme getSymbolScheme()
     {
         if (this.symbolScheme == null) {
@@ -0,0 +1,111 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.model.internal.reference;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.xwiki.model.reference.EntityReference;
+
+/**
+ * A bounded, thread safe memory of the result of the serialization of entity references. Meant to be used only by
+ * serializers which produce a result depending only on the passed reference (and not on the context).
+ * <p>
+ * The same few hundred references tend to be serialized again and again (document cache keys, rights checks, URLs,
+ * etc.) so it's a lot cheaper to remember the result than to build it each time. When the cache is full it's simply
+ * emptied, which is good enough given the very small cost of a miss.
+ * 
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class EntityReferenceSerializationCache
+{
+    /**
+     * The default maximum number of entries to keep.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final int capacity;
+
+    private final Map<EntityReference, Entry> cache = new ConcurrentHashMap<>();
+
+    private static final class Entry
+    {
+        private final Class<?> referenceClass;
+
+        private final String value;
+
+        Entry(EntityReference reference, String value)
+        {
+            this.referenceClass = reference.getClass();
+            this.value = value;
+        }
+    }
+
+    /**
+     * Create a cache with the default capacity.
+     */
+    public EntityReferenceSerializationCache()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the maximum number of entries to keep
+     */
+    public EntityReferenceSerializationCache(int capacity)
+    {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param reference the reference to serialize
+     * @param serializer the function to call when the result is not already known
+     * @return the serialized reference
+     */
+    public String get(EntityReference reference, Function<EntityReference, String> serializer)
+    {
+        Entry entry = this.cache.get(reference);
+
+        // Some serializers produce a different result for equal references of different classes (for example a
+        // DocumentReference and an EntityReference with the same locale parameter)
+        if (entry != null && entry.referenceClass == reference.getClass()) {
+            return entry.value;
+        }
+
+        String value = serializer.apply(reference);
+
+        if (this.cache.size() >= this.capacity) {
+            this.cache.clear();
+        }
+        this.cache.put(reference, new Entry(reference, value));
+
+        return value;
+    }
+
+    /**
+     * @return the number of entries currently in the cache
+     */
+    public int size()
+    {
+        return this.cache.size();
+    }
+}
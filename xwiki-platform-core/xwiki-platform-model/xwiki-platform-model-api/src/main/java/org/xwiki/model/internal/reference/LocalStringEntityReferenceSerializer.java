@@ -67,4 +67,11 @@ protected void serializeEntityReference(EntityReference currentReference, String
             super.serializeEntityReference(currentReference, representation, isLastReference, parameters);
         }
     }
+
+    @Override
+    protected boolean isCacheable()
+    {
+        // Extending classes might depend on the context so they need to explicitly enable the cache
+        return getClass() == LocalStringEntityReferenceSerializer.class;
+    }
 }
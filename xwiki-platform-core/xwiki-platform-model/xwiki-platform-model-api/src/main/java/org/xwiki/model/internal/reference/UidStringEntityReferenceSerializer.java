@@ -48,6 +48,13 @@
 @Singleton
 public class UidStringEntityReferenceSerializer extends AbstractStringEntityReferenceSerializer
 {
+    @Override
+    protected boolean isCacheable()
+    {
+        // Extending classes might depend on the context so they need to explicitly enable the cache
+        return getClass() == UidStringEntityReferenceSerializer.class;
+    }
+
     @Override
     protected void serializeEntityReference(EntityReference currentReference, StringBuilder representation,
         boolean isLastReference, Object... parameters)
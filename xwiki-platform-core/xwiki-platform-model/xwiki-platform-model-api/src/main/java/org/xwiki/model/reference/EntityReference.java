@@ -77,6 +77,8 @@ public class EntityReference implements Serializable, Cloneable, Comparable<Enti
 
     private transient List<EntityReference> referenceList;
 
+    private transient int hashCode;
+
     /**
      * Clone an EntityReference.
      *
@@ -212,6 +214,7 @@ protected void setName(String name)
             throw new IllegalArgumentException("An Entity Reference name cannot be null or empty");
         }
         this.name = name;
+        this.hashCode = 0;
     }
 
     /**
@@ -233,6 +236,7 @@ public final String getName()
     protected void setParent(EntityReference parent)
     {
         this.parent = parent;
+        this.hashCode = 0;
     }
 
     /**
@@ -255,6 +259,7 @@ protected void setType(EntityType type)
             throw new IllegalArgumentException("An Entity Reference type cannot be null");
         }
         this.type = type;
+        this.hashCode = 0;
     }
 
     /**
@@ -292,6 +297,9 @@ protected void setParameters(Map<String, Serializable> parameters)
      */
     protected void setParameter(String name, Serializable value)
     {
+        // The parameters are part of the hash code (also when called by setParameters)
+        this.hashCode = 0;
+
         if (value != null) {
             if (this.parameters == null) {
                 this.parameters = new TreeMap<>();
@@ -635,8 +643,13 @@ public boolean equalsNonRecursive(EntityReference otherReference)
     @Override
     public int hashCode()
     {
-        return new HashCodeBuilder(3, 17).append(getName()).append(getType()).append(getParent())
-            .append(this.parameters).toHashCode();
+        // Entity references are immutable and very often used as keys so it's worth remembering the hash code
+        if (this.hashCode == 0) {
+            this.hashCode = new HashCodeBuilder(3, 17).append(getName()).append(getType()).append(getParent())
+                .append(this.parameters).toHashCode();
+        }
+
+        return this.hashCode;
     }
 
     /**
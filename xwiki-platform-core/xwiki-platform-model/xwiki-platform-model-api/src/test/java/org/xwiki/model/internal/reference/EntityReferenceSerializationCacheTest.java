@@ -0,0 +1,85 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.model.internal.reference;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Validate {@link EntityReferenceSerializationCache}.
+ * 
+ * @version $Id$
+ */
+class EntityReferenceSerializationCacheTest
+{
+    @Test
+    void get()
+    {
+        EntityReferenceSerializationCache cache = new EntityReferenceSerializationCache();
+        AtomicInteger calls = new AtomicInteger();
+
+        DocumentReference reference = new DocumentReference("wiki", "space", "page");
+
+        Function<EntityReference, String> serializer = r -> {
+            calls.incrementAndGet();
+            return r.getName();
+        };
+
+        assertEquals("page", cache.get(reference, serializer));
+        assertEquals("page", cache.get(new DocumentReference("wiki", "space", "page"), serializer));
+        assertEquals(1, calls.get());
+
+        assertEquals("page", cache.get(new DocumentReference("wiki", "space2", "page"), serializer));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void getWithEqualReferenceOfDifferentClass()
+    {
+        EntityReferenceSerializationCache cache = new EntityReferenceSerializationCache();
+
+        DocumentReference documentReference = new DocumentReference("wiki", "space", "page", Locale.FRENCH);
+        EntityReference entityReference = new EntityReference(documentReference);
+
+        assertEquals("document", cache.get(documentReference, r -> "document"));
+        assertEquals("entity", cache.get(entityReference, r -> "entity"));
+    }
+
+    @Test
+    void getWhenFull()
+    {
+        EntityReferenceSerializationCache cache = new EntityReferenceSerializationCache(2);
+
+        cache.get(new EntityReference("wiki1", EntityType.WIKI), EntityReference::getName);
+        cache.get(new EntityReference("wiki2", EntityType.WIKI), EntityReference::getName);
+        assertEquals(2, cache.size());
+
+        cache.get(new EntityReference("wiki3", EntityType.WIKI), EntityReference::getName);
+        assertEquals(1, cache.size());
+    }
+}
@@ -283,6 +283,29 @@ public void validateHashCode()
         assertFalse(reference7.hashCode() == reference10.hashCode());
     }
 
+    @Test
+    public void hashCodeAfterModification()
+    {
+        EntityReference wiki = new EntityReference("wiki", EntityType.WIKI);
+        EntityReference reference = new EntityReference("page", EntityType.DOCUMENT, wiki);
+        // Remember the hash code
+        reference.hashCode();
+
+        reference.setName("other");
+        assertEquals(new EntityReference("other", EntityType.DOCUMENT, wiki).hashCode(), reference.hashCode());
+
+        reference.setType(EntityType.SPACE);
+        assertEquals(new EntityReference("other", EntityType.SPACE, wiki).hashCode(), reference.hashCode());
+
+        reference.setParent(null);
+        assertEquals(new EntityReference("other", EntityType.SPACE).hashCode(), reference.hashCode());
+
+        reference.setParameter("key", "value");
+        assertEquals(new EntityReference("other", EntityType.SPACE, null,
+            Collections.<String, Serializable>singletonMap("key", "value"))
+            .hashCode(), reference.hashCode());
+    }
+
     @Test
     public void compareTo()
     {
@@ -68,6 +68,17 @@ default boolean isRestCacheEnabled()
         return true;
     }
 
+    /**
+     * @return true if the REST API should return the number of unread notifications of the current user from a
+     *         maintained list of unread events instead of searching and filtering the notifications, only taken into
+     *         account when {@link #isEventPrefilteringEnabled()} is true
+     * @since 15.0RC1
+     */
+    default boolean isRestUnreadCounterEnabled()
+    {
+        return false;
+    }
+
     /**
      * @return the number of threads to use for computing notifications in REST.
      * @since 12.5RC1
@@ -73,6 +73,12 @@ public boolean isRestCacheEnabled()
         return configurationSource.getProperty(CONFIGURATION_PREFIX + "rest.cache", true);
     }
 
+    @Override
+    public boolean isRestUnreadCounterEnabled()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "rest.unreadCounter", false);
+    }
+
     @Override
     public int getRESTPoolSize()
     {
@@ -0,0 +1,354 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.notifiers.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.eventstream.Event;
+import org.xwiki.eventstream.EventSearchResult;
+import org.xwiki.eventstream.EventStatus;
+import org.xwiki.eventstream.EventStore;
+import org.xwiki.eventstream.EventStreamException;
+import org.xwiki.eventstream.query.SimpleEventQuery;
+import org.xwiki.eventstream.query.SortableEventQuery.SortClause.Order;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.notifications.CompositeEvent;
+import org.xwiki.notifications.NotificationException;
+import org.xwiki.notifications.sources.internal.CompositeEventGrouper;
+
+/**
+ * Maintain the unread notifications of each user, based on the event statuses written for each user by the
+ * pre-filtering dispatcher (which already applied the user's notification preferences and filters).
+ * <p>
+ * The unread events of a user are initialized with a single query of the most recent unread statuses of the events
+ * older than the counter, and the unread statuses of the newer events are then tracked as they are saved. Since a
+ * status is saved each time it's modified, the newer events are remembered so that only a real transition between
+ * read and unread modifies the counter. It's not possible to know the previous state of an older status, so saving
+ * or deleting one simply drops the counter which will be computed again on next access. The unread events are
+ * grouped the same way as the notifications displayed to the user to count them.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = NotificationInbox.class)
+@Singleton
+public class NotificationInbox implements Initializable, Disposable
+{
+    /**
+     * The maximum number of older unread events to load for a user.
+     */
+    private static final int MAX_UNREAD = 500;
+
+    /**
+     * The maximum number of newer unread events to remember for a user before computing the counter again.
+     */
+    private static final int MAX_RECENT_UNREAD = 1000;
+
+    private static final Comparator<Event> MOST_RECENT_FIRST =
+        Comparator.comparing(Event::getDate, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private static final class UnreadCounter
+    {
+        /**
+         * The unread statuses of the events before this date are loaded with a query.
+         */
+        private final Date since;
+
+        private final CompletableFuture<List<Event>> previousUnread = new CompletableFuture<>();
+
+        private final Map<String, Event> recentUnread = new ConcurrentHashMap<>();
+
+        /**
+         * The number of grouped unread notifications, indexed by the maximum count which was asked.
+         */
+        private final Map<Integer, Integer> groupedCounts = new ConcurrentHashMap<>();
+
+        /**
+         * Incremented each time the unread events are modified, guarded by the counter itself.
+         */
+        private long version;
+
+        UnreadCounter(Date since)
+        {
+            this.since = since;
+        }
+
+        boolean isRecent(Event event)
+        {
+            return event != null && event.getDate() != null && !event.getDate().before(this.since);
+        }
+
+        synchronized boolean add(Event event)
+        {
+            boolean added = this.recentUnread.putIfAbsent(event.getId(), event) == null;
+            if (added) {
+                modified();
+            }
+
+            return added;
+        }
+
+        synchronized void remove(Event event)
+        {
+            if (this.recentUnread.remove(event.getId()) != null) {
+                modified();
+            }
+        }
+
+        private void modified()
+        {
+            this.version++;
+            this.groupedCounts.clear();
+        }
+    }
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private EventStore eventStore;
+
+    @Inject
+    private CompositeEventGrouper grouper;
+
+    @Inject
+    private EntityReferenceSerializer<String> entityReferenceSerializer;
+
+    private Cache<UnreadCounter> unreadCounters;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.unreadCounters = this.cacheManager
+                .createNewCache(new LRUCacheConfiguration("notification.inbox.unreadCounters", 10000, 86400));
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to create the unread notification counters cache", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.unreadCounters.dispose();
+    }
+
+    /**
+     * @param user the user
+     * @param maxCount the maximum number of notifications to count
+     * @return the number of unread notifications of the user, grouped like the notifications displayed to the user
+     * @throws EventStreamException when failing to count the unread notifications
+     */
+    public int getUnreadCount(DocumentReference user, int maxCount) throws EventStreamException
+    {
+        String entityId = this.entityReferenceSerializer.serialize(user);
+
+        // Register the counter before loading the events so that the statuses saved in the meantime are not lost
+        UnreadCounter counter;
+        boolean created = false;
+        synchronized (this.unreadCounters) {
+            counter = this.unreadCounters.get(entityId);
+            if (counter == null) {
+                counter = new UnreadCounter(new Date());
+                this.unreadCounters.set(entityId, counter);
+                created = true;
+            }
+        }
+
+        if (created) {
+            load(entityId, counter);
+        }
+
+        List<Event> previousUnread = getPreviousUnread(user, counter);
+
+        Integer count = counter.groupedCounts.get(maxCount);
+        if (count == null) {
+            List<Event> recentUnread;
+            long version;
+            synchronized (counter) {
+                recentUnread = new ArrayList<>(counter.recentUnread.values());
+                version = counter.version;
+            }
+
+            try {
+                count = group(recentUnread, previousUnread, maxCount);
+            } catch (NotificationException e) {
+                throw new EventStreamException("Failed to group the unread notifications of user [" + user + "]", e);
+            }
+
+            synchronized (counter) {
+                // Don't remember a count which does not take into account the latest modifications
+                if (counter.version == version) {
+                    counter.groupedCounts.put(maxCount, count);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private List<Event> getPreviousUnread(DocumentReference user, UnreadCounter counter) throws EventStreamException
+    {
+        try {
+            return counter.previousUnread.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new EventStreamException("Interrupted while counting the unread notifications of user [" + user
+                + "]", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof EventStreamException) {
+                throw (EventStreamException) e.getCause();
+            }
+
+            throw new EventStreamException("Failed to count the unread notifications of user [" + user + "]",
+                e.getCause());
+        }
+    }
+
+    private int group(List<Event> recentUnread, List<Event> previousUnread, int maxCount) throws NotificationException
+    {
+        // Group the events from the most recent one, like the notifications displayed to the user
+        recentUnread.sort(MOST_RECENT_FIRST);
+
+        List<CompositeEvent> results = new ArrayList<>();
+        for (List<Event> events : List.of(recentUnread, previousUnread)) {
+            for (Event event : events) {
+                if (results.size() >= maxCount) {
+                    return results.size();
+                }
+
+                this.grouper.group(results, event);
+            }
+        }
+
+        return results.size();
+    }
+
+    private void load(String entityId, UnreadCounter counter)
+    {
+        SimpleEventQuery query = new SimpleEventQuery(0, MAX_UNREAD);
+        query.withStatus(entityId, false);
+        query.before(counter.since);
+        query.addSort(Event.FIELD_DATE, Order.DESC);
+
+        try (EventSearchResult result = this.eventStore.search(query)) {
+            counter.previousUnread.complete(result.stream().collect(Collectors.toList()));
+        } catch (Exception e) {
+            drop(entityId, counter);
+
+            counter.previousUnread.completeExceptionally(e);
+        }
+    }
+
+    private void drop(String entityId, UnreadCounter counter)
+    {
+        synchronized (this.unreadCounters) {
+            if (this.unreadCounters.get(entityId) == counter) {
+                this.unreadCounters.remove(entityId);
+            }
+        }
+    }
+
+    /**
+     * Update the counter of the user associated with the passed status after it's been saved.
+     *
+     * @param status the saved status
+     */
+    public void onStatusSaved(EventStatus status)
+    {
+        UnreadCounter counter = this.unreadCounters.get(status.getEntityId());
+        if (counter != null) {
+            if (counter.isRecent(status.getEvent())) {
+                // Saving the same status again does not change the counter
+                if (status.isRead()) {
+                    counter.remove(status.getEvent());
+                } else if (counter.add(status.getEvent()) && counter.recentUnread.size() > MAX_RECENT_UNREAD) {
+                    drop(status.getEntityId(), counter);
+                }
+            } else {
+                // It's impossible to know if the status was unread before, so let the counter be computed again
+                drop(status.getEntityId(), counter);
+            }
+        }
+    }
+
+    /**
+     * Update the counter of the user associated with the passed status after it's been deleted.
+     *
+     * @param status the deleted status, {@code null} when several statuses were deleted
+     */
+    public void onStatusDeleted(EventStatus status)
+    {
+        if (status != null) {
+            UnreadCounter counter = this.unreadCounters.get(status.getEntityId());
+            if (counter != null) {
+                if (counter.isRecent(status.getEvent())) {
+                    counter.remove(status.getEvent());
+                } else {
+                    drop(status.getEntityId(), counter);
+                }
+            }
+        } else {
+            this.unreadCounters.removeAll();
+        }
+    }
+
+    /**
+     * Forget the counter of the passed entity, which will be computed again on next access.
+     *
+     * @param entityId the identifier of the entity (generally a user) associated with the statuses
+     */
+    public void invalidate(String entityId)
+    {
+        synchronized (this.unreadCounters) {
+            this.unreadCounters.remove(entityId);
+        }
+    }
+
+    /**
+     * Forget all the counters.
+     */
+    public void reset()
+    {
+        this.unreadCounters.removeAll();
+    }
+}
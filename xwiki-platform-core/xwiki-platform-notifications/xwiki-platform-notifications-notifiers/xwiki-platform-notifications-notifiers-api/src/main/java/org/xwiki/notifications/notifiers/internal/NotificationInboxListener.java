@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.notifiers.internal;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.eventstream.EventStatus;
+import org.xwiki.eventstream.events.EventStreamDeletedEvent;
+import org.xwiki.eventstream.internal.events.EventStatusAddOrUpdatedEvent;
+import org.xwiki.eventstream.internal.events.EventStatusDeletedEvent;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.observation.remote.RemoteObservationManagerContext;
+
+/**
+ * Keep the {@link NotificationInbox} unread counters up to date.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Singleton
+@Named(NotificationInboxListener.NAME)
+public class NotificationInboxListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "NotificationInboxListener";
+
+    @Inject
+    private Provider<NotificationInbox> inboxProvider;
+
+    @Inject
+    private RemoteObservationManagerContext remoteState;
+
+    /**
+     * The default constructor.
+     */
+    public NotificationInboxListener()
+    {
+        super(NAME, new EventStatusAddOrUpdatedEvent(), new EventStatusDeletedEvent(), new EventStreamDeletedEvent());
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (this.remoteState.isRemoteState()) {
+            // The counters of this node can't follow the transitions of the statuses modified by another node
+            invalidate(event, source);
+        } else if (event instanceof EventStatusAddOrUpdatedEvent) {
+            this.inboxProvider.get().onStatusSaved((EventStatus) source);
+        } else if (event instanceof EventStatusDeletedEvent) {
+            this.inboxProvider.get().onStatusDeleted(getStatus(source));
+        } else {
+            // The statuses of the deleted event are deleted too
+            this.inboxProvider.get().reset();
+        }
+    }
+
+    private void invalidate(Event event, Object source)
+    {
+        EventStatus status = event instanceof EventStreamDeletedEvent ? null : getStatus(source);
+        if (status != null) {
+            this.inboxProvider.get().invalidate(status.getEntityId());
+        } else {
+            this.inboxProvider.get().reset();
+        }
+    }
+
+    private EventStatus getStatus(Object source)
+    {
+        if (source instanceof Optional) {
+            return (EventStatus) ((Optional<?>) source).orElse(null);
+        }
+
+        return (EventStatus) source;
+    }
+}
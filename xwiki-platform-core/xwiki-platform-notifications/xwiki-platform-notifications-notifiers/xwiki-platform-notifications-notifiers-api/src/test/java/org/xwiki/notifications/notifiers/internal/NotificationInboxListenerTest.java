@@ -0,0 +1,89 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.notifiers.internal;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.eventstream.EventStatus;
+import org.xwiki.eventstream.internal.events.EventStatusAddOrUpdatedEvent;
+import org.xwiki.eventstream.internal.events.EventStatusDeletedEvent;
+import org.xwiki.observation.remote.RemoteObservationManagerContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link NotificationInboxListener}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class NotificationInboxListenerTest
+{
+    @InjectMockComponents
+    private NotificationInboxListener listener;
+
+    @MockComponent
+    private NotificationInbox inbox;
+
+    @MockComponent
+    private RemoteObservationManagerContext remoteState;
+
+    @Test
+    void onLocalEvent()
+    {
+        EventStatus status = mock(EventStatus.class);
+
+        this.listener.onEvent(new EventStatusAddOrUpdatedEvent(), status, null);
+
+        verify(this.inbox).onStatusSaved(status);
+
+        this.listener.onEvent(new EventStatusDeletedEvent(), Optional.of(status), null);
+
+        verify(this.inbox).onStatusDeleted(status);
+    }
+
+    @Test
+    void onRemoteEvent()
+    {
+        when(this.remoteState.isRemoteState()).thenReturn(true);
+        EventStatus status = mock(EventStatus.class);
+        when(status.getEntityId()).thenReturn("wiki:XWiki.User");
+
+        this.listener.onEvent(new EventStatusAddOrUpdatedEvent(), status, null);
+        this.listener.onEvent(new EventStatusDeletedEvent(), status, null);
+
+        verify(this.inbox, never()).onStatusSaved(status);
+        verify(this.inbox, never()).onStatusDeleted(status);
+        verify(this.inbox, times(2)).invalidate("wiki:XWiki.User");
+
+        // The status of the remote event could not be found
+        this.listener.onEvent(new EventStatusAddOrUpdatedEvent(), null, null);
+
+        verify(this.inbox).reset();
+    }
+}
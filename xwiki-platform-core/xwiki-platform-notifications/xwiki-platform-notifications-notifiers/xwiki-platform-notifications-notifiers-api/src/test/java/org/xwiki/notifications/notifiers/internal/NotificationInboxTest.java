@@ -0,0 +1,287 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.notifiers.internal;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.eventstream.Event;
+import org.xwiki.eventstream.EventQuery;
+import org.xwiki.eventstream.EventSearchResult;
+import org.xwiki.eventstream.EventStatus;
+import org.xwiki.eventstream.EventStore;
+import org.xwiki.eventstream.EventStreamException;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.notifications.internal.SimilarityCalculator;
+import org.xwiki.notifications.sources.internal.CompositeEventGrouper;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link NotificationInbox}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@ComponentList({CompositeEventGrouper.class, SimilarityCalculator.class})
+class NotificationInboxTest
+{
+    private static final DocumentReference USER = new DocumentReference("wiki", "XWiki", "User");
+
+    private static final String USER_ID = "wiki:XWiki.User";
+
+    private static final DocumentReference DOCUMENT = new DocumentReference("wiki", "Space", "Page");
+
+    @InjectMockComponents
+    private NotificationInbox inbox;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    @MockComponent
+    private EventStore eventStore;
+
+    @MockComponent
+    private EntityReferenceSerializer<String> serializer;
+
+    private final Map<String, Object> cacheMap = new HashMap<>();
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        Cache<Object> cache = mock(Cache.class);
+        when(cache.get(anyString())).then(invocation -> this.cacheMap.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cacheMap.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+            .set(anyString(), any());
+        doAnswer(invocation -> this.cacheMap.remove(invocation.getArgument(0))).when(cache).remove(anyString());
+        when(this.cacheManager.<Object>createNewCache(any())).thenReturn(cache);
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.serializer.serialize(USER)).thenReturn(USER_ID);
+
+        when(this.eventStore.search(any(EventQuery.class))).then(invocation -> result(3));
+    }
+
+    private EventSearchResult result(int size)
+    {
+        EventSearchResult result = mock(EventSearchResult.class);
+        Event[] events = new Event[size];
+        for (int i = 0; i < size; ++i) {
+            events[i] = event("previous" + i, new Date(size - i), null);
+        }
+        when(result.stream()).then(invocation -> Arrays.stream(events));
+
+        return result;
+    }
+
+    private Event event(String eventId, Date date, DocumentReference document)
+    {
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn(eventId);
+        when(event.getDate()).thenReturn(date);
+        when(event.getDocument()).thenReturn(document);
+        // Events with a different type and no document are never grouped
+        when(event.getType()).thenReturn(document != null ? "update" : eventId);
+
+        return event;
+    }
+
+    private EventStatus status(String eventId, Date date, boolean read)
+    {
+        return status(event(eventId, date, null), read);
+    }
+
+    private EventStatus status(Event event, boolean read)
+    {
+
+        EventStatus status = mock(EventStatus.class);
+        when(status.getEntityId()).thenReturn(USER_ID);
+        when(status.getEvent()).thenReturn(event);
+        when(status.isRead()).thenReturn(read);
+
+        return status;
+    }
+
+    private EventStatus oldStatus(boolean read)
+    {
+        return status("old", new Date(0), read);
+    }
+
+    private Date newDate()
+    {
+        // Make sure the event is more recent than the counter
+        return new Date(System.currentTimeMillis() + 60000);
+    }
+
+    private EventStatus newStatus(String eventId, boolean read)
+    {
+        return status(eventId, newDate(), read);
+    }
+
+    @Test
+    void getUnreadCount() throws Exception
+    {
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+
+        verify(this.eventStore).search(any(EventQuery.class));
+
+        this.inbox.onStatusSaved(newStatus("first", false));
+
+        assertEquals(4, this.inbox.getUnreadCount(USER, 20));
+
+        // Saving the same unread status again should not count it twice
+        this.inbox.onStatusSaved(newStatus("first", false));
+        this.inbox.onStatusSaved(newStatus("second", false));
+
+        assertEquals(5, this.inbox.getUnreadCount(USER, 20));
+
+        this.inbox.onStatusSaved(newStatus("first", true));
+        this.inbox.onStatusSaved(newStatus("first", true));
+
+        assertEquals(4, this.inbox.getUnreadCount(USER, 20));
+
+        this.inbox.onStatusDeleted(newStatus("second", false));
+
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+        verify(this.eventStore).search(any(EventQuery.class));
+    }
+
+    @Test
+    void getUnreadCountWhileSavingStatus() throws Exception
+    {
+        when(this.eventStore.search(any(EventQuery.class))).then(invocation -> {
+            // A new notification is saved while the old ones are being counted
+            this.inbox.onStatusSaved(newStatus("new", false));
+
+            return result(3);
+        });
+
+        assertEquals(4, this.inbox.getUnreadCount(USER, 20));
+    }
+
+    @Test
+    void getUnreadCountWhenFailing() throws Exception
+    {
+        EventStreamException exception = new EventStreamException("error");
+        doThrow(exception).when(this.eventStore).search(any(EventQuery.class));
+
+        assertSame(exception, assertThrows(EventStreamException.class, () -> this.inbox.getUnreadCount(USER, 20)));
+        assertEquals(0, this.cacheMap.size());
+    }
+
+    @Test
+    void onOldStatusSaved() throws Exception
+    {
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+
+        this.inbox.onStatusSaved(oldStatus(true));
+
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+        verify(this.eventStore, times(2)).search(any(EventQuery.class));
+
+        this.inbox.onStatusSaved(oldStatus(false));
+
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+        verify(this.eventStore, times(3)).search(any(EventQuery.class));
+    }
+
+    @Test
+    void onOldStatusDeleted() throws Exception
+    {
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+
+        this.inbox.onStatusDeleted(oldStatus(false));
+
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+        verify(this.eventStore, times(2)).search(any(EventQuery.class));
+    }
+
+    @Test
+    void getUnreadCountGroupsSimilarEvents() throws Exception
+    {
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+
+        // Two updates of the same document are displayed as a single notification
+        this.inbox.onStatusSaved(status(event("update1", newDate(), DOCUMENT), false));
+        this.inbox.onStatusSaved(status(event("update2", newDate(), DOCUMENT), false));
+
+        assertEquals(4, this.inbox.getUnreadCount(USER, 20));
+
+        this.inbox.onStatusSaved(status(event("update1", newDate(), DOCUMENT), true));
+
+        assertEquals(4, this.inbox.getUnreadCount(USER, 20));
+
+        this.inbox.onStatusSaved(status(event("update2", newDate(), DOCUMENT), true));
+
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+        verify(this.eventStore).search(any(EventQuery.class));
+    }
+
+    @Test
+    void getUnreadCountWithMaxCount() throws Exception
+    {
+        this.inbox.onStatusSaved(newStatus("first", false));
+
+        assertEquals(2, this.inbox.getUnreadCount(USER, 2));
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+
+        this.inbox.onStatusSaved(newStatus("second", false));
+
+        assertEquals(2, this.inbox.getUnreadCount(USER, 2));
+        assertEquals(5, this.inbox.getUnreadCount(USER, 20));
+    }
+
+    @Test
+    void invalidate() throws Exception
+    {
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+
+        this.inbox.invalidate(USER_ID);
+
+        assertEquals(3, this.inbox.getUnreadCount(USER, 20));
+        verify(this.eventStore, times(2)).search(any(EventQuery.class));
+    }
+}
@@ -208,7 +208,7 @@ protected void computeNext()
         while ((this.currentEvents.isEmpty() || this.currentUserEmail == null) && this.userIterator.hasNext()) {
             this.currentUser = this.userIterator.next();
             try {
-                this.currentUserEmail = new InternetAddress(getUserEmail(this.currentUser));
+                this.currentUserEmail = getUserAddress(this.currentUser);
             } catch (AddressException e) {
                 // The user has not written a valid email
                 continue;
@@ -335,6 +335,17 @@ private Map<String, Object> getVelocityVariables()
         return (Map<String, Object>) velocityVariables;
     }
 
+    /**
+     * @param user the user
+     * @return the email address of the user
+     * @throws AddressException when the user has not written a valid email
+     * @since 15.0RC1
+     */
+    protected InternetAddress getUserAddress(DocumentReference user) throws AddressException
+    {
+        return new InternetAddress(getUserEmail(user));
+    }
+
     private String getUserEmail(DocumentReference user)
     {
         return (String) this.documentAccessBridge.getProperty(user,
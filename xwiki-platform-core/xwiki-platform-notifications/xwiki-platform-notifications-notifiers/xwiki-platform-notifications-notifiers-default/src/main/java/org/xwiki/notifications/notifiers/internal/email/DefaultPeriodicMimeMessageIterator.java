@@ -19,13 +19,20 @@
  */
 package org.xwiki.notifications.notifiers.internal.email;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.inject.Inject;
+import javax.mail.internet.AddressException;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
@@ -37,6 +44,9 @@
 
 /**
  * Default implementation of {@link PeriodicMimeMessageIterator}.
+ * <p>
+ * The events of the users are searched by batches of users so that the event store can search the events of several
+ * users at once.
  *
  * @version $Id$
  * @since 9.10RC1
@@ -46,24 +56,99 @@
 public class DefaultPeriodicMimeMessageIterator extends AbstractMimeMessageIterator
     implements PeriodicMimeMessageIterator
 {
+    /**
+     * The maximum number of users for which to search the events at once.
+     */
+    private static final int USERS_BATCH_SIZE = 20;
+
+    private static final int EXPECTED_COUNT = Integer.MAX_VALUE / 4;
+
     @Inject
     private NotificationManager notificationManager;
 
     private Date lastTrigger;
 
+    private final Map<DocumentReference, List<CompositeEvent>> batchEvents = new HashMap<>();
+
+    private final class UserBatchIterator implements Iterator<DocumentReference>
+    {
+        private final Iterator<DocumentReference> users;
+
+        private final Deque<DocumentReference> batch = new ArrayDeque<>();
+
+        UserBatchIterator(Iterator<DocumentReference> users)
+        {
+            this.users = users;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return !this.batch.isEmpty() || this.users.hasNext();
+        }
+
+        @Override
+        public DocumentReference next()
+        {
+            if (this.batch.isEmpty()) {
+                Map<String, DocumentReference> batchUsers = new LinkedHashMap<>();
+                while (this.batch.size() < USERS_BATCH_SIZE && this.users.hasNext()) {
+                    DocumentReference user = this.users.next();
+                    this.batch.add(user);
+
+                    try {
+                        getUserAddress(user);
+
+                        batchUsers.put(serializer.serialize(user), user);
+                    } catch (AddressException e) {
+                        // The user won't receive any email
+                    }
+                }
+
+                searchEvents(batchUsers);
+            }
+
+            return this.batch.remove();
+        }
+    }
+
     @Override
     public void initialize(NotificationUserIterator userIterator, Map<String, Object> factoryParameters,
         Date lastTrigger, DocumentReference templateReference)
     {
         this.lastTrigger = lastTrigger;
 
-        super.initialize(userIterator, factoryParameters, templateReference);
+        super.initialize(new UserBatchIterator(userIterator), factoryParameters, templateReference);
+    }
+
+    private void searchEvents(Map<String, DocumentReference> users)
+    {
+        this.batchEvents.clear();
+
+        if (!users.isEmpty()) {
+            try {
+                Map<String, List<CompositeEvent>> events = this.notificationManager.getEvents(users.keySet(),
+                    NotificationFormat.EMAIL, EXPECTED_COUNT, null, this.lastTrigger, Collections.emptyList());
+                for (Map.Entry<String, List<CompositeEvent>> entry : events.entrySet()) {
+                    this.batchEvents.put(users.get(entry.getKey()), entry.getValue());
+                }
+            } catch (NotificationException e) {
+                // The events will be searched for each user
+                this.logger.warn("Failed to get the events of several users at once: {}",
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
     }
 
     @Override
     protected List<CompositeEvent> retrieveCompositeEventList(DocumentReference user) throws NotificationException
     {
+        List<CompositeEvent> events = this.batchEvents.remove(user);
+        if (events != null) {
+            return events;
+        }
+
         return this.notificationManager.getEvents(this.serializer.serialize(user), NotificationFormat.EMAIL,
-            Integer.MAX_VALUE / 4, null, this.lastTrigger, Collections.emptyList());
+            EXPECTED_COUNT, null, this.lastTrigger, Collections.emptyList());
     }
 }
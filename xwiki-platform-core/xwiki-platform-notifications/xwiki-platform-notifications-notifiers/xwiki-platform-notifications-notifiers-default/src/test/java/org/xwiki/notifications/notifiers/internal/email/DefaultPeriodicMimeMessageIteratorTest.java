@@ -199,4 +199,51 @@ void test() throws Exception
         assertEquals(this.iterator, this.iterator.iterator());
     }
 
+    @Test
+    void searchEventsOfSeveralUsers() throws Exception
+    {
+        Map<String, Object> factoryParameters = new HashMap<>();
+
+        NotificationUserIterator userIterator = mock(NotificationUserIterator.class);
+        DocumentReference userA = new DocumentReference("xwiki", "XWiki", "UserA");
+        DocumentReference userB = new DocumentReference("xwiki", "XWiki", "UserB");
+        when(userIterator.hasNext()).thenReturn(true, true, false);
+        when(userIterator.next()).thenReturn(userA, userB);
+        DocumentReference userClass = new DocumentReference("xwiki", "XWiki", "XWikiUsers");
+        when(this.documentAccessBridge.getProperty(userA, userClass, 0, "email")).thenReturn("userA@xwiki.org");
+        when(this.documentAccessBridge.getProperty(userB, userClass, 0, "email")).thenReturn("userB@xwiki.org");
+        when(this.serializer.serialize(userA)).thenReturn("xwiki:XWiki.UserA");
+        when(this.serializer.serialize(userB)).thenReturn("xwiki:XWiki.UserB");
+
+        CompositeEvent event1 = mock(CompositeEvent.class);
+        CompositeEvent event2 = mock(CompositeEvent.class);
+        Map<String, List<CompositeEvent>> events = new HashMap<>();
+        events.put("xwiki:XWiki.UserA", Arrays.asList(event1));
+        events.put("xwiki:XWiki.UserB", Arrays.asList(event2));
+        when(this.notificationManager.getEvents(Sets.newSet("xwiki:XWiki.UserA", "xwiki:XWiki.UserB"),
+            NotificationFormat.EMAIL, Integer.MAX_VALUE / 4, null, new Date(0L), Collections.emptyList()))
+                .thenReturn(events);
+
+        MimeMessage message = mock(MimeMessage.class);
+        when(this.factory.createMessage(TEMPLATE_REFERENCE, factoryParameters)).thenReturn(message, message);
+
+        this.iterator.initialize(userIterator, factoryParameters, new Date(0L), TEMPLATE_REFERENCE);
+
+        assertTrue(this.iterator.hasNext());
+        assertEquals(message, this.iterator.next());
+        assertEquals(new InternetAddress("userA@xwiki.org"), factoryParameters.get("to"));
+        Map<String, Object> velocityVariables = (Map<String, Object>) factoryParameters.get("velocityVariables");
+        assertEquals(Arrays.asList(event1), velocityVariables.get("events"));
+
+        assertTrue(this.iterator.hasNext());
+        assertEquals(message, this.iterator.next());
+        assertEquals(new InternetAddress("userB@xwiki.org"), factoryParameters.get("to"));
+        velocityVariables = (Map<String, Object>) factoryParameters.get("velocityVariables");
+        assertEquals(Arrays.asList(event2), velocityVariables.get("events"));
+
+        assertFalse(this.iterator.hasNext());
+
+        verify(this.notificationManager, never()).getEvents(anyString(), any(), anyInt(), any(), any(), any());
+    }
+
 }
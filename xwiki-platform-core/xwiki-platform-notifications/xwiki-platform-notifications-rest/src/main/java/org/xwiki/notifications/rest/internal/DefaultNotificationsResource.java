@@ -38,8 +38,10 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.notifications.CompositeEvent;
+import org.xwiki.notifications.NotificationConfiguration;
 import org.xwiki.notifications.NotificationException;
 import org.xwiki.notifications.notifiers.internal.DefaultNotificationCacheManager;
+import org.xwiki.notifications.notifiers.internal.NotificationInbox;
 import org.xwiki.notifications.rest.NotificationsResource;
 import org.xwiki.notifications.rest.model.Notifications;
 import org.xwiki.notifications.sources.NotificationParameters;
@@ -86,6 +88,12 @@ public class DefaultNotificationsResource extends XWikiResource implements Notif
     @Inject
     private RSSFeedRenderer rssFeedRenderer;
 
+    @Inject
+    private NotificationInbox inbox;
+
+    @Inject
+    private NotificationConfiguration configuration;
+
     @Override
     public Response getNotifications(String useUserPreferences, String userId, String untilDate,
         boolean untilDateIncluded, String blackList, String pages, String spaces, String wikis, String users,
@@ -132,6 +140,18 @@ spaces, wikis, users, toMaxCount(maxCount, 21), displayOwnEvents, displayMinorEv
         return response.build();
     }
 
+    private boolean isUnreadCounterRequest(XWikiUser xWikiUser, String useUserPreferences, String userId,
+        String pages, String spaces, String wikis, String users, String displayOwnEvents, String displayMinorEvents,
+        String displaySystemEvents, String displayReadEvents, String tags)
+    {
+        // Only the plain request of the current user's unread notifications can be answered by the inbox
+        return this.configuration.isRestUnreadCounterEnabled() && this.configuration.isEventPrefilteringEnabled()
+            && xWikiUser != null && TRUE.equals(useUserPreferences)
+            && xWikiUser.getUserReference().equals(this.documentReferenceResolver.resolve(userId))
+            && StringUtils.isAllEmpty(pages, spaces, wikis, users, displayOwnEvents, displayMinorEvents,
+                displaySystemEvents, displayReadEvents, tags);
+    }
+
     private int toMaxCount(String maxCount, int defaultMaxCount)
     {
         return NumberUtils.toInt(maxCount, defaultMaxCount);
@@ -189,9 +209,16 @@ public Response getNotificationsCount(String useUserPreferences, String userId,
         if (!StringUtils.isEmpty(userId) && xWikiUser == null) {
             response = Response.status(Status.UNAUTHORIZED);
         } else {
-            Object result = getCompositeEvents(useUserPreferences, userId, null, true, null, pages, spaces, wikis,
-                users, toMaxCount(maxCount, 21), displayOwnEvents, displayMinorEvents, displaySystemEvents,
-                displayReadEvents, tags, currentWiki, async, asyncId, true, true);
+            Object result;
+            if (isUnreadCounterRequest(xWikiUser, useUserPreferences, userId, pages, spaces, wikis, users,
+                displayOwnEvents, displayMinorEvents, displaySystemEvents, displayReadEvents, tags)) {
+                // Use the maintained unread events of the user inbox instead of searching and filtering the events
+                result = this.inbox.getUnreadCount(xWikiUser.getUserReference(), toMaxCount(maxCount, 21));
+            } else {
+                result = getCompositeEvents(useUserPreferences, userId, null, true, null, pages, spaces, wikis,
+                    users, toMaxCount(maxCount, 21), displayOwnEvents, displayMinorEvents, displaySystemEvents,
+                    displayReadEvents, tags, currentWiki, async, asyncId, true, true);
+            }
 
             if (result instanceof String) {
                 response = Response.status(Status.ACCEPTED);
@@ -24,7 +24,6 @@
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
@@ -56,6 +55,7 @@
 import org.xwiki.notifications.notifiers.internal.DefaultNotificationCacheManager;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.thread.ThreadFactoryManager;
 
 /**
  * Cache notification request results and limit the number of threads allowed to retrieve notification events.
@@ -89,6 +89,9 @@ public class NotificationEventExecutor implements Initializable, Disposable
     @Inject
     private DefaultNotificationCacheManager notificationCacheManager;
 
+    @Inject
+    private ThreadFactoryManager threadFactoryManager;
+
     private final AtomicLong counter = new AtomicLong();
 
     private final ConcurrentMap<String, CallableEntry> queue = new ConcurrentHashMap<>();
@@ -243,12 +246,16 @@ private class CallableEntryExecutor extends ThreadPoolExecutor implements Thread
     {
         private static final String THREAD_NAME = "Notification pool thread";
 
-        private final ThreadFactory threadFactory = Executors.defaultThreadFactory();
+        private final ThreadFactory threadFactory;
 
         CallableEntryExecutor(int poolSize)
         {
             super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
 
+            // The tasks mostly wait for the database so they can run on virtual threads when enabled (the pool size
+            // still limits the number of concurrent requests)
+            this.threadFactory = threadFactoryManager.newThreadFactory(THREAD_NAME);
+
             setThreadFactory(this);
         }
 
@@ -19,14 +19,18 @@
  */
 package org.xwiki.notifications.sources;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.notifications.CompositeEvent;
 import org.xwiki.notifications.NotificationException;
 import org.xwiki.notifications.NotificationFormat;
 import org.xwiki.notifications.preferences.NotificationPreference;
+import org.xwiki.stability.Unstable;
 
 /**
  * Get notifications for users.
@@ -115,6 +119,32 @@ default List<CompositeEvent> getEvents(String userId, NotificationFormat format,
         return getEvents(userId, format, expectedCount, untilDate, fromDate, blackList);
     }
 
+    /**
+     * Return events to display as notifications concerning each of the specified users, letting the implementation
+     * search the events of all the users at once.
+     *
+     * @param userIds the ids of the users
+     * @param format format of the notifications
+     * @param expectedCount the maximum events to return for each user
+     * @param untilDate do not return events happened after this date
+     * @param fromDate do not return events happened before this date
+     * @param blackList list of ids of blacklisted events to not return (to not get already known events again)
+     * @return the matching events for each user, associated with the id of the user
+     * @throws NotificationException if error happens
+     * @since 15.0RC1
+     */
+    @Unstable
+    default Map<String, List<CompositeEvent>> getEvents(Collection<String> userIds, NotificationFormat format,
+        int expectedCount, Date untilDate, Date fromDate, List<String> blackList) throws NotificationException
+    {
+        Map<String, List<CompositeEvent>> results = new LinkedHashMap<>(userIds.size());
+        for (String userId : userIds) {
+            results.put(userId, getEvents(userId, format, expectedCount, untilDate, fromDate, blackList));
+        }
+
+        return results;
+    }
+
     /**
      * Return the number of events to display as notifications concerning the specified user.
      *
@@ -19,11 +19,14 @@
  */
 package org.xwiki.notifications.sources;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.notifications.CompositeEvent;
 import org.xwiki.notifications.NotificationException;
+import org.xwiki.stability.Unstable;
 
 /**
  * A notification manager that work only with the parameters given to it (it will not look at the current user
@@ -42,4 +45,26 @@
      * @throws NotificationException if an error occurs
      */
     List<CompositeEvent> getEvents(NotificationParameters parameters) throws NotificationException;
+
+    /**
+     * Get the events matching several sets of parameters, letting the implementation search the events of all of them
+     * at once.
+     *
+     * @param <K> the type of the keys associated with the parameters
+     * @param parameters the parameters to take care of, associated with the keys of the result
+     * @return the corresponding composite events, associated with the same key as the parameters
+     * @throws NotificationException if an error occurs
+     * @since 15.0RC1
+     */
+    @Unstable
+    default <K> Map<K, List<CompositeEvent>> getEvents(Map<K, NotificationParameters> parameters)
+        throws NotificationException
+    {
+        Map<K, List<CompositeEvent>> results = new LinkedHashMap<>(parameters.size());
+        for (Map.Entry<K, NotificationParameters> entry : parameters.entrySet()) {
+            results.put(entry.getKey(), getEvents(entry.getValue()));
+        }
+
+        return results;
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.eventstream.Event;
+import org.xwiki.notifications.CompositeEvent;
+import org.xwiki.notifications.NotificationException;
+import org.xwiki.notifications.internal.SimilarityCalculator;
+
+/**
+ * Group similar events into composite events, the way they are displayed to the user.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = CompositeEventGrouper.class)
+@Singleton
+public class CompositeEventGrouper
+{
+    @Inject
+    private SimilarityCalculator similarityCalculator;
+
+    private static final class BestSimilarity
+    {
+        public int value;
+
+        public CompositeEvent compositeEvent;
+
+        public Event event;
+
+        public boolean isCompositeEventCompatibleWith(Event event)
+        {
+            // Here we have a composite event made of A and B.
+            // - if A is a "create" or an "update" event
+            // - if A and B have the same groupId (which means A or B is a "create" or an "update" event basically)
+            // - if B has the same type than E
+            // (or vice versa)
+            // It means the "update" event A has been triggered for technical reason, but the interesting event is
+            // B, which we can group with the event E even if it lowers the similarity between the events.
+            return compositeEvent
+                .getSimilarityBetweenEvents() >= SimilarityCalculator.SAME_GROUP_ID_AND_DOCUMENT_BUT_DIFFERENT_TYPES
+                && compositeEvent.getType().equals(event.getType());
+        }
+    }
+
+    /**
+     * Add the passed event to the most similar composite event of the list, or to a new composite event when it's
+     * not similar enough to any of them.
+     *
+     * @param results the composite events built so far, in which the event should be recorded
+     * @param event the event to record
+     * @throws NotificationException when failing to add the event to a composite event
+     */
+    public void group(List<CompositeEvent> results, Event event) throws NotificationException
+    {
+        BestSimilarity bestSimilarity = getBestSimilarity(results, event);
+
+        if (bestSimilarity.compositeEvent != null) {
+            if (bestSimilarity.value > bestSimilarity.compositeEvent.getSimilarityBetweenEvents()
+                && bestSimilarity.compositeEvent.getEvents().size() > 1) {
+                // We have found an event A inside a composite event C1 that have a greater similarity with the event E
+                // than the similarity between events (A, B, C) of that composite event (C1).
+                //
+                // It means we must remove the existing event A from that composite event C1 and create a new composite
+                // event C2 made of A and E.
+                bestSimilarity.compositeEvent.remove(bestSimilarity.event);
+
+                // Instead of creating a new composite event with A and E, we first look if an other composite event can
+                // match with A and E.
+                BestSimilarity bestSecondChoice = getBestSimilarity(results, event);
+                if (bestSecondChoice.compositeEvent != null && bestSecondChoice.isCompositeEventCompatibleWith(event)) {
+                    // We have found a composite event C2 made of events (X, Y) which have a greater similarity between
+                    // themselves than between X and the event E.
+                    // It means we cannot add E in C2.
+                    // But there is actually an exception:
+                    // - if X is a "create" or an "update" event
+                    // - if X and Y have the same groupId
+                    // - if Y has the same type than E
+                    // (or vice versa)
+                    // It means the "update" event X has been triggered for technical reason, but the interesting event
+                    // is Y, which we can group with the event E.
+                    bestSecondChoice.compositeEvent.add(bestSimilarity.event,
+                        bestSecondChoice.compositeEvent.getSimilarityBetweenEvents());
+                    bestSecondChoice.compositeEvent.add(event,
+                        bestSecondChoice.compositeEvent.getSimilarityBetweenEvents());
+                } else {
+                    CompositeEvent newCompositeEvent = new CompositeEvent(event);
+                    newCompositeEvent.add(bestSimilarity.event, bestSimilarity.value);
+                    results.add(newCompositeEvent);
+                }
+
+                return;
+            } else if (bestSimilarity.value >= bestSimilarity.compositeEvent.getSimilarityBetweenEvents()) {
+                // We have found a composite event C1 made of events (A, B, C) which have the same similarity between
+                // themselves than between A end E.
+                // All we need to do it to add E to C1.
+                bestSimilarity.compositeEvent.add(event, bestSimilarity.value);
+                return;
+            } else if (bestSimilarity.isCompositeEventCompatibleWith(event)) {
+                // We have found a composite event C1 made of events (A, B) which have a greater similarity between
+                // themselves than between A and the event E.
+                // It means we cannot add E in C1.
+                // But there is actually an exception:
+                // - if A is a "create" or an "update" event
+                // - if A and B have the same groupId
+                // - if B has the same type than E
+                // (or vice versa)
+                // It means the "update" event A has been triggered for technical reason, but the interesting event is
+                // B, which we can group with the event E.
+                bestSimilarity.compositeEvent.add(event, bestSimilarity.compositeEvent.getSimilarityBetweenEvents());
+                return;
+            }
+        }
+        // We haven't found an event that is similar to the current one, so we create a new composite event
+        results.add(new CompositeEvent(event));
+    }
+
+    private BestSimilarity getBestSimilarity(List<CompositeEvent> results, Event event)
+    {
+        BestSimilarity bestSimilarity = new BestSimilarity();
+
+        // Looking for the most similar event inside the existing composite events
+        for (CompositeEvent existingCompositeEvent : results) {
+            for (Event existingEvent : existingCompositeEvent.getEvents()) {
+                int similarity = this.similarityCalculator.computeSimilarity(event, existingEvent);
+                if (similarity < existingCompositeEvent.getSimilarityBetweenEvents()) {
+                    // Penality
+                    similarity -= 5;
+                }
+                if (similarity > bestSimilarity.value) {
+                    bestSimilarity.value = similarity;
+                    bestSimilarity.event = existingEvent;
+                    bestSimilarity.compositeEvent = existingCompositeEvent;
+                }
+            }
+        }
+
+        return bestSimilarity;
+    }
+}
@@ -19,8 +19,11 @@
  */
 package org.xwiki.notifications.sources.internal;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -102,6 +105,28 @@ public List<CompositeEvent> getEvents(String userId, NotificationFormat format,
     @Override
     public List<CompositeEvent> getEvents(String userId, NotificationFormat format, int expectedCount, Date untilDate,
         boolean untilDateIncluded, Date fromDate, List<String> blackList) throws NotificationException
+    {
+        return getEvents(
+            createParameters(userId, format, expectedCount, untilDate, untilDateIncluded, fromDate, blackList));
+    }
+
+    @Override
+    public Map<String, List<CompositeEvent>> getEvents(Collection<String> userIds, NotificationFormat format,
+        int expectedCount, Date untilDate, Date fromDate, List<String> blackList) throws NotificationException
+    {
+        Map<String, NotificationParameters> parameters = new LinkedHashMap<>(userIds.size());
+        for (String userId : userIds) {
+            NotificationParameters userParameters =
+                createParameters(userId, format, expectedCount, untilDate, true, fromDate, blackList);
+            this.parametersFactory.useUserPreferences(userParameters);
+            parameters.put(userId, userParameters);
+        }
+
+        return this.parametrizedNotificationManager.getEvents(parameters);
+    }
+
+    private NotificationParameters createParameters(String userId, NotificationFormat format, int expectedCount,
+        Date untilDate, boolean untilDateIncluded, Date fromDate, List<String> blackList)
     {
         NotificationParameters parameters = new NotificationParameters();
         parameters.user = documentReferenceResolver.resolve(userId);
@@ -112,7 +137,7 @@ public List<CompositeEvent> getEvents(String userId, NotificationFormat format,
         parameters.fromDate = fromDate;
         parameters.blackList = blackList;
 
-        return getEvents(parameters);
+        return parameters;
     }
 
     @Override
@@ -20,7 +20,9 @@
 package org.xwiki.notifications.sources.internal;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -78,6 +80,34 @@ public List<Event> searchEvents(int offset, int limit, NotificationParameters pa
         return Collections.emptyList();
     }
 
+    /**
+     * Search the events matching several sets of parameters at once.
+     *
+     * @param <K> the type of the keys associated with the parameters
+     * @param offset the index where to start returning events
+     * @param limit the maximum number of events to return for each set of parameters
+     * @param parameters the parameters to use, associated with the keys of the result
+     * @return the found events, associated with the same key as the corresponding parameters
+     * @throws QueryException when to search the events
+     * @throws EventStreamException when to search the events
+     * @since 15.0RC1
+     */
+    public <K> Map<K, List<Event>> searchEvents(int offset, int limit, Map<K, NotificationParameters> parameters)
+        throws QueryException, EventStreamException
+    {
+        // Try event store if enabled
+        if (this.configuration.isEventStoreEnabled()) {
+            return searchStoreEvents(offset, limit, parameters);
+        }
+
+        Map<K, List<Event>> results = new LinkedHashMap<>(parameters.size());
+        for (K key : parameters.keySet()) {
+            results.put(key, Collections.emptyList());
+        }
+
+        return results;
+    }
+
     /**
      * @param offset the index where to start returning events
      * @param limit the maximum number of events to return
@@ -100,4 +130,42 @@ public List<Event> searchStoreEvents(int offset, int limit, NotificationParamete
             throw new EventStreamException("Failed to close the event search result", e);
         }
     }
+
+    /**
+     * Search the events matching several sets of parameters with a single grouped search, when the event store
+     * supports it.
+     *
+     * @param <K> the type of the keys associated with the parameters
+     * @param offset the index where to start returning events
+     * @param limit the maximum number of events to return for each set of parameters
+     * @param parameters the parameters to use, associated with the keys of the result
+     * @return the found events, associated with the same key as the corresponding parameters
+     * @throws EventStreamException when to search the events
+     * @since 15.0RC1
+     */
+    public <K> Map<K, List<Event>> searchStoreEvents(int offset, int limit, Map<K, NotificationParameters> parameters)
+        throws EventStreamException
+    {
+        // Create the queries
+        Map<K, SimpleEventQuery> queries = new LinkedHashMap<>(parameters.size());
+        for (Map.Entry<K, NotificationParameters> entry : parameters.entrySet()) {
+            SimpleEventQuery query = this.eventQueryGenerator.generateQuery(entry.getValue());
+
+            query.setLimit(limit).setOffset(offset);
+
+            queries.put(entry.getKey(), query);
+        }
+
+        // Get a batch of events for each query
+        Map<K, List<Event>> results = new LinkedHashMap<>(queries.size());
+        for (Map.Entry<K, EventSearchResult> entry : this.eventStore.searchGrouped(queries, null).entrySet()) {
+            try (EventSearchResult result = entry.getValue()) {
+                results.put(entry.getKey(), result.stream().collect(Collectors.toList()));
+            } catch (Exception e) {
+                throw new EventStreamException("Failed to close the event search result", e);
+            }
+        }
+
+        return results;
+    }
 }
@@ -50,7 +50,7 @@
  * @version $Id$
  */
 @ComponentTest
-@ComponentList({SimilarityCalculator.class, EventSearcher.class})
+@ComponentList({SimilarityCalculator.class, CompositeEventGrouper.class, EventSearcher.class})
 class DefaultParametrizedNotificationManagerTest
 {
     @InjectMockComponents
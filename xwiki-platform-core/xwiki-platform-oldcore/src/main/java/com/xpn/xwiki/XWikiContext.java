@@ -27,6 +27,7 @@
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
 
 import javax.inject.Provider;
 
@@ -177,6 +178,8 @@ public class XWikiContext extends Hashtable<Object, Object>
 
     private XWikiURLFactory URLFactory;
 
+    private Function<XWikiContext, XWikiURLFactory> urlFactoryBuilder;
+
     private int cacheDuration = 0;
 
     private int classCacheSize = 20;
@@ -734,12 +737,38 @@ public void setURL(URL url)
 
     public XWikiURLFactory getURLFactory()
     {
+        // Create the URL factory on first access if it was set lazily
+        if (this.URLFactory == null && this.urlFactoryBuilder != null) {
+            // Forget the builder before calling it to protect against loops
+            Function<XWikiContext, XWikiURLFactory> builder = this.urlFactoryBuilder;
+            this.urlFactoryBuilder = null;
+            this.URLFactory = builder.apply(this);
+        }
+
         return this.URLFactory;
     }
 
     public void setURLFactory(XWikiURLFactory URLFactory)
     {
         this.URLFactory = URLFactory;
+        this.urlFactoryBuilder = null;
+    }
+
+    /**
+     * Set the URL factory lazily: it's created by the passed builder the first time {@link #getURLFactory()} is called,
+     * which avoids paying for it in contexts which never produce any URL (background threads, jobs, etc.).
+     * <p>
+     * The builder is called with the context being accessed so it's also used by the clones of this context which
+     * did not access the URL factory yet.
+     *
+     * @param builder the builder in charge of creating the URL factory for the context
+     * @since 15.0RC1
+     */
+    @Unstable
+    public void setURLFactoryBuilder(Function<XWikiContext, XWikiURLFactory> builder)
+    {
+        this.URLFactory = null;
+        this.urlFactoryBuilder = builder;
     }
 
     public XWikiForm getForm()
@@ -50,6 +50,7 @@
 import java.util.TreeMap;
 import java.util.Vector;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -181,6 +182,7 @@
 import com.xpn.xwiki.doc.rcs.XWikiRCSNodeInfo;
 import com.xpn.xwiki.internal.cache.rendering.RenderingCache;
 import com.xpn.xwiki.internal.doc.BaseObjects;
+import com.xpn.xwiki.internal.doc.XDOMCache;
 import com.xpn.xwiki.internal.doc.XWikiAttachmentList;
 import com.xpn.xwiki.internal.filter.XWikiDocumentFilterUtils;
 import com.xpn.xwiki.internal.render.OldRendering;
@@ -220,6 +222,8 @@ public class XWikiDocument implements DocumentModelBridge, Cloneable
 
     private static final String TM_FAILEDDOCUMENTPARSE = "core.document.error.failedParse";
 
+    private static final String ANALYSIS_LINKED_ENTITIES = "linkedEntities:";
+
     /**
      * An attachment waiting to be deleted at next document save.
      *
@@ -5716,9 +5720,12 @@ private Set<EntityReference> getUniqueLinkedEntityReferences(XWikiContext contex
             } else {
                 references = new LinkedHashSet<>();
 
-                // Document content
-                XDOM dom = getXDOM();
-                getUniqueLinkedEntityReferences(dom, entityTypes, references);
+                // Document content (the result is shared by all the instances of the same document version)
+                references.addAll(getContentAnalysis(ANALYSIS_LINKED_ENTITIES + entityTypes, dom -> {
+                    Set<EntityReference> contentReferences = new LinkedHashSet<>();
+                    getUniqueLinkedEntityReferences(dom, entityTypes, contentReferences);
+                    return Collections.unmodifiableSet(contentReferences);
+                }));
 
                 // XObjects
                 for (List<BaseObject> xobjects : getXObjects().values()) {
@@ -9018,7 +9025,7 @@ public XDOM getXDOM()
     {
         if (this.xdomCache == null) {
             try {
-                this.xdomCache = parseContent(getContent());
+                this.xdomCache = getSharedXDOM();
             } catch (XWikiException e) {
                 ErrorBlockGenerator errorBlockGenerator = Utils.getComponent(ErrorBlockGenerator.class);
                 return new XDOM(errorBlockGenerator.generateErrorBlocks(false, TM_FAILEDDOCUMENTPARSE,
@@ -9029,6 +9036,59 @@ public XDOM getXDOM()
         return this.xdomCache.clone();
     }
 
+    /**
+     * Get the result of an analysis of the document content (links, mentions, etc.). The result is shared by all the
+     * instances of the same document version so that the various components reacting to the modification of a
+     * document don't parse and analyze the same content again.
+     * <p>
+     * The analyzer receives the shared parsed content, which must not be modified, and should produce a result which
+     * won't be modified either.
+     *
+     * @param <T> the type of the result
+     * @param analysis the identifier of the analysis
+     * @param analyzer the function extracting the result from the parsed content
+     * @return the result of the analysis
+     * @since 15.0RC1
+     */
+    @Unstable
+    public <T> T getContentAnalysis(String analysis, Function<XDOM, T> analyzer)
+    {
+        if (this.xdomCache == null) {
+            try {
+                this.xdomCache = getSharedXDOM();
+            } catch (XWikiException e) {
+                // Let the analyzer deal with the error blocks
+                return analyzer.apply(getXDOM());
+            }
+        }
+        XDOM xdom = this.xdomCache;
+
+        // Don't share the result of an analysis of a content which does not match the saved version
+        if (!isContentShareable()) {
+            return analyzer.apply(xdom);
+        }
+
+        XDOMCache xdomSharedCache = Utils.getComponent(XDOMCache.class);
+        DocumentReference reference = getDocumentReference();
+        Locale currentLocale = getLocale();
+        String currentVersion = getVersion();
+        Syntax currentSyntax = getSyntax();
+        String currentContent = getContent();
+
+        T result = (T) xdomSharedCache.getAnalysis(analysis, reference, currentLocale, currentVersion, currentSyntax,
+            currentContent);
+        if (result == null) {
+            result = analyzer.apply(xdom);
+
+            if (result != null) {
+                xdomSharedCache.setAnalysis(result, analysis, reference, currentLocale, currentVersion, currentSyntax,
+                    currentContent);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * @return true if the document has a xwiki/1.0 syntax content
      */
@@ -9175,6 +9235,47 @@ protected static String renderXDOM(XDOM content, Syntax targetSyntax) throws XWi
         }
     }
 
+    /**
+     * Get the parsed content from the shared {@link XDOMCache} when possible, so that all instances of the same document
+     * version share the same parsing.
+     * <p>
+     * The returned XDOM may be shared with other threads and should never be modified.
+     */
+    private XDOM getSharedXDOM() throws XWikiException
+    {
+        String currentContent = getContent();
+
+        if (!isContentShareable()) {
+            return parseContent(currentContent);
+        }
+
+        XDOMCache xdomSharedCache = Utils.getComponent(XDOMCache.class);
+        DocumentReference reference = getDocumentReference();
+        Locale currentLocale = getLocale();
+        String currentVersion = getVersion();
+        Syntax currentSyntax = getSyntax();
+
+        XDOM xdom = xdomSharedCache.get(reference, currentLocale, currentVersion, currentSyntax, currentContent);
+        if (xdom == null) {
+            xdom = parseContent(currentSyntax, currentContent, reference);
+
+            xdomSharedCache.set(xdom, reference, currentLocale, currentVersion, currentSyntax, currentContent);
+        }
+
+        return xdom;
+    }
+
+    /**
+     * @return true if the parsed content of this document can be shared with other instances of the same document
+     *         version
+     */
+    private boolean isContentShareable()
+    {
+        // New documents are generally temporary and not worth sharing, and the content of a modified document (preview,
+        // script, etc.) does not match the saved version it would be shared with
+        return !isNew() && !isContentDirty() && Utils.getComponentManager().hasComponent(XDOMCache.class);
+    }
+
     private XDOM parseContent(String content) throws XWikiException
     {
         return parseContent(getSyntax(), content, getDocumentReference());
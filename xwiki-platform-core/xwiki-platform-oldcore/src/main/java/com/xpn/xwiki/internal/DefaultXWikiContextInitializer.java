@@ -19,6 +19,8 @@
  */
 package com.xpn.xwiki.internal;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.servlet.http.HttpServletRequest;
@@ -73,6 +75,9 @@ public class DefaultXWikiContextInitializer implements XWikiContextInitializer
     @Inject
     private XWikiStubContextProvider contextProvider;
 
+    @Inject
+    private XWikiContextInitializerStatistics statistics;
+
     @Inject
     private Logger logger;
 
@@ -99,6 +104,8 @@ public XWikiContextInitializer fallbackOnStub()
     @Override
     public XWikiContext initialize(ExecutionContext econtext) throws XWikiException
     {
+        long startTime = System.nanoTime();
+
         Request request = this.container.getRequest();
 
         XWikiContext xcontext;
@@ -124,7 +131,14 @@ public XWikiContext initialize(ExecutionContext econtext) throws XWikiException
                 }
 
                 if (this.authenticate) {
+                    long authenticationStartTime = System.nanoTime();
+
                     authenticate(xcontext);
+
+                    long authenticationTime = System.nanoTime() - authenticationStartTime;
+                    this.statistics.authenticated(authenticationTime);
+                    this.logger.debug("Authentication took [{}] ms.",
+                        TimeUnit.NANOSECONDS.toMillis(authenticationTime));
                 }
             } catch (XWikiException e) {
                 if (this.fallbackOnStub) {
@@ -141,6 +155,11 @@ public XWikiContext initialize(ExecutionContext econtext) throws XWikiException
             xcontext.declareInExecutionContext(econtext);
         }
 
+        long initializationTime = System.nanoTime() - startTime;
+        this.statistics.initialized(initializationTime);
+        this.logger.debug("XWikiContext initialization took [{}] ms.",
+            TimeUnit.NANOSECONDS.toMillis(initializationTime));
+
         return xcontext;
     }
 
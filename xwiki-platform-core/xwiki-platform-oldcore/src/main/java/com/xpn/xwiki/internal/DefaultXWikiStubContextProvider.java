@@ -36,7 +36,6 @@
 import com.xpn.xwiki.web.XWikiServletRequestStub;
 import com.xpn.xwiki.web.XWikiServletResponse;
 import com.xpn.xwiki.web.XWikiServletResponseStub;
-import com.xpn.xwiki.web.XWikiURLFactory;
 
 /**
  * Default implementation of XWikiStubContextProvider.
@@ -154,11 +153,12 @@ private void initiazeXWikiContext(XWikiContext stubContext)
             XWikiServletRequest request = new XWikiServletRequest(stubRequest);
             stubContext.setRequest(request);
 
-            // Each context is supposed to have a dedicated URL factory
+            // Each context is supposed to have a dedicated URL factory, but a lot of background threads never produce
+            // any URL so we create it only when it's needed
             if (stubContext.getWiki() != null) {
-                XWikiURLFactory urlf = stubContext.getWiki().getURLFactoryService()
-                    .createURLFactory(XWikiContext.MODE_SERVLET, stubContext);
-                stubContext.setURLFactory(urlf);
+                stubContext.setURLFactoryBuilder(
+                    xcontext -> xcontext.getWiki().getURLFactoryService().createURLFactory(XWikiContext.MODE_SERVLET,
+                        xcontext));
             }
         }
 
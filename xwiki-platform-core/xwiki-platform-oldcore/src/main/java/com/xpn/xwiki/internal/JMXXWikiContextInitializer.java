@@ -0,0 +1,74 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal;
+
+/**
+ * Implementation of the {@link JMXXWikiContextInitializerMBean} MBean.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class JMXXWikiContextInitializer implements JMXXWikiContextInitializerMBean
+{
+    private final XWikiContextInitializerStatistics statistics;
+
+    /**
+     * @param statistics the statistics of the context initialization
+     */
+    public JMXXWikiContextInitializer(XWikiContextInitializerStatistics statistics)
+    {
+        this.statistics = statistics;
+    }
+
+    private static double average(long time, long count)
+    {
+        return count > 0 ? (double) time / count : 0D;
+    }
+
+    @Override
+    public long getInitializationCount()
+    {
+        return this.statistics.getInitializationCount();
+    }
+
+    @Override
+    public long getInitializationTime()
+    {
+        return this.statistics.getInitializationTime();
+    }
+
+    @Override
+    public double getAverageInitializationTime()
+    {
+        return average(this.statistics.getInitializationTime(), this.statistics.getInitializationCount());
+    }
+
+    @Override
+    public long getAuthenticationCount()
+    {
+        return this.statistics.getAuthenticationCount();
+    }
+
+    @Override
+    public double getAverageAuthenticationTime()
+    {
+        return average(this.statistics.getAuthenticationTime(), this.statistics.getAuthenticationCount());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal;
+
+/**
+ * Interface of the {@link JMXXWikiContextInitializer} MBean.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public interface JMXXWikiContextInitializerMBean
+{
+    /**
+     * @return the number of initialized contexts
+     */
+    long getInitializationCount();
+
+    /**
+     * @return the total time spent initializing contexts, in milliseconds
+     */
+    long getInitializationTime();
+
+    /**
+     * @return the average time spent initializing a context, in milliseconds
+     */
+    double getAverageInitializationTime();
+
+    /**
+     * @return the number of users authentications performed while initializing contexts
+     */
+    long getAuthenticationCount();
+
+    /**
+     * @return the average time spent authenticating the user of a context, in milliseconds
+     */
+    double getAverageAuthenticationTime();
+}
@@ -0,0 +1,119 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.management.JMXBeanRegistration;
+
+/**
+ * Gather the time spent initializing the {@link com.xpn.xwiki.XWikiContext} of the requests and expose it through
+ * JMX.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = XWikiContextInitializerStatistics.class)
+@Singleton
+public class XWikiContextInitializerStatistics implements Initializable, Disposable
+{
+    private static final String MBEAN_NAME = "name=contextinitializer";
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    private final LongAdder initializationCount = new LongAdder();
+
+    private final LongAdder initializationTime = new LongAdder();
+
+    private final LongAdder authenticationCount = new LongAdder();
+
+    private final LongAdder authenticationTime = new LongAdder();
+
+    @Override
+    public void initialize()
+    {
+        this.jmxRegistration.registerMBean(new JMXXWikiContextInitializer(this), MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+    }
+
+    /**
+     * @param duration the time spent initializing a context, in nanoseconds
+     */
+    public void initialized(long duration)
+    {
+        this.initializationCount.increment();
+        this.initializationTime.add(duration);
+    }
+
+    /**
+     * @param duration the time spent authenticating the user of a context, in nanoseconds
+     */
+    public void authenticated(long duration)
+    {
+        this.authenticationCount.increment();
+        this.authenticationTime.add(duration);
+    }
+
+    /**
+     * @return the number of initialized contexts
+     */
+    public long getInitializationCount()
+    {
+        return this.initializationCount.sum();
+    }
+
+    /**
+     * @return the total time spent initializing contexts, in milliseconds
+     */
+    public long getInitializationTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.initializationTime.sum());
+    }
+
+    /**
+     * @return the number of users authentications performed while initializing contexts
+     */
+    public long getAuthenticationCount()
+    {
+        return this.authenticationCount.sum();
+    }
+
+    /**
+     * @return the total time spent authenticating the users while initializing contexts, in milliseconds
+     */
+    public long getAuthenticationTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.authenticationTime.sum());
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.util.Locale;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Shared cache of the {@link XDOM} parsed from the content of a document, so that the various instances of the same
+ * document version (store cache, clones, archive or translation copies) don't parse the same content again.
+ * <p>
+ * The cached {@link XDOM} instances are shared between threads and must never be modified: callers are expected to
+ * clone them before handing them out (which is what {@link com.xpn.xwiki.doc.XWikiDocument#getXDOM()} does).
+ * <p>
+ * Since the key contains the version and a SHA-256 digest of the content, there is no need to listen to document
+ * modifications: a modified document produce a different key and the old entry is eventually evicted. A cryptographic
+ * digest is used so that it's not possible to craft a content sharing the key (and so the parsed content) of another
+ * one.
+ * <p>
+ * The cache also keeps the results of the analyses of the parsed content (links, mentions, etc.) so that the various
+ * components reacting to the modification of a document don't analyze the same content again, see
+ * {@link com.xpn.xwiki.doc.XWikiDocument#getContentAnalysis(String, java.util.function.Function)}.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = XDOMCache.class)
+@Singleton
+public class XDOMCache implements Initializable, Disposable
+{
+    private static final String PROPNAME_CAPACITY = "xwiki.store.xdomcache.capacity";
+
+    private static final int PROPVALUE_CAPACITY = 500;
+
+    private static final char SEPARATOR = ':';
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    @Named("xwikicfg")
+    private ConfigurationSource configuration;
+
+    @Inject
+    @Named("uid")
+    private EntityReferenceSerializer<String> uidSerializer;
+
+    private Cache<XDOM> cache;
+
+    private Cache<Object> analysisCache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        int capacity = this.configuration.getProperty(PROPNAME_CAPACITY, PROPVALUE_CAPACITY);
+
+        // A capacity of 0 means the cache is disabled
+        if (capacity > 0) {
+            try {
+                this.cache =
+                    this.cacheManager.createNewCache(new LRUCacheConfiguration("xwiki.store.xdomcache", capacity));
+                this.analysisCache = this.cacheManager
+                    .createNewCache(new LRUCacheConfiguration("xwiki.store.xdomcache.analysis", capacity));
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to initialize the XDOM cache", e);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.cache.dispose();
+            this.analysisCache.dispose();
+        }
+    }
+
+    /**
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled()
+    {
+        return this.cache != null;
+    }
+
+    /**
+     * @param documentReference the reference of the document
+     * @param locale the locale of the document
+     * @param version the version of the document
+     * @param syntax the syntax of the content
+     * @param content the content of the document
+     * @return the shared (read only) parsed content or {@code null} if it's not in the cache
+     */
+    public XDOM get(DocumentReference documentReference, Locale locale, String version, Syntax syntax,
+        String content)
+    {
+        if (this.cache != null) {
+            return this.cache.get(getKey(documentReference, locale, version, syntax, content));
+        }
+
+        return null;
+    }
+
+    /**
+     * @param xdom the parsed content to share, it should not be modified anymore after this call
+     * @param documentReference the reference of the document
+     * @param locale the locale of the document
+     * @param version the version of the document
+     * @param syntax the syntax of the content
+     * @param content the content of the document
+     */
+    public void set(XDOM xdom, DocumentReference documentReference, Locale locale, String version, Syntax syntax,
+        String content)
+    {
+        if (this.cache != null) {
+            this.cache.set(getKey(documentReference, locale, version, syntax, content), xdom);
+        }
+    }
+
+    /**
+     * @param analysis the identifier of the analysis
+     * @param documentReference the reference of the document
+     * @param locale the locale of the document
+     * @param version the version of the document
+     * @param syntax the syntax of the content
+     * @param content the content of the document
+     * @return the shared (read only) result of the analysis or {@code null} if it's not in the cache
+     * @since 15.0RC1
+     */
+    public Object getAnalysis(String analysis, DocumentReference documentReference, Locale locale, String version,
+        Syntax syntax, String content)
+    {
+        if (this.analysisCache != null) {
+            return this.analysisCache
+                .get(getAnalysisKey(analysis, documentReference, locale, version, syntax, content));
+        }
+
+        return null;
+    }
+
+    /**
+     * @param result the result of the analysis to share, it should not be modified anymore after this call
+     * @param analysis the identifier of the analysis
+     * @param documentReference the reference of the document
+     * @param locale the locale of the document
+     * @param version the version of the document
+     * @param syntax the syntax of the content
+     * @param content the content of the document
+     * @since 15.0RC1
+     */
+    public void setAnalysis(Object result, String analysis, DocumentReference documentReference, Locale locale,
+        String version, Syntax syntax, String content)
+    {
+        if (this.analysisCache != null) {
+            this.analysisCache.set(getAnalysisKey(analysis, documentReference, locale, version, syntax, content),
+                result);
+        }
+    }
+
+    /**
+     * Remove all the entries from the cache.
+     */
+    public void removeAll()
+    {
+        if (this.cache != null) {
+            this.cache.removeAll();
+            this.analysisCache.removeAll();
+        }
+    }
+
+    private String getAnalysisKey(String analysis, DocumentReference documentReference, Locale locale,
+        String version, Syntax syntax, String content)
+    {
+        // The analysis identifier is put first and prefixed with its size so there is no need to escape anything
+        return analysis.length() + analysis + SEPARATOR
+            + getKey(documentReference, locale, version, syntax, content);
+    }
+
+    private String getKey(DocumentReference documentReference, Locale locale, String version, Syntax syntax,
+        String content)
+    {
+        StringBuilder builder = new StringBuilder();
+
+        // The uid serializer prefix each element with its size so there is no need to escape anything
+        builder.append(this.uidSerializer.serialize(documentReference));
+        builder.append(SEPARATOR);
+        builder.append(locale != null ? locale : Locale.ROOT);
+        builder.append(SEPARATOR);
+        builder.append(version);
+        builder.append(SEPARATOR);
+        builder.append(syntax != null ? syntax.toIdString() : "");
+        builder.append(SEPARATOR);
+        // Protect against modifications of the content which don't change the version
+        builder.append(DigestUtils.sha256Hex(content));
+
+        return builder.toString();
+    }
+}
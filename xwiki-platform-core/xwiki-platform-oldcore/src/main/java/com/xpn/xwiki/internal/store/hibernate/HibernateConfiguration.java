@@ -149,6 +149,24 @@ public String getMigrationVersion()
         return this.xwikiConfiguration.getProperty("xwiki.store.migration.version");
     }
 
+    /**
+     * @return the names of the Hibernate entities to store in the second level cache
+     * @since 15.0RC1
+     */
+    public List<String> getCachedEntities()
+    {
+        return getList("xwiki.store.hibernate.cache.entities");
+    }
+
+    /**
+     * @return the maximum number of entries of each second level cache region, per wiki
+     * @since 15.0RC1
+     */
+    public int getCacheCapacity()
+    {
+        return this.xwikiConfiguration.getProperty("xwiki.store.hibernate.cache.capacity", 10000);
+    }
+
     /**
      * @return the forced migrations
      */
@@ -58,6 +58,7 @@
 import org.hibernate.boot.registry.BootstrapServiceRegistry;
 import org.hibernate.boot.registry.BootstrapServiceRegistryBuilder;
 import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.dialect.Dialect;
 import org.hibernate.engine.jdbc.connections.spi.JdbcConnectionAccess;
@@ -93,6 +94,7 @@
 import org.xwiki.wiki.manager.WikiManagerException;
 
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.store.hibernate.cache.HibernateRegionFactory;
 import com.xpn.xwiki.internal.store.hibernate.legacy.LegacySessionImplementor;
 import com.xpn.xwiki.store.DatabaseProduct;
 import com.xpn.xwiki.store.XWikiHibernateBaseStore;
@@ -129,6 +131,11 @@ public class HibernateStore implements Disposable, Integrator, Initializable
      */
     private static final String PROPERTY_TIMEZONE_VARIABLE = "${timezone}";
 
+    /**
+     * The entities are modified by XWiki so the cache need to be updated in a transactional way.
+     */
+    private static final String CACHE_CONCURRENCY_STRATEGY = "read-write";
+
     @Inject
     private Logger logger;
 
@@ -154,6 +161,9 @@ public class HibernateStore implements Disposable, Integrator, Initializable
     @Inject
     private LoggerConfiguration loggerConfiguration;
 
+    @Inject
+    private Provider<HibernateRegionFactory> regionFactoryProvider;
+
     private DataMigrationManager dataMigrationManager;
 
     private BootstrapServiceRegistry bootstrapServiceRegistry;
@@ -324,6 +334,9 @@ public void build()
                 createConfiguration();
             }
 
+            // Setup the second level cache
+            configureCache();
+
             this.configuration.getStandardServiceRegistryBuilder().applySettings(this.configuration.getProperties());
             this.standardServiceRegistry = this.configuration.getStandardServiceRegistryBuilder().build();
 
@@ -334,6 +347,21 @@ public void build()
         }
     }
 
+    private void configureCache()
+    {
+        List<String> cachedEntities = this.hibernateConfiguration.getCachedEntities();
+
+        if (!cachedEntities.isEmpty()) {
+            this.configuration.getProperties().put(AvailableSettings.CACHE_REGION_FACTORY,
+                this.regionFactoryProvider.get());
+            this.configuration.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+
+            for (String entity : cachedEntities) {
+                this.configuration.setCacheConcurrencyStrategy(entity, CACHE_CONCURRENCY_STRATEGY);
+            }
+        }
+    }
+
     private void disposeInternal()
     {
         Session session = getCurrentSession();
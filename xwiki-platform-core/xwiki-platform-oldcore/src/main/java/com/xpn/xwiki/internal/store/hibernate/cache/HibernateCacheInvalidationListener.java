@@ -0,0 +1,147 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.hibernate.Cache;
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.bridge.event.DocumentVersionRangeDeletedEvent;
+import org.xwiki.bridge.event.WikiDeletedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.observation.remote.RemoteObservationManagerContext;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.internal.store.hibernate.HibernateConfiguration;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+
+/**
+ * Invalidate the Hibernate second level cache when the database is modified by another cluster member.
+ * <p>
+ * The document, objects, properties and attachments of the new and previous versions of the modified document are
+ * removed from the cache. The events which don't carry the modified entities (deleted wiki, deleted versions) remove
+ * all the entries of the wiki.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Named(HibernateCacheInvalidationListener.NAME)
+@Singleton
+public class HibernateCacheInvalidationListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "HibernateCacheInvalidationListener";
+
+    @Inject
+    private RemoteObservationManagerContext remoteContext;
+
+    @Inject
+    private HibernateConfiguration hibernateConfiguration;
+
+    @Inject
+    private Provider<HibernateRegionFactory> regionFactoryProvider;
+
+    @Inject
+    private Provider<HibernateStore> hibernateStoreProvider;
+
+    /**
+     * Default constructor.
+     */
+    public HibernateCacheInvalidationListener()
+    {
+        super(NAME, Arrays.asList(new DocumentCreatedEvent(), new DocumentUpdatedEvent(), new DocumentDeletedEvent(),
+            new DocumentVersionRangeDeletedEvent(), new WikiDeletedEvent()));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        // Local modifications are already taken care of by Hibernate
+        if (this.remoteContext.isRemoteState() && !this.hibernateConfiguration.getCachedEntities().isEmpty()) {
+            if (event instanceof WikiDeletedEvent) {
+                evictWiki(((WikiDeletedEvent) event).getWikiId());
+            } else if (source instanceof XWikiDocument) {
+                XWikiDocument document = (XWikiDocument) source;
+
+                if (event instanceof DocumentVersionRangeDeletedEvent) {
+                    // The deleted archive nodes are not part of the event
+                    evictWiki(document.getDocumentReference().getWikiReference().getName());
+                } else {
+                    Cache cache = this.hibernateStoreProvider.get().getSessionFactory().getCache();
+
+                    evictDocument(document, cache);
+                    // Also remove the entities which don't exist anymore
+                    if (document.getOriginalDocument() != null) {
+                        evictDocument(document.getOriginalDocument(), cache);
+                    }
+                }
+            } else {
+                // The remote event could not be converted
+                this.hibernateStoreProvider.get().getSessionFactory().getCache().evictAllRegions();
+            }
+        }
+    }
+
+    private void evictWiki(String wikiId)
+    {
+        this.regionFactoryProvider.get()
+            .evictDatabase(this.hibernateStoreProvider.get().getDatabaseFromWikiName(wikiId));
+    }
+
+    private void evictDocument(XWikiDocument document, Cache cache)
+    {
+        // Since the identifiers don't contain the wiki, this also removes the same entities from the other wikis
+        cache.evictEntityData(XWikiDocument.class.getName(), document.getId());
+
+        for (List<BaseObject> objects : document.getXObjects().values()) {
+            for (BaseObject object : objects) {
+                if (object != null) {
+                    cache.evictEntityData(BaseObject.class.getName(), object.getId());
+
+                    for (Object property : object.getFieldList()) {
+                        // Properties are their own composite identifier
+                        cache.evictEntityData(BaseProperty.class.getName(), (Serializable) property);
+                    }
+                }
+            }
+        }
+
+        for (XWikiAttachment attachment : document.getAttachmentList()) {
+            cache.evictEntityData(XWikiAttachment.class.getName(), attachment.getId());
+        }
+    }
+}
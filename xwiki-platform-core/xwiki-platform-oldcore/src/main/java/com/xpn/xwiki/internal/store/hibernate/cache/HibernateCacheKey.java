@@ -0,0 +1,78 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.cache;
+
+import java.io.Serializable;
+
+/**
+ * The key of an entry of the Hibernate second level cache. It keeps the identifier expected by Hibernate but is
+ * identified by its {@link String} representation, which is used as key of the XWiki cache.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class HibernateCacheKey implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Object id;
+
+    private final String key;
+
+    /**
+     * @param id the identifier of the entity or collection
+     * @param key the serialized identifier, including the name of the entity or collection role
+     */
+    public HibernateCacheKey(Object id, String key)
+    {
+        this.id = id;
+        this.key = key;
+    }
+
+    /**
+     * @return the identifier of the entity or collection
+     */
+    public Object getId()
+    {
+        return this.id;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj == this) {
+            return true;
+        }
+
+        return obj instanceof HibernateCacheKey && this.key.equals(((HibernateCacheKey) obj).key);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.key.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.key;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.cache;
+
+import org.hibernate.cache.internal.DefaultCacheKeysFactory;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+
+/**
+ * Produce {@link HibernateCacheKey} keys which can be converted to the {@link String} keys expected by the XWiki cache.
+ * <p>
+ * Some XWiki entities (like properties) are their own composite identifier, so the identifier itself cannot be used as
+ * key: its loggable representation, which only contains the values of the identifier properties, is used instead.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class HibernateCacheKeysFactory implements CacheKeysFactory
+{
+    /**
+     * The unique instance of this factory.
+     */
+    public static final HibernateCacheKeysFactory INSTANCE = new HibernateCacheKeysFactory();
+
+    private static final char SEPARATOR = '#';
+
+    @Override
+    public Object createCollectionKey(Object id, CollectionPersister persister, SessionFactoryImplementor factory,
+        String tenantIdentifier)
+    {
+        return createKey(id, persister.getRole(), persister.getKeyType(), factory);
+    }
+
+    @Override
+    public Object createEntityKey(Object id, EntityPersister persister, SessionFactoryImplementor factory,
+        String tenantIdentifier)
+    {
+        return createKey(id, persister.getRootEntityName(), persister.getIdentifierType(), factory);
+    }
+
+    @Override
+    public Object createNaturalIdKey(Object[] naturalIdValues, EntityPersister persister,
+        SharedSessionContractImplementor session)
+    {
+        // XWiki mapping does not use natural identifiers
+        return DefaultCacheKeysFactory.staticCreateNaturalIdKey(naturalIdValues, persister, session);
+    }
+
+    @Override
+    public Object getEntityId(Object cacheKey)
+    {
+        return ((HibernateCacheKey) cacheKey).getId();
+    }
+
+    @Override
+    public Object getCollectionId(Object cacheKey)
+    {
+        return ((HibernateCacheKey) cacheKey).getId();
+    }
+
+    @Override
+    public Object[] getNaturalIdValues(Object cacheKey)
+    {
+        return DefaultCacheKeysFactory.staticGetNaturalIdValues(cacheKey);
+    }
+
+    private HibernateCacheKey createKey(Object id, String name, Type type, SessionFactoryImplementor factory)
+    {
+        return new HibernateCacheKey(id, name + SEPARATOR + type.toLoggableString(id, factory));
+    }
+}
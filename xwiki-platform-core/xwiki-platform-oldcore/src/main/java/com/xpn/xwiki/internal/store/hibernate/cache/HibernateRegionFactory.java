@@ -0,0 +1,160 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.management.JMXBeanRegistration;
+
+import com.xpn.xwiki.internal.store.hibernate.HibernateConfiguration;
+
+/**
+ * Hibernate second level cache provider based on the XWiki {@link CacheManager}.
+ * <p>
+ * Only the entity and collection regions are supported: the query cache is not used by XWiki and enabling it with
+ * {@code hibernate.cache.use_query_cache} fails the creation of the session factory.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = HibernateRegionFactory.class)
+@Singleton
+public class HibernateRegionFactory extends RegionFactoryTemplate implements Initializable, Disposable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final String MBEAN_NAME = "name=hibernatecache";
+
+    private static final String CACHE_PREFIX = "xwiki.store.hibernate.cache.";
+
+    private static final String QUERY_CACHE_ERROR = "The XWiki second level cache does not support the query cache,"
+        + " [hibernate.cache.use_query_cache] must be disabled (region [%s])";
+
+    @Inject
+    private transient CacheManager cacheManager;
+
+    @Inject
+    private transient HibernateConfiguration hibernateConfiguration;
+
+    @Inject
+    private transient JMXBeanRegistration jmxRegistration;
+
+    private final transient Map<String, HibernateStorageAccess> storages = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize()
+    {
+        this.jmxRegistration.registerMBean(new JMXHibernateCache(this.storages), MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+    }
+
+    @Override
+    protected CacheKeysFactory getImplicitCacheKeysFactory()
+    {
+        return HibernateCacheKeysFactory.INSTANCE;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues)
+    {
+        // Nothing to prepare, the caches are created when needed
+    }
+
+    @Override
+    protected void releaseFromUseForUse()
+    {
+        this.storages.values().forEach(HibernateStorageAccess::release);
+        this.storages.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+        DomainDataRegionBuildingContext buildingContext)
+    {
+        String regionName = regionConfig.getRegionName();
+
+        HibernateStorageAccess storage =
+            new HibernateStorageAccess(database -> createCache(regionName, database));
+        this.storages.put(regionName, storage);
+
+        return storage;
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+        SessionFactoryImplementor sessionFactory)
+    {
+        throw new org.hibernate.cache.CacheException(String.format(QUERY_CACHE_ERROR, regionName));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+        SessionFactoryImplementor sessionFactory)
+    {
+        throw new org.hibernate.cache.CacheException(String.format(QUERY_CACHE_ERROR, regionName));
+    }
+
+    private Cache<Object> createCache(String regionName, String database)
+    {
+        try {
+            return this.cacheManager.createNewCache(new LRUCacheConfiguration(
+                CACHE_PREFIX + regionName + '.' + database, this.hibernateConfiguration.getCacheCapacity()));
+        } catch (CacheException e) {
+            throw new org.hibernate.cache.CacheException(
+                String.format("Failed to create the cache of region [%s] for database [%s]", regionName, database),
+                e);
+        }
+    }
+
+    /**
+     * Remove all the entries associated with the passed database.
+     *
+     * @param database the database
+     */
+    public void evictDatabase(String database)
+    {
+        this.storages.values().forEach(storage -> storage.evictDatabase(database));
+    }
+}
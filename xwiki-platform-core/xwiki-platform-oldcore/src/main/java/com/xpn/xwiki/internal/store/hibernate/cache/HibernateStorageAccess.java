@@ -0,0 +1,181 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.hibernate.Session;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.xwiki.cache.Cache;
+
+/**
+ * Store the entries of a Hibernate second level cache region in XWiki caches.
+ * <p>
+ * The same identifier can be used by different entities in different wikis so there is one cache per database, the
+ * database being the one associated with the Hibernate session.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class HibernateStorageAccess implements DomainDataStorageAccess
+{
+    /**
+     * The name of the session property containing the database the session is connected to.
+     */
+    public static final String SESSION_DATABASE = "xwiki.database";
+
+    private final Function<String, Cache<Object>> cacheFactory;
+
+    private final Map<String, Cache<Object>> caches = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param cacheFactory create the cache associated with the passed database
+     */
+    public HibernateStorageAccess(Function<String, Cache<Object>> cacheFactory)
+    {
+        this.cacheFactory = cacheFactory;
+    }
+
+    private String getDatabase(SharedSessionContractImplementor session)
+    {
+        if (session instanceof Session) {
+            return (String) ((Session) session).getProperties().get(SESSION_DATABASE);
+        }
+
+        return null;
+    }
+
+    private Cache<Object> getCache(SharedSessionContractImplementor session, boolean create)
+    {
+        String database = getDatabase(session);
+
+        // Don't cache anything if we don't know in which database we are
+        if (database == null) {
+            return null;
+        }
+
+        return create ? this.caches.computeIfAbsent(database, this.cacheFactory) : this.caches.get(database);
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session)
+    {
+        Cache<Object> cache = getCache(session, false);
+
+        Object value = cache != null ? cache.get(key.toString()) : null;
+
+        if (value != null) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+        }
+
+        return value;
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session)
+    {
+        Cache<Object> cache = getCache(session, true);
+
+        if (cache != null) {
+            cache.set(key.toString(), value);
+        }
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session)
+    {
+        Cache<Object> cache = getCache(session, false);
+
+        if (cache != null) {
+            cache.remove(key.toString());
+        } else {
+            evictData(key);
+        }
+    }
+
+    @Override
+    public boolean contains(Object key)
+    {
+        String cacheKey = key.toString();
+
+        return this.caches.values().stream().anyMatch(cache -> cache.get(cacheKey) != null);
+    }
+
+    @Override
+    public void evictData()
+    {
+        this.caches.values().forEach(Cache::removeAll);
+    }
+
+    @Override
+    public void evictData(Object key)
+    {
+        // We don't know from which database the entry comes from
+        String cacheKey = key.toString();
+        this.caches.values().forEach(cache -> cache.remove(cacheKey));
+    }
+
+    /**
+     * Remove all the entries associated with the passed database.
+     *
+     * @param database the database
+     */
+    public void evictDatabase(String database)
+    {
+        Cache<Object> cache = this.caches.get(database);
+
+        if (cache != null) {
+            cache.removeAll();
+        }
+    }
+
+    @Override
+    public void release()
+    {
+        this.caches.values().forEach(Cache::dispose);
+        this.caches.clear();
+    }
+
+    /**
+     * @return the number of entries found in the cache
+     */
+    public long getHits()
+    {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of entries not found in the cache
+     */
+    public long getMisses()
+    {
+        return this.misses.sum();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.cache;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the {@link JMXHibernateCacheMBean} MBean.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class JMXHibernateCache implements JMXHibernateCacheMBean
+{
+    private final Map<String, HibernateStorageAccess> storages;
+
+    /**
+     * @param storages the storages of the regions, indexed by region name
+     */
+    public JMXHibernateCache(Map<String, HibernateStorageAccess> storages)
+    {
+        this.storages = storages;
+    }
+
+    private <T> Map<String, T> collect(Function<HibernateStorageAccess, T> function)
+    {
+        return this.storages.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> function.apply(entry.getValue())));
+    }
+
+    @Override
+    public Map<String, Long> getHits()
+    {
+        return collect(HibernateStorageAccess::getHits);
+    }
+
+    @Override
+    public Map<String, Long> getMisses()
+    {
+        return collect(HibernateStorageAccess::getMisses);
+    }
+
+    @Override
+    public Map<String, Double> getHitRatios()
+    {
+        return collect(storage -> {
+            long hits = storage.getHits();
+            long total = hits + storage.getMisses();
+
+            return total > 0 ? (double) hits / total : 0D;
+        });
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.thread;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+
+/**
+ * Create the {@link ThreadFactory} used by the thread pools of the platform so that they can be switched to virtual
+ * threads when the JVM supports them (Java 21 and more) and it's enabled in the configuration.
+ * <p>
+ * Virtual threads are cheap, so they are interesting for pools whose threads spend most of their time waiting for
+ * the database, Solr or remote HTTP servers. Since the platform still supports Java versions without virtual threads,
+ * the corresponding API is accessed through reflection and platform threads are used when it's not available.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = ThreadFactoryManager.class)
+@Singleton
+public class ThreadFactoryManager implements Initializable
+{
+    private static final String PROPERTY_VIRTUAL = "core.virtualThreads.enabled";
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource properties;
+
+    @Inject
+    private Logger logger;
+
+    private Method ofVirtual;
+
+    private Method builderName;
+
+    private Method builderFactory;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        if (this.properties.getProperty(PROPERTY_VIRTUAL, false)) {
+            try {
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                this.builderName = builderClass.getMethod("name", String.class, long.class);
+                this.builderFactory = builderClass.getMethod("factory");
+                this.ofVirtual = Thread.class.getMethod("ofVirtual");
+            } catch (Exception e) {
+                this.logger.warn("Virtual threads are enabled but not supported by the current JVM ({}),"
+                    + " platform threads will be used instead.", System.getProperty("java.version"));
+            }
+        }
+    }
+
+    /**
+     * @return true if the created threads are virtual threads
+     */
+    public boolean isVirtual()
+    {
+        return this.ofVirtual != null;
+    }
+
+    /**
+     * Create a factory of daemon threads.
+     * <p>
+     * Note that the priority of virtual threads cannot be changed and that they are always daemon threads.
+     *
+     * @param name the prefix of the name of the threads, followed by a counter
+     * @return the thread factory
+     */
+    public ThreadFactory newThreadFactory(String name)
+    {
+        if (this.ofVirtual != null) {
+            try {
+                Object builder = this.ofVirtual.invoke(null);
+                builder = this.builderName.invoke(builder, name + ' ', 0L);
+
+                return (ThreadFactory) this.builderFactory.invoke(builder);
+            } catch (Exception e) {
+                this.logger.warn("Failed to create a virtual thread factory for [{}], using platform threads instead",
+                    name, e);
+            }
+        }
+
+        return new BasicThreadFactory.Builder().namingPattern(name + " %d").daemon(true).build();
+    }
+}
@@ -32,6 +32,7 @@
 import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.ApplicationStoppedEvent;
 import org.xwiki.observation.event.Event;
 import org.xwiki.observation.remote.RemoteObservationManagerContext;
 
@@ -76,6 +77,8 @@ public class XWikiStatsServiceImpl implements XWikiStatsService, EventListener
             add(new ActionExecutedEvent(ViewAction.VIEW_ACTION));
             add(new ActionExecutedEvent(SaveAction.ACTION_NAME));
             add(new ActionExecutedEvent(DownloadAction.ACTION_NAME));
+            // Store the statistics still waiting in memory before the database is closed
+            add(new ApplicationStoppedEvent());
         }
     };
 
@@ -133,6 +136,12 @@ public Collection<Object> getRecentActions(String action, int size, XWikiContext
     @Override
     public void onEvent(Event event, Object source, Object data)
     {
+        if (event instanceof ApplicationStoppedEvent) {
+            this.statsRegister.stop();
+
+            return;
+        }
+
         if (Utils.getComponent(RemoteObservationManagerContext.class).isRemoteState()) {
             // we do nothing when the event comes from remote instance since the remote instance is supposed to already
             // take care of this
@@ -0,0 +1,175 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.stats.impl.xwiki;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.stats.impl.StatsUtil.PeriodType;
+import com.xpn.xwiki.stats.impl.XWikiStats;
+import com.xpn.xwiki.store.XWikiHibernateStore;
+
+/**
+ * Base class of the statistics which are only made of counters (page views, visits, etc.), which can be incremented
+ * directly in the database instead of loading and saving back the whole statistics object.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public abstract class AbstractCounterStatsStoreItem extends AbstractStatsStoreItem
+{
+    /**
+     * Logging tools.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractCounterStatsStoreItem.class);
+
+    private static final String ID = "id";
+
+    /**
+     * @param name the statistic name.
+     * @param periodDate the period date.
+     * @param periodType the period type.
+     * @param context the XWiki context.
+     */
+    protected AbstractCounterStatsStoreItem(String name, Date periodDate, PeriodType periodType,
+        XWikiContext context)
+    {
+        super(name, periodDate, periodType, context);
+    }
+
+    /**
+     * @param statsList the list of statistics items to store
+     * @return a new statistics object with counters set to the increments matching the provided items
+     */
+    protected abstract XWikiStats newStats(List<XWikiStatsStoreItem> statsList);
+
+    /**
+     * @return the names of the counter properties of the statistics object
+     */
+    protected abstract List<String> getCounters();
+
+    @Override
+    public void storeInternal(List<XWikiStatsStoreItem> statsList)
+    {
+        XWikiHibernateStore store = this.context.getWiki().getHibernateStore();
+        if (store == null) {
+            return;
+        }
+
+        try {
+            store.executeWrite(this.context, session -> {
+                increment(session, statsList);
+
+                return null;
+            });
+        } catch (XWikiException e) {
+            LOGGER.error("Failed to save statistics object [{}]", getId(), e);
+        }
+    }
+
+    /**
+     * Increment the counters of several statistics, using one transaction per wiki.
+     *
+     * @param statsLists the statistics to store, each list containing items with the same identifier
+     */
+    public static void storeAll(Collection<List<XWikiStatsStoreItem>> statsLists)
+    {
+        // Group the statistics by wiki since each wiki has its own database
+        Map<String, List<List<XWikiStatsStoreItem>>> wikis = new LinkedHashMap<>();
+        for (List<XWikiStatsStoreItem> statsList : statsLists) {
+            AbstractCounterStatsStoreItem item = (AbstractCounterStatsStoreItem) statsList.get(0);
+            wikis.computeIfAbsent(item.context.getWikiId(), k -> new ArrayList<>()).add(statsList);
+        }
+
+        for (List<List<XWikiStatsStoreItem>> wikiStatsLists : wikis.values()) {
+            AbstractCounterStatsStoreItem item = (AbstractCounterStatsStoreItem) wikiStatsLists.get(0).get(0);
+            item.execute(() -> item.storeBatch(wikiStatsLists));
+        }
+    }
+
+    private void storeBatch(List<List<XWikiStatsStoreItem>> statsLists)
+    {
+        XWikiHibernateStore store = this.context.getWiki().getHibernateStore();
+        if (store == null) {
+            return;
+        }
+
+        try {
+            store.executeWrite(this.context, session -> {
+                for (List<XWikiStatsStoreItem> statsList : statsLists) {
+                    increment(session, statsList);
+                }
+
+                return null;
+            });
+        } catch (XWikiException e) {
+            // Most probably a statistics object which was inserted at the same time by another cluster member: fallback
+            // on one transaction per statistics object so that the others are not lost
+            LOGGER.warn("Failed to save [{}] statistics objects at once, trying one by one: {}", statsLists.size(),
+                e.getMessage());
+
+            for (List<XWikiStatsStoreItem> statsList : statsLists) {
+                ((AbstractCounterStatsStoreItem) statsList.get(0)).storeInternal(statsList);
+            }
+        }
+    }
+
+    private void increment(Session session, List<XWikiStatsStoreItem> statsList)
+    {
+        AbstractCounterStatsStoreItem lastItem = (AbstractCounterStatsStoreItem) statsList.get(statsList.size() - 1);
+        XWikiStats stats = lastItem.newStats(statsList);
+        List<String> counters = lastItem.getCounters();
+
+        // Increment the counters in the database without loading the current values
+        StringBuilder statement = new StringBuilder("update ");
+        statement.append(stats.getClass().getName());
+        statement.append(" set ");
+        for (int i = 0; i < counters.size(); ++i) {
+            String counter = counters.get(i);
+            if (i > 0) {
+                statement.append(", ");
+            }
+            statement.append(counter).append(" = coalesce(").append(counter).append(", 0) + :").append(counter);
+        }
+        statement.append(" where id = :id");
+
+        Query<?> query = session.createQuery(statement.toString());
+        query.setParameter(ID, stats.getId());
+        for (String counter : counters) {
+            query.setParameter(counter, stats.getIntValue(counter));
+        }
+
+        // Insert the statistics object if it does not exist yet
+        if (query.executeUpdate() == 0) {
+            session.save(stats);
+        }
+    }
+}
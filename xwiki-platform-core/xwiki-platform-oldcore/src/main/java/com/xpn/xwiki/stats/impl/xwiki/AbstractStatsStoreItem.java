@@ -82,6 +82,17 @@ public AbstractStatsStoreItem(String name, Date periodDate, PeriodType periodTyp
 
     @Override
     public void store(List<XWikiStatsStoreItem> statsList)
+    {
+        execute(() -> storeInternal(statsList));
+    }
+
+    /**
+     * Execute the provided code with the XWiki context of this statistics event.
+     *
+     * @param runnable the code to execute
+     * @since 15.0RC1
+     */
+    protected void execute(Runnable runnable)
     {
         ExecutionContext econtext = Utils.getComponent(Execution.class).getContext();
 
@@ -90,7 +101,7 @@ public void store(List<XWikiStatsStoreItem> statsList)
         try {
             econtext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, this.context);
 
-            storeInternal(statsList);
+            runnable.run();
         } finally {
             econtext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, currentContext);
         }
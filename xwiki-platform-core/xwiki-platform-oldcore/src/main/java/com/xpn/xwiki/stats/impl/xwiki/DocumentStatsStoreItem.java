@@ -19,17 +19,14 @@
  */
 package com.xpn.xwiki.stats.impl.xwiki;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import com.xpn.xwiki.XWikiContext;
-import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.stats.impl.DocumentStats;
 import com.xpn.xwiki.stats.impl.StatsUtil.PeriodType;
-import com.xpn.xwiki.store.XWikiHibernateStore;
+import com.xpn.xwiki.stats.impl.XWikiStats;
 
 /**
  * Store document statistics into the database.
@@ -37,12 +34,10 @@
  * @version $Id$
  * @since 1.4M2
  */
-public class DocumentStatsStoreItem extends AbstractStatsStoreItem
+public class DocumentStatsStoreItem extends AbstractCounterStatsStoreItem
 {
-    /**
-     * Logging tools.
-     */
-    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentStatsStoreItem.class);
+    private static final List<String> COUNTERS =
+        Arrays.asList(XWikiStats.Property.pageViews.toString(), DocumentStats.Property.visits.toString());
 
     /**
      * The action made on provided wiki/space/document.
@@ -85,44 +80,30 @@ public String getId()
     }
 
     @Override
-    public void storeInternal(List<XWikiStatsStoreItem> stats)
+    protected XWikiStats newStats(List<XWikiStatsStoreItem> stats)
     {
         DocumentStatsStoreItem lastItem = (DocumentStatsStoreItem) stats.get(stats.size() - 1);
 
-        XWikiHibernateStore store = this.context.getWiki().getHibernateStore();
-        if (store == null) {
-            return;
-        }
-
         DocumentStats documentStat =
             new DocumentStats(lastItem.name, lastItem.action, lastItem.periodDate, lastItem.periodType);
 
-        // Load old statistics object from database
-        try {
-            // TODO Fix use of deprecated call.
-            store.loadXWikiCollection(documentStat, this.context, true);
-        } catch (XWikiException e) {
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Failed to load document statistics object [{}]", getId(), e);
-            }
-        }
-
-        // Increment counters
-        documentStat.setIntValue("pageViews", documentStat.getPageViews() + stats.size());
+        documentStat.setPageViews(stats.size());
+        int visits = 0;
         for (XWikiStatsStoreItem statItem : stats) {
             DocumentStatsStoreItem docStat = (DocumentStatsStoreItem) statItem;
 
             if (docStat.isVisit) {
-                documentStat.incVisits();
+                visits++;
             }
         }
+        documentStat.setVisits(visits);
 
-        // Re-save statistics object
-        try {
-            // TODO Fix use of deprecated call.
-            store.saveXWikiCollection(documentStat, this.context, true);
-        } catch (XWikiException e) {
-            LOGGER.error("Failed to save document statistics object [{}]", getId(), e);
-        }
+        return documentStat;
+    }
+
+    @Override
+    protected List<String> getCounters()
+    {
+        return COUNTERS;
     }
 }
@@ -19,17 +19,14 @@
  */
 package com.xpn.xwiki.stats.impl.xwiki;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import com.xpn.xwiki.XWikiContext;
-import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.stats.impl.RefererStats;
 import com.xpn.xwiki.stats.impl.StatsUtil.PeriodType;
-import com.xpn.xwiki.store.XWikiHibernateStore;
+import com.xpn.xwiki.stats.impl.XWikiStats;
 
 /**
  * Store referer statistics into the database.
@@ -37,12 +34,10 @@
  * @version $Id$
  * @since 1.4M2
  */
-public class RefererStatsStoreItem extends AbstractStatsStoreItem
+public class RefererStatsStoreItem extends AbstractCounterStatsStoreItem
 {
-    /**
-     * Logging tools.
-     */
-    private static final Logger LOGGER = LoggerFactory.getLogger(RefererStatsStoreItem.class);
+    private static final List<String> COUNTERS =
+        Collections.singletonList(XWikiStats.Property.pageViews.toString());
 
     /**
      * The referer.
@@ -73,37 +68,21 @@ public String getId()
     }
 
     @Override
-    public void storeInternal(List<XWikiStatsStoreItem> stats)
+    protected XWikiStats newStats(List<XWikiStatsStoreItem> stats)
     {
         RefererStatsStoreItem lastItem = (RefererStatsStoreItem) stats.get(stats.size() - 1);
 
-        XWikiHibernateStore store = this.context.getWiki().getHibernateStore();
-        if (store == null) {
-            return;
-        }
-
         RefererStats refererStat =
             new RefererStats(lastItem.name, lastItem.referer, lastItem.periodDate, lastItem.periodType);
 
-        // Load old statistics object from database
-        try {
-            // TODO Fix use of deprecated call.
-            store.loadXWikiCollection(refererStat, this.context, true);
-        } catch (XWikiException e) {
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Failed to load referer statictics object [" + getId() + "]");
-            }
-        }
+        refererStat.setPageViews(stats.size());
 
-        // Increment counters
-        refererStat.setIntValue("pageViews", refererStat.getPageViews() + stats.size());
+        return refererStat;
+    }
 
-        // Re-save statistics object
-        try {
-            // TODO Fix use of deprecated call.
-            store.saveXWikiCollection(refererStat, this.context, true);
-        } catch (XWikiException e) {
-            LOGGER.error("Failed to save referer statictics object [" + getId() + "]");
-        }
+    @Override
+    protected List<String> getCounters()
+    {
+        return COUNTERS;
     }
 }
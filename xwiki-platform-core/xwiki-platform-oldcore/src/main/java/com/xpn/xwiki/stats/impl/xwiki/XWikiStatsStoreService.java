@@ -21,10 +21,11 @@
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +58,32 @@ public class XWikiStatsStoreService extends AbstractXWikiRunnable
      */
     private ArrayBlockingQueue<XWikiStatsStoreItem> queue;
 
+    /**
+     * The statistics waiting to be stored, indexed by identifier so that the same statistics are merged in one
+     * database query.
+     */
+    private final Map<String, List<XWikiStatsStoreItem>> pending = new LinkedHashMap<>();
+
+    /**
+     * The number of statistics items waiting to be stored.
+     */
+    private int pendingSize;
+
+    /**
+     * The date (in milliseconds) at which the pending statistics should be stored.
+     */
+    private long flushDate;
+
+    /**
+     * The maximum time (in milliseconds) during which the statistics are aggregated in memory before being stored.
+     */
+    private long flushInterval;
+
+    /**
+     * The maximum number of statistics items aggregated in memory before being stored.
+     */
+    private long flushSize;
+
     /**
      * The thread on which the storing service is running.
      */
@@ -77,6 +104,8 @@ public XWikiStatsStoreService(XWikiContext context)
         this.xwikiContext = context.clone();
         long queueSize = context.getWiki().ParamAsLong("stats.queue.size", 200);
         this.queue = new ArrayBlockingQueue<>((int) queueSize);
+        this.flushInterval = context.getWiki().ParamAsLong("xwiki.stats.flush.interval", 10000);
+        this.flushSize = context.getWiki().ParamAsLong("xwiki.stats.flush.size", 1000);
     }
 
     @Override
@@ -100,11 +129,14 @@ public void start()
     }
 
     /**
-     * Stop storing thread.
+     * Stop storing thread, after storing the statistics which are still waiting.
      */
     public void stop()
     {
-        this.queue.clear();
+        if (this.thread == null) {
+            return;
+        }
+
         try {
             this.queue.put(new StopStatsRegisterObject());
             this.thread.join();
@@ -136,44 +168,70 @@ public void runInternal() throws InterruptedException
     }
 
     /**
-     * Store the statistics in the queue.
+     * Aggregate the statistics in the queue and store them when the flush interval is elapsed or when there is too many
+     * of them.
      *
      * @throws InterruptedException thread has been interrupted.
      * @throws StopStatsStoreException service received stop order.
      */
     private void register() throws InterruptedException, StopStatsStoreException
     {
-        XWikiStatsStoreItem stat = this.queue.take();
-
-        List<List<XWikiStatsStoreItem>> statsList = new ArrayList<>();
-        Map<String, List<XWikiStatsStoreItem>> statsMap = new HashMap<>();
+        XWikiStatsStoreItem stat;
+        if (this.pending.isEmpty()) {
+            stat = this.queue.take();
+        } else {
+            stat = this.queue.poll(this.flushDate - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
 
-        do {
+        while (stat != null) {
             if (stat instanceof StopStatsRegisterObject) {
+                // Make sure the statistics waiting in memory are not lost
+                flush();
+
                 throw new StopStatsStoreException();
             }
 
-            String statId = stat.getId();
-
-            List<XWikiStatsStoreItem> stats = statsMap.get(statId);
+            if (this.pending.isEmpty()) {
+                this.flushDate = System.currentTimeMillis() + this.flushInterval;
+            }
 
-            if (stats == null) {
-                stats = new ArrayList<>();
+            this.pending.computeIfAbsent(stat.getId(), k -> new ArrayList<>()).add(stat);
+            ++this.pendingSize;
 
-                statsMap.put(statId, stats);
-                statsList.add(stats);
+            if (this.pendingSize >= this.flushSize) {
+                break;
             }
 
-            stats.add(stat);
-
             stat = this.queue.poll();
-        } while (stat != null);
+        }
 
-        for (List<XWikiStatsStoreItem> stats : statsList) {
-            stats.get(0).store(stats);
+        if (this.pendingSize >= this.flushSize || System.currentTimeMillis() >= this.flushDate) {
+            flush();
         }
     }
 
+    /**
+     * Store the statistics waiting in memory.
+     */
+    private void flush()
+    {
+        // Counters are incremented in one transaction per wiki, the other statistics are stored one by one
+        List<List<XWikiStatsStoreItem>> counters = new ArrayList<>();
+        for (List<XWikiStatsStoreItem> stats : this.pending.values()) {
+            if (stats.get(0) instanceof AbstractCounterStatsStoreItem) {
+                counters.add(stats);
+            } else {
+                stats.get(0).store(stats);
+            }
+        }
+        if (!counters.isEmpty()) {
+            AbstractCounterStatsStoreItem.storeAll(counters);
+        }
+
+        this.pending.clear();
+        this.pendingSize = 0;
+    }
+
     // ////////////////////////////////////////////////////////////////////////////
     // Add stats to queue
     // ////////////////////////////////////////////////////////////////////////////
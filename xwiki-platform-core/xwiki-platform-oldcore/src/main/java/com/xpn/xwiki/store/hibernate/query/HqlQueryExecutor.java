@@ -19,7 +19,9 @@
  */
 package com.xpn.xwiki.store.hibernate.query;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +45,8 @@
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.context.Execution;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.query.FilledQueryResult;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryExecutor;
@@ -50,6 +54,7 @@
 import org.xwiki.query.QueryParameter;
 import org.xwiki.query.SecureQuery;
 import org.xwiki.query.WrappingQuery;
+import org.xwiki.query.internal.FillingViewableQueryFilter;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
 
@@ -78,6 +83,34 @@ public class HqlQueryExecutor implements QueryExecutor, Initializable
 
     private static final String ESCAPE_LIKE_PARAMETERS_FILTER = "escapeLikeParameters";
 
+    /**
+     * The maximum number of times a query using the "fillViewable" filter is executed to fill its limit. It's a
+     * protection against users who can't view most of the matching entities, in which case the query would otherwise
+     * go through all of them.
+     */
+    private static final int MAX_BATCHES = 10;
+
+    /**
+     * Query executing the next rows of a filtered query.
+     */
+    private static final class BatchQuery extends WrappingQuery
+    {
+        private final int offset;
+
+        BatchQuery(Query query, int offset)
+        {
+            super(query);
+
+            this.offset = offset;
+        }
+
+        @Override
+        public int getOffset()
+        {
+            return this.offset;
+        }
+    }
+
     @Inject
     private HibernateStore hibernate;
 
@@ -165,18 +198,17 @@ public <T> List<T> execute(final Query query) throws QueryException
             // Filter the query
             Query filteredQuery = filterQuery(query);
 
-            // Execute the query
-            List<T> results = getStore().executeRead(getContext(), session -> {
-                org.hibernate.query.Query<T> hquery = createQuery(session, filteredQuery);
+            FillingViewableQueryFilter fillingFilter = getFillingFilter(query);
+            if (fillingFilter != null && query.getLimit() > 0) {
+                return fillResults(query, filteredQuery, fillingFilter);
+            }
 
-                return hquery.list();
-            });
+            // Execute the query
+            List<T> results = executeQuery(filteredQuery);
 
             // Filter the query result
-            if (query.getFilters() != null && !query.getFilters().isEmpty()) {
-                for (QueryFilter filter : query.getFilters()) {
-                    results = filter.filterResults(results);
-                }
+            if (query.getFilters() != null) {
+                results = filterResults(query.getFilters(), results);
             }
 
             return results;
@@ -187,6 +219,80 @@ public <T> List<T> execute(final Query query) throws QueryException
         }
     }
 
+    private <T> List<T> executeQuery(Query filteredQuery) throws XWikiException
+    {
+        return getStore().executeRead(getContext(), session -> {
+            org.hibernate.query.Query<T> hquery = createQuery(session, filteredQuery);
+
+            return hquery.list();
+        });
+    }
+
+    private <T> List<T> filterResults(List<QueryFilter> filters, List<T> rows)
+    {
+        List<T> results = rows;
+        for (QueryFilter filter : filters) {
+            results = filter.filterResults(results);
+        }
+
+        return results;
+    }
+
+    private FillingViewableQueryFilter getFillingFilter(Query query)
+    {
+        if (query.getFilters() != null) {
+            for (QueryFilter filter : query.getFilters()) {
+                if (filter instanceof FillingViewableQueryFilter) {
+                    return (FillingViewableQueryFilter) filter;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private <T> List<T> fillResults(Query query, Query filteredQuery, FillingViewableQueryFilter viewableFilter)
+        throws XWikiException, QueryException
+    {
+        List<QueryFilter> filters = query.getFilters();
+        int viewableIndex = filters.indexOf(viewableFilter);
+        List<QueryFilter> filtersBefore = filters.subList(0, viewableIndex);
+        List<QueryFilter> filtersAfter = filters.subList(viewableIndex + 1, filters.size());
+
+        int limit = query.getLimit();
+        int nextOffset = Math.max(query.getOffset(), 0);
+        List<T> results = new ArrayList<>(limit);
+        // Shared by all the batches so that the access of each entity is checked only once
+        Map<EntityReference, Boolean> access = new HashMap<>();
+        boolean more = true;
+        for (int batch = 0; more && results.size() < limit && batch < MAX_BATCHES; ++batch) {
+            List<T> rows = executeQuery(new BatchQuery(filteredQuery, nextOffset));
+            int rowCount = rows.size();
+            more = rowCount == limit;
+
+            // The other filters are expected to produce one result per row so that we know which rows are consumed
+            List<T> batchResults = filterResults(filtersBefore, rows);
+            if (batchResults.size() != rowCount) {
+                throw new QueryException(String.format("The [%s] filter requires the other filters to produce one"
+                    + " result per row", FillingViewableQueryFilter.HINT), query, null);
+            }
+
+            int index = 0;
+            for (; index < rowCount && results.size() < limit; ++index) {
+                T result = batchResults.get(index);
+                if (viewableFilter.isViewable(result, access)) {
+                    results.add(result);
+                }
+            }
+
+            nextOffset += index;
+            // The limit was filled before the end of the batch
+            more |= index < rowCount;
+        }
+
+        return new FilledQueryResult<>(filterResults(filtersAfter, results), nextOffset, more);
+    }
+
     protected Query filterQuery(Query query)
     {
         Query filteredQuery = query;
@@ -51,6 +51,8 @@
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryFilter;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ContentParser;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.security.authorization.AccessDeniedException;
 import org.xwiki.security.authorization.Right;
@@ -64,6 +66,7 @@
 import com.xpn.xwiki.XWikiConstant;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.doc.XDOMCache;
 import com.xpn.xwiki.internal.doc.XWikiAttachmentList;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.StringProperty;
@@ -93,6 +96,7 @@
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -1802,4 +1806,64 @@ void getBackLinkedReferences() throws XWikiException, LinkException
         assertEquals(Set.of(backlink1, backlink21.withoutLocale()),
             new HashSet<>(doc.getBackLinkedReferences(this.oldcore.getXWikiContext())));
     }
+
+    @Test
+    void getXDOMSharesOnlySavedContent() throws Exception
+    {
+        XDOMCache xdomCache = this.oldcore.getMocker().registerMockComponent(XDOMCache.class);
+        ContentParser contentParser = this.oldcore.getMocker().registerMockComponent(ContentParser.class);
+        when(contentParser.parse(any(), any(), any())).thenReturn(new XDOM(Collections.emptyList()));
+
+        // Unsaved modification of the content
+        XWikiDocument modifiedDocument = new XWikiDocument(DOCUMENT_REFERENCE);
+        modifiedDocument.setSyntax(Syntax.PLAIN_1_0);
+        modifiedDocument.setContent("modified");
+        modifiedDocument.setNew(false);
+
+        modifiedDocument.getXDOM();
+
+        verifyNoInteractions(xdomCache);
+
+        // Content matching the saved version
+        XWikiDocument savedDocument = new XWikiDocument(DOCUMENT_REFERENCE);
+        savedDocument.setSyntax(Syntax.PLAIN_1_0);
+        savedDocument.setContent("saved");
+        savedDocument.setNew(false);
+        savedDocument.setContentDirty(false);
+
+        savedDocument.getXDOM();
+
+        verify(xdomCache).get(eq(DOCUMENT_REFERENCE), any(), any(), eq(Syntax.PLAIN_1_0), eq("saved"));
+        verify(xdomCache).set(any(), eq(DOCUMENT_REFERENCE), any(), any(), eq(Syntax.PLAIN_1_0), eq("saved"));
+    }
+
+    @Test
+    void getContentAnalysisSharesOnlySavedContent() throws Exception
+    {
+        XDOMCache xdomCache = this.oldcore.getMocker().registerMockComponent(XDOMCache.class);
+        ContentParser contentParser = this.oldcore.getMocker().registerMockComponent(ContentParser.class);
+        when(contentParser.parse(any(), any(), any())).thenReturn(new XDOM(Collections.emptyList()));
+
+        // Unsaved modification of the content
+        XWikiDocument modifiedDocument = new XWikiDocument(DOCUMENT_REFERENCE);
+        modifiedDocument.setSyntax(Syntax.PLAIN_1_0);
+        modifiedDocument.setContent("modified");
+        modifiedDocument.setNew(false);
+
+        assertEquals("modified result", modifiedDocument.getContentAnalysis("analysis", xdom -> "modified result"));
+
+        verifyNoInteractions(xdomCache);
+
+        // Content matching the saved version
+        XWikiDocument savedDocument = new XWikiDocument(DOCUMENT_REFERENCE);
+        savedDocument.setSyntax(Syntax.PLAIN_1_0);
+        savedDocument.setContent("saved");
+        savedDocument.setNew(false);
+        savedDocument.setContentDirty(false);
+
+        assertEquals("saved result", savedDocument.getContentAnalysis("analysis", xdom -> "saved result"));
+
+        verify(xdomCache).setAnalysis(eq("saved result"), eq("analysis"), eq(DOCUMENT_REFERENCE), any(), any(),
+            eq(Syntax.PLAIN_1_0), eq("saved"));
+    }
 }
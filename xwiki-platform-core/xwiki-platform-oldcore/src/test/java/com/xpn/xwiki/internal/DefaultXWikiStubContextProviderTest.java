@@ -19,11 +19,12 @@
  */
 package com.xpn.xwiki.internal;
 
+import javax.inject.Provider;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.invocation.InvocationOnMock;
-import org.mockito.stubbing.Answer;
 import org.xwiki.context.Execution;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
@@ -45,6 +46,8 @@
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -58,6 +61,9 @@
     @MockComponent
     private Execution execution;
 
+    @MockComponent
+    private Provider<DocumentReference> defaultDocumentReferenceProvider;
+
     @InjectMockitoOldcore
     private MockitoOldcore oldcore;
 
@@ -96,16 +102,11 @@ public void createStubContextWithLoopProtection()
     {
         XWikiContext[] subContext = new XWikiContext[1];
 
-        when(this.urlFactoryService.createURLFactory(anyInt(), any())).then(new Answer<XWikiURLFactory>()
-        {
-            @Override
-            public XWikiURLFactory answer(InvocationOnMock invocation) throws Throwable
-            {
-                // Check if the protection is set
-                subContext[0] = provider.createStubContext();
+        when(this.defaultDocumentReferenceProvider.get()).then(invocation -> {
+            // Check if the protection is set
+            subContext[0] = this.provider.createStubContext();
 
-                return null;
-            }
+            return new DocumentReference("wiki", "Space", "Page");
         });
 
         XWikiContext xcontext = this.provider.createStubContext();
@@ -114,6 +115,20 @@ public XWikiURLFactory answer(InvocationOnMock invocation) throws Throwable
         assertNotSame(this.oldcore.getXWikiContext(), xcontext);
     }
 
+    @Test
+    public void createStubContextWithLazyURLFactory()
+    {
+        XWikiContext xcontext = this.provider.createStubContext();
+
+        verify(this.urlFactoryService, never()).createURLFactory(anyInt(), any());
+
+        XWikiURLFactory urlFactory = xcontext.getURLFactory();
+        assertNotNull(urlFactory);
+        assertSame(urlFactory, xcontext.getURLFactory());
+
+        verify(this.urlFactoryService).createURLFactory(XWikiContext.MODE_SERVLET, xcontext);
+    }
+
     @Test
     public void createStubContextWithNoExecutionContext()
     {
@@ -0,0 +1,70 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Validate {@link XWikiContextInitializerStatistics}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XWikiContextInitializerStatisticsTest
+{
+    @InjectMockComponents
+    private XWikiContextInitializerStatistics statistics;
+
+    @MockComponent
+    private JMXBeanRegistration jmxRegistration;
+
+    @Test
+    void statistics()
+    {
+        ArgumentCaptor<JMXXWikiContextInitializerMBean> mbeanCaptor =
+            ArgumentCaptor.forClass(JMXXWikiContextInitializerMBean.class);
+        verify(this.jmxRegistration).registerMBean(mbeanCaptor.capture(), eq("name=contextinitializer"));
+        JMXXWikiContextInitializerMBean mbean = mbeanCaptor.getValue();
+
+        assertEquals(0, mbean.getInitializationCount());
+        assertEquals(0D, mbean.getAverageInitializationTime());
+
+        this.statistics.initialized(TimeUnit.MILLISECONDS.toNanos(10));
+        this.statistics.initialized(TimeUnit.MILLISECONDS.toNanos(20));
+        this.statistics.authenticated(TimeUnit.MILLISECONDS.toNanos(4));
+
+        assertEquals(2, mbean.getInitializationCount());
+        assertEquals(30, mbean.getInitializationTime());
+        assertEquals(15D, mbean.getAverageInitializationTime());
+        assertEquals(1, mbean.getAuthenticationCount());
+        assertEquals(4D, mbean.getAverageAuthenticationTime());
+    }
+}
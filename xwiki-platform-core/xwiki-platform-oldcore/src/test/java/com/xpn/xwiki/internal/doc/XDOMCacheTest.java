@@ -0,0 +1,151 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link XDOMCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XDOMCacheTest
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    @InjectMockComponents
+    private XDOMCache xdomCache;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    @MockComponent
+    @Named("xwikicfg")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    @Named("uid")
+    private EntityReferenceSerializer<String> uidSerializer;
+
+    private final Map<String, XDOM> cacheMap = new HashMap<>();
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        when(this.configuration.getProperty("xwiki.store.xdomcache.capacity", 500)).thenReturn(500);
+
+        Cache<XDOM> cache = mock(Cache.class);
+        when(cache.get(anyString())).then(invocation -> this.cacheMap.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cacheMap.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+            .set(anyString(), any());
+        when(this.cacheManager.<XDOM>createNewCache(any(CacheConfiguration.class))).thenReturn(cache);
+
+        when(this.uidSerializer.serialize(DOCUMENT_REFERENCE)).thenReturn("4:wiki5:Space4:Page");
+    }
+
+    @Test
+    void getAndSet()
+    {
+        XDOM xdom = new XDOM(Collections.emptyList());
+
+        assertNull(this.xdomCache.get(DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1, "content"));
+
+        this.xdomCache.set(xdom, DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1, "content");
+
+        assertSame(xdom, this.xdomCache.get(DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1, "content"));
+        assertNull(this.xdomCache.get(DOCUMENT_REFERENCE, Locale.ROOT, "1.2", Syntax.XWIKI_2_1, "content"));
+        assertNull(this.xdomCache.get(DOCUMENT_REFERENCE, Locale.FRENCH, "1.1", Syntax.XWIKI_2_1, "content"));
+        assertNull(this.xdomCache.get(DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_0, "content"));
+        assertNull(this.xdomCache.get(DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1, "modified"));
+    }
+
+    @Test
+    void getWithSameContentHashCode()
+    {
+        XDOM xdom = new XDOM(Collections.emptyList());
+
+        // Both contents have the same size and the same String#hashCode()
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        this.xdomCache.set(xdom, DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1, "Aa");
+
+        assertSame(xdom, this.xdomCache.get(DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1, "Aa"));
+        assertNull(this.xdomCache.get(DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1, "BB"));
+    }
+
+    @Test
+    void getAndSetAnalysis()
+    {
+        assertNull(this.xdomCache.getAnalysis("plain", DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1,
+            "content"));
+
+        this.xdomCache.setAnalysis("result", "plain", DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1,
+            "content");
+
+        assertEquals("result", this.xdomCache.getAnalysis("plain", DOCUMENT_REFERENCE, Locale.ROOT, "1.1",
+            Syntax.XWIKI_2_1, "content"));
+        assertNull(this.xdomCache.getAnalysis("links", DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1,
+            "content"));
+        assertNull(this.xdomCache.getAnalysis("plain", DOCUMENT_REFERENCE, Locale.ROOT, "1.2", Syntax.XWIKI_2_1,
+            "content"));
+        assertNull(this.xdomCache.getAnalysis("plain", DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1,
+            "modified"));
+
+        // Contents with the same size and String#hashCode() don't share their analysis
+        assertNull(this.xdomCache.getAnalysis("plain", DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1,
+            "Aa"));
+        this.xdomCache.setAnalysis("Aa result", "plain", DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1,
+            "Aa");
+        assertNull(this.xdomCache.getAnalysis("plain", DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1,
+            "BB"));
+
+        // The parsed content and the analysis don't share the same entries
+        assertNull(this.xdomCache.get(DOCUMENT_REFERENCE, Locale.ROOT, "1.1", Syntax.XWIKI_2_1, "content"));
+    }
+}
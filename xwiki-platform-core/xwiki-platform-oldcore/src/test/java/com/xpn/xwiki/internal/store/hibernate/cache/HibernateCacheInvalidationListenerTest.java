@@ -0,0 +1,179 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.bridge.event.DocumentVersionRangeDeletedEvent;
+import org.xwiki.bridge.event.WikiDeletedEvent;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.observation.remote.RemoteObservationManagerContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.store.hibernate.HibernateConfiguration;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link HibernateCacheInvalidationListener}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class HibernateCacheInvalidationListenerTest
+{
+    private static final DocumentReference DOCUMENT = new DocumentReference("wiki", "Space", "Page");
+
+    @InjectMockComponents
+    private HibernateCacheInvalidationListener listener;
+
+    @MockComponent
+    private RemoteObservationManagerContext remoteContext;
+
+    @MockComponent
+    private HibernateConfiguration hibernateConfiguration;
+
+    @MockComponent
+    private HibernateRegionFactory regionFactory;
+
+    @MockComponent
+    private HibernateStore hibernateStore;
+
+    private Cache cache;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.remoteContext.isRemoteState()).thenReturn(true);
+        when(this.hibernateConfiguration.getCachedEntities())
+            .thenReturn(Collections.singletonList(XWikiDocument.class.getName()));
+        when(this.hibernateStore.getDatabaseFromWikiName("wiki")).thenReturn("database");
+
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(this.hibernateStore.getSessionFactory()).thenReturn(sessionFactory);
+        this.cache = mock(Cache.class);
+        when(sessionFactory.getCache()).thenReturn(this.cache);
+    }
+
+    private XWikiDocument mockDocument(long id, BaseObject object, XWikiAttachment attachment)
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getId()).thenReturn(id);
+        when(document.getDocumentReference()).thenReturn(DOCUMENT);
+        when(document.getXObjects())
+            .thenReturn(Collections.singletonMap(DOCUMENT, Arrays.asList(null, object)));
+        when(document.getAttachmentList()).thenReturn(Collections.singletonList(attachment));
+
+        return document;
+    }
+
+    private BaseObject mockObject(long id, BaseProperty<?> property)
+    {
+        BaseObject object = mock(BaseObject.class);
+        when(object.getId()).thenReturn(id);
+        when(object.getFieldList()).thenReturn(Collections.singletonList(property));
+
+        return object;
+    }
+
+    private XWikiAttachment mockAttachment(long id)
+    {
+        XWikiAttachment attachment = mock(XWikiAttachment.class);
+        when(attachment.getId()).thenReturn(id);
+
+        return attachment;
+    }
+
+    @Test
+    void onRemoteDocumentUpdated()
+    {
+        BaseProperty<?> property = new BaseProperty<>();
+        property.setId(2L);
+        property.setName("property");
+        BaseProperty<?> deletedProperty = new BaseProperty<>();
+        deletedProperty.setId(4L);
+        deletedProperty.setName("deletedProperty");
+        XWikiDocument document = mockDocument(1L, mockObject(2L, property), mockAttachment(3L));
+        XWikiDocument originalDocument = mockDocument(1L, mockObject(4L, deletedProperty), mockAttachment(5L));
+        when(document.getOriginalDocument()).thenReturn(originalDocument);
+
+        this.listener.onEvent(new DocumentUpdatedEvent(DOCUMENT), document, null);
+
+        verify(this.cache, times(2)).evictEntityData(XWikiDocument.class.getName(), 1L);
+        verify(this.cache).evictEntityData(BaseObject.class.getName(), 2L);
+        verify(this.cache).evictEntityData(BaseProperty.class.getName(), property);
+        verify(this.cache).evictEntityData(XWikiAttachment.class.getName(), 3L);
+        verify(this.cache).evictEntityData(BaseObject.class.getName(), 4L);
+        verify(this.cache).evictEntityData(BaseProperty.class.getName(), deletedProperty);
+        verify(this.cache).evictEntityData(XWikiAttachment.class.getName(), 5L);
+        verify(this.regionFactory, never()).evictDatabase(anyString());
+    }
+
+    @Test
+    void onRemoteDocumentVersionRangeDeleted()
+    {
+        XWikiDocument document = mockDocument(1L, null, mockAttachment(3L));
+
+        this.listener.onEvent(new DocumentVersionRangeDeletedEvent(DOCUMENT, "1.1", "1.2"), document, null);
+
+        verify(this.regionFactory).evictDatabase("database");
+        verifyNoInteractions(this.cache);
+    }
+
+    @Test
+    void onRemoteWikiDeleted()
+    {
+        this.listener.onEvent(new WikiDeletedEvent("wiki"), "wiki", null);
+
+        verify(this.regionFactory).evictDatabase("database");
+        verifyNoInteractions(this.cache);
+    }
+
+    @Test
+    void onLocalDocumentUpdated()
+    {
+        when(this.remoteContext.isRemoteState()).thenReturn(false);
+
+        this.listener.onEvent(new DocumentUpdatedEvent(DOCUMENT), mock(XWikiDocument.class), null);
+
+        verifyNoInteractions(this.cache);
+        verify(this.regionFactory, never()).evictDatabase(any());
+    }
+}
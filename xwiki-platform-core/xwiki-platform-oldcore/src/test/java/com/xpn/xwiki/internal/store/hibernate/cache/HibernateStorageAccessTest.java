@@ -0,0 +1,140 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link HibernateStorageAccess}.
+ *
+ * @version $Id$
+ */
+class HibernateStorageAccessTest
+{
+    private static final HibernateCacheKey KEY = new HibernateCacheKey(42L, "com.xpn.xwiki.doc.XWikiDocument#42");
+
+    private final Map<String, Map<String, Object>> databases = new HashMap<>();
+
+    private HibernateStorageAccess storage;
+
+    private SessionImplementor wiki1Session;
+
+    private SessionImplementor wiki2Session;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.storage = new HibernateStorageAccess(this::createCache);
+
+        this.wiki1Session = mockSession("wiki1");
+        this.wiki2Session = mockSession("wiki2");
+    }
+
+    private SessionImplementor mockSession(String database)
+    {
+        SessionImplementor session = mock(SessionImplementor.class);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(HibernateStorageAccess.SESSION_DATABASE, database);
+        when(session.getProperties()).thenReturn(properties);
+
+        return session;
+    }
+
+    private Cache<Object> createCache(String database)
+    {
+        Map<String, Object> map = this.databases.computeIfAbsent(database, key -> new HashMap<>());
+
+        Cache<Object> cache = mock(Cache.class);
+        when(cache.get(anyString())).then(invocation -> map.get(invocation.getArgument(0)));
+        doAnswer(invocation -> map.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+            .set(anyString(), any());
+        doAnswer(invocation -> map.remove(invocation.getArgument(0))).when(cache).remove(anyString());
+        doAnswer(invocation -> {
+            map.clear();
+            return null;
+        }).when(cache).removeAll();
+
+        return cache;
+    }
+
+    @Test
+    void putAndGet()
+    {
+        assertNull(this.storage.getFromCache(KEY, this.wiki1Session));
+
+        this.storage.putIntoCache(KEY, "value1", this.wiki1Session);
+
+        assertEquals("value1", this.storage.getFromCache(KEY, this.wiki1Session));
+        // The same identifier in another wiki is another entity
+        assertNull(this.storage.getFromCache(KEY, this.wiki2Session));
+
+        this.storage.putIntoCache(KEY, "value2", this.wiki2Session);
+
+        assertEquals("value1", this.storage.getFromCache(KEY, this.wiki1Session));
+        assertEquals("value2", this.storage.getFromCache(KEY, this.wiki2Session));
+        assertTrue(this.storage.contains(KEY));
+
+        assertEquals(3, this.storage.getHits());
+        assertEquals(2, this.storage.getMisses());
+    }
+
+    @Test
+    void putWithoutDatabase()
+    {
+        SessionImplementor session = mock(SessionImplementor.class);
+
+        this.storage.putIntoCache(KEY, "value", session);
+
+        assertNull(this.storage.getFromCache(KEY, session));
+        assertFalse(this.storage.contains(KEY));
+    }
+
+    @Test
+    void evict()
+    {
+        this.storage.putIntoCache(KEY, "value1", this.wiki1Session);
+        this.storage.putIntoCache(KEY, "value2", this.wiki2Session);
+
+        this.storage.evictDatabase("wiki1");
+
+        assertNull(this.storage.getFromCache(KEY, this.wiki1Session));
+        assertEquals("value2", this.storage.getFromCache(KEY, this.wiki2Session));
+
+        this.storage.evictData(KEY);
+
+        assertFalse(this.storage.contains(KEY));
+    }
+}
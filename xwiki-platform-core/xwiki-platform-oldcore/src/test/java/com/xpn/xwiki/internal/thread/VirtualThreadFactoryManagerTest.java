@@ -0,0 +1,101 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.thread;
+
+import java.util.concurrent.ThreadFactory;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link ThreadFactoryManager} when virtual threads are enabled.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class VirtualThreadFactoryManagerTest
+{
+    @InjectMockComponents
+    private ThreadFactoryManager manager;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource properties;
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.properties.getProperty("core.virtualThreads.enabled", false)).thenReturn(true);
+    }
+
+    private static boolean isVirtualThreadSupported()
+    {
+        try {
+            Thread.class.getMethod("ofVirtual");
+
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Test
+    void newThreadFactory() throws Exception
+    {
+        assumeTrue(isVirtualThreadSupported(), "The JVM does not support virtual threads");
+
+        assertTrue(this.manager.isVirtual());
+
+        ThreadFactory factory = this.manager.newThreadFactory("Test pool");
+        Thread thread = factory.newThread(() -> { });
+
+        assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+        assertTrue(thread.isDaemon());
+        assertEquals("Test pool 0", thread.getName());
+        assertEquals("Test pool 1", factory.newThread(() -> { }).getName());
+    }
+
+    @Test
+    void newThreadFactoryWhenNotSupported()
+    {
+        assumeFalse(isVirtualThreadSupported(), "The JVM supports virtual threads");
+
+        // Fallback on platform threads
+        assertFalse(this.manager.isVirtual());
+
+        Thread thread = this.manager.newThreadFactory("Test pool").newThread(() -> { });
+
+        assertTrue(thread.isDaemon());
+        assertTrue(thread.getName().startsWith("Test pool "));
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.stats.impl.xwiki;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.stats.impl.DocumentStats;
+import com.xpn.xwiki.stats.impl.StatsUtil.PeriodType;
+import com.xpn.xwiki.stats.impl.XWikiStats;
+import com.xpn.xwiki.store.XWikiHibernateBaseStore.HibernateCallback;
+import com.xpn.xwiki.store.XWikiHibernateStore;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link XWikiStatsStoreService} and {@link AbstractCounterStatsStoreItem}.
+ *
+ * @version $Id$
+ */
+@OldcoreTest
+@ReferenceComponentList
+class XWikiStatsStoreServiceTest
+{
+    private static final String VIEW = "view";
+
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    private XWikiHibernateStore store;
+
+    private final Date date = new Date();
+
+    /**
+     * The page views stored in the fake database, indexed by statistics identifier.
+     */
+    private final Map<Long, Integer> database = new HashMap<>();
+
+    /**
+     * The number of transactions which should fail after being executed.
+     */
+    private int failingTransactions;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.store = (XWikiHibernateStore) this.oldcore.getMockStore();
+
+        // Each transaction works on a copy of the database which is only kept when it's committed
+        when(this.store.executeWrite(any(XWikiContext.class), any(HibernateCallback.class))).then(invocation -> {
+            Map<Long, Integer> transaction = new HashMap<>(this.database);
+            invocation.<HibernateCallback<?>>getArgument(1).doInHibernate(createSession(transaction));
+
+            if (this.failingTransactions > 0) {
+                --this.failingTransactions;
+
+                throw new XWikiException();
+            }
+
+            this.database.clear();
+            this.database.putAll(transaction);
+
+            return null;
+        });
+
+        setConfiguration(10000, 1000);
+    }
+
+    private void setConfiguration(long interval, long size)
+    {
+        doReturn(200L).when(this.oldcore.getSpyXWiki()).ParamAsLong("stats.queue.size", 200);
+        doReturn(interval).when(this.oldcore.getSpyXWiki()).ParamAsLong("xwiki.stats.flush.interval", 10000);
+        doReturn(size).when(this.oldcore.getSpyXWiki()).ParamAsLong("xwiki.stats.flush.size", 1000);
+    }
+
+    private Session createSession(Map<Long, Integer> transaction)
+    {
+        Session session = mock(Session.class);
+
+        Map<String, Object> parameters = new HashMap<>();
+        Query<?> query = mock(Query.class);
+        when(query.setParameter(anyString(), any())).then(invocation -> {
+            parameters.put(invocation.getArgument(0), invocation.getArgument(1));
+
+            return query;
+        });
+        when(query.executeUpdate()).then(invocation -> {
+            Long id = (Long) parameters.get("id");
+            if (transaction.containsKey(id)) {
+                transaction.put(id, transaction.get(id) + (Integer) parameters.get("pageViews"));
+
+                return 1;
+            }
+
+            return 0;
+        });
+        when(session.createQuery(anyString())).thenReturn((Query) query);
+        when(session.save(any())).then(invocation -> {
+            XWikiStats stats = invocation.getArgument(0);
+            transaction.put(stats.getId(), stats.getPageViews());
+
+            return stats.getId();
+        });
+
+        return session;
+    }
+
+    private DocumentStatsStoreItem item(String name)
+    {
+        return new DocumentStatsStoreItem(name, this.date, PeriodType.MONTH, VIEW, false,
+            this.oldcore.getXWikiContext());
+    }
+
+    private long id(String name)
+    {
+        return new DocumentStats(name, VIEW, this.date, PeriodType.MONTH).getId();
+    }
+
+    private void stop(XWikiStatsStoreService service) throws Exception
+    {
+        service.add(new StopStatsRegisterObject());
+        service.runInternal();
+    }
+
+    @Test
+    void flushOnStop() throws Exception
+    {
+        XWikiStatsStoreService service = new XWikiStatsStoreService(this.oldcore.getXWikiContext());
+
+        service.add(item("Space.A"));
+        service.add(item("Space.A"));
+        service.add(item("Space.B"));
+        service.add(item("Space.A"));
+        stop(service);
+
+        assertNotEquals(id("Space.A"), id("Space.B"));
+        assertEquals(3, this.database.get(id("Space.A")));
+        assertEquals(1, this.database.get(id("Space.B")));
+        // The statistics of the wiki are stored in a single transaction
+        verify(this.store).executeWrite(any(XWikiContext.class), any(HibernateCallback.class));
+    }
+
+    @Test
+    void flushOnSize() throws Exception
+    {
+        setConfiguration(10000, 2);
+        XWikiStatsStoreService service = new XWikiStatsStoreService(this.oldcore.getXWikiContext());
+
+        this.database.put(id("Space.A"), 5);
+
+        service.add(item("Space.A"));
+        service.add(item("Space.A"));
+        service.add(item("Space.B"));
+        stop(service);
+
+        assertEquals(7, this.database.get(id("Space.A")));
+        assertEquals(1, this.database.get(id("Space.B")));
+        // One flush when the size is reached and another one when stopping
+        verify(this.store, times(2)).executeWrite(any(XWikiContext.class), any(HibernateCallback.class));
+    }
+
+    @Test
+    void flushOnInterval() throws Exception
+    {
+        setConfiguration(100, 1000);
+        XWikiStatsStoreService service = new XWikiStatsStoreService(this.oldcore.getXWikiContext());
+
+        Thread thread = new Thread(() -> {
+            try {
+                service.runInternal();
+            } catch (InterruptedException e) {
+                // Stopped
+            }
+        });
+        thread.start();
+
+        service.add(item("Space.A"));
+
+        verify(this.store, timeout(5000)).executeWrite(any(XWikiContext.class), any(HibernateCallback.class));
+
+        service.add(new StopStatsRegisterObject());
+        thread.join();
+
+        assertEquals(1, this.database.get(id("Space.A")));
+        // Nothing left to store when stopping
+        verify(this.store).executeWrite(any(XWikiContext.class), any(HibernateCallback.class));
+    }
+
+    @Test
+    void fallbackAfterRollback() throws Exception
+    {
+        XWikiStatsStoreService service = new XWikiStatsStoreService(this.oldcore.getXWikiContext());
+
+        this.database.put(id("Space.A"), 5);
+        // The transaction storing all the statistics fails after incrementing some of them
+        this.failingTransactions = 1;
+
+        service.add(item("Space.A"));
+        service.add(item("Space.A"));
+        service.add(item("Space.B"));
+        stop(service);
+
+        // The counters incremented by the rolled back transaction are not counted twice
+        assertEquals(7, this.database.get(id("Space.A")));
+        assertEquals(1, this.database.get(id("Space.B")));
+        // One failed transaction then one transaction per statistics object
+        verify(this.store, times(3)).executeWrite(any(XWikiContext.class), any(HibernateCallback.class));
+    }
+}
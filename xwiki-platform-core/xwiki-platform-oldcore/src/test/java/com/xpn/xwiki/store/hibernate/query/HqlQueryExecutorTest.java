@@ -19,6 +19,7 @@
  */
 package com.xpn.xwiki.store.hibernate.query;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -34,16 +35,20 @@
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.query.FilledQueryResult;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.query.WrappingQuery;
 import org.xwiki.query.internal.DefaultQuery;
+import org.xwiki.query.internal.FillingViewableQueryFilter;
+import org.xwiki.query.internal.ViewableQueryFilter;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
@@ -55,12 +60,15 @@
 import com.xpn.xwiki.store.XWikiHibernateStore;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -271,6 +279,98 @@ public void executeWhenStoreException() throws Exception
         }
     }
 
+    @Test
+    public void executeWhenViewableFilterRemovesRows() throws Exception
+    {
+        DefaultQuery query = new DefaultQuery("where doc.space='Main'", Query.HQL, this.executor);
+        query.setLimit(2);
+
+        ViewableQueryFilter filter = mock(ViewableQueryFilter.class);
+        when(filter.filterStatement(anyString(), anyString())).then(returnsFirstArg());
+        when(filter.filterQuery(any(Query.class))).then(returnsFirstArg());
+        when(filter.filterResults(any(List.class))).then(invocation -> {
+            List<Object> results = new ArrayList<>(invocation.<List<Object>>getArgument(0));
+            results.removeIf("hidden"::equals);
+            return results;
+        });
+        query.addFilter(filter);
+
+        when(this.store.executeRead(any(XWikiContext.class), any(XWikiHibernateBaseStore.HibernateCallback.class)))
+            .thenReturn(Arrays.asList("hidden", "A"), Arrays.asList("hidden", "B"));
+
+        // No more rows are fetched to fill the limit since the offset of the next page is expressed in rows
+        assertEquals(Arrays.asList("A"), this.executor.execute(query));
+
+        verify(this.store, times(1)).executeRead(any(XWikiContext.class),
+            any(XWikiHibernateBaseStore.HibernateCallback.class));
+    }
+
+    @Test
+    public void executeWithFillingViewableFilter() throws Exception
+    {
+        DefaultQuery query = new DefaultQuery("where doc.space='Main'", Query.HQL, this.executor);
+        query.setOffset(10);
+        query.setLimit(3);
+
+        FillingViewableQueryFilter filter = mock(FillingViewableQueryFilter.class);
+        when(filter.filterStatement(anyString(), anyString())).then(returnsFirstArg());
+        when(filter.filterQuery(any(Query.class))).then(returnsFirstArg());
+        when(filter.isViewable(any(), any())).then(invocation -> !"hidden".equals(invocation.getArgument(0)));
+        query.addFilter(filter);
+
+        List<Integer> offsets = new ArrayList<>();
+        when(this.store.executeRead(any(XWikiContext.class), any(XWikiHibernateBaseStore.HibernateCallback.class)))
+            .then(invocation -> {
+                offsets.add(getExecutedOffset(invocation.getArgument(1)));
+                return offsets.size() == 1 ? new ArrayList<>(Arrays.asList("hidden", "A", "hidden"))
+                    : new ArrayList<>(Arrays.asList("B", "C", "D"));
+            });
+
+        FilledQueryResult<String> result = (FilledQueryResult<String>) this.executor.<String>execute(query);
+
+        assertEquals(Arrays.asList("A", "B", "C"), result);
+        // The next page starts right after the row of the last result
+        assertEquals(15, result.getNextOffset());
+        assertTrue(result.hasMore());
+        assertEquals(Arrays.asList(10, 13), offsets);
+    }
+
+    @Test
+    public void executeWithFillingViewableFilterUntilTheEnd() throws Exception
+    {
+        DefaultQuery query = new DefaultQuery("where doc.space='Main'", Query.HQL, this.executor);
+        query.setLimit(3);
+
+        FillingViewableQueryFilter filter = mock(FillingViewableQueryFilter.class);
+        when(filter.filterStatement(anyString(), anyString())).then(returnsFirstArg());
+        when(filter.filterQuery(any(Query.class))).then(returnsFirstArg());
+        when(filter.isViewable(any(), any())).then(invocation -> !"hidden".equals(invocation.getArgument(0)));
+        query.addFilter(filter);
+
+        when(this.store.executeRead(any(XWikiContext.class), any(XWikiHibernateBaseStore.HibernateCallback.class)))
+            .thenReturn(new ArrayList<>(Arrays.asList("hidden", "A", "hidden")),
+                new ArrayList<>(Arrays.asList("hidden")));
+
+        FilledQueryResult<String> result = (FilledQueryResult<String>) this.executor.<String>execute(query);
+
+        assertEquals(Arrays.asList("A"), result);
+        assertEquals(4, result.getNextOffset());
+        assertFalse(result.hasMore());
+    }
+
+    private int getExecutedOffset(XWikiHibernateBaseStore.HibernateCallback<?> callback) throws Exception
+    {
+        Session session = mock(Session.class);
+        org.hibernate.query.Query<?> hquery = mock(org.hibernate.query.Query.class);
+        when(session.createQuery(anyString())).thenReturn(hquery);
+        callback.doInHibernate(session);
+
+        ArgumentCaptor<Integer> offset = ArgumentCaptor.forClass(Integer.class);
+        verify(hquery).setFirstResult(offset.capture());
+
+        return offset.getValue();
+    }
+
     @Test
     public void createNamedNativeHibernateQuery() throws Exception
     {
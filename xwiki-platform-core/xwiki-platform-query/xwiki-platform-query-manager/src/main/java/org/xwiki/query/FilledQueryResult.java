@@ -0,0 +1,74 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * The result of a query whose rows were filtered after the execution and which fetched more rows to fill its limit
+ * (see the "fillViewable" filter). Such a page covers more rows than the limit, so the offset of the next page must be
+ * taken from {@link #getNextOffset()} instead of being computed from the offset and the limit.
+ *
+ * @param <T> the type of the results
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Unstable
+public class FilledQueryResult<T> extends ArrayList<T>
+{
+    private static final long serialVersionUID = 1L;
+
+    private final int nextOffset;
+
+    private final boolean more;
+
+    /**
+     * @param results the results of the page
+     * @param nextOffset the offset of the first row which was not consumed by this page
+     * @param more {@code true} if there might be more rows after this page
+     */
+    public FilledQueryResult(Collection<? extends T> results, int nextOffset, boolean more)
+    {
+        super(results);
+
+        this.nextOffset = nextOffset;
+        this.more = more;
+    }
+
+    /**
+     * @return the offset to use to get the next page
+     */
+    public int getNextOffset()
+    {
+        return this.nextOffset;
+    }
+
+    /**
+     * @return {@code true} if there might be more results after this page, {@code false} if the end of the rows was
+     *         reached
+     */
+    public boolean hasMore()
+    {
+        return this.more;
+    }
+}
@@ -22,6 +22,8 @@
 import java.util.List;
 import java.util.Map;
 
+import org.xwiki.stability.Unstable;
+
 /**
  * This is a Query interface, representing all queries in various languages for various stores.
  *
@@ -186,6 +188,33 @@ default QueryParameter bindValue(String var)
      */
     int getOffset();
 
+    /**
+     * Allow the result of the query to be reused by the following executions of the same query (same wiki, statement,
+     * bound values, filters, offset and limit) for the same user. The cached result is discarded as soon as a document
+     * is created, modified or deleted in the target wiki. Only the results made of simple values (strings, numbers,
+     * dates, etc., or arrays of such values) are cached, results containing entities are not.
+     *
+     * @param timeToLive the maximum number of seconds during which the result can be reused, 0 to disable the cache
+     * @return this query
+     * @since 15.0RC1
+     */
+    @Unstable
+    default Query setCacheable(int timeToLive)
+    {
+        throw new RuntimeException("Not implemented");
+    }
+
+    /**
+     * @return the maximum number of seconds during which the result can be reused, 0 if the result should not be cached
+     * @see #setCacheable(int)
+     * @since 15.0RC1
+     */
+    @Unstable
+    default int getCacheTimeToLive()
+    {
+        return 0;
+    }
+
     /**
      * @param <T> expected type of elements in the result list.
      * @return result list of the query. If several fields are selected then T=Object[].
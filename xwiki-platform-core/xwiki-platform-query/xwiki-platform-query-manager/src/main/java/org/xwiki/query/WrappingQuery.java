@@ -158,6 +158,18 @@ public int getOffset()
         return getWrappedQuery().getOffset();
     }
 
+    @Override
+    public Query setCacheable(int timeToLive)
+    {
+        return getWrappedQuery().setCacheable(timeToLive);
+    }
+
+    @Override
+    public int getCacheTimeToLive()
+    {
+        return getWrappedQuery().getCacheTimeToLive();
+    }
+
     @Override
     public <T> List<T> execute() throws QueryException
     {
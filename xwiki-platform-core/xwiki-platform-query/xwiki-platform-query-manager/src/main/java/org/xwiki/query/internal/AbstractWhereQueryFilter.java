@@ -43,12 +43,17 @@ public abstract class AbstractWhereQueryFilter implements QueryFilter
     
     private static final Pattern WHERE_PATTERN = Pattern.compile("\\s+where\\s+", Pattern.CASE_INSENSITIVE);
 
+    private static final String KEY_SEPARATOR = ":";
+
     /**
      * Used to log debug information.
      */
     @Inject
     private Logger logger;
 
+    @Inject
+    private FilteredStatementCache statementCache;
+
     /**
      * @param statement statement to filter.
      * @return true if the filter can be applied to the passed statement, false otherwise.
@@ -68,13 +73,33 @@ protected boolean isFilterable(String statement)
      * @return the modified statement that includes the passed where clause
      */
     protected String insertWhereClause(String whereClause, String statement, String language)
+    {
+        if (!Query.HQL.equals(language)) {
+            return statement.trim();
+        }
+
+        // The result depends on the filter implementation (see #isFilterable()), the clause and the statement. The
+        // class name and the clause are prefixed with their size so there is no need to escape anything.
+        String className = getClass().getName();
+        String key = className.length() + KEY_SEPARATOR + className + whereClause.length() + KEY_SEPARATOR
+            + whereClause + statement;
+
+        String result = this.statementCache.get(key);
+        if (result == null) {
+            result = insertWhereClause(whereClause, statement);
+            this.statementCache.set(key, result);
+        }
+
+        return result;
+    }
+
+    private String insertWhereClause(String whereClause, String statement)
     {
         String result = statement.trim();
         String lowerStatement = result.toLowerCase();
         String original = result;
 
-        if (Query.HQL.equals(language) && isFilterable(lowerStatement)) {
-
+        if (isFilterable(lowerStatement)) {
             Matcher whereMatcher = WHERE_PATTERN.matcher(lowerStatement);
             int orderByIdx = Math.min(lowerStatement.indexOf(" order by "), Integer.MAX_VALUE);
             int groupByIdx = Math.min(lowerStatement.indexOf(" group by "), Integer.MAX_VALUE);
@@ -89,6 +89,11 @@ public class DefaultQuery implements SecureQuery
      */
     private int offset;
 
+    /**
+     * field for {@link Query#setCacheable(int)}.
+     */
+    private int cacheTimeToLive;
+
     /**
      * @see #isCurrentAuthorChecked()
      */
@@ -242,6 +247,19 @@ public Query setOffset(int offset)
         return this;
     }
 
+    @Override
+    public Query setCacheable(int timeToLive)
+    {
+        this.cacheTimeToLive = timeToLive;
+        return this;
+    }
+
+    @Override
+    public int getCacheTimeToLive()
+    {
+        return this.cacheTimeToLive;
+    }
+
     @Override
     public boolean isCurrentAuthorChecked()
     {
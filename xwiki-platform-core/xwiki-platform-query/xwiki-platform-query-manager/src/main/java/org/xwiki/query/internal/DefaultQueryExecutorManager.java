@@ -61,15 +61,31 @@ public class DefaultQueryExecutorManager implements QueryExecutorManager
     @Inject
     private Provider<QueryExecutor> namedQueryExecutorProvider;
 
+    /**
+     * Only looked up when a query enables the cache.
+     */
+    @Inject
+    private Provider<QueryResultCache> resultCacheProvider;
+
     @Override
     public <T> List<T> execute(Query query) throws QueryException
+    {
+        QueryExecutor executor = getExecutor(query);
+
+        if (query.getCacheTimeToLive() > 0) {
+            return this.resultCacheProvider.get().execute(query, executor);
+        }
+
+        return executor.execute(query);
+    }
+
+    private QueryExecutor getExecutor(Query query) throws QueryException
     {
         if (query.isNamed()) {
-            return this.namedQueryExecutorProvider.get().execute(query);
+            return this.namedQueryExecutorProvider.get();
         } else {
             try {
-                return this.componentManagerProvider.get()
-                    .<QueryExecutor>getInstance(QueryExecutor.class, query.getLanguage()).execute(query);
+                return this.componentManagerProvider.get().getInstance(QueryExecutor.class, query.getLanguage());
             } catch (ComponentLookupException e) {
                 throw new QueryException("Fail to lookup query executor", query, e);
             }
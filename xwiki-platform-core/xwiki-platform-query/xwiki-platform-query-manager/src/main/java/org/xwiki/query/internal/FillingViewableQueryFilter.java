@@ -0,0 +1,49 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.internal;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+
+/**
+ * Same as {@link ViewableQueryFilter} but the query executors supporting it fetch more rows when some are removed,
+ * until the limit of the query is filled with viewable results. The access of each entity is checked only once for
+ * all the fetched rows.
+ * <p>
+ * The other filters of the query are expected to produce one result per row (which is the case of all the standard
+ * filters). Since the returned page usually covers more rows than the limit, the result is a
+ * {@link org.xwiki.query.FilledQueryResult} indicating the offset of the next page, which must be used instead of the
+ * offset plus the limit.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Named(FillingViewableQueryFilter.HINT)
+@Singleton
+public class FillingViewableQueryFilter extends ViewableQueryFilter
+{
+    /**
+     * The hint of the filter.
+     */
+    public static final String HINT = "fillViewable";
+}
@@ -0,0 +1,87 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.internal;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+
+/**
+ * Remember the statements produced by the query filters. The same statements are filtered again and again (often by
+ * filters with a per lookup instantiation strategy) so the cache is shared by all the filters.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = FilteredStatementCache.class)
+@Singleton
+public class FilteredStatementCache implements Initializable, Disposable
+{
+    private static final int CAPACITY = 500;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    private Cache<String> cache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.cache =
+                this.cacheManager.createNewCache(new LRUCacheConfiguration("query.filter.statements", CAPACITY));
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to initialize the filtered statement cache", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.cache.dispose();
+    }
+
+    /**
+     * @param key the identifier of the filtering (filter, statement and anything else the result depends on)
+     * @return the filtered statement, or {@code null} if it's not in the cache
+     */
+    public String get(String key)
+    {
+        return this.cache.get(key);
+    }
+
+    /**
+     * @param key the identifier of the filtering (filter, statement and anything else the result depends on)
+     * @param statement the filtered statement
+     */
+    public void set(String key, String statement)
+    {
+        this.cache.set(key, statement);
+    }
+}
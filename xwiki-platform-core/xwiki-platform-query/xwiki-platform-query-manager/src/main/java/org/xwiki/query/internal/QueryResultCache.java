@@ -0,0 +1,367 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.internal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryExecutor;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.SecureQuery;
+
+/**
+ * Cache the result of the queries which enabled it with {@link Query#setCacheable(int)}.
+ * <p>
+ * The result of a query is cached for a given wiki, statement, bound values, filters, offset, limit and current user
+ * (and current author when the query is checking it). Since there is no cheap way to know which documents a query
+ * depends on, all the results of a wiki are discarded as soon as a document is created, modified or deleted in this
+ * wiki (see {@link QueryResultCacheListener}). Each wiki is associated with a generation which is incremented when the
+ * wiki is modified, and a result is only reused if it was produced by the current generation of its wiki.
+ * <p>
+ * Only the results made of immutable values (strings, numbers, booleans, etc., dates being copied), or of arrays of
+ * such values, are cached: the returned rows are copies of the cached ones so that a caller modifying them does not
+ * affect the other callers. Results containing entities (documents, objects, etc.) are never cached since they can be
+ * modified by the caller.
+ * <p>
+ * Note that the generation of a wiki is only incremented by the modifications of this wiki: a modification of the
+ * main wiki which affects the rights of the users in a subwiki (global groups, main wiki preferences, etc.) does not
+ * discard the cached results of the subwiki, which are then reused until they expire. The time to live of queries
+ * relying on such rights should be kept short.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = QueryResultCache.class)
+@Singleton
+public class QueryResultCache implements Initializable, Disposable
+{
+    private static final String PROPNAME_CAPACITY = "query.cache.capacity";
+
+    private static final int PROPVALUE_CAPACITY = 1000;
+
+    private static final char SEPARATOR = '\n';
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(String.class, Boolean.class,
+        Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+        BigInteger.class, BigDecimal.class));
+
+    /**
+     * Indicate that a value cannot be safely shared between callers.
+     */
+    private static final Object UNCACHEABLE = new Object();
+
+    private static final class CachedResult
+    {
+        private final String wiki;
+
+        private final long generation;
+
+        private final long expiration;
+
+        private final List<?> result;
+
+        CachedResult(String wiki, long generation, long expiration, List<?> result)
+        {
+            this.wiki = wiki;
+            this.generation = generation;
+            this.expiration = expiration;
+            this.result = result;
+        }
+    }
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private ModelContext modelContext;
+
+    @Inject
+    private DocumentAccessBridge documentAccessBridge;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    private Cache<CachedResult> cache;
+
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        int capacity = this.configuration.getProperty(PROPNAME_CAPACITY, PROPVALUE_CAPACITY);
+
+        // A capacity of 0 means the cache is disabled
+        if (capacity > 0) {
+            try {
+                this.cache = this.cacheManager.createNewCache(new LRUCacheConfiguration("query.results", capacity));
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to initialize the query result cache", e);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.cache.dispose();
+        }
+    }
+
+    /**
+     * Return the cached result of the passed query or execute it with the passed executor and cache its result.
+     *
+     * @param <T> expected type of elements in the result list
+     * @param query the query to execute
+     * @param executor the executor to use if there is no valid cached result
+     * @return the result of the query
+     * @throws QueryException when failing to execute the query
+     */
+    public <T> List<T> execute(Query query, QueryExecutor executor) throws QueryException
+    {
+        String wiki = getWiki(query);
+        if (this.cache == null || query.getCacheTimeToLive() <= 0 || wiki == null) {
+            return executor.execute(query);
+        }
+
+        String key = getKey(wiki, query);
+        // Remember the generation before executing the query so that a modification made during the execution is not
+        // hidden by the result
+        long generation = getGeneration(wiki).get();
+
+        CachedResult cachedResult = this.cache.get(key);
+        if (cachedResult != null) {
+            if (cachedResult.generation == generation && cachedResult.expiration > System.currentTimeMillis()) {
+                return (List<T>) copyResult(cachedResult.result);
+            }
+
+            this.cache.remove(key);
+        }
+
+        List<T> result = executor.execute(query);
+
+        // Keep a private copy since the returned result can be modified by the caller
+        List<Object> resultCopy = copyResult(result);
+        if (resultCopy != null) {
+            long expiration = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(query.getCacheTimeToLive());
+            this.cache.set(key, new CachedResult(wiki, generation, expiration, resultCopy));
+        }
+
+        return result;
+    }
+
+    private List<Object> copyResult(List<?> result)
+    {
+        // Return null if the result contains values which cannot be safely copied
+        List<Object> copy = new ArrayList<>(result.size());
+        for (Object row : result) {
+            Object rowCopy = copyRow(row);
+            if (rowCopy == UNCACHEABLE) {
+                return null;
+            }
+            copy.add(rowCopy);
+        }
+
+        return copy;
+    }
+
+    private Object copyRow(Object row)
+    {
+        if (row instanceof Object[]) {
+            Object[] columns = (Object[]) row;
+            Object[] copy = new Object[columns.length];
+            for (int i = 0; i < columns.length; ++i) {
+                copy[i] = copyValue(columns[i]);
+                if (copy[i] == UNCACHEABLE) {
+                    return UNCACHEABLE;
+                }
+            }
+
+            return copy;
+        }
+
+        return copyValue(row);
+    }
+
+    private Object copyValue(Object value)
+    {
+        if (value == null || value instanceof Enum || IMMUTABLE_TYPES.contains(value.getClass())) {
+            return value;
+        }
+
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+
+        return UNCACHEABLE;
+    }
+
+    /**
+     * Discard all the cached results of the passed wiki.
+     *
+     * @param wiki the identifier of the modified wiki
+     */
+    public void invalidate(String wiki)
+    {
+        getGeneration(wiki).incrementAndGet();
+    }
+
+    /**
+     * Discard all the cached results.
+     */
+    public void invalidateAll()
+    {
+        if (this.cache != null) {
+            this.cache.removeAll();
+        }
+    }
+
+    private AtomicLong getGeneration(String wiki)
+    {
+        return this.generations.computeIfAbsent(wiki, k -> new AtomicLong());
+    }
+
+    private String getWiki(Query query)
+    {
+        if (query.getWiki() != null) {
+            return query.getWiki();
+        }
+
+        EntityReference currentReference = this.modelContext.getCurrentEntityReference();
+        if (currentReference != null) {
+            return currentReference.extractReference(EntityType.WIKI).getName();
+        }
+
+        return null;
+    }
+
+    private String getKey(String wiki, Query query)
+    {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(wiki);
+        builder.append(SEPARATOR);
+        builder.append(query.isNamed() ? "" : query.getLanguage());
+        builder.append(SEPARATOR);
+        builder.append(query.getStatement());
+        builder.append(SEPARATOR);
+        builder.append(query.getOffset());
+        builder.append(SEPARATOR);
+        builder.append(query.getLimit());
+
+        // Make sure the order in which the values were bound does not matter
+        for (Map.Entry<String, Object> entry : new TreeMap<>(query.getNamedParameters()).entrySet()) {
+            builder.append(SEPARATOR);
+            builder.append(entry.getKey());
+            appendValue(entry.getValue(), builder);
+        }
+        for (Map.Entry<Integer, Object> entry : new TreeMap<>(query.getPositionalParameters()).entrySet()) {
+            builder.append(SEPARATOR);
+            builder.append(entry.getKey());
+            appendValue(entry.getValue(), builder);
+        }
+
+        for (QueryFilter filter : query.getFilters()) {
+            builder.append(SEPARATOR);
+            builder.append(filter.getClass().getName());
+        }
+
+        // The result can depend on the current user (hidden documents preference, view right checking, etc.)
+        builder.append(SEPARATOR);
+        appendReference(this.documentAccessBridge.getCurrentUserReference(), builder);
+
+        if (query instanceof SecureQuery) {
+            SecureQuery secureQuery = (SecureQuery) query;
+
+            builder.append(SEPARATOR);
+            builder.append(secureQuery.isCurrentUserChecked());
+
+            // The current author is allowed to execute the query or not
+            if (secureQuery.isCurrentAuthorChecked()) {
+                builder.append(SEPARATOR);
+                appendReference(this.documentAccessBridge.getCurrentAuthorReference(), builder);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private void appendReference(DocumentReference reference, StringBuilder builder)
+    {
+        if (reference != null) {
+            builder.append(this.serializer.serialize(reference));
+        }
+    }
+
+    private void appendValue(Object value, StringBuilder builder)
+    {
+        builder.append('=');
+
+        if (value instanceof DefaultQueryParameter) {
+            for (ParameterPart part : ((DefaultQueryParameter) value).getParts()) {
+                builder.append(part.getClass().getSimpleName());
+                builder.append(':');
+                builder.append(part.getValue());
+            }
+        } else if (value != null) {
+            builder.append(value.getClass().getName());
+            builder.append(':');
+            builder.append(value);
+        }
+    }
+}
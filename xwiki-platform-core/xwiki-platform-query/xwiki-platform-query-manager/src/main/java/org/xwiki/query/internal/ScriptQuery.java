@@ -260,6 +260,19 @@ public int getOffset()
         return this.query.getOffset();
     }
 
+    @Override
+    public Query setCacheable(int timeToLive)
+    {
+        this.query.setCacheable(timeToLive);
+        return this;
+    }
+
+    @Override
+    public int getCacheTimeToLive()
+    {
+        return this.query.getCacheTimeToLive();
+    }
+
     @Override
     public <T> List<T> execute() throws QueryException
     {
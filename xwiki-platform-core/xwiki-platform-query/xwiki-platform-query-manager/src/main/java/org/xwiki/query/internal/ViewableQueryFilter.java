@@ -19,8 +19,10 @@
  */
 package org.xwiki.query.internal;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -36,6 +38,11 @@
  * Removes from the query results the rows that correspond to entities that the current user doesn't have the right to
  * view. This filter expects an {@link EntityReference} on the first column so you need another filter that creates the
  * entity reference (like the "attachment" or "user" filter) to be applied before this one.
+ * <p>
+ * Since the rows are removed after the execution, a query with a limit can return less results than the limit. The
+ * offset and the limit are still expressed in rows of the unfiltered result, so that the next page of a paginated
+ * query starts right after the rows of the previous page. Use {@link FillingViewableQueryFilter} to get pages filled up
+ * to the limit.
  * 
  * @version $Id$
  * @since 9.8
@@ -58,18 +65,35 @@ public String filterStatement(String statement, String language)
     @Override
     public List filterResults(List results)
     {
-        List<Object> filteredResults = new LinkedList<>();
+        List<Object> filteredResults = new ArrayList<>(results.size());
+        // The same entity can appear in several rows (e.g. one row per object of a document) so we check its access
+        // only once
+        Map<EntityReference, Boolean> access = new HashMap<>();
         for (Object result : results) {
-            EntityReference entityReference = null;
-            if (result instanceof EntityReference) {
-                entityReference = (EntityReference) result;
-            } else if (result instanceof Object[] && ((Object[]) result)[0] instanceof EntityReference) {
-                entityReference = (EntityReference) ((Object[]) result)[0];
-            }
-            if (entityReference != null && this.authorization.hasAccess(Right.VIEW, entityReference)) {
+            if (isViewable(result, access)) {
                 filteredResults.add(result);
             }
         }
         return filteredResults;
     }
+
+    /**
+     * @param result a row of the query result
+     * @param access the access of the entities already checked, shared by all the rows of the same result so that the
+     *            access of an entity appearing in several rows is checked only once
+     * @return {@code true} if the current user is allowed to view the entity of the passed row
+     * @since 15.0RC1
+     */
+    public boolean isViewable(Object result, Map<EntityReference, Boolean> access)
+    {
+        EntityReference entityReference = null;
+        if (result instanceof EntityReference) {
+            entityReference = (EntityReference) result;
+        } else if (result instanceof Object[] && ((Object[]) result)[0] instanceof EntityReference) {
+            entityReference = (EntityReference) ((Object[]) result)[0];
+        }
+
+        return entityReference != null && access.computeIfAbsent(entityReference,
+            reference -> this.authorization.hasAccess(Right.VIEW, reference));
+    }
 }
@@ -22,6 +22,7 @@
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.xwiki.component.util.ReflectionUtils;
 import org.xwiki.query.Query;
 import org.xwiki.test.annotation.BeforeComponent;
@@ -34,7 +35,11 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -51,6 +56,9 @@
     @MockComponent
     private UserPropertiesResolver userPropertiesResolver;
 
+    @MockComponent
+    private FilteredStatementCache statementCache;
+
     @BeforeComponent
     public void before()
     {
@@ -151,6 +159,24 @@ void filterHQLStatementWithoutWhereWithGroupBy()
             filter.filterStatement("select doc.web, doc.name from XWikiDocument doc group by doc.web", Query.HQL));
     }
 
+    @Test
+    void filterHQLStatementWithCachedStatement()
+    {
+        String statement = "select doc.fullName from XWikiDocument doc where 1=1";
+        String filteredStatement =
+            "select doc.fullName from XWikiDocument doc where (doc.hidden <> true or doc.hidden is null) and (1=1)";
+
+        assertEquals(filteredStatement, filter.filterStatement(statement, Query.HQL));
+
+        ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
+        verify(this.statementCache).set(keyCaptor.capture(), eq(filteredStatement));
+
+        when(this.statementCache.get(keyCaptor.getValue())).thenReturn("cached");
+
+        assertEquals("cached", filter.filterStatement(statement, Query.HQL));
+        verify(this.statementCache, times(1)).set(any(), any());
+    }
+
     @Test
     void filterResults()
     {
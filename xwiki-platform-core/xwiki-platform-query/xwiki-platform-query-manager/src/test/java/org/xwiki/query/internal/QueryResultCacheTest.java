@@ -0,0 +1,208 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryExecutor;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link QueryResultCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class QueryResultCacheTest
+{
+    private static final DocumentReference USER_REFERENCE = new DocumentReference("wiki", "XWiki", "user");
+
+    @InjectMockComponents
+    private QueryResultCache resultCache;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private ModelContext modelContext;
+
+    @MockComponent
+    private DocumentAccessBridge documentAccessBridge;
+
+    @MockComponent
+    private EntityReferenceSerializer<String> serializer;
+
+    private final Map<String, Object> cacheMap = new HashMap<>();
+
+    private QueryExecutor executor = mock(QueryExecutor.class);
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        when(this.configuration.getProperty("query.cache.capacity", 1000)).thenReturn(1000);
+
+        Cache<Object> cache = mock(Cache.class);
+        when(cache.get(anyString())).then(invocation -> this.cacheMap.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cacheMap.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+            .set(anyString(), any());
+        doAnswer(invocation -> this.cacheMap.remove(invocation.getArgument(0))).when(cache).remove(anyString());
+        when(this.cacheManager.<Object>createNewCache(any(CacheConfiguration.class))).thenReturn(cache);
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.modelContext.getCurrentEntityReference()).thenReturn(new WikiReference("wiki"));
+        when(this.documentAccessBridge.getCurrentUserReference()).thenReturn(USER_REFERENCE);
+        when(this.serializer.serialize(USER_REFERENCE)).thenReturn("wiki:XWiki.user");
+
+        when(this.executor.execute(any())).thenReturn(Arrays.asList("Space.Page1", "Space.Page2"));
+    }
+
+    private Query createQuery(String statement)
+    {
+        return new DefaultQuery(statement, Query.XWQL, null).setCacheable(60);
+    }
+
+    @Test
+    void execute() throws Exception
+    {
+        Query query = createQuery("where doc.space = :space").bindValue("space", "Space");
+
+        List<String> result = this.resultCache.execute(query, this.executor);
+        assertEquals(Arrays.asList("Space.Page1", "Space.Page2"), result);
+        assertEquals(result, this.resultCache.execute(query, this.executor));
+
+        verify(this.executor).execute(query);
+
+        // Different bound value
+        Query otherQuery = createQuery("where doc.space = :space").bindValue("space", "Other");
+        this.resultCache.execute(otherQuery, this.executor);
+
+        verify(this.executor).execute(otherQuery);
+
+        // Different offset
+        query.setOffset(10);
+        this.resultCache.execute(query, this.executor);
+
+        verify(this.executor, times(2)).execute(query);
+    }
+
+    @Test
+    void executeNotCacheable() throws Exception
+    {
+        Query query = createQuery("where doc.space = 'Space'").setCacheable(0);
+
+        this.resultCache.execute(query, this.executor);
+        this.resultCache.execute(query, this.executor);
+
+        verify(this.executor, times(2)).execute(query);
+    }
+
+    @Test
+    void invalidate() throws Exception
+    {
+        Query query = createQuery("where doc.space = 'Space'");
+
+        this.resultCache.execute(query, this.executor);
+        this.resultCache.invalidate("otherwiki");
+        this.resultCache.execute(query, this.executor);
+
+        verify(this.executor).execute(query);
+
+        this.resultCache.invalidate("wiki");
+        this.resultCache.execute(query, this.executor);
+
+        verify(this.executor, times(2)).execute(query);
+    }
+
+    @Test
+    void executeWithArrayRows() throws Exception
+    {
+        Date date = new Date(42);
+        Object[] row = new Object[] { "Space.Page", 1L, date, null };
+        when(this.executor.execute(any())).thenReturn(Collections.singletonList(row));
+
+        Query query = createQuery("select doc.fullName, doc.version, doc.date, doc.title from Document doc");
+
+        List<Object[]> result = this.resultCache.execute(query, this.executor);
+        // Modifying the returned result should not affect the cached one
+        result.get(0)[0] = "Modified";
+        ((Date) result.get(0)[2]).setTime(0);
+
+        List<Object[]> cachedResult = this.resultCache.execute(query, this.executor);
+        assertArrayEquals(new Object[] { "Space.Page", 1L, new Date(42), null }, cachedResult.get(0));
+        assertNotSame(this.resultCache.execute(query, this.executor).get(0), cachedResult.get(0));
+
+        verify(this.executor).execute(query);
+    }
+
+    @Test
+    void executeWithMutableRows() throws Exception
+    {
+        when(this.executor.execute(any())).thenReturn(Arrays.asList("Space.Page", new StringBuilder("entity")));
+
+        Query query = createQuery("select doc from Document doc");
+
+        this.resultCache.execute(query, this.executor);
+        this.resultCache.execute(query, this.executor);
+
+        // Results containing mutable values are never shared
+        verify(this.executor, times(2)).execute(query);
+        assertEquals(0, this.cacheMap.size());
+    }
+}
@@ -37,6 +37,7 @@
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -96,6 +97,21 @@ public void filterResultsWithTwoColumnsAndEntityReference()
         assertArrayEquals(new Object[]{ this.authorized, 17 }, (Object[]) filteredResults.get(0));
     }
 
+    @Test
+    public void filterResultsWithSameEntityReferenceInSeveralRows()
+    {
+        List<Object> results = Arrays.asList(new Object[]{ this.authorized, 23 }, new Object[]{ this.unauthorized, 5 },
+            new Object[]{ this.authorized, 17 }, new Object[]{ this.unauthorized, 7 });
+        List<Object> filteredResults = this.filter.filterResults(results);
+        assertEquals(2, filteredResults.size());
+        assertArrayEquals(new Object[]{ this.authorized, 23 }, (Object[]) filteredResults.get(0));
+        assertArrayEquals(new Object[]{ this.authorized, 17 }, (Object[]) filteredResults.get(1));
+
+        // The access of each entity is checked only once
+        verify(this.authorization).hasAccess(Right.VIEW, this.authorized);
+        verify(this.authorization).hasAccess(Right.VIEW, this.unauthorized);
+    }
+
     @Test
     public void filterResultsWithOneColumnNotEntityReference()
     {
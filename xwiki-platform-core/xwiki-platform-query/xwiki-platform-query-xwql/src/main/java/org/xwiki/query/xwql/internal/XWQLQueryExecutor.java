@@ -56,6 +56,9 @@ public class XWQLQueryExecutor implements QueryExecutor
     @Inject
     private ModelContext context;
 
+    @Inject
+    private XWQLTranslationCache translationCache;
+
     public QueryManager getQueryManager() throws ComponentLookupException
     {
         // We can't inject QueryManager because of cyclic dependency.
@@ -87,7 +90,7 @@ public <T> List<T> execute(Query query) throws QueryException
                 }
             }
 
-            nativeQuery = getQueryManager().createQuery(this.translator.translate(query.getStatement()),
+            nativeQuery = getQueryManager().createQuery(translate(query, currentEntityReference),
                 this.translator.getOutputLanguage());
             nativeQuery.setLimit(query.getLimit());
             nativeQuery.setOffset(query.getOffset());
@@ -125,6 +128,21 @@ public <T> List<T> execute(Query query) throws QueryException
         }
     }
 
+    private String translate(Query query, EntityReference currentEntityReference) throws Exception
+    {
+        String wiki = query.getWiki();
+        if (wiki == null && currentEntityReference != null) {
+            wiki = currentEntityReference.extractReference(EntityType.WIKI).getName();
+        }
+
+        // The translation depends on the classes of the target wiki
+        if (wiki != null) {
+            return this.translationCache.translate(wiki, query.getStatement(), this.translator);
+        }
+
+        return this.translator.translate(query.getStatement());
+    }
+
     public QueryTranslator getTranslator()
     {
         return this.translator;
@@ -0,0 +1,286 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.xwql.internal;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.xwql.internal.hql.XWQLtoHQLTranslator;
+
+/**
+ * Bounded cache of the result of the translation of XWQL statements, so that the same statement is not parsed,
+ * analyzed and printed again for each execution.
+ * <p>
+ * The translation depends on the type and mapping of the properties of the classes referenced by the statement, so
+ * entries are bound to the wiki in which the statement was translated and are discarded when one of the classes it
+ * references is modified (see {@link XWQLTranslationCacheListener}). As for the query results cache, each wiki and
+ * each class is associated with a generation which is incremented when it's modified, and a translation is only
+ * reused if it was produced with the current generations of its wiki and classes.
+ * <p>
+ * The number of hits and misses is exposed through JMX (see {@link JMXXWQLTranslationCacheMBean}).
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = XWQLTranslationCache.class)
+@Singleton
+public class XWQLTranslationCache implements Initializable, Disposable
+{
+    /**
+     * The name of the JMX bean exposing the cache statistics.
+     */
+    static final String MBEAN_NAME = "type=Query,name=XWQLTranslationCache";
+
+    private static final String PROPNAME_CAPACITY = "query.xwql.translationCache.capacity";
+
+    private static final int PROPVALUE_CAPACITY = 1000;
+
+    private static final char WIKI_SEPARATOR = ':';
+
+    private static final class TranslationEntry
+    {
+        private final long wikiGeneration;
+
+        private final Map<String, Long> classGenerations;
+
+        private final String translation;
+
+        TranslationEntry(long wikiGeneration, Map<String, Long> classGenerations, String translation)
+        {
+            this.wikiGeneration = wikiGeneration;
+            this.classGenerations = classGenerations;
+            this.translation = translation;
+        }
+    }
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private Logger logger;
+
+    private Cache<TranslationEntry> cache;
+
+    private final ConcurrentMap<String, AtomicLong> wikiGenerations = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, AtomicLong> classGenerations = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented each time a document which might be a class is modified, to detect modifications made while a
+     * statement is translated (before the generations of the classes it references exist).
+     */
+    private final AtomicLong modifications = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        int capacity = this.configuration.getProperty(PROPNAME_CAPACITY, PROPVALUE_CAPACITY);
+
+        // A capacity of 0 means the cache is disabled
+        if (capacity > 0) {
+            try {
+                this.cache =
+                    this.cacheManager.createNewCache(new LRUCacheConfiguration("query.xwql.translations", capacity));
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to initialize the XWQL translation cache", e);
+            }
+
+            this.jmxRegistration.registerMBean(new JMXXWQLTranslationCache(this), MBEAN_NAME);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+
+            this.cache.dispose();
+        }
+    }
+
+    /**
+     * @param wiki the wiki in which the statement is translated
+     * @param statement the XWQL statement to translate
+     * @param translator the translator to use when the statement is not already in the cache
+     * @return the translated statement
+     * @throws Exception when failing to translate the statement
+     */
+    public String translate(String wiki, String statement, QueryTranslator translator) throws Exception
+    {
+        // Only the HQL translator tells which classes the statement depends on
+        if (this.cache == null || !(translator instanceof XWQLtoHQLTranslator)) {
+            return translator.translate(statement);
+        }
+
+        String key = wiki.length() + String.valueOf(WIKI_SEPARATOR) + wiki + statement;
+        // Remember the generation before translating the statement so that a modification made during the
+        // translation is not hidden by the result
+        long wikiGeneration = getGeneration(this.wikiGenerations, wiki).get();
+
+        TranslationEntry entry = this.cache.get(key);
+        if (entry != null) {
+            if (isValid(entry, wikiGeneration)) {
+                this.hits.incrementAndGet();
+
+                return entry.translation;
+            }
+
+            this.cache.remove(key);
+        }
+
+        this.misses.incrementAndGet();
+
+        long modification = this.modifications.get();
+        Collection<String> classNames = new HashSet<>();
+        Map<String, Long> generations = new HashMap<>();
+        String translation = ((XWQLtoHQLTranslator) translator).translate(statement, classNames);
+        for (String className : classNames) {
+            String absoluteClassName =
+                className.indexOf(WIKI_SEPARATOR) < 0 ? wiki + WIKI_SEPARATOR + className : className;
+            generations.put(absoluteClassName, getGeneration(this.classGenerations, absoluteClassName).get());
+        }
+
+        // A class modified during the translation could not be taken into account by its generation since the
+        // generation is only created above: don't cache the translation, the next execution will
+        if (modification == this.modifications.get()) {
+            this.cache.set(key, new TranslationEntry(wikiGeneration, generations, translation));
+        }
+
+        this.logger.debug("XWQL statement [{}] translated to [{}] in wiki [{}] ({} hits, {} misses)", statement,
+            translation, wiki, this.hits.get(), this.misses.get());
+
+        return translation;
+    }
+
+    private boolean isValid(TranslationEntry entry, long wikiGeneration)
+    {
+        if (entry.wikiGeneration != wikiGeneration) {
+            return false;
+        }
+
+        for (Map.Entry<String, Long> classGeneration : entry.classGenerations.entrySet()) {
+            AtomicLong generation = this.classGenerations.get(classGeneration.getKey());
+            if (generation == null || generation.get() != classGeneration.getValue()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private AtomicLong getGeneration(ConcurrentMap<String, AtomicLong> generations, String key)
+    {
+        return generations.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    /**
+     * Discard the translations depending on the passed class.
+     *
+     * @param classReference the reference of the modified class
+     */
+    public void invalidate(DocumentReference classReference)
+    {
+        this.modifications.incrementAndGet();
+
+        // Only the classes used by a cached translation have a generation: don't create one for each modified
+        // document
+        AtomicLong generation = this.classGenerations.get(this.serializer.serialize(classReference));
+        if (generation != null) {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Discard the translations of the passed wiki.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void invalidate(String wiki)
+    {
+        AtomicLong generation = this.wikiGenerations.get(wiki);
+        if (generation != null) {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Remove all the translations.
+     */
+    public void invalidateAll()
+    {
+        if (this.cache != null) {
+            this.cache.removeAll();
+        }
+    }
+
+    /**
+     * @return the number of executions which reused a cached translation
+     */
+    public long getHitCount()
+    {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of executions which required a translation
+     */
+    public long getMissCount()
+    {
+        return this.misses.get();
+    }
+}
@@ -19,6 +19,8 @@
  */
 package org.xwiki.query.xwql.internal.hql;
 
+import java.util.Collection;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -42,6 +44,19 @@ public class XWQLtoHQLTranslator implements QueryTranslator
 
     @Override
     public String translate(String input) throws Exception
+    {
+        return translate(input, null);
+    }
+
+    /**
+     * @param input the XWQL statement to translate
+     * @param classNames filled with the names of the classes referenced by the statement (as written in the
+     *            statement), can be {@code null}
+     * @return the HQL statement
+     * @throws Exception when failing to translate the statement
+     * @since 15.0RC1
+     */
+    public String translate(String input, Collection<String> classNames) throws Exception
     {
         input = input.trim();
         String lcInput = input.toLowerCase();
@@ -57,6 +72,12 @@ public String translate(String input) throws Exception
         // analyze query and store info in context
         tree.apply(new QueryAnalyzer(context));
 
+        if (classNames != null) {
+            for (QueryContext.ObjectInfo object : context.getObjects()) {
+                classNames.add(object.className);
+            }
+        }
+
         Printer printer = getPrinter(context);
         return printer.print();
     }
@@ -0,0 +1,196 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.xwql.internal;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.xwql.internal.hql.XWQLtoHQLTranslator;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link XWQLTranslationCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XWQLTranslationCacheTest
+{
+    private static final String STATEMENT = "from doc.object(XWiki.XWikiUsers) as user";
+
+    private static final DocumentReference CLASS_REFERENCE = new DocumentReference("wiki", "XWiki", "XWikiUsers");
+
+    @InjectMockComponents
+    private XWQLTranslationCache cache;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private JMXBeanRegistration jmxRegistration;
+
+    @MockComponent
+    private EntityReferenceSerializer<String> serializer;
+
+    private final Map<String, Object> cacheMap = new HashMap<>();
+
+    private XWQLtoHQLTranslator translator = mock(XWQLtoHQLTranslator.class);
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        when(this.configuration.getProperty("query.xwql.translationCache.capacity", 1000)).thenReturn(1000);
+
+        Cache<Object> mapCache = mock(Cache.class);
+        when(mapCache.get(anyString())).then(invocation -> this.cacheMap.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cacheMap.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(mapCache).set(anyString(), any());
+        doAnswer(invocation -> this.cacheMap.remove(invocation.getArgument(0))).when(mapCache).remove(anyString());
+        doAnswer(invocation -> {
+            this.cacheMap.clear();
+            return null;
+        }).when(mapCache).removeAll();
+        when(this.cacheManager.<Object>createNewCache(any(CacheConfiguration.class))).thenReturn(mapCache);
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.translator.translate(eq(STATEMENT), any())).then(invocation -> {
+            invocation.<Collection<String>>getArgument(1).add("XWiki.XWikiUsers");
+
+            return "hql";
+        });
+        when(this.serializer.serialize(CLASS_REFERENCE)).thenReturn("wiki:XWiki.XWikiUsers");
+    }
+
+    @Test
+    void translate() throws Exception
+    {
+        assertEquals("hql", this.cache.translate("wiki", STATEMENT, this.translator));
+        assertEquals("hql", this.cache.translate("wiki", STATEMENT, this.translator));
+        assertEquals("hql", this.cache.translate("otherwiki", STATEMENT, this.translator));
+
+        verify(this.translator, times(2)).translate(eq(STATEMENT), any());
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(2, this.cache.getMissCount());
+        assertEquals(2, this.cacheMap.size());
+    }
+
+    @Test
+    void invalidateClass() throws Exception
+    {
+        this.cache.translate("wiki", STATEMENT, this.translator);
+        this.cache.translate("otherwiki", STATEMENT, this.translator);
+
+        // Not a class used by the statement
+        this.cache.invalidate(new DocumentReference("wiki", "XWiki", "Other"));
+
+        this.cache.translate("wiki", STATEMENT, this.translator);
+        this.cache.translate("otherwiki", STATEMENT, this.translator);
+
+        verify(this.translator, times(2)).translate(eq(STATEMENT), any());
+
+        this.cache.invalidate(CLASS_REFERENCE);
+
+        this.cache.translate("wiki", STATEMENT, this.translator);
+        this.cache.translate("otherwiki", STATEMENT, this.translator);
+
+        verify(this.translator, times(3)).translate(eq(STATEMENT), any());
+
+        this.cache.invalidate("otherwiki");
+
+        this.cache.translate("wiki", STATEMENT, this.translator);
+        this.cache.translate("otherwiki", STATEMENT, this.translator);
+
+        verify(this.translator, times(4)).translate(eq(STATEMENT), any());
+    }
+
+    @Test
+    void invalidateDocuments() throws Exception
+    {
+        for (int i = 0; i < 100; ++i) {
+            DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page" + i);
+            when(this.serializer.serialize(documentReference)).thenReturn("wiki:Space.Page" + i);
+
+            this.cache.invalidate(documentReference);
+        }
+        this.cache.invalidate("wiki");
+
+        // Nothing is remembered about documents and wikis which don't have any cached translation
+        assertTrue(((Map<?, ?>) FieldUtils.readField(this.cache, "classGenerations", true)).isEmpty());
+        assertTrue(((Map<?, ?>) FieldUtils.readField(this.cache, "wikiGenerations", true)).isEmpty());
+
+        this.cache.translate("wiki", STATEMENT, this.translator);
+        this.cache.invalidate(CLASS_REFERENCE);
+        this.cache.translate("wiki", STATEMENT, this.translator);
+
+        verify(this.translator, times(2)).translate(eq(STATEMENT), any());
+    }
+
+    @Test
+    void jmx() throws Exception
+    {
+        this.cache.translate("wiki", STATEMENT, this.translator);
+        this.cache.translate("wiki", STATEMENT, this.translator);
+
+        verify(this.jmxRegistration).registerMBean(any(JMXXWQLTranslationCache.class),
+            eq(XWQLTranslationCache.MBEAN_NAME));
+
+        JMXXWQLTranslationCacheMBean mbean = new JMXXWQLTranslationCache(this.cache);
+        assertEquals(1, mbean.getHitCount());
+        assertEquals(1, mbean.getMissCount());
+
+        mbean.clear();
+
+        assertTrue(this.cacheMap.isEmpty());
+    }
+}
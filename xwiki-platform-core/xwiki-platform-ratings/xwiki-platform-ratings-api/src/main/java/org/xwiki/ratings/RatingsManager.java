@@ -19,6 +19,8 @@
  */
 package org.xwiki.ratings;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +28,7 @@
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.ratings.events.CreatedRatingEvent;
 import org.xwiki.ratings.events.UpdatedRatingEvent;
+import org.xwiki.stability.Unstable;
 import org.xwiki.user.UserReference;
 
 /**
@@ -178,6 +181,32 @@ List<Rating> getRatings(Map<RatingQueryField, Object> queryParameters,
      */
     long countRatings(Map<RatingQueryField, Object> queryParameters) throws RatingsException;
 
+    /**
+     * Retrieve the number of ratings matching the given parameters for each of the given references. This is
+     * equivalent to calling {@link #countRatings(Map)} with a {@link RatingQueryField#ENTITY_REFERENCE} parameter for
+     * each reference, but implementations are expected to perform a single query.
+     *
+     * @param queryParameters the map of parameters to rely on for query the ratings, any
+     *            {@link RatingQueryField#ENTITY_REFERENCE} parameter is ignored
+     * @param entityReferences the references for which to count the ratings
+     * @return the number of ratings matching the query parameters indexed by reference, in the same order as the
+     *         given references
+     * @throws RatingsException in case of problem during the query.
+     * @since 15.0RC1
+     */
+    @Unstable
+    default Map<EntityReference, Long> countRatings(Map<RatingQueryField, Object> queryParameters,
+        Collection<EntityReference> entityReferences) throws RatingsException
+    {
+        Map<EntityReference, Long> result = new LinkedHashMap<>();
+        for (EntityReference entityReference : entityReferences) {
+            Map<RatingQueryField, Object> referenceQueryParameters = new LinkedHashMap<>(queryParameters);
+            referenceQueryParameters.put(RatingQueryField.ENTITY_REFERENCE, entityReference);
+            result.put(entityReference, countRatings(referenceQueryParameters));
+        }
+        return result;
+    }
+
     /**
      * Remove a rating based on its identifier.
      * This method also performs an update of the {@link AverageRating} if the
@@ -222,6 +251,27 @@ List<Rating> getRatings(Map<RatingQueryField, Object> queryParameters,
      */
     AverageRating getAverageRating(EntityReference entityReference) throws RatingsException;
 
+    /**
+     * Retrieve the average rating information of each of the given references. Implementations are expected to
+     * retrieve all of them at once, which is much cheaper than calling {@link #getAverageRating(EntityReference)} for
+     * each reference when displaying a list of rated elements.
+     *
+     * @param entityReferences the references for which to retrieve the average rating information.
+     * @return the average rating data indexed by reference, in the same order as the given references.
+     * @throws RatingsException in case of problem during the query.
+     * @since 15.0RC1
+     */
+    @Unstable
+    default Map<EntityReference, AverageRating> getAverageRatings(Collection<EntityReference> entityReferences)
+        throws RatingsException
+    {
+        Map<EntityReference, AverageRating> result = new LinkedHashMap<>();
+        for (EntityReference entityReference : entityReferences) {
+            result.put(entityReference, getAverageRating(entityReference));
+        }
+        return result;
+    }
+
     /**
      * This method performs a direct save of the rating specified in parameter.
      * Note that this method does not take into account the {@link RatingsConfiguration#isZeroStored()} option and does not
@@ -38,6 +38,7 @@
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.FieldStatsInfo;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
@@ -396,6 +397,51 @@ public long countRatings(Map<RatingQueryField, Object> queryParameters) throws R
         }
     }
 
+    @Override
+    public Map<EntityReference, Long> countRatings(Map<RatingQueryField, Object> queryParameters,
+        Collection<EntityReference> entityReferences) throws RatingsException
+    {
+        Map<RatingQueryField, Object> commonParameters = new LinkedHashMap<>(queryParameters);
+        commonParameters.remove(RatingQueryField.ENTITY_REFERENCE);
+        String commonFilter = this.mapToQuery(commonParameters);
+        String referenceField = RatingQueryField.ENTITY_REFERENCE.getFieldName();
+
+        Map<EntityReference, Long> result = new LinkedHashMap<>();
+        List<EntityReference> distinctReferences = entityReferences.stream().distinct().collect(Collectors.toList());
+        // Count the ratings by batch to not end up with a too big query
+        for (int start = 0; start < distinctReferences.size(); start += BULK_OPERATIONS_BATCH_SIZE) {
+            List<EntityReference> batch = distinctReferences.subList(start,
+                Math.min(start + BULK_OPERATIONS_BATCH_SIZE, distinctReferences.size()));
+
+            // Use a facet query per reference to get all the counts at once
+            Map<EntityReference, String> facetQueries = new LinkedHashMap<>();
+            for (EntityReference entityReference : batch) {
+                facetQueries.put(entityReference, String.format("%s:%s", referenceField,
+                    this.solrUtils.toCompleteFilterQueryString(entityReference, EntityReference.class)));
+            }
+            SolrQuery solrQuery = new SolrQuery()
+                .addFilterQuery(String.format("%s AND filter(%s:(%s))", commonFilter, referenceField,
+                    batch.stream()
+                        .map(reference -> this.solrUtils.toCompleteFilterQueryString(reference, EntityReference.class))
+                        .collect(Collectors.joining(" OR "))))
+                .setStart(0)
+                .setRows(0);
+            facetQueries.values().forEach(solrQuery::addFacetQuery);
+
+            try {
+                QueryResponse query = this.getRatingSolrClient().query(solrQuery);
+                Map<String, Integer> facetQueryCounts = query.getFacetQuery();
+                for (Map.Entry<EntityReference, String> facetQuery : facetQueries.entrySet()) {
+                    Integer count = (facetQueryCounts != null) ? facetQueryCounts.get(facetQuery.getValue()) : null;
+                    result.put(facetQuery.getKey(), (count != null) ? count.longValue() : 0L);
+                }
+            } catch (SolrServerException | IOException | SolrException e) {
+                throw new RatingsException("Error while trying to get count of ratings", e);
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean removeRating(String ratingIdentifier) throws RatingsException
     {
@@ -503,13 +549,19 @@ public long moveRatings(EntityReference oldReference, EntityReference newReferen
                     this.getRatingSolrClient().add(solrInputDocument);
                     result++;
                 }
-                if (!rawRatings.isEmpty()) {
-                    this.getRatingSolrClient().commit();
-                }
             } catch (SolrException | IOException | SolrServerException e) {
                 throw new RatingsException("Error while trying to update rating reference", e);
             }
         } while (!rawRatings.isEmpty());
+        // Commit all the updates at once: it's cheaper and the pagination is not impacted by the updated ratings not
+        // matching the query anymore
+        if (result > 0) {
+            try {
+                this.getRatingSolrClient().commit();
+            } catch (SolrException | IOException | SolrServerException e) {
+                throw new RatingsException("Error while trying to update rating reference", e);
+            }
+        }
         if (this.getRatingConfiguration().isAverageStored()) {
             this.getAverageRatingManager().moveAverageRatings(oldReference, newReference);
         }
@@ -526,6 +578,17 @@ public AverageRating getAverageRating(EntityReference entityReference) throws Ra
         }
     }
 
+    @Override
+    public Map<EntityReference, AverageRating> getAverageRatings(Collection<EntityReference> entityReferences)
+        throws RatingsException
+    {
+        if (this.getRatingConfiguration().isAverageStored()) {
+            return this.getAverageRatingManager().getAverageRatings(entityReferences);
+        } else {
+            throw new RatingsException(AVERAGE_RATING_NOT_ENABLED_ERROR_MESSAGE);
+        }
+    }
+
     @Override
     public void saveRating(Rating rating) throws RatingsException
     {
@@ -545,19 +608,29 @@ public AverageRating recomputeAverageRating(EntityReference entityReference) thr
             Map<RatingQueryField, Object> queryMap = new LinkedHashMap<>();
             queryMap.put(RatingQueryField.ENTITY_REFERENCE, entityReference);
 
-            Long sumOfVotes = 0L;
+            // Let Solr compute the sum and the count of the votes instead of iterating over all the ratings
+            String voteField = RatingQueryField.VOTE.getFieldName();
+            SolrQuery solrQuery = new SolrQuery()
+                .addFilterQuery(this.mapToQuery(queryMap))
+                .setStart(0)
+                .setRows(0)
+                .setGetFieldStatistics(voteField);
+
+            double sumOfVotes = 0;
             int numberOfVotes = 0;
-            List<Rating> ratings;
-            int offsetIndex = 0;
-            do {
-                ratings = this.getRatings(queryMap, offsetIndex, BULK_OPERATIONS_BATCH_SIZE,
-                    RatingQueryField.CREATED_DATE, true);
-                sumOfVotes += ratings.stream().map(Rating::getVote).map(Long::valueOf).reduce(0L, Long::sum);
-                numberOfVotes += ratings.size();
-                offsetIndex += BULK_OPERATIONS_BATCH_SIZE;
-            } while (!ratings.isEmpty());
-
-            float newAverage = (numberOfVotes > 0) ? Float.valueOf(sumOfVotes) / numberOfVotes : 0;
+            try {
+                QueryResponse query = this.getRatingSolrClient().query(solrQuery);
+                Map<String, FieldStatsInfo> fieldStatsInfo = query.getFieldStatsInfo();
+                FieldStatsInfo voteStats = (fieldStatsInfo != null) ? fieldStatsInfo.get(voteField) : null;
+                if (voteStats != null && voteStats.getCount() != null && voteStats.getCount() > 0) {
+                    sumOfVotes = ((Number) voteStats.getSum()).doubleValue();
+                    numberOfVotes = voteStats.getCount().intValue();
+                }
+            } catch (SolrServerException | IOException | SolrException e) {
+                throw new RatingsException("Error while trying to compute the average rating", e);
+            }
+
+            float newAverage = (numberOfVotes > 0) ? (float) (sumOfVotes / numberOfVotes) : 0;
             return this.getAverageRatingManager().resetAverageRating(entityReference, newAverage, numberOfVotes);
         } else {
             throw new RatingsException(AVERAGE_RATING_NOT_ENABLED_ERROR_MESSAGE);
@@ -19,6 +19,10 @@
  */
 package org.xwiki.ratings.internal.averagerating;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.ratings.AverageRating;
@@ -116,6 +120,26 @@ public String getFieldName()
      */
     AverageRating getAverageRating(EntityReference entityReference) throws RatingsException;
 
+    /**
+     * Retrieve the average rating information for each of the given references.
+     * As for {@link #getAverageRating(EntityReference)}, a non stored average rating object is created for the
+     * references which don't have any average rating yet.
+     *
+     * @param entityReferences the references for which to return an average rating.
+     * @return the average ratings indexed by reference, in the same order as the given references.
+     * @throws RatingsException in case of problem to retrieve the information.
+     * @since 15.0RC1
+     */
+    default Map<EntityReference, AverageRating> getAverageRatings(Collection<EntityReference> entityReferences)
+        throws RatingsException
+    {
+        Map<EntityReference, AverageRating> result = new LinkedHashMap<>();
+        for (EntityReference entityReference : entityReferences) {
+            result.put(entityReference, getAverageRating(entityReference));
+        }
+        return result;
+    }
+
     /**
      * Add a new vote for the average rating of the given reference.
      * This method will save the updated average rating and triggers the appropriate events.
@@ -22,8 +22,12 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -100,6 +104,18 @@ private SolrInputDocument getInputDocumentFromAverageRating(AverageRating averag
         return result;
     }
 
+    private AverageRating getAverageRatingFromSolrDocument(SolrDocument solrDocument,
+        EntityReference entityReference)
+    {
+        return new DefaultAverageRating(solrUtils.getId(solrDocument))
+            .setManagerId(solrUtils.get(AverageRatingQueryField.MANAGER_ID.getFieldName(), solrDocument))
+            .setAverageVote(solrUtils.get(AverageRatingQueryField.AVERAGE_VOTE.getFieldName(), solrDocument))
+            .setReference(entityReference)
+            .setTotalVote(solrUtils.get(AverageRatingQueryField.TOTAL_VOTE.getFieldName(), solrDocument))
+            .setScaleUpperBound(solrUtils.get(AverageRatingQueryField.SCALE.getFieldName(), solrDocument))
+            .setUpdatedAt(solrUtils.get(AverageRatingQueryField.UPDATED_AT.getFieldName(), solrDocument));
+    }
+
     @Override
     public AverageRating getAverageRating(EntityReference entityReference) throws RatingsException
     {
@@ -117,16 +133,7 @@ public AverageRating getAverageRating(EntityReference entityReference) throws Ra
             QueryResponse query = this.getAverageRatingSolrClient().query(solrQuery);
             AverageRating result;
             if (!query.getResults().isEmpty()) {
-                SolrDocument solrDocument = query.getResults().get(0);
-
-                result = new DefaultAverageRating(solrUtils.getId(solrDocument))
-                    .setManagerId(solrUtils.get(AverageRatingQueryField.MANAGER_ID.getFieldName(), solrDocument))
-                    .setAverageVote(solrUtils.get(AverageRatingQueryField.AVERAGE_VOTE.getFieldName(), solrDocument))
-                    .setReference(entityReference)
-                    .setTotalVote(solrUtils.get(AverageRatingQueryField.TOTAL_VOTE.getFieldName(),
-                        solrDocument))
-                    .setScaleUpperBound(solrUtils.get(AverageRatingQueryField.SCALE.getFieldName(), solrDocument))
-                    .setUpdatedAt(solrUtils.get(AverageRatingQueryField.UPDATED_AT.getFieldName(), solrDocument));
+                result = getAverageRatingFromSolrDocument(query.getResults().get(0), entityReference);
             } else {
                 return this.createAverageRating(entityReference, UUID.randomUUID().toString());
             }
@@ -136,6 +143,53 @@ public AverageRating getAverageRating(EntityReference entityReference) throws Ra
         }
     }
 
+    @Override
+    public Map<EntityReference, AverageRating> getAverageRatings(Collection<EntityReference> entityReferences)
+        throws RatingsException
+    {
+        Map<EntityReference, AverageRating> found = new HashMap<>();
+
+        // Retrieve the average ratings by batch to not end up with a too big filter query
+        List<EntityReference> distinctReferences = entityReferences.stream().distinct().collect(Collectors.toList());
+        for (int start = 0; start < distinctReferences.size(); start += BULK_OPERATIONS_BATCH_SIZE) {
+            List<EntityReference> batch = distinctReferences.subList(start,
+                Math.min(start + BULK_OPERATIONS_BATCH_SIZE, distinctReferences.size()));
+            String referencesFilter = batch.stream()
+                .map(reference -> this.solrUtils.toCompleteFilterQueryString(reference, EntityReference.class))
+                .collect(Collectors.joining(" OR ", "(", ")"));
+            SolrQuery solrQuery = new SolrQuery()
+                .addFilterQuery(String.format("filter(%s:%s) AND filter(%s:%s)",
+                    AverageRatingQueryField.MANAGER_ID.getFieldName(),
+                    this.solrUtils.toCompleteFilterQueryString(this.getIdentifier()),
+                    AverageRatingQueryField.ENTITY_REFERENCE.getFieldName(), referencesFilter))
+                .setStart(0)
+                .setRows(batch.size())
+                .setSort(AverageRatingQueryField.UPDATED_AT.getFieldName(), this.getOrder(true));
+
+            try {
+                QueryResponse query = this.getAverageRatingSolrClient().query(solrQuery);
+                for (SolrDocument solrDocument : query.getResults()) {
+                    EntityReference reference = this.solrUtils.get(
+                        AverageRatingQueryField.ENTITY_REFERENCE.getFieldName(), solrDocument, EntityReference.class);
+                    // Same as getAverageRating: the oldest average rating wins in the unlikely case of duplicates
+                    found.putIfAbsent(reference, getAverageRatingFromSolrDocument(solrDocument, reference));
+                }
+            } catch (SolrServerException | IOException | SolrException e) {
+                throw new RatingsException("Error while trying to get average rating values.", e);
+            }
+        }
+
+        Map<EntityReference, AverageRating> result = new LinkedHashMap<>();
+        for (EntityReference entityReference : distinctReferences) {
+            AverageRating averageRating = found.get(entityReference);
+            if (averageRating == null) {
+                averageRating = this.createAverageRating(entityReference, UUID.randomUUID().toString());
+            }
+            result.put(entityReference, averageRating);
+        }
+        return result;
+    }
+
     @Override
     public long removeAverageRatings(EntityReference entityReference) throws RatingsException
     {
@@ -215,15 +269,20 @@ public long moveAverageRatings(EntityReference oldReference, EntityReference new
                     }
                     this.getAverageRatingSolrClient().add(solrInputDocument);
                     result++;
-
-                }
-                if (!rawRatings.isEmpty()) {
-                    this.getAverageRatingSolrClient().commit();
                 }
             } catch (SolrException | IOException | SolrServerException e) {
                 throw new RatingsException("Error while trying to update average rating reference", e);
             }
         } while (!rawRatings.isEmpty());
+        // Commit all the updates at once: it's cheaper and the pagination is not impacted by the updated average
+        // ratings not matching the query anymore
+        if (result > 0) {
+            try {
+                this.getAverageRatingSolrClient().commit();
+            } catch (SolrException | IOException | SolrServerException e) {
+                throw new RatingsException("Error while trying to update average rating reference", e);
+            }
+        }
         return result;
     }
 
@@ -19,6 +19,7 @@
  */
 package org.xwiki.ratings.script;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -135,6 +136,18 @@ public Optional<AverageRating> getAverageRating(EntityReference reference)
         return Optional.empty();
     }
 
+    @Override
+    public Map<EntityReference, AverageRating> getAverageRatings(Collection<EntityReference> references)
+    {
+        try {
+            return this.ratingsManager.getAverageRatings(references);
+        } catch (RatingsException e) {
+            logger.error("Error when getting average ratings for references [{}]", references,
+                ExceptionUtils.getRootCause(e));
+        }
+        return Collections.emptyMap();
+    }
+
     @Override
     public Optional<AverageRating> recomputeAverageRating(EntityReference reference)
     {
@@ -19,13 +19,17 @@
  */
 package org.xwiki.ratings.script;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.ratings.AverageRating;
 import org.xwiki.ratings.Rating;
 import org.xwiki.ratings.RatingsConfiguration;
+import org.xwiki.stability.Unstable;
 import org.xwiki.user.UserReference;
 
 import com.xpn.xwiki.util.Programming;
@@ -93,6 +97,20 @@
      */
     Optional<AverageRating> getAverageRating(EntityReference reference);
 
+    /**
+     * Retrieve the average ratings of several references at once. This should be preferred over calling
+     * {@link #getAverageRating(EntityReference)} for each element when displaying a list of rated elements.
+     *
+     * @param references the references for which to retrieve the average rating information.
+     * @return the average ratings indexed by reference or an empty map in case of error.
+     * @since 15.0RC1
+     */
+    @Unstable
+    default Map<EntityReference, AverageRating> getAverageRatings(Collection<EntityReference> references)
+    {
+        return Collections.emptyMap();
+    }
+
     /**
      * Recompute the average rating of a reference.
      * Note that this method can be resource consuming if the set of data is large.
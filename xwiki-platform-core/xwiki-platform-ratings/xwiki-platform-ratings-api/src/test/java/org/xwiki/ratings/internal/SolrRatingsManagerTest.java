@@ -34,12 +34,15 @@
 
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.FieldStatsInfo;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.StatsParams;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.model.EntityType;
@@ -200,6 +203,42 @@ void countRatings() throws Exception
         assertEquals(455L, this.manager.countRatings(queryParameters));
     }
 
+    @Test
+    void countRatingsPerReference() throws Exception
+    {
+        UserReference userReference = mock(UserReference.class);
+        EntityReference reference1 = mock(EntityReference.class);
+        EntityReference reference2 = mock(EntityReference.class);
+        Map<RatingQueryField, Object> queryParameters =
+            Collections.singletonMap(RatingQueryField.USER_REFERENCE, userReference);
+
+        String managerId = "managerTest";
+        this.manager.setIdentifier(managerId);
+        when(this.configuration.hasDedicatedCore()).thenReturn(true);
+        when(this.solr.getClient(managerId)).thenReturn(this.solrClient);
+
+        when(reference1.toString()).thenReturn("block:toto");
+        when(reference2.toString()).thenReturn("block:titi");
+        when(userReference.toString()).thenReturn("user:Foobar");
+        String query = "filter(author:user\\:Foobar) AND filter(managerId:managerTest) "
+            + "AND filter(reference:(block\\:toto OR block\\:titi))";
+        SolrQuery expectedQuery = new SolrQuery().addFilterQuery(query).setStart(0).setRows(0);
+        QueryResponse response = prepareSolrClientQueryWhenStatement(this.solrClient, expectedQuery);
+        // Only the references having ratings are returned by Solr
+        when(response.getFacetQuery()).thenReturn(Collections.singletonMap("reference:block\\:titi", 3));
+
+        Map<EntityReference, Long> expected = new LinkedHashMap<>();
+        expected.put(reference1, 0L);
+        expected.put(reference2, 3L);
+        assertEquals(expected,
+            this.manager.countRatings(queryParameters, Arrays.asList(reference1, reference2, reference1)));
+
+        ArgumentCaptor<SolrQuery> queryCaptor = ArgumentCaptor.forClass(SolrQuery.class);
+        verify(this.solrClient).query(queryCaptor.capture());
+        assertArrayEquals(new String[] { "reference:block\\:toto", "reference:block\\:titi" },
+            queryCaptor.getValue().getFacetQuery());
+    }
+
     @Test
     void getRatings() throws Exception
     {
@@ -759,67 +798,27 @@ void recomputeAverageRating() throws Exception
             RatingQueryField.ENTITY_REFERENCE.getFieldName(), "document\\:Input.Reference",
             RatingQueryField.MANAGER_ID.getFieldName(), managerId);
 
-        SolrQuery expectedQuery1 = new SolrQuery()
-            .addFilterQuery(filterQuery)
-            .setRows(100)
-            .setStart(0)
-            .setSort(RatingQueryField.CREATED_DATE.getFieldName(), SolrQuery.ORDER.asc);
-
-        SolrDocument rating1 = mock(SolrDocument.class);
-        SolrDocument rating2 = mock(SolrDocument.class);
-        SolrDocument rating3 = mock(SolrDocument.class);
-        SolrDocument rating4 = mock(SolrDocument.class);
-        when(rating1.get(RatingQueryField.VOTE.getFieldName())).thenReturn(4);
-        when(rating1.get(RatingQueryField.SCALE.getFieldName())).thenReturn(5);
-        when(rating2.get(RatingQueryField.VOTE.getFieldName())).thenReturn(1);
-        when(rating2.get(RatingQueryField.SCALE.getFieldName())).thenReturn(5);
-        when(rating3.get(RatingQueryField.VOTE.getFieldName())).thenReturn(0);
-        when(rating3.get(RatingQueryField.SCALE.getFieldName())).thenReturn(5);
-        when(rating4.get(RatingQueryField.VOTE.getFieldName())).thenReturn(2);
-        when(rating4.get(RatingQueryField.SCALE.getFieldName())).thenReturn(5);
-        when(this.documentList.stream())
-            .thenReturn(Arrays.asList(rating1, rating2, rating3, rating4).stream());
-
-        SolrQuery expectedQuery2 = new SolrQuery()
+        SolrQuery expectedQuery = new SolrQuery()
             .addFilterQuery(filterQuery)
-            .setRows(100)
-            .setStart(100)
-            .setSort(RatingQueryField.CREATED_DATE.getFieldName(), SolrQuery.ORDER.asc);
-
-        QueryResponse response1 = mock(QueryResponse.class);
-        QueryResponse response2 = mock(QueryResponse.class);
+            .setRows(0)
+            .setStart(0);
+        QueryResponse response = prepareSolrClientQueryWhenStatement(this.solrClient, expectedQuery);
 
-        AtomicInteger queryCounter = new AtomicInteger(0);
-        when(solrClient.query(any())).then(invocationOnMock -> {
-
-            SolrQuery givenQuery = invocationOnMock.getArgument(0);
-            QueryResponse result = null;
-            if (queryCounter.get() == 0) {
-                assertEquals(expectedQuery1.getQuery(), givenQuery.getQuery());
-                assertArrayEquals(expectedQuery1.getFilterQueries(), givenQuery.getFilterQueries());
-                assertEquals(expectedQuery1.getRows(), givenQuery.getRows());
-                assertEquals(expectedQuery1.getStart(), givenQuery.getStart());
-                assertEquals(expectedQuery1.getSorts(), givenQuery.getSorts());
-                result = response1;
-            } else if (queryCounter.get() == 1) {
-                assertEquals(expectedQuery2.getQuery(), givenQuery.getQuery());
-                assertArrayEquals(expectedQuery2.getFilterQueries(), givenQuery.getFilterQueries());
-                assertEquals(expectedQuery2.getRows(), givenQuery.getRows());
-                assertEquals(expectedQuery2.getStart(), givenQuery.getStart());
-                assertEquals(expectedQuery2.getSorts(), givenQuery.getSorts());
-                result = response2;
-            } else {
-                fail("Too many requests performed.");
-            }
-            queryCounter.getAndIncrement();
-            return result;
-        });
-        when(response1.getResults()).thenReturn(this.documentList);
-        when(response2.getResults()).thenReturn(new SolrDocumentList());
+        // The sum and the count of the votes are computed by Solr in a single query
+        FieldStatsInfo voteStats = mock(FieldStatsInfo.class);
+        when(voteStats.getSum()).thenReturn(7.0);
+        when(voteStats.getCount()).thenReturn(4L);
+        when(response.getFieldStatsInfo())
+            .thenReturn(Collections.singletonMap(RatingQueryField.VOTE.getFieldName(), voteStats));
 
         AverageRating averageRating = mock(AverageRating.class);
         when(this.averageRatingManager.resetAverageRating(inputReference, 1.75f, 4)).thenReturn(averageRating);
         assertEquals(averageRating, this.manager.recomputeAverageRating(inputReference));
+
+        ArgumentCaptor<SolrQuery> queryCaptor = ArgumentCaptor.forClass(SolrQuery.class);
+        verify(this.solrClient).query(queryCaptor.capture());
+        assertArrayEquals(new String[] { RatingQueryField.VOTE.getFieldName() },
+            queryCaptor.getValue().getParams(StatsParams.STATS_FIELD));
     }
 
     @Test
@@ -839,30 +838,37 @@ void recomputeAverageRatings_noVote() throws Exception
 
         SolrQuery expectedQuery = new SolrQuery()
             .addFilterQuery(filterQuery)
-            .setRows(100)
-            .setStart(0)
-            .setSort(RatingQueryField.CREATED_DATE.getFieldName(), SolrQuery.ORDER.asc);
+            .setRows(0)
+            .setStart(0);
+        QueryResponse response = prepareSolrClientQueryWhenStatement(this.solrClient, expectedQuery);
 
-        QueryResponse response1 = mock(QueryResponse.class);
-        when(solrClient.query(any())).then(invocationOnMock -> {
-            SolrQuery givenQuery = invocationOnMock.getArgument(0);
-            QueryResponse result = null;
-            assertEquals(expectedQuery.getQuery(), givenQuery.getQuery());
-            assertArrayEquals(expectedQuery.getFilterQueries(), givenQuery.getFilterQueries());
-            assertEquals(expectedQuery.getRows(), givenQuery.getRows());
-            assertEquals(expectedQuery.getStart(), givenQuery.getStart());
-            assertEquals(expectedQuery.getSorts(), givenQuery.getSorts());
-            result = response1;
-            return result;
-        });
-        // empty response
-        when(response1.getResults()).thenReturn(new SolrDocumentList());
+        // No vote: Solr returns empty statistics
+        FieldStatsInfo voteStats = mock(FieldStatsInfo.class);
+        when(voteStats.getCount()).thenReturn(0L);
+        when(response.getFieldStatsInfo())
+            .thenReturn(Collections.singletonMap(RatingQueryField.VOTE.getFieldName(), voteStats));
 
         AverageRating averageRating = mock(AverageRating.class);
         when(this.averageRatingManager.resetAverageRating(inputReference, 0, 0)).thenReturn(averageRating);
         assertEquals(averageRating, this.manager.recomputeAverageRating(inputReference));
     }
 
+    @Test
+    void getAverageRatings() throws Exception
+    {
+        when(this.configuration.isAverageStored()).thenReturn(true);
+        List<EntityReference> references = Arrays.asList(mock(EntityReference.class), mock(EntityReference.class));
+        Map<EntityReference, AverageRating> averageRatings = new LinkedHashMap<>();
+        when(this.averageRatingManager.getAverageRatings(references)).thenReturn(averageRatings);
+
+        assertEquals(averageRatings, this.manager.getAverageRatings(references));
+
+        when(this.configuration.isAverageStored()).thenReturn(false);
+        RatingsException ratingsException =
+            assertThrows(RatingsException.class, () -> this.manager.getAverageRatings(references));
+        assertEquals("This rating manager is not configured to store average rating.", ratingsException.getMessage());
+    }
+
     @Test
     void removeRatings() throws Exception
     {
@@ -218,6 +218,66 @@ void getAverageRatingNotExisting() throws Exception
         assertEquals(expectedRating, averageRating);
     }
 
+    @Test
+    void getAverageRatings() throws Exception
+    {
+        when(this.solr.getClient(AverageRatingSolrCoreInitializer.DEFAULT_AVERAGE_RATING_SOLR_CORE))
+            .thenReturn(this.solrClient);
+
+        String managerId = "averageId3";
+        when(this.ratingsManager.getIdentifier()).thenReturn(managerId);
+        when(this.ratingsManager.getScale()).thenReturn(5);
+        EntityReference reference1 = mock(EntityReference.class);
+        when(reference1.toString()).thenReturn("xwiki:Rated");
+        EntityReference reference2 = mock(EntityReference.class);
+        when(reference2.toString()).thenReturn("xwiki:NotRated");
+
+        // A single query is performed for all the references
+        String filterQuery =
+            "filter(managerId:averageId3) AND filter(reference:(xwiki\\:Rated OR xwiki\\:NotRated))";
+        SolrQuery solrQuery = new SolrQuery().addFilterQuery(filterQuery)
+            .setStart(0)
+            .setRows(2)
+            .setSort("updatedAt", SolrQuery.ORDER.asc);
+        QueryResponse response = prepareSolrClientQueryWhenStatement(this.solrClient, solrQuery);
+
+        Map<String, Object> fieldMap = new HashMap<>();
+        fieldMap.put("id", "average1");
+        fieldMap.put(AverageRatingQueryField.AVERAGE_VOTE.getFieldName(), 3.5f);
+        fieldMap.put(AverageRatingQueryField.TOTAL_VOTE.getFieldName(), 2);
+        fieldMap.put(AverageRatingQueryField.MANAGER_ID.getFieldName(), managerId);
+        fieldMap.put(AverageRatingQueryField.UPDATED_AT.getFieldName(), new Date(42));
+        fieldMap.put(AverageRatingQueryField.SCALE.getFieldName(), 5);
+        SolrDocument solrDocument = new SolrDocument(fieldMap);
+        when(this.solrUtils.get(AverageRatingQueryField.ENTITY_REFERENCE.getFieldName(), solrDocument,
+            EntityReference.class)).thenReturn(reference1);
+        SolrDocumentList results = new SolrDocumentList();
+        results.add(solrDocument);
+        when(response.getResults()).thenReturn(results);
+
+        Map<EntityReference, AverageRating> averageRatings =
+            this.averageRatingManager.getAverageRatings(Arrays.asList(reference1, reference2, reference1));
+
+        assertEquals(Arrays.asList(reference1, reference2), new ArrayList<>(averageRatings.keySet()));
+        assertEquals(new DefaultAverageRating("average1")
+            .setAverageVote(3.5f)
+            .setTotalVote(2)
+            .setUpdatedAt(new Date(42))
+            .setManagerId(managerId)
+            .setScaleUpperBound(5)
+            .setReference(reference1), averageRatings.get(reference1));
+
+        AverageRating notRated = averageRatings.get(reference2);
+        assertEquals(new DefaultAverageRating(notRated.getId())
+            .setAverageVote(0)
+            .setTotalVote(0)
+            .setUpdatedAt(notRated.getUpdatedAt())
+            .setManagerId(managerId)
+            .setScaleUpperBound(5)
+            .setReference(reference2), notRated);
+        verify(this.solrClient).query(any());
+    }
+
     @Test
     void saveAverageRating() throws Exception
     {
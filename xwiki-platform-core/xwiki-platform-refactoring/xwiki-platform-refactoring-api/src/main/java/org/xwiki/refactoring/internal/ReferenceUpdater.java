@@ -19,6 +19,8 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.Map;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
@@ -39,4 +41,19 @@
      */
     void update(DocumentReference documentReference, EntityReference oldTargetReference,
         EntityReference newTargetReference);
+
+    /**
+     * Update the references to several renamed entities at once, so that the document is loaded, parsed and saved only
+     * once.
+     * 
+     * @param documentReference the reference of the document in which to update the references
+     * @param renamedReferences the previous references of the renamed entities associated with their new references
+     * @since 15.0RC1
+     */
+    default void update(DocumentReference documentReference,
+        Map<? extends EntityReference, ? extends EntityReference> renamedReferences)
+    {
+        renamedReferences.forEach((oldTargetReference, newTargetReference) -> update(documentReference,
+            oldTargetReference, newTargetReference));
+    }
 }
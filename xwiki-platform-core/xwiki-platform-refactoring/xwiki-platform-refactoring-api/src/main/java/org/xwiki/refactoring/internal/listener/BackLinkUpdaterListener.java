@@ -19,7 +19,12 @@
  */
 package org.xwiki.refactoring.internal.listener;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 import javax.inject.Inject;
@@ -29,14 +34,18 @@
 import org.slf4j.Logger;
 import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.job.Job;
 import org.xwiki.job.JobContext;
+import org.xwiki.job.event.JobFinishedEvent;
 import org.xwiki.job.event.status.JobProgressManager;
+import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.observation.event.AbstractLocalEventListener;
 import org.xwiki.observation.event.Event;
 import org.xwiki.refactoring.RefactoringException;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.ReferenceUpdater;
 import org.xwiki.refactoring.internal.job.DeleteJob;
@@ -48,6 +57,10 @@
 
 /**
  * Updates the back-links after a document has been renamed or deleted.
+ * <p>
+ * When several documents are moved by the same job (e.g. a space) the update of the back-links is planned when each
+ * document is renamed but executed only once all the documents have been moved, so that each document linking to the
+ * moved documents is loaded, parsed and saved only once whatever the number of moved documents it targets.
  * 
  * @version $Id$
  * @since 11.1RC1
@@ -80,19 +93,57 @@ public class BackLinkUpdaterListener extends AbstractLocalEventListener
     @Inject
     private JobContext jobContext;
 
+    private final Map<Job, BackLinksPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * The back-links to update once all the documents of a job have been moved.
+     */
+    private static final class BackLinksPlan
+    {
+        private final Predicate<EntityReference> canEdit;
+
+        /**
+         * The documents to update associated with the renamed documents they link to.
+         */
+        private final Map<DocumentReference, Map<EntityReference, EntityReference>> documents = new LinkedHashMap<>();
+
+        /**
+         * The documents renamed by the job, in case some of them are also linking to other moved documents.
+         */
+        private final Map<DocumentReference, DocumentReference> renamed = new HashMap<>();
+
+        BackLinksPlan(Predicate<EntityReference> canEdit)
+        {
+            this.canEdit = canEdit;
+        }
+
+        void add(DocumentReference source, DocumentReference target, Set<DocumentReference> backlinks)
+        {
+            this.renamed.put(source, target);
+
+            for (DocumentReference backlink : backlinks) {
+                this.documents.computeIfAbsent(backlink, k -> new LinkedHashMap<>()).put(source, target);
+            }
+        }
+    }
+
     /**
      * Default constructor.
      */
     public BackLinkUpdaterListener()
     {
-        super(NAME, new DocumentRenamedEvent(), new DocumentDeletedEvent());
+        super(NAME, new DocumentRenamedEvent(), new DocumentDeletedEvent(), new EntitiesRenamedEvent(),
+            new JobFinishedEvent());
     }
 
     @Override
     public void processLocalEvent(Event event, Object source, Object data)
     {
         try {
-            if (event instanceof DocumentRenamedEvent) {
+            if (event instanceof EntitiesRenamedEvent || event instanceof JobFinishedEvent) {
+                // The job might have failed before sending the EntitiesRenamedEvent
+                maybeUpdatePlannedLinks(source);
+            } else if (event instanceof DocumentRenamedEvent) {
                 maybeUpdateLinksAfterRename(event, source, data);
             } else if (event instanceof DocumentDeletedEvent && this.jobContext.getCurrentJob() instanceof DeleteJob) {
                 maybeUpdateLinksAfterDelete(event);
@@ -130,7 +181,60 @@ private void maybeUpdateLinksAfterRename(Event event, Object source, Object data
 
         if (updateLinks) {
             DocumentRenamedEvent renameEvent = (DocumentRenamedEvent) event;
-            updateBackLinks(renameEvent.getSourceReference(), renameEvent.getTargetReference(), canEdit);
+            if (source instanceof MoveJob && isMovingSeveralDocuments((MoveRequest) data)) {
+                planBackLinks((MoveJob) source, renameEvent.getSourceReference(), renameEvent.getTargetReference(),
+                    canEdit);
+            } else {
+                updateBackLinks(renameEvent.getSourceReference(), renameEvent.getTargetReference(), canEdit);
+            }
+        }
+    }
+
+    private boolean isMovingSeveralDocuments(MoveRequest request)
+    {
+        Collection<EntityReference> entityReferences = request.getEntityReferences();
+
+        return entityReferences != null && (request.isDeep() || entityReferences.size() > 1
+            || entityReferences.stream().anyMatch(reference -> reference.getType() != EntityType.DOCUMENT));
+    }
+
+    private void planBackLinks(MoveJob job, DocumentReference source, DocumentReference target,
+        Predicate<EntityReference> canEdit) throws RefactoringException
+    {
+        this.logger.info("Planning the update of the back-links for document [{}].", source);
+
+        // Resolve the back-links right away since the link store is not reliable for documents which are being moved
+        Set<DocumentReference> backlinkDocumentReferences = this.modelBridge.getBackLinkedDocuments(source);
+
+        this.plans.computeIfAbsent(job, k -> new BackLinksPlan(canEdit)).add(source, target,
+            backlinkDocumentReferences);
+    }
+
+    private void maybeUpdatePlannedLinks(Object source)
+    {
+        BackLinksPlan plan = source instanceof Job ? this.plans.remove(source) : null;
+
+        if (plan != null) {
+            this.logger.info("Updating the back-links of [{}] moved documents in [{}] documents.",
+                plan.renamed.size(), plan.documents.size());
+
+            this.progressManager.pushLevelProgress(plan.documents.size(), this);
+
+            try {
+                for (Map.Entry<DocumentReference, Map<EntityReference, EntityReference>> entry : plan.documents
+                    .entrySet()) {
+                    this.progressManager.startStep(this);
+                    // The document linking to a moved document might have been moved too
+                    DocumentReference documentReference =
+                        plan.renamed.getOrDefault(entry.getKey(), entry.getKey());
+                    if (plan.canEdit.test(documentReference)) {
+                        this.updater.update(documentReference, entry.getValue());
+                    }
+                    this.progressManager.endStep(this);
+                }
+            } finally {
+                this.progressManager.popLevelProgress(this);
+            }
         }
     }
 
@@ -20,6 +20,8 @@
 package org.xwiki.refactoring.internal.listener;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -31,6 +33,7 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.refactoring.RefactoringException;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.ReferenceUpdater;
 import org.xwiki.refactoring.internal.job.DeleteJob;
@@ -158,6 +161,50 @@ void onDocumentRenamedWithUpdateLinksOnWiki()
         assertEquals("Updating the back-links for document [foo:Users.Alice].", logCapture.getMessage(0));
     }
 
+    @Test
+    void onDocumentsRenamedBySpaceMove() throws Exception
+    {
+        renameRequest.setUpdateLinks(true);
+        renameRequest.setEntityReferences(List.of(aliceReference.getLastSpaceReference()));
+
+        DocumentReference newAliceReference = new DocumentReference("foo", "Persons", "Alice");
+        DocumentReference newCarolReference = new DocumentReference("foo", "Persons", "Carol");
+        DocumentReference newBobReference = new DocumentReference("foo", "Persons", "Bob");
+        when(this.modelBridge.getBackLinkedDocuments(carolReference)).thenReturn(Set.of(denisReference));
+        when(this.modelBridge.getBackLinkedDocuments(bobReference)).thenReturn(Set.of(denisReference));
+
+        when(this.renameJob.hasAccess(Right.EDIT, newCarolReference)).thenReturn(true);
+        when(this.renameJob.hasAccess(Right.EDIT, denisReference)).thenReturn(true);
+
+        this.listener.onEvent(new DocumentRenamedEvent(aliceReference, newAliceReference), renameJob,
+            renameRequest);
+        this.listener.onEvent(new DocumentRenamedEvent(carolReference, newCarolReference), renameJob,
+            renameRequest);
+        this.listener.onEvent(new DocumentRenamedEvent(bobReference, newBobReference), renameJob, renameRequest);
+
+        verify(this.updater, never()).update(any(), any(DocumentReference.class), any());
+        verify(this.updater, never()).update(any(), any(Map.class));
+
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
+
+        // Carol was moved too
+        verify(this.updater).update(newCarolReference, Map.of(aliceReference, newAliceReference));
+        verify(this.updater).update(denisReference, Map.of(aliceReference, newAliceReference, carolReference,
+            newCarolReference, bobReference, newBobReference));
+
+        // The plan is executed only once
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
+
+        verify(this.updater).update(eq(denisReference), any(Map.class));
+
+        assertEquals("Planning the update of the back-links for document [foo:Users.Alice].",
+            logCapture.getMessage(0));
+        assertEquals("Planning the update of the back-links for document [foo:Users.Carol].",
+            logCapture.getMessage(1));
+        assertEquals("Planning the update of the back-links for document [foo:Users.Bob].", logCapture.getMessage(2));
+        assertEquals("Updating the back-links of [3] moved documents in [2] documents.", logCapture.getMessage(3));
+    }
+
     @Test
     void onDocumentRenamedWithoutUpdateLinks()
     {
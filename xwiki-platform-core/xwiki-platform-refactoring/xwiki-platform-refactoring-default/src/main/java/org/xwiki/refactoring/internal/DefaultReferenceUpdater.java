@@ -21,6 +21,7 @@
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -204,8 +205,8 @@ private void info(String format, Object... arguments)
         }
     }
 
-    private void renameLinks(XWikiDocument document, EntityReference oldTarget, EntityReference newTarget,
-        XWikiContext xcontext, boolean relative, RenameLambda renameLambda) throws XWikiException
+    private void renameLinks(XWikiDocument document, Object oldTarget, Object newTarget, XWikiContext xcontext,
+        boolean relative, RenameLambda renameLambda) throws XWikiException
     {
         DocumentReference currentDocumentReference = document.getDocumentReference();
 
@@ -278,8 +279,8 @@ private void renameLinks(DocumentReference documentReference, AttachmentReferenc
             r) -> this.renamer.renameReferences(xdom, currentDocumentReference, oldLinkTarget, newLinkTarget, r));
     }
 
-    private void internalRenameLinks(DocumentReference documentReference, EntityReference oldLinkTarget,
-        EntityReference newLinkTarget, boolean relative, RenameLambda renameLambda)
+    private void internalRenameLinks(DocumentReference documentReference, Object oldLinkTarget, Object newLinkTarget,
+        boolean relative, RenameLambda renameLambda)
     {
         boolean popLevelProgress = false;
         XWikiContext xcontext = this.xcontextProvider.get();
@@ -329,6 +330,50 @@ private AttachmentReference toAttachmentReference(EntityReference entityReferenc
             : new AttachmentReference(entityReference);
     }
 
+    private boolean renameReferences(XDOM xdom, DocumentReference currentDocumentReference,
+        EntityReference oldTargetReference, EntityReference newTargetReference, boolean relative)
+    {
+        // Old and new target must be of same type
+        if (oldTargetReference.getType() != newTargetReference.getType()) {
+            return false;
+        }
+
+        // Only support documents and attachments targets
+        if (oldTargetReference.getType() == EntityType.ATTACHMENT) {
+            return this.renamer.renameReferences(xdom, currentDocumentReference,
+                toAttachmentReference(oldTargetReference), toAttachmentReference(newTargetReference), relative);
+        } else if (oldTargetReference.getType() == EntityType.DOCUMENT) {
+            return this.renamer.renameReferences(xdom, currentDocumentReference,
+                toDocumentReference(oldTargetReference), toDocumentReference(newTargetReference), relative);
+        }
+
+        return false;
+    }
+
+    @Override
+    public void update(DocumentReference documentReference,
+        Map<? extends EntityReference, ? extends EntityReference> renamedReferences)
+    {
+        if (renamedReferences.size() == 1) {
+            Map.Entry<? extends EntityReference, ? extends EntityReference> entry =
+                renamedReferences.entrySet().iterator().next();
+            update(documentReference, entry.getKey(), entry.getValue());
+        } else if (!renamedReferences.isEmpty()) {
+            // Apply all the renames to the same XDOM so that the document is parsed and saved only once
+            internalRenameLinks(documentReference, renamedReferences.keySet(), renamedReferences.values(), false,
+                (xdom, currentDocumentReference, relative) -> {
+                    boolean modified = false;
+                    for (Map.Entry<? extends EntityReference, ? extends EntityReference> entry : renamedReferences
+                        .entrySet()) {
+                        // If the current document is the moved entity the links should be serialized relative to it
+                        modified |= renameReferences(xdom, currentDocumentReference, entry.getKey(),
+                            entry.getValue(), entry.getValue().equals(documentReference));
+                    }
+                    return modified;
+                });
+        }
+    }
+
     @Override
     public void update(DocumentReference documentReference, EntityReference oldTargetReference,
         EntityReference newTargetReference)
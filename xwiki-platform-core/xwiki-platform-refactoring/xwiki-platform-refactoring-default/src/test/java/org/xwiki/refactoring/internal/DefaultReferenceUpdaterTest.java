@@ -22,6 +22,7 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -401,6 +402,49 @@ void update() throws Exception
         verifyDocumentSave(document, "Renamed back-links.", false, false);
     }
 
+    @Test
+    void updateSeveral() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(this.xcontext.getWiki().getDocument(documentReference, this.xcontext)).thenReturn(document);
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+
+        DocumentReference oldLinkTarget1 = new DocumentReference("wiki", "A", "B");
+        DocumentReference newLinkTarget1 = new DocumentReference("wiki", "X", "B");
+        DocumentReference oldLinkTarget2 = new DocumentReference("wiki", "A", "C");
+        DocumentReference newLinkTarget2 = new DocumentReference("wiki", "X", "C");
+
+        // Setup document content
+        ResourceReference linkReference1 = new ResourceReference("A.B", ResourceType.DOCUMENT);
+        LinkBlock linkBlock1 = new LinkBlock(Collections.emptyList(), linkReference1, false);
+        ResourceReference linkReference2 = new ResourceReference("A.C", ResourceType.DOCUMENT);
+        LinkBlock linkBlock2 = new LinkBlock(Collections.emptyList(), linkReference2, false);
+        XDOM xdom = new XDOM(Arrays.asList(linkBlock1, linkBlock2));
+        when(document.getXDOM()).thenReturn(xdom);
+
+        when(this.resourceReferenceResolver.resolve(linkReference1, null, documentReference))
+            .thenReturn(oldLinkTarget1);
+        when(this.resourceReferenceResolver.resolve(linkReference2, null, documentReference))
+            .thenReturn(oldLinkTarget2);
+        when(this.defaultReferenceDocumentReferenceResolver.resolve(oldLinkTarget1)).thenReturn(oldLinkTarget1);
+        when(this.defaultReferenceDocumentReferenceResolver.resolve(oldLinkTarget2)).thenReturn(oldLinkTarget2);
+
+        when(this.compactEntityReferenceSerializer.serialize(newLinkTarget1, documentReference)).thenReturn("X.B");
+        when(this.compactEntityReferenceSerializer.serialize(newLinkTarget2, documentReference)).thenReturn("X.C");
+
+        Map<DocumentReference, DocumentReference> renamedReferences = new LinkedHashMap<>();
+        renamedReferences.put(oldLinkTarget1, newLinkTarget1);
+        renamedReferences.put(oldLinkTarget2, newLinkTarget2);
+        updater.update(documentReference, renamedReferences);
+
+        assertEquals("X.B", linkBlock1.getReference().getReference());
+        assertEquals("X.C", linkBlock2.getReference().getReference());
+        // The document is saved only once
+        verifyDocumentSave(document, "Renamed back-links.", false, false);
+    }
+
     @Test
     void renameImage() throws Exception
     {
@@ -27,6 +27,10 @@
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -42,10 +46,14 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
 import org.xwiki.context.concurrent.ContextStoreManager;
 import org.xwiki.job.Job;
 import org.xwiki.job.JobException;
 import org.xwiki.job.JobExecutor;
+import org.xwiki.job.JobGroupPath;
 import org.xwiki.job.event.status.JobStatus.State;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.rendering.RenderingException;
@@ -55,16 +63,21 @@
 import org.xwiki.security.authorization.AuthorExecutor;
 
 import com.xpn.xwiki.internal.context.XWikiContextContextStore;
+import com.xpn.xwiki.internal.thread.ThreadFactoryManager;
 
 /**
  * Default implementation of {@link AsyncRendererExecutor}.
+ * <p>
+ * When virtual threads are enabled the jobs of the renderers which don't ask for a specific {@link JobGroupPath} are
+ * executed on virtual threads instead of the {@link JobExecutor} pool. The grouped jobs are still executed by the
+ * {@link JobExecutor} since the size of the group pools is used to limit the resources consumed by some renderers.
  * 
  * @version $Id$
  * @since 10.10RC1
  */
 @Component
 @Singleton
-public class DefaultAsyncRendererExecutor implements AsyncRendererExecutor
+public class DefaultAsyncRendererExecutor implements AsyncRendererExecutor, Initializable, Disposable
 {
     @Inject
     @Named(AsyncRendererJobStatus.JOBTYPE)
@@ -95,11 +108,35 @@ public class DefaultAsyncRendererExecutor implements AsyncRendererExecutor
     @Inject
     private DocumentAccessBridge documentAccessBridge;
 
+    @Inject
+    private ThreadFactoryManager threadFactoryManager;
+
     @Inject
     private Logger logger;
 
     private AtomicLong clientIdCount = new AtomicLong();
 
+    private ExecutorService virtualExecutor;
+
+    private final Map<List<String>, Job> virtualJobs = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        if (this.threadFactoryManager.isVirtual()) {
+            this.virtualExecutor =
+                Executors.newCachedThreadPool(this.threadFactoryManager.newThreadFactory("Async renderer"));
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        if (this.virtualExecutor != null) {
+            this.virtualExecutor.shutdownNow();
+        }
+    }
+
     private String newClientId()
     {
         return String.valueOf(this.clientIdCount.incrementAndGet());
@@ -111,7 +148,7 @@ public AsyncRendererJobStatus getAsyncStatus(List<String> id, String clientId)
         //////////////////////////////////////////////
         // Try running job
 
-        Job job = this.executor.getJob(id);
+        Job job = getJob(id);
 
         if (job != null) {
             AsyncRendererJobStatus status = (AsyncRendererJobStatus) job.getStatus();
@@ -140,7 +177,7 @@ public AsyncRendererJobStatus getAsyncStatus(List<String> id, String clientId, l
         AsyncRendererJobStatus status = getAsyncStatus(id, clientId);
 
         if (status != null && status.getState() != State.FINISHED) {
-            Job job = this.executor.getJob(id);
+            Job job = getJob(id);
 
             if (job != null) {
                 // Wait for the job to be finished (or until the timeout is reached)
@@ -216,7 +253,7 @@ public AsyncRendererExecutorResponse render(AsyncRenderer renderer, AsyncRendere
 
                 request.setId(jobId);
 
-                Job job = this.executor.execute(AsyncRendererJobStatus.JOBTYPE, request);
+                Job job = execute(request);
 
                 AsyncRendererJobStatus status = (AsyncRendererJobStatus) job.getStatus();
 
@@ -276,6 +313,42 @@ public AsyncRendererExecutorResponse render(AsyncRenderer renderer, AsyncRendere
         return response;
     }
 
+    private Job getJob(List<String> id)
+    {
+        Job job = this.virtualJobs.get(id);
+
+        return job != null ? job : this.executor.getJob(id);
+    }
+
+    private Job execute(AsyncRendererJobRequest request) throws JobException
+    {
+        if (this.virtualExecutor == null || request.getJobGroupPath() != null) {
+            return this.executor.execute(AsyncRendererJobStatus.JOBTYPE, request);
+        }
+
+        Job job = this.jobProvider.get();
+        job.initialize(request);
+
+        List<String> id = request.getId();
+        this.virtualJobs.put(id, job);
+
+        try {
+            this.virtualExecutor.execute(() -> {
+                try {
+                    job.run();
+                } finally {
+                    this.virtualJobs.remove(id, job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.virtualJobs.remove(id, job);
+
+            throw new JobException("Failed to start the async renderer job", e);
+        }
+
+        return job;
+    }
+
     private AsyncRendererResult syncRender(AsyncRenderer renderer, boolean cached,
         AsyncRendererConfiguration configuration) throws RenderingException
     {
@@ -346,7 +419,7 @@ private Map<String, Serializable> getContext(boolean asyncAllowed, boolean cache
     private AsyncRendererJobStatus getCurrent(List<String> jobId)
     {
         // Try to find the job status in a running job
-        Job job = this.executor.getJob(jobId);
+        Job job = getJob(jobId);
 
         // Found a running job, return it
         if (job instanceof AsyncRendererJob) {
@@ -27,30 +27,41 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import javax.inject.Named;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.context.concurrent.ContextStoreManager;
+import org.xwiki.job.Job;
 import org.xwiki.job.JobException;
 import org.xwiki.job.JobExecutor;
 import org.xwiki.job.JobGroupPath;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.rendering.RenderingException;
 import org.xwiki.rendering.async.AsyncContext;
+import org.xwiki.test.annotation.BeforeComponent;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
+import com.xpn.xwiki.internal.thread.ThreadFactoryManager;
+
 import static com.xpn.xwiki.internal.context.XWikiContextContextStore.PROP_DOCUMENT_REFERENCE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -87,6 +98,13 @@
     @MockComponent
     private DocumentAccessBridge documentAccessBridge;
 
+    @MockComponent
+    private ThreadFactoryManager threadFactoryManager;
+
+    @MockComponent
+    @Named(AsyncRendererJobStatus.JOBTYPE)
+    private Job virtualJob;
+
     @InjectMockComponents
     private DefaultAsyncRendererExecutor executor;
 
@@ -98,6 +116,13 @@
 
     private JobGroupPath jobGroupPath;
 
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.threadFactoryManager.isVirtual()).thenReturn(true);
+        when(this.threadFactoryManager.newThreadFactory("Async renderer")).thenReturn(Executors.defaultThreadFactory());
+    }
+
     @BeforeEach
     void beforeEach() throws RenderingException, ComponentLookupException, JobException
     {
@@ -153,6 +178,32 @@ void rendererAsyncCachedContextDisabled() throws JobException, RenderingExceptio
         assertEquals("false true", response.getStatus().getResult().getResult());
     }
 
+    @Test
+    void rendererAsyncWithoutGroupOnVirtualThreads() throws Exception
+    {
+        when(this.asyncContext.isEnabled()).thenReturn(true);
+
+        when(this.renderer.getId()).thenReturn(Arrays.asList("1", "2"));
+        when(this.renderer.isAsyncAllowed()).thenReturn(true);
+        when(this.renderer.getJobGroupPath()).thenReturn(null);
+
+        AsyncRendererJobStatus status = new AsyncRendererJobStatus(new AsyncRendererJobRequest(), null, null);
+        when(this.virtualJob.getStatus()).thenReturn(status);
+        CountDownLatch ran = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            ran.countDown();
+            return null;
+        }).when(this.virtualJob).run();
+
+        AsyncRendererExecutorResponse response = this.executor.render(this.renderer, this.configuration);
+
+        assertSame(status, response.getStatus());
+        assertNotNull(response.getAsyncClientId());
+        verify(this.virtualJob).initialize(any(AsyncRendererJobRequest.class));
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+        verify(this.jobs, never()).execute(any(), any(AsyncRendererJobRequest.class));
+    }
+
     @Test
     void rendererAsyncCachedContextEnabled() throws JobException, RenderingException
     {
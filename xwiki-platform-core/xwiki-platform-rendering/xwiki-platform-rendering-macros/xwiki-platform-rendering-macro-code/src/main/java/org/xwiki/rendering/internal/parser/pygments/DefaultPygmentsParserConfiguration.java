@@ -40,6 +40,8 @@ public class DefaultPygmentsParserConfiguration implements PygmentsParserConfigu
      */
     private static final String PREFIX = "rendering.macro.code.pygments.";
 
+    private static final int DEFAULT_CACHE_SIZE = 500;
+
     /**
      * Defines from where to read the Pygments configuration data.
      */
@@ -51,4 +53,17 @@ public String getStyle()
     {
         return this.configuration.getProperty(PREFIX + "style", String.class);
     }
+
+    @Override
+    public int getCacheSize()
+    {
+        return this.configuration.getProperty(PREFIX + "cacheSize", DEFAULT_CACHE_SIZE);
+    }
+
+    @Override
+    public int getEngineCount()
+    {
+        // Allow highlighting as many code blocks as there are processors by default
+        return this.configuration.getProperty(PREFIX + "engines", Runtime.getRuntime().availableProcessors());
+    }
 }
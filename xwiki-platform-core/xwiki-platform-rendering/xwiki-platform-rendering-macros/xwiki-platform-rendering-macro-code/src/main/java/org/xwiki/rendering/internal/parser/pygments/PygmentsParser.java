@@ -23,8 +23,13 @@
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -35,8 +40,16 @@
 import javax.script.ScriptException;
 import javax.script.SimpleScriptContext;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.rendering.block.Block;
@@ -59,7 +72,7 @@
 // component.
 @Component(roles = {HighlightParser.class })
 @Singleton
-public class PygmentsParser extends AbstractHighlightParser implements Initializable
+public class PygmentsParser extends AbstractHighlightParser implements Initializable, Disposable
 {
     /**
      * The name of the style variable in Python code.
@@ -91,6 +104,21 @@ public class PygmentsParser extends AbstractHighlightParser implements Initializ
      */
     private static final String ENGINE_ID = "python";
 
+    /**
+     * Separate the elements of the cache key.
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    /**
+     * The maximum length of a source to cache: the cache limits the number of entries, not their size.
+     */
+    private static final int MAX_CACHED_LENGTH = 100000;
+
+    /**
+     * The maximum number of seconds to wait for an available Python engine.
+     */
+    private static final long ENGINE_TIMEOUT = 30;
+
     /**
      * The syntax identifier.
      */
@@ -110,9 +138,42 @@ public class PygmentsParser extends AbstractHighlightParser implements Initializ
     private PygmentsParserConfiguration configuration;
 
     /**
-     * The JSR223 Script Engine we use to evaluate Python scripts.
+     * Used to create the cache of highlighted blocks.
+     */
+    @Inject
+    private CacheManager cacheManager;
+
+    /**
+     * The logger to log.
+     */
+    @Inject
+    private Logger logger;
+
+    /**
+     * Used to create the JSR223 Script Engines.
      */
-    private ScriptEngine engine;
+    private ScriptEngineManager scriptEngineManager;
+
+    /**
+     * The available JSR223 Script Engines we use to evaluate Python scripts.
+     */
+    private final BlockingQueue<ScriptEngine> engines = new LinkedBlockingQueue<>();
+
+    /**
+     * The number of created JSR223 Script Engines.
+     */
+    private final AtomicInteger engineCount = new AtomicInteger();
+
+    /**
+     * The maximum number of JSR223 Script Engines to create.
+     */
+    private int maxEngines;
+
+    /**
+     * The highlighted blocks indexed by a digest of the language, style and source, {@code null} if the cache is
+     * disabled.
+     */
+    private Cache<List<Block>> cache;
 
     /**
      * The Python script used to manipulate Pygments.
@@ -122,7 +183,7 @@ public class PygmentsParser extends AbstractHighlightParser implements Initializ
     @Override
     public void initialize() throws InitializationException
     {
-        ScriptEngineManager scriptEngineManager = new ScriptEngineManager();
+        this.scriptEngineManager = new ScriptEngineManager();
 
         // Get the script
         InputStream is = getClass().getResourceAsStream("/pygments/code.py");
@@ -138,17 +199,39 @@ public void initialize() throws InitializationException
             throw new InitializationException("Failed to find resource /pygments/code.py resource");
         }
 
-        // Get the Python engine
-        this.engine = scriptEngineManager.getEngineByName(ENGINE_ID);
+        // Get the first Python engine, the other ones are created when needed
+        ScriptEngine engine = this.scriptEngineManager.getEngineByName(ENGINE_ID);
 
-        if (this.engine == null) {
+        if (engine == null) {
             throw new InitializationException("Failed to find engine for Python script language");
         }
 
+        this.engines.add(engine);
+        this.engineCount.set(1);
+        this.maxEngines = Math.max(1, this.configuration.getEngineCount());
+
+        int cacheSize = this.configuration.getCacheSize();
+        if (cacheSize > 0) {
+            try {
+                this.cache = this.cacheManager
+                    .createNewCache(new LRUCacheConfiguration("rendering.macro.code.pygments", cacheSize));
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to create the highlighted code cache", e);
+            }
+        }
+
         String highlightSyntaxId = getSyntaxId() + "-highlight";
         this.syntax = new Syntax(new SyntaxType(highlightSyntaxId, highlightSyntaxId), "1.0");
     }
 
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.cache.dispose();
+        }
+    }
+
     @Override
     public Syntax getSyntax()
     {
@@ -169,11 +252,36 @@ public List<Block> highlight(String syntaxId, Reader source) throws ParseExcepti
             return Collections.emptyList();
         }
 
+        String style = this.configuration.getStyle();
+
+        // The same content is generally highlighted again each time the page containing it is displayed
+        String key = null;
+        if (this.cache != null && code.length() <= MAX_CACHED_LENGTH) {
+            key = DigestUtils.sha256Hex((syntaxId != null ? syntaxId : "") + KEY_SEPARATOR
+                + (style != null ? style : "") + KEY_SEPARATOR + code);
+
+            List<Block> cachedBlocks = this.cache.get(key);
+            if (cachedBlocks != null) {
+                return cloneBlocks(cachedBlocks);
+            }
+        }
+
+        // Each engine is used by a single thread at a time so that cache misses can be highlighted concurrently
+        ScriptEngine engine = acquireEngine();
+        if (engine == null) {
+            this.logger.warn("No Python engine became available in [{}] seconds to highlight the code, "
+                + "displaying it as plain text instead", ENGINE_TIMEOUT);
+
+            return parsePlainText(code);
+        }
+
         List<Block> blocks;
         try {
-            blocks = highlight(syntaxId, code);
+            blocks = highlight(engine, syntaxId, style, code);
         } catch (ScriptException e) {
             throw new ParseException("Failed to highlight code", e);
+        } finally {
+            this.engines.add(engine);
         }
 
         // TODO: there is a bug in Pygments that makes it always put a newline at the end of the content
@@ -182,19 +290,71 @@ public List<Block> highlight(String syntaxId, Reader source) throws ParseExcepti
             blocks.remove(blocks.size() - 1);
         }
 
+        if (key != null) {
+            // Keep a private copy since the returned blocks are going to be modified
+            this.cache.set(key, cloneBlocks(blocks));
+        }
+
         return blocks;
     }
 
+    private List<Block> cloneBlocks(List<Block> blocks)
+    {
+        List<Block> clones = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            clones.add(block.clone());
+        }
+
+        return clones;
+    }
+
+    private List<Block> parsePlainText(String code) throws ParseException
+    {
+        return this.plainTextParser.parse(new StringReader(code)).getChildren().get(0).getChildren();
+    }
+
+    private ScriptEngine acquireEngine() throws ParseException
+    {
+        ScriptEngine engine = this.engines.poll();
+
+        if (engine == null) {
+            if (this.engineCount.incrementAndGet() <= this.maxEngines) {
+                engine = this.scriptEngineManager.getEngineByName(ENGINE_ID);
+                if (engine == null) {
+                    this.engineCount.decrementAndGet();
+
+                    throw new ParseException("Failed to find engine for Python script language");
+                }
+            } else {
+                this.engineCount.decrementAndGet();
+
+                // Wait for another thread to release its engine (null if none is released in time)
+                try {
+                    engine = this.engines.poll(ENGINE_TIMEOUT, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    throw new ParseException("Interrupted while waiting for an available Python engine", e);
+                }
+            }
+        }
+
+        return engine;
+    }
+
     /**
      * Return a highlighted version of the provided content.
      * 
+     * @param engine the Python engine to use
      * @param syntaxId the identifier of the source syntax.
+     * @param style the Pygments style to use.
      * @param code the content to highlight.
      * @return the highlighted version of the provided source.
      * @throws ScriptException when failed to execute the script
      * @throws ParseException when failed to parse the content as plain text
      */
-    private List<Block> highlight(String syntaxId, String code) throws ScriptException, ParseException
+    private List<Block> highlight(ScriptEngine engine, String syntaxId, String style, String code)
+        throws ScriptException, ParseException
     {
         BlocksGeneratorPygmentsListener listener = new BlocksGeneratorPygmentsListener(this.plainTextParser);
 
@@ -202,16 +362,16 @@ private List<Block> highlight(String syntaxId, String code) throws ScriptExcepti
 
         scriptContext.setAttribute(PY_LANGUAGE_VARNAME, syntaxId, ScriptContext.ENGINE_SCOPE);
         scriptContext.setAttribute(PY_CODE_VARNAME, code, ScriptContext.ENGINE_SCOPE);
-        scriptContext.setAttribute(PY_STYLE_VARNAME, this.configuration.getStyle(), ScriptContext.ENGINE_SCOPE);
+        scriptContext.setAttribute(PY_STYLE_VARNAME, style, ScriptContext.ENGINE_SCOPE);
         scriptContext.setAttribute(PY_LISTENER_VARNAME, listener, ScriptContext.ENGINE_SCOPE);
 
-        this.engine.eval(this.script, scriptContext);
+        engine.eval(this.script, scriptContext);
 
         List<Block> blocks;
         if (scriptContext.getAttribute(PY_LEXER_VARNAME) != null) {
             blocks = listener.getBlocks();
         } else {
-            blocks = this.plainTextParser.parse(new StringReader(code)).getChildren().get(0).getChildren();
+            blocks = parsePlainText(code);
         }
 
         return blocks;
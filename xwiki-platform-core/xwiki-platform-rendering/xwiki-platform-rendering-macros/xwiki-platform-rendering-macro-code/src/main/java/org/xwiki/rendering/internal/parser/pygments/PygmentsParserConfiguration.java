@@ -38,4 +38,16 @@
      * @return the id of the Pygments style to use.
      */
     String getStyle();
+
+    /**
+     * @return the maximum number of highlighted code blocks to keep in memory, 0 to disable the cache
+     * @since 15.0RC1
+     */
+    int getCacheSize();
+
+    /**
+     * @return the maximum number of Python engines to use to highlight code concurrently
+     * @since 15.0RC1
+     */
+    int getEngineCount();
 }
@@ -0,0 +1,164 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.parser.pygments;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.parser.HighlightParser;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link PygmentsParser}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@AllComponents
+class PygmentsParserTest
+{
+    private static final String CODE = "int i = 0;";
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    private PygmentsParserConfiguration configuration;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    private Cache<List<Block>> cache;
+
+    private final Map<String, List<Block>> cacheEntries = new HashMap<>();
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.cache = mock(Cache.class);
+        when(this.cache.get(anyString())).then(invocation -> this.cacheEntries.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cacheEntries.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(this.cache).set(anyString(), any());
+        when(this.cacheManager.<List<Block>>createNewCache(any(CacheConfiguration.class))).thenReturn(this.cache);
+
+        when(this.configuration.getCacheSize()).thenReturn(10);
+        when(this.configuration.getEngineCount()).thenReturn(1);
+    }
+
+    private List<Block> highlight(String syntaxId, String code) throws Exception
+    {
+        return this.componentManager.<HighlightParser>getInstance(HighlightParser.class)
+            .highlight(syntaxId, new StringReader(code));
+    }
+
+    @Test
+    void highlightReusesCachedBlocks() throws Exception
+    {
+        List<Block> blocks = highlight("java", CODE);
+
+        assertFalse(blocks.isEmpty());
+        assertEquals(1, this.cacheEntries.size());
+        // The cache is indexed by a digest of the language, style and source
+        String key = this.cacheEntries.keySet().iterator().next();
+        assertEquals(64, key.length());
+        assertFalse(key.contains(CODE));
+
+        List<Block> cachedBlocks = highlight("java", CODE);
+
+        assertEquals(blocks, cachedBlocks);
+        // The cached blocks are cloned since the caller is free to modify them
+        assertNotSame(blocks.get(0), cachedBlocks.get(0));
+        assertNotSame(this.cacheEntries.get(key).get(0), cachedBlocks.get(0));
+        verify(this.cache).set(anyString(), any());
+
+        // Another language is another entry
+        highlight("c", CODE);
+
+        assertEquals(2, this.cacheEntries.size());
+    }
+
+    @Test
+    void highlightDoesNotCacheLargeCode() throws Exception
+    {
+        assertFalse(highlight("text", StringUtils.repeat('a', 100001)).isEmpty());
+
+        verify(this.cache, never()).get(anyString());
+        verify(this.cache, never()).set(anyString(), any());
+    }
+
+    @Test
+    void highlightWithDisabledCache() throws Exception
+    {
+        when(this.configuration.getCacheSize()).thenReturn(0);
+
+        assertFalse(highlight("java", CODE).isEmpty());
+        assertTrue(highlight("java", "").isEmpty());
+
+        verify(this.cacheManager, never()).createNewCache(any());
+    }
+
+    @Test
+    void highlightConcurrently() throws Exception
+    {
+        when(this.configuration.getEngineCount()).thenReturn(2);
+
+        HighlightParser parser = this.componentManager.getInstance(HighlightParser.class);
+
+        Thread thread = new Thread(() -> {
+            try {
+                parser.highlight("java", new StringReader("int j = 1;"));
+            } catch (Exception e) {
+                // Checked by the cache content
+            }
+        });
+        thread.start();
+        parser.highlight("java", new StringReader(CODE));
+        thread.join();
+
+        assertEquals(2, this.cacheEntries.size());
+        verify(this.cache, times(2)).set(anyString(), any());
+    }
+}
@@ -20,7 +20,15 @@
 package org.xwiki.rendering.macro.code;
 
 import org.junit.runner.RunWith;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
 import org.xwiki.rendering.test.integration.RenderingTestSuite;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Run all tests found in {@code *.test} files located in the classpath. These {@code *.test} files must follow the
@@ -32,4 +40,11 @@
 @RunWith(RenderingTestSuite.class)
 public class IntegrationTests
 {
+    @RenderingTestSuite.Initialized
+    public void initialize(MockitoComponentManager componentManager) throws Exception
+    {
+        // Don't keep the highlighted code between tests
+        CacheManager cacheManager = componentManager.registerMockComponent(CacheManager.class);
+        when(cacheManager.createNewCache(any(CacheConfiguration.class))).thenReturn(mock(Cache.class));
+    }
 }
@@ -137,6 +137,9 @@ public List<Block> execute(IncludeMacroParameters parameters, String content, Ma
         displayParameters.setTransformationContextRestricted(context.getTransformationContext().isRestricted());
         displayParameters.setTargetSyntax(context.getTransformationContext().getTargetSyntax());
         displayParameters.setContentTranslated(true);
+        // Caching is only useful when the included content is transformed
+        displayParameters.setCacheAllowed(parameters.isCached() && parametersContext == Context.NEW);
+        displayParameters.setCacheContextEntries(parameters.getCacheContext());
         if (context.getXDOM() != null) {
             displayParameters.setIdGenerator(context.getXDOM().getIdGenerator());
         }
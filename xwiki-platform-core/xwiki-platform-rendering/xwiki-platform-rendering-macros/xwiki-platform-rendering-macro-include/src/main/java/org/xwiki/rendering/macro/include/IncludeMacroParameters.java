@@ -19,6 +19,8 @@
  */
 package org.xwiki.rendering.macro.include;
 
+import java.util.Set;
+
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.EntityReferenceString;
 import org.xwiki.model.reference.PageReference;
@@ -106,6 +108,10 @@
 
     private Author author = Author.AUTO;
 
+    private boolean cached;
+
+    private Set<String> cacheContext;
+
     /**
      * @param reference the reference of the resource to include
      * @since 3.4M1
@@ -252,4 +258,50 @@ public void setAuthor(Author author)
     {
         this.author = author;
     }
+
+    /**
+     * @param cached true if the result of the inclusion can be cached and shared with other executions of the macro,
+     *            but the result is never shared between users (only supported when
+     *            {@link #getContext()} is {@link Context#NEW})
+     * @since 15.0RC1
+     */
+    @PropertyDescription("Cache the result of the inclusion until the included page or one of its dependencies is"
+        + " modified. The result is cached for each user and locale. Should only be used when the included content"
+        + " does not depend on other context entries (request, etc.) than the ones listed in the cache context.")
+    @PropertyAdvanced
+    public void setCached(boolean cached)
+    {
+        this.cached = cached;
+    }
+
+    /**
+     * @return true if the result of the inclusion can be cached and shared with other executions of the macro
+     * @since 15.0RC1
+     */
+    public boolean isCached()
+    {
+        return this.cached;
+    }
+
+    /**
+     * @param cacheContext the context entries (e.g. "request.parameters") on which the included content
+     *            depends, to cache a different result for each value of these entries
+     * @since 15.0RC1
+     */
+    @PropertyDescription("The context entries (e.g. \"request.parameters\") on which the included content"
+        + " depends, when the result is cached.")
+    @PropertyAdvanced
+    public void setCacheContext(Set<String> cacheContext)
+    {
+        this.cacheContext = cacheContext;
+    }
+
+    /**
+     * @return the context entries on which the included content depends, when the result is cached
+     * @since 15.0RC1
+     */
+    public Set<String> getCacheContext()
+    {
+        return this.cacheContext;
+    }
 }
@@ -25,6 +25,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 import javax.inject.Named;
@@ -84,6 +85,7 @@
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
@@ -463,6 +465,41 @@ void executeWithRecursiveIncludeContextNew() throws Exception
         assertEquals("Found recursive inclusion of document [wiki:space.page]", exception.getMessage());
     }
 
+    @Test
+    void executeCachedOnlyWithNewContext() throws Exception
+    {
+        DocumentDisplayer documentDisplayer = mock(DocumentDisplayer.class);
+        this.includeMacro.setDocumentDisplayer(documentDisplayer);
+        when(documentDisplayer.display(same(this.includedDocument), any(DocumentDisplayerParameters.class)))
+            .then(invocation -> new XDOM(Collections.emptyList()));
+
+        MacroTransformationContext macroContext = createMacroTransformationContext("wiki:space.page", false);
+
+        DocumentReference includedDocumentReference = new DocumentReference("wiki", "space", "page");
+        setupDocumentMocks("wiki:space.page", includedDocumentReference, "");
+
+        IncludeMacroParameters parameters = new IncludeMacroParameters();
+        parameters.setReference("wiki:space.page");
+        parameters.setCached(true);
+        parameters.setCacheContext(Set.of("user"));
+        parameters.setContext(Context.NEW);
+
+        this.includeMacro.execute(parameters, null, macroContext);
+
+        verify(documentDisplayer).display(same(this.includedDocument), argThat(
+            displayParameters -> displayParameters.isCacheAllowed()
+                && Set.of("user").equals(displayParameters.getCacheContextEntries())));
+
+        // The content is not transformed by the displayer when included in the current context
+        parameters.setContext(Context.CURRENT);
+        parameters.setAuthor(Author.CURRENT);
+
+        this.includeMacro.execute(parameters, null, macroContext);
+
+        verify(documentDisplayer).display(same(this.includedDocument),
+            argThat(displayParameters -> !displayParameters.isCacheAllowed()));
+    }
+
     @Test
     void executeInsideSourceMetaDataBlockAndWithRelativeDocumentReferencePassed() throws Exception
     {
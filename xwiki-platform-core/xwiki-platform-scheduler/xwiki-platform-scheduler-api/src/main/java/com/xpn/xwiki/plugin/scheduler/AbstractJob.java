@@ -29,6 +29,7 @@
 import org.xwiki.context.ExecutionContextManager;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.plugin.scheduler.internal.cluster.SchedulerJobLeaseManager;
 import com.xpn.xwiki.web.Utils;
 
 /**
@@ -72,8 +73,17 @@ public final void execute(JobExecutionContext jobContext) throws JobExecutionExc
         }
 
         try {
-            // Execute the job
-            executeJob(jobContext);
+            // In cluster mode, make sure the job is executed by only one node
+            SchedulerJobLeaseManager leaseManager = Utils.getComponent(SchedulerJobLeaseManager.class);
+            if (leaseManager.acquire(jobContext)) {
+                long start = System.currentTimeMillis();
+                try {
+                    // Execute the job
+                    executeJob(jobContext);
+                } finally {
+                    leaseManager.release(jobContext, System.currentTimeMillis() - start);
+                }
+            }
         } finally {
             // We must ensure we clean the ThreadLocal variables located in the Execution
             // component as otherwise we will have a potential memory leak.
@@ -67,6 +67,9 @@
 import com.xpn.xwiki.plugin.scheduler.internal.SchedulerJobsInitializedEvent;
 import com.xpn.xwiki.plugin.scheduler.internal.SchedulerJobsInitializingEvent;
 import com.xpn.xwiki.plugin.scheduler.internal.StatusListener;
+import com.xpn.xwiki.plugin.scheduler.internal.cluster.SchedulerJobLease;
+import com.xpn.xwiki.plugin.scheduler.internal.cluster.SchedulerJobLeaseHeartbeat;
+import com.xpn.xwiki.plugin.scheduler.internal.cluster.SchedulerJobLeaseManager;
 import com.xpn.xwiki.web.Utils;
 import com.xpn.xwiki.web.XWikiResponse;
 import com.xpn.xwiki.web.XWikiServletRequest;
@@ -179,6 +182,11 @@ private void initAsync()
             } finally {
                 xcontext.setWikiId(initialDb);
             }
+
+            // Execute again the jobs abandoned by a cluster member which died while executing them
+            // and keep doing it regularly
+            Utils.getComponent(SchedulerJobLeaseManager.class).recover(getScheduler());
+            Utils.getComponent(SchedulerJobLeaseHeartbeat.class).start(getScheduler());
         } catch (SchedulerException e) {
             LOGGER.error("Failed to start the scheduler", e);
         } catch (SchedulerPluginException e) {
@@ -570,6 +578,47 @@ public Date getNextFireTime(BaseObject object, XWikiContext context) throws Sche
         return getTrigger(object, context).getNextFireTime();
     }
 
+    /**
+     * Give the duration of the last execution of the job, whatever the member of the cluster which executed it.
+     * 
+     * @param object unwrapped XObject job for which the duration will be given
+     * @param context the XWiki context
+     * @return the duration in milliseconds of the last execution of the job, -1 if unknown
+     * @since 15.0RC1
+     */
+    public long getLastRunDuration(BaseObject object, XWikiContext context) throws SchedulerPluginException
+    {
+        SchedulerJobLease lease = getLease(object, context);
+
+        return lease != null ? lease.getLastDuration() : -1;
+    }
+
+    /**
+     * Give the identifier of the member of the cluster which executed (or is executing) the job the last time.
+     * 
+     * @param object unwrapped XObject job for which the node will be given
+     * @param context the XWiki context
+     * @return the identifier of the node, null if the job has never been executed
+     * @since 15.0RC1
+     */
+    public String getLastRunNode(BaseObject object, XWikiContext context) throws SchedulerPluginException
+    {
+        SchedulerJobLease lease = getLease(object, context);
+
+        return lease != null ? lease.getNode() : null;
+    }
+
+    private SchedulerJobLease getLease(BaseObject object, XWikiContext context) throws SchedulerPluginException
+    {
+        String job = getObjectUniqueId(object, context);
+        try {
+            return Utils.getComponent(SchedulerJobLeaseManager.class).getLease(job);
+        } catch (XWikiException e) {
+            throw new SchedulerPluginException(SchedulerPluginException.ERROR_SCHEDULERPLUGIN_UNABLE_TO_RETRIEVE_JOB,
+                "Error while getting the execution information of job " + job, e);
+        }
+    }
+
     @Override
     public Api getPluginApi(XWikiPluginInterface plugin, XWikiContext context)
     {
@@ -357,4 +357,40 @@ public Date getNextFireTime(BaseObject object)
             return null;
         }
     }
+
+    /**
+     * Give the duration of the last execution of the job, whatever the member of the cluster which executed it. Errors
+     * are returned in the context map.
+     * 
+     * @param object the wrapped XObject for which to give the duration
+     * @return the duration in milliseconds of the last execution, -1 if unknown
+     * @since 15.0RC1
+     */
+    public long getLastRunDuration(Object object)
+    {
+        try {
+            return getProtectedPlugin().getLastRunDuration(retrieveBaseObject(object), this.context);
+        } catch (SchedulerPluginException e) {
+            this.context.put("error", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Give the identifier of the member of the cluster which executed the job the last time. Errors are returned in the
+     * context map.
+     * 
+     * @param object the wrapped XObject for which to give the node
+     * @return the identifier of the node, null if the job has never been executed
+     * @since 15.0RC1
+     */
+    public String getLastRunNode(Object object)
+    {
+        try {
+            return getProtectedPlugin().getLastRunNode(retrieveBaseObject(object), this.context);
+        } catch (SchedulerPluginException e) {
+            this.context.put("error", e.getMessage());
+            return null;
+        }
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.store.XWikiHibernateBaseStore.HibernateCallback;
+
+/**
+ * Store the leases in the main wiki database so that they are shared by all the members of the cluster.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Named("hibernate")
+@Singleton
+public class HibernateSchedulerJobLeaseStore implements SchedulerJobLeaseStore
+{
+    private static final String PROP_JOBID = "jobId";
+
+    private static final String PROP_NODE = "node";
+
+    private static final String PROP_FIRETIME = "fireTime";
+
+    private static final String PROP_NOW = "now";
+
+    private static final String ACQUIRE_STATEMENT = "update SchedulerJobLease set node = :node, fireTime = :fireTime,"
+        + " expiration = :expiration, running = true where jobId = :jobId and fireTime < :fireTime"
+        + " and (running = false or expiration < :now)";
+
+    private static final String PROP_NEXTFIRETIME = "nextFireTime";
+
+    private static final String PROP_LASTDURATION = "lastDuration";
+
+    private static final String PROP_EXPIRATION = "expiration";
+
+    private static final String HELD_WHERE =
+        " where jobId = :jobId and node = :node and fireTime = :fireTime and running = true";
+
+    private static final String RENEW_STATEMENT = "update SchedulerJobLease set expiration = :expiration" + HELD_WHERE;
+
+    private static final String RELEASE_STATEMENT = "update SchedulerJobLease set running = false,"
+        + " nextFireTime = :nextFireTime, lastDuration = :lastDuration" + HELD_WHERE;
+
+    private static final String UPDATE_STATEMENT = "update SchedulerJobLease set nextFireTime = :nextFireTime,"
+        + " lastDuration = :lastDuration where jobId = :jobId";
+
+    private static final String ABANDONED_STATEMENT =
+        "from SchedulerJobLease where running = true and expiration < :now";
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Override
+    public boolean acquire(String jobId, String node, Date fireTime, Date expiration) throws XWikiException
+    {
+        return executeWrite(session -> {
+            int updated = session.createQuery(ACQUIRE_STATEMENT).setParameter(PROP_NODE, node)
+                .setParameter(PROP_FIRETIME, fireTime).setParameter(PROP_EXPIRATION, expiration)
+                .setParameter(PROP_JOBID, jobId).setParameter(PROP_NOW, new Date()).executeUpdate();
+
+            if (updated > 0) {
+                return true;
+            }
+
+            if (session.get(SchedulerJobLease.class, jobId) == null) {
+                // First execution of the job in the cluster: if another node inserts the same lease at the same time
+                // the transaction will fail on the primary key and the lease won't be acquired
+                SchedulerJobLease lease = new SchedulerJobLease(jobId);
+                lease.setNode(node);
+                lease.setFireTime(fireTime);
+                lease.setExpiration(expiration);
+                lease.setRunning(true);
+                session.save(lease);
+
+                return true;
+            }
+
+            return false;
+        });
+    }
+
+    @Override
+    public boolean renew(String jobId, String node, Date fireTime, Date expiration) throws XWikiException
+    {
+        return executeWrite(session -> session.createQuery(RENEW_STATEMENT).setParameter(PROP_EXPIRATION, expiration)
+            .setParameter(PROP_JOBID, jobId).setParameter(PROP_NODE, node).setParameter(PROP_FIRETIME, fireTime)
+            .executeUpdate() > 0);
+    }
+
+    @Override
+    public void release(String jobId, String node, Date fireTime, Date nextFireTime, long duration)
+        throws XWikiException
+    {
+        executeWrite(session -> session.createQuery(RELEASE_STATEMENT).setParameter(PROP_NEXTFIRETIME, nextFireTime)
+            .setParameter(PROP_LASTDURATION, duration).setParameter(PROP_JOBID, jobId).setParameter(PROP_NODE, node)
+            .setParameter(PROP_FIRETIME, fireTime).executeUpdate());
+    }
+
+    @Override
+    public void update(String jobId, Date nextFireTime, long duration) throws XWikiException
+    {
+        executeWrite(session -> session.createQuery(UPDATE_STATEMENT).setParameter(PROP_NEXTFIRETIME, nextFireTime)
+            .setParameter(PROP_LASTDURATION, duration).setParameter(PROP_JOBID, jobId).executeUpdate());
+    }
+
+    @Override
+    public SchedulerJobLease get(String jobId) throws XWikiException
+    {
+        return executeRead(session -> session.get(SchedulerJobLease.class, jobId));
+    }
+
+    @Override
+    public List<SchedulerJobLease> getAbandoned(Date now) throws XWikiException
+    {
+        return executeRead(session -> session.createQuery(ABANDONED_STATEMENT, SchedulerJobLease.class)
+            .setParameter(PROP_NOW, now).list());
+    }
+
+    private <T> T executeWrite(HibernateCallback<T> callback) throws XWikiException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        // The leases are shared by the whole farm so they are stored in the main wiki database
+        String currentWiki = xcontext.getWikiId();
+        try {
+            xcontext.setWikiId(xcontext.getMainXWiki());
+
+            return xcontext.getWiki().getHibernateStore().executeWrite(xcontext, callback);
+        } finally {
+            xcontext.setWikiId(currentWiki);
+        }
+    }
+
+    private <T> T executeRead(HibernateCallback<T> callback) throws XWikiException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        String currentWiki = xcontext.getWikiId();
+        try {
+            xcontext.setWikiId(xcontext.getMainXWiki());
+
+            return xcontext.getWiki().getHibernateStore().executeRead(xcontext, callback);
+        } finally {
+            xcontext.setWikiId(currentWiki);
+        }
+    }
+}
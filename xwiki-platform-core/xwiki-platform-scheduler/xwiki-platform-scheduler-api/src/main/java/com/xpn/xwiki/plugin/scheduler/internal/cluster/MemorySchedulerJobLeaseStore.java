@@ -0,0 +1,125 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+
+/**
+ * Keep the leases in memory. Only make sense when the instance is not part of a cluster (or for tests).
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Named("memory")
+@Singleton
+public class MemorySchedulerJobLeaseStore implements SchedulerJobLeaseStore
+{
+    private final Map<String, SchedulerJobLease> leases = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized boolean acquire(String jobId, String node, Date fireTime, Date expiration)
+    {
+        SchedulerJobLease lease = this.leases.computeIfAbsent(jobId, SchedulerJobLease::new);
+
+        if (lease.isAvailable(fireTime, new Date())) {
+            lease.setNode(node);
+            lease.setFireTime(fireTime);
+            lease.setExpiration(expiration);
+            lease.setRunning(true);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public synchronized boolean renew(String jobId, String node, Date fireTime, Date expiration)
+    {
+        SchedulerJobLease lease = this.leases.get(jobId);
+
+        if (isHeldBy(lease, node, fireTime)) {
+            lease.setExpiration(expiration);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public synchronized void release(String jobId, String node, Date fireTime, Date nextFireTime, long duration)
+    {
+        SchedulerJobLease lease = this.leases.get(jobId);
+
+        if (isHeldBy(lease, node, fireTime)) {
+            lease.setRunning(false);
+            lease.setNextFireTime(nextFireTime);
+            lease.setLastDuration(duration);
+        }
+    }
+
+    @Override
+    public synchronized void update(String jobId, Date nextFireTime, long duration)
+    {
+        SchedulerJobLease lease = this.leases.computeIfAbsent(jobId, SchedulerJobLease::new);
+
+        lease.setNextFireTime(nextFireTime);
+        lease.setLastDuration(duration);
+    }
+
+    private boolean isHeldBy(SchedulerJobLease lease, String node, Date fireTime)
+    {
+        return lease != null && lease.isRunning() && node.equals(lease.getNode())
+            && fireTime.equals(lease.getFireTime());
+    }
+
+    @Override
+    public synchronized SchedulerJobLease get(String jobId)
+    {
+        SchedulerJobLease lease = this.leases.get(jobId);
+
+        // Don't expose the internal instance
+        return lease != null ? new SchedulerJobLease(lease) : null;
+    }
+
+    @Override
+    public synchronized List<SchedulerJobLease> getAbandoned(Date now)
+    {
+        List<SchedulerJobLease> abandoned = new ArrayList<>();
+        for (SchedulerJobLease lease : this.leases.values()) {
+            if (lease.isAbandoned(now)) {
+                abandoned.add(new SchedulerJobLease(lease));
+            }
+        }
+
+        return abandoned;
+    }
+}
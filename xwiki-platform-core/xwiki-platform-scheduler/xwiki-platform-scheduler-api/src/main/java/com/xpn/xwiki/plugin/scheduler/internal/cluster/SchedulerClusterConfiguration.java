@@ -0,0 +1,81 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+
+/**
+ * Configuration of the cluster mode of the scheduler.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = SchedulerClusterConfiguration.class)
+@Singleton
+public class SchedulerClusterConfiguration
+{
+    private static final String PREFIX = "scheduler.cluster.";
+
+    private static final int DEFAULT_LEASE_DURATION = 3600;
+
+    private static final long DEFAULT_BALANCING_DELAY = 200;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    /**
+     * @return true if each trigger should be executed by only one member of the cluster
+     */
+    public boolean isEnabled()
+    {
+        return this.configuration.getProperty(PREFIX + "enabled", false);
+    }
+
+    /**
+     * @return the hint of the {@link SchedulerJobLeaseStore} to use in cluster mode
+     */
+    public String getStore()
+    {
+        return this.configuration.getProperty(PREFIX + "store", "hibernate");
+    }
+
+    /**
+     * @return the time in seconds after which the lease of a running job is considered abandoned
+     */
+    public int getLeaseDuration()
+    {
+        return this.configuration.getProperty(PREFIX + "leaseDuration", DEFAULT_LEASE_DURATION);
+    }
+
+    /**
+     * @return the time in milliseconds a busy node defers, for each job it's currently running, its attempt to acquire
+     *         a lease, so that the least busy nodes get the jobs
+     */
+    public long getBalancingDelay()
+    {
+        return this.configuration.getProperty(PREFIX + "balancingDelay", DEFAULT_BALANCING_DELAY);
+    }
+}
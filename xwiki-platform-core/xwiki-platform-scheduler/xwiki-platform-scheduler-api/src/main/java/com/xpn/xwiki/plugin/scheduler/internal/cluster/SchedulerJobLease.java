@@ -0,0 +1,207 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.util.Date;
+
+/**
+ * The lease of a scheduler job, shared by all the members of the cluster to make sure that each trigger is executed by
+ * only one of them. It also publishes some information about the last execution of the job.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class SchedulerJobLease
+{
+    private String jobId;
+
+    private String node;
+
+    private Date fireTime;
+
+    private Date expiration;
+
+    private boolean running;
+
+    private Date nextFireTime;
+
+    private long lastDuration = -1;
+
+    /**
+     * Default constructor (mostly used by Hibernate).
+     */
+    public SchedulerJobLease()
+    {
+    }
+
+    /**
+     * @param jobId the unique identifier of the job
+     */
+    public SchedulerJobLease(String jobId)
+    {
+        this.jobId = jobId;
+    }
+
+    /**
+     * @param lease the lease to copy
+     */
+    public SchedulerJobLease(SchedulerJobLease lease)
+    {
+        this.jobId = lease.jobId;
+        this.node = lease.node;
+        this.fireTime = lease.fireTime;
+        this.expiration = lease.expiration;
+        this.running = lease.running;
+        this.nextFireTime = lease.nextFireTime;
+        this.lastDuration = lease.lastDuration;
+    }
+
+    /**
+     * @return the unique identifier of the job
+     */
+    public String getJobId()
+    {
+        return this.jobId;
+    }
+
+    /**
+     * @param jobId the unique identifier of the job
+     */
+    public void setJobId(String jobId)
+    {
+        this.jobId = jobId;
+    }
+
+    /**
+     * @return the identifier of the cluster member which acquired the lease
+     */
+    public String getNode()
+    {
+        return this.node;
+    }
+
+    /**
+     * @param node the identifier of the cluster member which acquired the lease
+     */
+    public void setNode(String node)
+    {
+        this.node = node;
+    }
+
+    /**
+     * @return the scheduled fire time of the trigger for which the lease was acquired
+     */
+    public Date getFireTime()
+    {
+        return this.fireTime;
+    }
+
+    /**
+     * @param fireTime the scheduled fire time of the trigger for which the lease was acquired
+     */
+    public void setFireTime(Date fireTime)
+    {
+        this.fireTime = fireTime;
+    }
+
+    /**
+     * @return the date after which a running job is considered abandoned by the node which acquired the lease
+     */
+    public Date getExpiration()
+    {
+        return this.expiration;
+    }
+
+    /**
+     * @param expiration the date after which a running job is considered abandoned by the node which acquired the
+     *            lease
+     */
+    public void setExpiration(Date expiration)
+    {
+        this.expiration = expiration;
+    }
+
+    /**
+     * @return true if the job is currently being executed by the node which acquired the lease
+     */
+    public boolean isRunning()
+    {
+        return this.running;
+    }
+
+    /**
+     * @param running true if the job is currently being executed by the node which acquired the lease
+     */
+    public void setRunning(boolean running)
+    {
+        this.running = running;
+    }
+
+    /**
+     * @return the next date at which the job will be fired, as known at the end of the last execution
+     */
+    public Date getNextFireTime()
+    {
+        return this.nextFireTime;
+    }
+
+    /**
+     * @param nextFireTime the next date at which the job will be fired
+     */
+    public void setNextFireTime(Date nextFireTime)
+    {
+        this.nextFireTime = nextFireTime;
+    }
+
+    /**
+     * @return the duration in milliseconds of the last execution of the job, -1 if unknown
+     */
+    public long getLastDuration()
+    {
+        return this.lastDuration;
+    }
+
+    /**
+     * @param lastDuration the duration in milliseconds of the last execution of the job
+     */
+    public void setLastDuration(long lastDuration)
+    {
+        this.lastDuration = lastDuration;
+    }
+
+    /**
+     * @param now the current date
+     * @return true if the job is running but the lease expired, which generally means the node executing it died
+     */
+    public boolean isAbandoned(Date now)
+    {
+        return this.running && this.expiration != null && this.expiration.before(now);
+    }
+
+    /**
+     * @param newFireTime the scheduled fire time of the trigger for which a node want to acquire the lease
+     * @param now the current date
+     * @return true if the lease can be acquired for the passed fire time
+     */
+    public boolean isAvailable(Date newFireTime, Date now)
+    {
+        return (this.fireTime == null || this.fireTime.before(newFireTime)) && (!this.running || isAbandoned(now));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.quartz.Scheduler;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+
+import com.xpn.xwiki.util.AbstractXWikiRunnable;
+
+/**
+ * Regularly renew the leases held by the current member of the cluster for the jobs it's executing, so that a job
+ * running longer than the lease duration is not considered abandoned, and execute again the jobs abandoned by the other
+ * members of the cluster.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = SchedulerJobLeaseHeartbeat.class)
+@Singleton
+public class SchedulerJobLeaseHeartbeat implements Disposable
+{
+    /**
+     * The number of times a lease is renewed during its duration.
+     */
+    private static final int RENEWALS = 3;
+
+    @Inject
+    private SchedulerClusterConfiguration configuration;
+
+    // Lazily resolved since the manager depends on this component
+    @Inject
+    private Provider<SchedulerJobLeaseManager> managerProvider;
+
+    /**
+     * The fire times of the leases currently held by this node, indexed by job identifier.
+     */
+    private final Map<String, Date> leases = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    private volatile Scheduler scheduler;
+
+    /**
+     * Start regularly executing again the jobs abandoned by the other members of the cluster.
+     *
+     * @param scheduler the local scheduler
+     */
+    public void start(Scheduler scheduler)
+    {
+        if (this.configuration.isEnabled()) {
+            this.scheduler = scheduler;
+
+            start();
+        }
+    }
+
+    /**
+     * Start renewing a lease acquired by the current node.
+     *
+     * @param jobId the unique identifier of the job
+     * @param fireTime the fire time for which the lease was acquired
+     */
+    public void add(String jobId, Date fireTime)
+    {
+        this.leases.put(jobId, fireTime);
+
+        start();
+    }
+
+    /**
+     * Stop renewing a lease.
+     *
+     * @param jobId the unique identifier of the job
+     * @param fireTime the fire time for which the lease was acquired
+     */
+    public void remove(String jobId, Date fireTime)
+    {
+        this.leases.remove(jobId, fireTime);
+    }
+
+    /**
+     * Renew all the leases held by the current node.
+     */
+    public void renew()
+    {
+        SchedulerJobLeaseManager manager = this.managerProvider.get();
+        for (Map.Entry<String, Date> entry : this.leases.entrySet()) {
+            if (!manager.renew(entry.getKey(), entry.getValue())) {
+                // The lease was taken over by another node, no need to renew it anymore
+                this.leases.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Execute again the jobs abandoned by the other members of the cluster, once the local scheduler is started.
+     */
+    public void recover()
+    {
+        Scheduler localScheduler = this.scheduler;
+        if (localScheduler != null) {
+            this.managerProvider.get().recover(localScheduler);
+        }
+    }
+
+    private synchronized void start()
+    {
+        if (this.executor == null) {
+            long period = Math.max(1, this.configuration.getLeaseDuration() / RENEWALS);
+
+            this.executor = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("Scheduler lease heartbeat").daemon(true).build());
+            this.executor.scheduleWithFixedDelay(new AbstractXWikiRunnable()
+            {
+                @Override
+                protected void runInternal()
+                {
+                    renew();
+                    recover();
+                }
+            }, period, period, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void dispose() throws ComponentLifecycleException
+    {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+
+import com.xpn.xwiki.XWikiException;
+
+/**
+ * Decide if a scheduler job should be executed by the current member of the cluster and publish information about the
+ * executions of the jobs.
+ * <p>
+ * When the cluster mode is disabled the jobs are always executed (as Quartz would do without this manager) and only
+ * the information about their executions is kept in memory. When it's enabled each node tries to acquire the lease of
+ * a job for the scheduled fire time of the trigger and only the one which succeed executes the job. The node executing
+ * a job regularly renews its lease (see {@link SchedulerJobLeaseHeartbeat}) so that a job running longer than the lease
+ * duration is not executed again by another node.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component(roles = SchedulerJobLeaseManager.class)
+@Singleton
+public class SchedulerJobLeaseManager
+{
+    /**
+     * The trigger data indicating the fire time for which the lease should be acquired by an execution which was not
+     * fired by the scheduled trigger of the job (deferred or recovered execution).
+     */
+    static final String DATA_FIRETIME = "xwiki.scheduler.lease.fireTime";
+
+    /**
+     * The trigger data indicating that the execution was already deferred because the node was busy.
+     */
+    static final String DATA_DEFERRED = "xwiki.scheduler.lease.deferred";
+
+    /**
+     * The key under which the fire time of the acquired lease is stored in the context of the job execution.
+     */
+    private static final String CONTEXT_LEASE = SchedulerJobLeaseManager.class.getName();
+
+    @Inject
+    private SchedulerClusterConfiguration configuration;
+
+    @Inject
+    @Named("memory")
+    private SchedulerJobLeaseStore memoryStore;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private SchedulerJobLeaseHeartbeat heartbeat;
+
+    @Inject
+    private Logger logger;
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final AtomicInteger runningJobs = new AtomicInteger();
+
+    private SchedulerJobLeaseStore store;
+
+    /**
+     * @return the identifier of the current member of the cluster
+     */
+    public String getNode()
+    {
+        return this.node;
+    }
+
+    /**
+     * @return the number of jobs currently executed by the current member of the cluster
+     */
+    public int getRunningJobs()
+    {
+        return this.runningJobs.get();
+    }
+
+    private SchedulerJobLeaseStore getStore()
+    {
+        if (this.store == null) {
+            if (this.configuration.isEnabled()) {
+                try {
+                    this.store = this.componentManagerProvider.get().getInstance(SchedulerJobLeaseStore.class,
+                        this.configuration.getStore());
+                } catch (ComponentLookupException e) {
+                    this.logger.error("Failed to lookup the scheduler lease store [{}], falling back on memory",
+                        this.configuration.getStore(), e);
+
+                    this.store = this.memoryStore;
+                }
+            } else {
+                this.store = this.memoryStore;
+            }
+        }
+
+        return this.store;
+    }
+
+    /**
+     * Try to acquire the lease of the job for the trigger which fired it.
+     *
+     * @param jobContext the context of the job execution
+     * @return true if the job should be executed by the current member of the cluster
+     */
+    public boolean acquire(JobExecutionContext jobContext)
+    {
+        if (this.configuration.isEnabled()) {
+            String jobId = jobContext.getJobDetail().getKey().getName();
+
+            // Manually triggered jobs are always executed by the node which triggered them and don't need the lease
+            Date fireTime = getLeaseFireTime(jobId, jobContext);
+            if (fireTime != null) {
+                if (defer(jobId, fireTime, jobContext)) {
+                    return false;
+                }
+
+                if (!acquire(jobId, fireTime)) {
+                    this.logger.debug("Job [{}] fired at [{}] is executed by another member of the cluster", jobId,
+                        fireTime);
+
+                    return false;
+                }
+
+                jobContext.put(CONTEXT_LEASE, fireTime);
+            }
+        }
+
+        this.runningJobs.incrementAndGet();
+
+        return true;
+    }
+
+    private boolean acquire(String jobId, Date fireTime)
+    {
+        try {
+            if (getStore().acquire(jobId, this.node, fireTime, getExpiration())) {
+                this.heartbeat.add(jobId, fireTime);
+
+                return true;
+            }
+        } catch (XWikiException e) {
+            this.logger.warn("Failed to acquire the lease of job [{}]: {}", jobId,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        return false;
+    }
+
+    /**
+     * Indicate that the job execution is finished and publish its duration and next fire time.
+     *
+     * @param jobContext the context of the job execution
+     * @param duration the duration of the execution in milliseconds
+     */
+    public void release(JobExecutionContext jobContext, long duration)
+    {
+        this.runningJobs.decrementAndGet();
+
+        String jobId = jobContext.getJobDetail().getKey().getName();
+        Date nextFireTime = getNextFireTime(jobId, jobContext);
+
+        // Only release the lease if it was acquired by this execution: a manual execution of the job should not
+        // release the lease of a scheduled execution still in progress
+        Date fireTime = (Date) jobContext.get(CONTEXT_LEASE);
+        try {
+            if (fireTime != null) {
+                this.heartbeat.remove(jobId, fireTime);
+                getStore().release(jobId, this.node, fireTime, nextFireTime, duration);
+            } else {
+                getStore().update(jobId, nextFireTime, duration);
+            }
+        } catch (XWikiException e) {
+            this.logger.warn("Failed to release the lease of job [{}]: {}", jobId,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * Extend the lease held by this node for a job it's still executing.
+     *
+     * @param jobId the unique identifier of the job
+     * @param fireTime the fire time for which the lease was acquired
+     * @return false if the lease is not held anymore by this node, true otherwise
+     */
+    public boolean renew(String jobId, Date fireTime)
+    {
+        try {
+            if (!getStore().renew(jobId, this.node, fireTime, getExpiration())) {
+                this.logger.warn("The lease of job [{}] is not held anymore by the current node", jobId);
+
+                return false;
+            }
+        } catch (XWikiException e) {
+            this.logger.warn("Failed to renew the lease of job [{}]: {}", jobId, ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        return true;
+    }
+
+    /**
+     * Execute again the jobs which were interrupted by the failure of the node executing them.
+     *
+     * @param scheduler the local scheduler
+     */
+    public void recover(Scheduler scheduler)
+    {
+        if (!this.configuration.isEnabled()) {
+            return;
+        }
+
+        try {
+            // The fire time is stored in the database, make sure it's not modified by the precision of the column
+            long currentTime = System.currentTimeMillis();
+            Date now = new Date(currentTime - currentTime % TimeUnit.SECONDS.toMillis(1));
+            for (SchedulerJobLease lease : getStore().getAbandoned(now)) {
+                JobKey jobKey = new JobKey(lease.getJobId());
+
+                if (scheduler.checkExists(jobKey)) {
+                    this.logger.info("Executing again job [{}] abandoned by node [{}]", lease.getJobId(),
+                        lease.getNode());
+
+                    // The execution competes for the lease like a scheduled one so that only one node executes the
+                    // job again
+                    JobDataMap data = new JobDataMap();
+                    data.put(DATA_FIRETIME, now.getTime());
+                    scheduler.triggerJob(jobKey, data);
+                }
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to recover the abandoned scheduler jobs: {}",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * @param jobId the unique identifier of the job
+     * @return the lease of the job, or null if it was never executed
+     * @throws XWikiException when failing to access the store
+     */
+    public SchedulerJobLease getLease(String jobId) throws XWikiException
+    {
+        return getStore().get(jobId);
+    }
+
+    private Date getExpiration()
+    {
+        return new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(this.configuration.getLeaseDuration()));
+    }
+
+    private Date getLeaseFireTime(String jobId, JobExecutionContext jobContext)
+    {
+        if (isScheduledTrigger(jobId, jobContext)) {
+            return jobContext.getScheduledFireTime();
+        }
+
+        JobDataMap data = jobContext.getTrigger().getJobDataMap();
+        if (data.containsKey(DATA_FIRETIME)) {
+            return new Date(data.getLong(DATA_FIRETIME));
+        }
+
+        return null;
+    }
+
+    private boolean defer(String jobId, Date fireTime, JobExecutionContext jobContext)
+    {
+        // Give a head start to the least busy nodes: instead of blocking the Quartz worker thread, a busy node fires
+        // again the job a bit later, for the same fire time, so that it only gets the lease if no other node took it
+        // meanwhile
+        long delay = this.runningJobs.get() * this.configuration.getBalancingDelay();
+        if (delay <= 0 || jobContext.getTrigger().getJobDataMap().containsKey(DATA_DEFERRED)) {
+            return false;
+        }
+
+        Trigger trigger = TriggerBuilder.newTrigger().forJob(jobContext.getJobDetail().getKey())
+            .usingJobData(DATA_FIRETIME, fireTime.getTime()).usingJobData(DATA_DEFERRED, true)
+            .startAt(new Date(System.currentTimeMillis() + delay)).build();
+        try {
+            jobContext.getScheduler().scheduleJob(trigger);
+
+            return true;
+        } catch (SchedulerException e) {
+            this.logger.warn("Failed to defer the execution of job [{}]: {}", jobId,
+                ExceptionUtils.getRootCauseMessage(e));
+
+            return false;
+        }
+    }
+
+    private boolean isScheduledTrigger(String jobId, JobExecutionContext jobContext)
+    {
+        // The trigger created by the scheduler plugin has the same identifier as the job, the other ones are manual,
+        // deferred or recovery triggers
+        return jobId.equals(jobContext.getTrigger().getKey().getName());
+    }
+
+    private Date getNextFireTime(String jobId, JobExecutionContext jobContext)
+    {
+        if (isScheduledTrigger(jobId, jobContext)) {
+            return jobContext.getNextFireTime();
+        }
+
+        try {
+            Trigger trigger = jobContext.getScheduler().getTrigger(new TriggerKey(jobId));
+
+            return trigger != null ? trigger.getNextFireTime() : null;
+        } catch (SchedulerException e) {
+            return null;
+        }
+    }
+}
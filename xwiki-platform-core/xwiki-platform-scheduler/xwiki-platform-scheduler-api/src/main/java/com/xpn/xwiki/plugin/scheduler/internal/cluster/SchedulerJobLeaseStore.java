@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.util.Date;
+import java.util.List;
+
+import org.xwiki.component.annotation.Role;
+
+import com.xpn.xwiki.XWikiException;
+
+/**
+ * Store the scheduler job leases shared by the members of the cluster.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Role
+public interface SchedulerJobLeaseStore
+{
+    /**
+     * Atomically acquire the lease of a job for the passed fire time. The lease can be acquired if it was never
+     * acquired for this fire time or a more recent one, and the job is not currently running (or its lease expired).
+     *
+     * @param jobId the unique identifier of the job
+     * @param node the identifier of the cluster member trying to acquire the lease
+     * @param fireTime the scheduled fire time of the trigger
+     * @param expiration the date after which the job will be considered abandoned if still running
+     * @return true if the lease was acquired by the passed node
+     * @throws XWikiException when failing to access the store
+     */
+    boolean acquire(String jobId, String node, Date fireTime, Date expiration) throws XWikiException;
+
+    /**
+     * Extend the expiration of a lease still held by the passed node for the passed fire time, so that a job running
+     * longer than the lease duration is not considered abandoned.
+     *
+     * @param jobId the unique identifier of the job
+     * @param node the identifier of the cluster member executing the job
+     * @param fireTime the fire time for which the lease was acquired
+     * @param expiration the new date after which the job will be considered abandoned if still running
+     * @return true if the lease was renewed, false if it's not held anymore by the passed node for this fire time
+     * @throws XWikiException when failing to access the store
+     */
+    boolean renew(String jobId, String node, Date fireTime, Date expiration) throws XWikiException;
+
+    /**
+     * Indicate that the execution of the job for which the passed node acquired the lease is finished. Nothing is
+     * released if the lease is not held anymore by the passed node for the passed fire time (for example because it
+     * expired and was taken over by another node).
+     *
+     * @param jobId the unique identifier of the job
+     * @param node the identifier of the cluster member which executed the job
+     * @param fireTime the fire time for which the lease was acquired
+     * @param nextFireTime the next date at which the job will be fired
+     * @param duration the duration of the execution in milliseconds
+     * @throws XWikiException when failing to access the store
+     */
+    void release(String jobId, String node, Date fireTime, Date nextFireTime, long duration) throws XWikiException;
+
+    /**
+     * Publish the information about an execution of the job which did not require the lease (manual trigger, cluster
+     * mode disabled), without modifying the state of the lease.
+     *
+     * @param jobId the unique identifier of the job
+     * @param nextFireTime the next date at which the job will be fired
+     * @param duration the duration of the execution in milliseconds
+     * @throws XWikiException when failing to access the store
+     */
+    void update(String jobId, Date nextFireTime, long duration) throws XWikiException;
+
+    /**
+     * @param jobId the unique identifier of the job
+     * @return the lease of the job or null if it was never acquired
+     * @throws XWikiException when failing to access the store
+     */
+    SchedulerJobLease get(String jobId) throws XWikiException;
+
+    /**
+     * @param now the current date
+     * @return the leases of the jobs which are still marked as running but expired
+     * @throws XWikiException when failing to access the store
+     */
+    List<SchedulerJobLease> getAbandoned(Date now) throws XWikiException;
+}
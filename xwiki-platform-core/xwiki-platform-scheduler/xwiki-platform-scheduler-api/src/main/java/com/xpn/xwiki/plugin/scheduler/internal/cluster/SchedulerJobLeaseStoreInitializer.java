@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.event.ApplicationStartedEvent;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.store.hibernate.HibernateSessionFactory;
+
+/**
+ * Register the scheduler lease store mapping when the cluster mode is enabled.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Named(SchedulerJobLeaseStoreInitializer.NAME)
+@Singleton
+public class SchedulerJobLeaseStoreInitializer implements EventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "SchedulerJobLeaseStoreInitializer";
+
+    private static final String MAPPING = "schedulerlease.hbm.xml";
+
+    @Inject
+    private HibernateSessionFactory sessionFactory;
+
+    @Inject
+    private SchedulerClusterConfiguration configuration;
+
+    @Inject
+    private Logger logger;
+
+    @Override
+    public List<Event> getEvents()
+    {
+        return Collections.singletonList(new ApplicationStartedEvent());
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (this.configuration.isEnabled() && "hibernate".equals(this.configuration.getStore())) {
+            // This only adds the mapping to a queue, it will be available after the session factory is created
+            try (InputStream stream = getClass().getClassLoader().getResourceAsStream(MAPPING)) {
+                this.sessionFactory.getConfiguration().addInputStream(stream);
+            } catch (IOException e) {
+                this.logger.error("Failed to close the resource [{}]", MAPPING, e);
+            }
+        }
+    }
+}
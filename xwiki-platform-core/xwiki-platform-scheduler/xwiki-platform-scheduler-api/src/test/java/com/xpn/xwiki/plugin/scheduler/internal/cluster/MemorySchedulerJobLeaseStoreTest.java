@@ -0,0 +1,134 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link MemorySchedulerJobLeaseStore}.
+ *
+ * @version $Id$
+ */
+class MemorySchedulerJobLeaseStoreTest
+{
+    private static final String JOB = "job";
+
+    private static final Date FIRETIME1 = new Date(1000);
+
+    private static final Date FIRETIME2 = new Date(2000);
+
+    private final MemorySchedulerJobLeaseStore store = new MemorySchedulerJobLeaseStore();
+
+    private Date future()
+    {
+        return new Date(System.currentTimeMillis() + 60000);
+    }
+
+    private Date past()
+    {
+        return new Date(System.currentTimeMillis() - 60000);
+    }
+
+    @Test
+    void acquireOncePerFireTime()
+    {
+        assertNull(this.store.get(JOB));
+
+        assertTrue(this.store.acquire(JOB, "node1", FIRETIME1, future()));
+        assertFalse(this.store.acquire(JOB, "node2", FIRETIME1, future()));
+
+        SchedulerJobLease lease = this.store.get(JOB);
+        assertEquals("node1", lease.getNode());
+        assertEquals(FIRETIME1, lease.getFireTime());
+        assertTrue(lease.isRunning());
+
+        this.store.release(JOB, "node1", FIRETIME1, FIRETIME2, 10);
+
+        // Already executed for this fire time
+        assertFalse(this.store.acquire(JOB, "node2", FIRETIME1, future()));
+        assertTrue(this.store.acquire(JOB, "node2", FIRETIME2, future()));
+    }
+
+    @Test
+    void acquireWhileRunning()
+    {
+        assertTrue(this.store.acquire(JOB, "node1", FIRETIME1, future()));
+        assertFalse(this.store.acquire(JOB, "node2", FIRETIME2, future()));
+
+        this.store.release(JOB, "node1", FIRETIME1, FIRETIME2, 10);
+
+        assertTrue(this.store.acquire(JOB, "node2", FIRETIME2, future()));
+    }
+
+    @Test
+    void releaseOnlyTheAcquiredExecution()
+    {
+        assertTrue(this.store.acquire(JOB, "node1", FIRETIME1, future()));
+
+        // Another execution of the job (manual trigger) finishes while the scheduled one is still running
+        this.store.update(JOB, FIRETIME2, 5);
+
+        SchedulerJobLease lease = this.store.get(JOB);
+        assertTrue(lease.isRunning());
+        assertEquals(5, lease.getLastDuration());
+        assertEquals(FIRETIME2, lease.getNextFireTime());
+
+        // Wrong fire time or node
+        this.store.release(JOB, "node1", FIRETIME2, FIRETIME2, 10);
+        this.store.release(JOB, "node2", FIRETIME1, FIRETIME2, 10);
+        assertTrue(this.store.get(JOB).isRunning());
+
+        this.store.release(JOB, "node1", FIRETIME1, FIRETIME2, 10);
+
+        lease = this.store.get(JOB);
+        assertFalse(lease.isRunning());
+        assertEquals(10, lease.getLastDuration());
+    }
+
+    @Test
+    void renewAndTakeOver()
+    {
+        assertTrue(this.store.acquire(JOB, "node1", FIRETIME1, past()));
+        assertEquals(1, this.store.getAbandoned(new Date()).size());
+
+        // A long running job renews its lease
+        assertTrue(this.store.renew(JOB, "node1", FIRETIME1, future()));
+        assertTrue(this.store.getAbandoned(new Date()).isEmpty());
+        assertFalse(this.store.acquire(JOB, "node2", FIRETIME2, future()));
+
+        // The lease expires (the node died) and is taken over by another node
+        assertTrue(this.store.renew(JOB, "node1", FIRETIME1, past()));
+        assertTrue(this.store.acquire(JOB, "node2", FIRETIME2, future()));
+
+        assertFalse(this.store.renew(JOB, "node1", FIRETIME1, future()));
+        this.store.release(JOB, "node1", FIRETIME1, null, 10);
+
+        SchedulerJobLease lease = this.store.get(JOB);
+        assertEquals("node2", lease.getNode());
+        assertTrue(lease.isRunning());
+    }
+}
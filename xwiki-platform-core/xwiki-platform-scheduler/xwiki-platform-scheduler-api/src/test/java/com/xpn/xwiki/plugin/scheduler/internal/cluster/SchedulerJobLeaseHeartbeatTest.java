@@ -0,0 +1,112 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.util.Date;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.Scheduler;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link SchedulerJobLeaseHeartbeat}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class SchedulerJobLeaseHeartbeatTest
+{
+    private static final Date FIRETIME = new Date(1000);
+
+    @InjectMockComponents
+    private SchedulerJobLeaseHeartbeat heartbeat;
+
+    @MockComponent
+    private SchedulerClusterConfiguration configuration;
+
+    @MockComponent
+    private Provider<SchedulerJobLeaseManager> managerProvider;
+
+    private SchedulerJobLeaseManager manager = mock(SchedulerJobLeaseManager.class);
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.managerProvider.get()).thenReturn(this.manager);
+        when(this.configuration.getLeaseDuration()).thenReturn(3600);
+    }
+
+    @Test
+    void renew() throws Exception
+    {
+        this.heartbeat.add("job1", FIRETIME);
+        this.heartbeat.add("job2", FIRETIME);
+        this.heartbeat.add("job3", FIRETIME);
+        this.heartbeat.remove("job3", FIRETIME);
+
+        when(this.manager.renew("job1", FIRETIME)).thenReturn(true);
+        when(this.manager.renew("job2", FIRETIME)).thenReturn(false);
+
+        this.heartbeat.renew();
+        this.heartbeat.renew();
+
+        verify(this.manager, times(2)).renew("job1", FIRETIME);
+        // The lease of job2 was lost
+        verify(this.manager, times(1)).renew("job2", FIRETIME);
+        verify(this.manager, never()).renew("job3", FIRETIME);
+
+        this.heartbeat.dispose();
+    }
+
+    @Test
+    void recover() throws Exception
+    {
+        Scheduler scheduler = mock(Scheduler.class);
+
+        // Nothing to recover before the scheduler is started
+        this.heartbeat.recover();
+        verify(this.manager, never()).recover(any());
+
+        // Disabled cluster
+        this.heartbeat.start(scheduler);
+        this.heartbeat.recover();
+        verify(this.manager, never()).recover(any());
+
+        when(this.configuration.isEnabled()).thenReturn(true);
+
+        this.heartbeat.start(scheduler);
+        this.heartbeat.recover();
+        verify(this.manager).recover(scheduler);
+
+        this.heartbeat.dispose();
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal.cluster;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link SchedulerJobLeaseManager}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@ComponentList(MemorySchedulerJobLeaseStore.class)
+class SchedulerJobLeaseManagerTest
+{
+    private static final String JOB = "job";
+
+    private static final Date FIRETIME = new Date(1000);
+
+    @InjectMockComponents
+    private SchedulerJobLeaseManager manager;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    private SchedulerClusterConfiguration configuration;
+
+    @MockComponent
+    private SchedulerJobLeaseHeartbeat heartbeat;
+
+    @MockComponent
+    @Named("context")
+    private Provider<ComponentManager> contextComponentManagerProvider;
+
+    private Scheduler scheduler = mock(Scheduler.class);
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.contextComponentManagerProvider.get()).thenReturn(this.componentManager);
+        when(this.configuration.getStore()).thenReturn("memory");
+        when(this.configuration.getLeaseDuration()).thenReturn(3600);
+    }
+
+    private JobExecutionContext mockContext(String jobId, String triggerId, Date fireTime, JobDataMap triggerData)
+    {
+        JobExecutionContext jobContext = mock(JobExecutionContext.class);
+
+        JobDetail jobDetail = mock(JobDetail.class);
+        when(jobDetail.getKey()).thenReturn(new JobKey(jobId));
+        when(jobContext.getJobDetail()).thenReturn(jobDetail);
+
+        Trigger trigger = mock(Trigger.class);
+        when(trigger.getKey()).thenReturn(new TriggerKey(triggerId));
+        when(trigger.getJobDataMap()).thenReturn(triggerData);
+        when(jobContext.getTrigger()).thenReturn(trigger);
+
+        when(jobContext.getScheduledFireTime()).thenReturn(fireTime);
+        when(jobContext.getScheduler()).thenReturn(this.scheduler);
+
+        Map<Object, Object> values = new HashMap<>();
+        doAnswer(invocation -> values.put(invocation.getArgument(0), invocation.getArgument(1))).when(jobContext)
+            .put(any(), any());
+        when(jobContext.get(any())).then(invocation -> values.get(invocation.getArgument(0)));
+
+        return jobContext;
+    }
+
+    private JobExecutionContext mockScheduledContext(String jobId, Date fireTime)
+    {
+        return mockContext(jobId, jobId, fireTime, new JobDataMap());
+    }
+
+    @Test
+    void acquireWhenClusterDisabled() throws Exception
+    {
+        JobExecutionContext jobContext1 = mockScheduledContext(JOB, FIRETIME);
+        JobExecutionContext jobContext2 = mockScheduledContext(JOB, FIRETIME);
+
+        // Same as Quartz: nothing prevents the executions
+        assertTrue(this.manager.acquire(jobContext1));
+        assertTrue(this.manager.acquire(jobContext2));
+        assertEquals(2, this.manager.getRunningJobs());
+
+        this.manager.release(jobContext1, 10);
+        this.manager.release(jobContext2, 20);
+
+        assertEquals(0, this.manager.getRunningJobs());
+        assertEquals(20, this.manager.getLease(JOB).getLastDuration());
+        assertFalse(this.manager.getLease(JOB).isRunning());
+
+        verifyNoInteractions(this.heartbeat);
+        verifyNoInteractions(this.scheduler);
+    }
+
+    @Test
+    void acquireWhenClusterEnabled() throws Exception
+    {
+        when(this.configuration.isEnabled()).thenReturn(true);
+
+        JobExecutionContext jobContext1 = mockScheduledContext(JOB, FIRETIME);
+        JobExecutionContext jobContext2 = mockScheduledContext(JOB, FIRETIME);
+
+        assertTrue(this.manager.acquire(jobContext1));
+        assertFalse(this.manager.acquire(jobContext2));
+        assertEquals(1, this.manager.getRunningJobs());
+
+        verify(this.heartbeat).add(JOB, FIRETIME);
+        assertEquals(this.manager.getNode(), this.manager.getLease(JOB).getNode());
+        assertTrue(this.manager.getLease(JOB).isRunning());
+
+        this.manager.release(jobContext1, 10);
+
+        verify(this.heartbeat).remove(JOB, FIRETIME);
+        assertFalse(this.manager.getLease(JOB).isRunning());
+        assertEquals(10, this.manager.getLease(JOB).getLastDuration());
+    }
+
+    @Test
+    void releaseManualExecution() throws Exception
+    {
+        when(this.configuration.isEnabled()).thenReturn(true);
+
+        JobExecutionContext scheduledContext = mockScheduledContext(JOB, FIRETIME);
+        JobExecutionContext manualContext = mockContext(JOB, "MT_manual", new Date(), new JobDataMap());
+
+        assertTrue(this.manager.acquire(scheduledContext));
+        // Manual executions don't need the lease
+        assertTrue(this.manager.acquire(manualContext));
+
+        this.manager.release(manualContext, 5);
+
+        // The scheduled execution is still running
+        assertTrue(this.manager.getLease(JOB).isRunning());
+        assertEquals(5, this.manager.getLease(JOB).getLastDuration());
+        verify(this.heartbeat, never()).remove(any(), any());
+
+        this.manager.release(scheduledContext, 10);
+
+        assertFalse(this.manager.getLease(JOB).isRunning());
+    }
+
+    @Test
+    void deferWhenBusy() throws Exception
+    {
+        when(this.configuration.isEnabled()).thenReturn(true);
+        when(this.configuration.getBalancingDelay()).thenReturn(200L);
+
+        assertTrue(this.manager.acquire(mockScheduledContext("other", FIRETIME)));
+
+        // The node is busy: the execution is deferred instead of blocking the thread
+        assertFalse(this.manager.acquire(mockScheduledContext(JOB, FIRETIME)));
+        assertNull(this.manager.getLease(JOB));
+
+        ArgumentCaptor<Trigger> triggerCaptor = ArgumentCaptor.forClass(Trigger.class);
+        verify(this.scheduler).scheduleJob(triggerCaptor.capture());
+        Trigger trigger = triggerCaptor.getValue();
+        assertEquals(new JobKey(JOB), trigger.getJobKey());
+        assertEquals(FIRETIME.getTime(), trigger.getJobDataMap().getLong(SchedulerJobLeaseManager.DATA_FIRETIME));
+
+        // The deferred execution competes for the lease of the initial fire time
+        JobExecutionContext deferredContext =
+            mockContext(JOB, trigger.getKey().getName(), new Date(), trigger.getJobDataMap());
+        assertTrue(this.manager.acquire(deferredContext));
+        assertEquals(FIRETIME, this.manager.getLease(JOB).getFireTime());
+        verify(this.heartbeat).add(JOB, FIRETIME);
+    }
+
+    @Test
+    void recover() throws Exception
+    {
+        when(this.configuration.isEnabled()).thenReturn(true);
+
+        // Simulate a node which died while executing the job
+        when(this.configuration.getLeaseDuration()).thenReturn(-10);
+        assertTrue(this.manager.acquire(mockScheduledContext(JOB, FIRETIME)));
+        when(this.configuration.getLeaseDuration()).thenReturn(3600);
+
+        when(this.scheduler.checkExists(new JobKey(JOB))).thenReturn(true);
+
+        this.manager.recover(this.scheduler);
+
+        ArgumentCaptor<JobDataMap> dataCaptor = ArgumentCaptor.forClass(JobDataMap.class);
+        verify(this.scheduler).triggerJob(eq(new JobKey(JOB)), dataCaptor.capture());
+        Date recoveryTime = new Date(dataCaptor.getValue().getLong(SchedulerJobLeaseManager.DATA_FIRETIME));
+
+        JobExecutionContext recoveryContext = mockContext(JOB, "MT_recovery", new Date(), dataCaptor.getValue());
+        assertTrue(this.manager.acquire(recoveryContext));
+        assertEquals(recoveryTime, this.manager.getLease(JOB).getFireTime());
+
+        // The abandoned execution does not release the lease of the new one
+        assertFalse(this.manager.renew(JOB, FIRETIME));
+        assertTrue(this.manager.renew(JOB, recoveryTime));
+    }
+}
@@ -145,6 +145,21 @@ public class DefaultSolrConfiguration implements SolrConfiguration
     public static final SynchronizeAtStartupMode SOLR_SYNCHRONIZE_AT_STARTUP_MODE_DEFAULT =
         SynchronizeAtStartupMode.FARM;
 
+    /**
+     * The name of the configuration property indicating the number of threads used to compare the database and the
+     * index during a synchronization.
+     * 
+     * @since 15.0RC1
+     */
+    public static final String SOLR_SYNCHRONIZATION_THREADS = "solr.synchronization.threads";
+
+    /**
+     * The default number of threads used to compare the database and the index during a synchronization.
+     * 
+     * @since 15.0RC1
+     */
+    public static final int SOLR_SYNCHRONIZATION_THREADS_DEFAULT = 2;
+
     /**
      * The Solr configuration source.
      */
@@ -238,4 +253,10 @@ public SynchronizeAtStartupMode synchronizeAtStartupMode()
         }
         return result;
     }
+
+    @Override
+    public int getSynchronizationThreads()
+    {
+        return this.configuration.getProperty(SOLR_SYNCHRONIZATION_THREADS, SOLR_SYNCHRONIZATION_THREADS_DEFAULT);
+    }
 }
@@ -20,7 +20,10 @@
 package org.xwiki.search.solr.internal;
 
 import java.util.Arrays;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.inject.Inject;
@@ -98,6 +101,11 @@ public class DefaultSolrIndexer implements SolrIndexer, Initializable, Disposabl
          */
         public IndexOperation operation;
 
+        /**
+         * The future to complete when reaching a {@link IndexOperation#FLUSH} entry.
+         */
+        public CompletableFuture<Void> flush;
+
         /**
          * @param indexReference the reference of the entity to index.
          * @param operation the indexing operation to perform.
@@ -118,6 +126,15 @@ public IndexQueueEntry(String deleteQuery, IndexOperation operation)
             this.operation = operation;
         }
 
+        /**
+         * @param flush the future to complete when reaching this entry
+         */
+        public IndexQueueEntry(CompletableFuture<Void> flush)
+        {
+            this.flush = flush;
+            this.operation = IndexOperation.FLUSH;
+        }
+
         @Override
         public String toString()
         {
@@ -130,6 +147,9 @@ public String toString()
                 case DELETE:
                     str = "DELETE " + this.deleteQuery;
                     break;
+                case FLUSH:
+                    str = "FLUSH";
+                    break;
                 case STOP:
                     str = "STOP";
                     break;
@@ -164,6 +184,11 @@ public String toString()
          */
         public IndexOperation operation;
 
+        /**
+         * The future to complete when reaching a {@link IndexOperation#FLUSH} entry.
+         */
+        public CompletableFuture<Void> flush;
+
         /**
          * @param reference the reference of the entity to index.
          * @param recurse also apply operation to reference children.
@@ -175,6 +200,15 @@ public ResolveQueueEntry(EntityReference reference, boolean recurse, IndexOperat
             this.recurse = recurse;
             this.operation = operation;
         }
+
+        /**
+         * @param flush the future to complete when reaching this entry
+         */
+        public ResolveQueueEntry(CompletableFuture<Void> flush)
+        {
+            this.flush = flush;
+            this.operation = IndexOperation.FLUSH;
+        }
     }
 
     /**
@@ -206,7 +240,10 @@ public void runInternal()
                 }
 
                 try {
-                    if (queueEntry.operation == IndexOperation.INDEX) {
+                    if (queueEntry.operation == IndexOperation.FLUSH) {
+                        // Pass it to the index thread which handles the operations queued before
+                        indexQueue.put(new IndexQueueEntry(queueEntry.flush));
+                    } else if (queueEntry.operation == IndexOperation.INDEX) {
                         Iterable<EntityReference> references;
                         if (queueEntry.recurse) {
                             references = solrRefereceResolver.getReferences(queueEntry.reference);
@@ -322,6 +359,11 @@ public void runInternal()
      */
     private volatile int batchSize;
 
+    /**
+     * The futures of the {@link IndexOperation#FLUSH} entries which have not been reached yet.
+     */
+    private final Set<CompletableFuture<Void>> flushes = ConcurrentHashMap.newKeySet();
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -361,6 +403,9 @@ public void dispose() throws ComponentLifecycleException
         // the index queue was full) and just one entry will be added to the queue before the special stop entry.
         this.indexQueue.clear();
         this.indexQueue.offer(INDEX_QUEUE_ENTRY_STOP);
+
+        // The queued operations won't be handled
+        this.flushes.forEach(flush -> flush.cancel(false));
     }
 
     @Override
@@ -408,6 +453,19 @@ private boolean processBatch(IndexQueueEntry queueEntry)
 
             IndexOperation operation = batchEntry.operation;
 
+            if (operation == IndexOperation.FLUSH) {
+                // Make sure the changes of the previous operations are visible before notifying
+                if (this.batchSize > 0) {
+                    commit();
+                    length = 0;
+                }
+
+                batchEntry.flush.complete(null);
+                this.flushes.remove(batchEntry.flush);
+
+                continue;
+            }
+
             // For the current contiguous operations queue, group the changes
             try {
                 ExecutionContext executionContext = new ExecutionContext();
@@ -566,6 +624,30 @@ public int getQueueSize()
         return this.indexQueue.size() + this.resolveQueue.size() + this.batchSize;
     }
 
+    @Override
+    public CompletableFuture<Void> flush()
+    {
+        CompletableFuture<Void> flush = new CompletableFuture<>();
+
+        if (!this.disposed) {
+            this.flushes.add(flush);
+
+            try {
+                this.resolveQueue.put(new ResolveQueueEntry(flush));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Don't wait for an indexer which won't handle the queue
+        if (this.disposed || Thread.currentThread().isInterrupted()) {
+            this.flushes.remove(flush);
+            flush.cancel(false);
+        }
+
+        return flush;
+    }
+
     @Override
     public IndexerJob startIndex(IndexerRequest request) throws SolrIndexerException
     {
@@ -39,6 +39,13 @@
 
     // General operations
 
+    /**
+     * Notify that all the operations queued before have been handled.
+     * 
+     * @since 15.0RC1
+     */
+    FLUSH,
+
     /**
      * Stop indexing thread.
      */
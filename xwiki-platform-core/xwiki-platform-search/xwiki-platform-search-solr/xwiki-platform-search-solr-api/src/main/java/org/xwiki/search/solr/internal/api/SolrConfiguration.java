@@ -121,4 +121,14 @@
      * @since 12.5RC1
      */
     SynchronizeAtStartupMode synchronizeAtStartupMode();
+
+    /**
+     * @return the number of threads used to compare the database and the Solr index during a synchronization, 2 by
+     *         default
+     * @since 15.0RC1
+     */
+    default int getSynchronizationThreads()
+    {
+        return 2;
+    }
 }
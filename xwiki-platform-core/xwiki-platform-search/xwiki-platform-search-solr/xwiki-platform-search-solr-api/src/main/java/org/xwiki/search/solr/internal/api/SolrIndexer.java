@@ -19,6 +19,8 @@
  */
 package org.xwiki.search.solr.internal.api;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.search.solr.internal.job.IndexerJob;
@@ -60,6 +62,16 @@
      */
     int getQueueSize();
 
+    /**
+     * Add a marker to the queue to know when the operations queued before it have been handled, whatever was queued
+     * after it.
+     * 
+     * @return a future completed once all the operations queued before the call have been handled and committed, or
+     *         cancelled if the indexer is stopped before that
+     * @since 15.0RC1
+     */
+    CompletableFuture<Void> flush();
+
     /**
      * Start an indexing with specific criteria.
      * 
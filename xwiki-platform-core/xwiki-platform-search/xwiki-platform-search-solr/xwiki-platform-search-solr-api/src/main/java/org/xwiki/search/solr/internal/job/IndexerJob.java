@@ -19,27 +19,70 @@
  */
 package org.xwiki.search.solr.internal.job;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.context.concurrent.ExecutionContextRunnable;
+import org.xwiki.environment.Environment;
 import org.xwiki.job.AbstractJob;
-import org.xwiki.job.DefaultJobStatus;
 import org.xwiki.job.GroupedJob;
 import org.xwiki.job.JobGroupPath;
+import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.api.SolrIndexerException;
 import org.xwiki.search.solr.internal.job.DiffDocumentIterator.Action;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import com.xpn.xwiki.internal.thread.ThreadFactoryManager;
 
 /**
  * Provide progress information and store logging of an advanced indexing.
+ * <p>
+ * When synchronizing the whole farm or a whole wiki, the comparison between the database and the Solr index is split
+ * by wiki and done by several workers. The wikis which have been fully synchronized (i.e. compared and handled by the
+ * asynchronous {@link SolrIndexer}) are recorded in a checkpoint file so that an interrupted synchronization can resume
+ * where it stopped. A checkpoint is ignored once it's older than a day, so that a synchronization started long after an
+ * interrupted one covers all the wikis again.
  * 
  * @version $Id$
  * @since 5.1RC1
@@ -47,7 +90,7 @@
 @Component
 @InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
 @Named(IndexerJob.JOBTYPE)
-public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<IndexerRequest>> implements GroupedJob
+public class IndexerJob extends AbstractJob<IndexerRequest, IndexerJobStatus> implements GroupedJob
 {
     /**
      * The id of the job.
@@ -59,6 +102,32 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
      */
     private static final JobGroupPath GROUP = new JobGroupPath(Arrays.asList("solr", "indexer"));
 
+    private static final Type DOCUMENT_ITERATOR_TYPE =
+        new DefaultParameterizedType(null, DocumentIterator.class, String.class);
+
+    /**
+     * The maximum number of compared documents waiting to be handled by the job thread.
+     */
+    private static final int QUEUE_CAPACITY = 10000;
+
+    /**
+     * The minimum time (in milliseconds) between two throughput reports.
+     */
+    private static final long REPORT_INTERVAL = 30000;
+
+    /**
+     * The time (in milliseconds) after which a checkpoint is not used anymore to resume a synchronization.
+     */
+    private static final long CHECKPOINT_EXPIRATION = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * The time (in milliseconds) to wait for new compared documents before checking if the indexer handled the
+     * documents of the compared wikis.
+     */
+    private static final long INDEXER_POLL_INTERVAL = 1000;
+
+    private static final String CHECKPOINT_DIRECTORY = "solr/synchronization";
+
     /**
      * Used to send documents to index or delete to/from Solr index.
      */
@@ -66,15 +135,23 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
     private transient SolrIndexer indexer;
 
     @Inject
-    @Named("database")
-    private transient DocumentIterator<String> databaseIterator;
+    private EntityReferenceSerializer<String> entityReferenceSerializer;
+
+    @Inject
+    @Named("context")
+    private transient Provider<ComponentManager> componentManagerProvider;
 
     @Inject
-    @Named("solr")
-    private transient DocumentIterator<String> solrIterator;
+    private transient WikiDescriptorManager wikiDescriptorManager;
 
     @Inject
-    private EntityReferenceSerializer<String> entityReferenceSerializer;
+    private transient SolrConfiguration configuration;
+
+    @Inject
+    private transient Environment environment;
+
+    @Inject
+    private transient ThreadFactoryManager threadFactoryManager;
 
     @Override
     public String getType()
@@ -82,6 +159,12 @@ public String getType()
         return JOBTYPE;
     }
 
+    @Override
+    protected IndexerJobStatus createNewStatus(IndexerRequest request)
+    {
+        return new IndexerJobStatus(getType(), request, this.observationManager, this.loggerManager);
+    }
+
     @Override
     public JobGroupPath getGroupPath()
     {
@@ -107,61 +190,322 @@ protected void runInternal() throws Exception
     /**
      * Update the Solr index to match the current state of the database.
      */
-    private void updateSolrIndex()
+    private void updateSolrIndex() throws Exception
     {
-        DiffDocumentIterator<String> iterator = new DiffDocumentIterator<>(this.solrIterator, this.databaseIterator);
-        iterator.setRootReference(getRequest().getRootReference());
+        EntityReference rootReference = getRequest().getRootReference();
+
+        if (rootReference != null && rootReference.getType() != EntityType.WIKI) {
+            // Not worth splitting
+            updateSolrIndex(Collections.singletonList(rootReference), null);
+        } else {
+            File checkpoint = getCheckpointFile(rootReference);
+            Set<String> synchronizedWikis = loadCheckpoint(checkpoint);
+
+            List<EntityReference> partitions = new ArrayList<>();
+            for (String wiki : getWikis(rootReference)) {
+                if (synchronizedWikis.contains(wiki)) {
+                    this.logger.info("Skipping wiki [{}] which was synchronized before the job was interrupted.",
+                        wiki);
+                } else {
+                    partitions.add(new WikiReference(wiki));
+                }
+            }
 
+            updateSolrIndex(partitions, checkpoint);
+
+            // The synchronization is complete, start from scratch next time
+            Files.deleteIfExists(checkpoint.toPath());
+        }
+    }
+
+    private void updateSolrIndex(List<EntityReference> partitions, File checkpoint) throws Exception
+    {
         this.progressManager.pushLevelProgress(2, this);
 
         try {
             // Calculate index progress size
 
             this.progressManager.startStep(this);
-            int progressSize = (int) iterator.size();
+            long progressSize = 0;
+            for (EntityReference partition : partitions) {
+                progressSize += createDiffIterator(partition).size();
+            }
             this.progressManager.endStep(this);
 
             // Index
 
             this.progressManager.startStep(this);
-            updateSolrIndex(progressSize, iterator);
+            updateSolrIndex(progressSize, partitions, checkpoint);
             this.progressManager.endStep(this);
         } finally {
             this.progressManager.popLevelProgress(this);
         }
     }
 
-    private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iterator)
+    private void updateSolrIndex(long progressSize, List<EntityReference> partitions, File checkpoint)
+        throws InterruptedException, SolrIndexerException
     {
-        this.progressManager.pushLevelProgress(progressSize, this);
+        this.progressManager.pushLevelProgress((int) progressSize, this);
+
+        BlockingQueue<Pair<EntityReference, Pair<DocumentReference, Action>>> queue =
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        Map<EntityReference, Exception> failures = new ConcurrentHashMap<>();
+
+        int threads = Math.max(1, Math.min(this.configuration.getSynchronizationThreads(), partitions.size()));
+        ExecutorService executor =
+            Executors.newFixedThreadPool(threads, this.threadFactoryManager.newThreadFactory("Solr synchronization"));
 
         try {
+            // The comparison between the database and the index is done by the workers while the (cheap) indexing
+            // actions are executed by the job thread which owns the progress
+            ComponentManager componentManager = this.componentManagerProvider.get();
+            for (EntityReference partition : partitions) {
+                executor.execute(
+                    new ExecutionContextRunnable(() -> compare(partition, queue, failures), componentManager));
+            }
+
             long[] counter = new long[Action.values().length];
+            SynchronizationReport report = new SynchronizationReport(progressSize);
 
-            while (iterator.hasNext()) {
-                this.progressManager.startStep(this);
-
-                Pair<DocumentReference, Action> entry = iterator.next();
-                if (entry.getValue() == Action.ADD || entry.getValue() == Action.UPDATE) {
-                    // The database entry has not been indexed or the indexed version doesn't match the latest
-                    // version
-                    // from the database.
-                    this.indexer.index(entry.getKey(), true);
-                } else if (entry.getValue() == Action.DELETE && getRequest().isRemoveMissing()) {
-                    // The index entry doesn't exist anymore in the database.
-                    this.indexer.delete(entry.getKey(), true);
-                }
+            // The wikis which have been fully compared, associated with the notification of the indexer once it
+            // handled their documents
+            Map<String, CompletableFuture<Void>> queuedWikis = new LinkedHashMap<>();
 
-                counter[entry.getValue().ordinal()]++;
+            int remaining = partitions.size();
+            while (remaining > 0) {
+                Pair<EntityReference, Pair<DocumentReference, Action>> entry =
+                    queue.poll(INDEXER_POLL_INTERVAL, TimeUnit.MILLISECONDS);
 
-                this.progressManager.endStep(this);
+                if (entry == null) {
+                    saveCheckpoint(checkpoint, queuedWikis);
+                } else if (entry.getValue() == null) {
+                    // The partition has been fully compared
+                    remaining--;
+                    onPartitionDone(entry.getKey(), failures.get(entry.getKey()), checkpoint, queuedWikis);
+                } else {
+                    this.progressManager.startStep(this);
+
+                    apply(entry.getValue());
+                    counter[entry.getValue().getValue().ordinal()]++;
+                    report.increment();
+
+                    this.progressManager.endStep(this);
+                }
             }
 
             this.logger.info(
                 "{} documents added, {} deleted and {} updated during the synchronization of the Solr index.",
                 counter[Action.ADD.ordinal()], counter[Action.DELETE.ordinal()], counter[Action.UPDATE.ordinal()]);
+
+            // Wait for the indexer to handle the documents of the last wikis before recording them as synchronized
+            waitForIndexer(queuedWikis);
+            saveCheckpoint(checkpoint, queuedWikis);
         } finally {
+            executor.shutdownNow();
+
             this.progressManager.popLevelProgress(this);
         }
+
+        if (!failures.isEmpty()) {
+            SolrIndexerException exception =
+                new SolrIndexerException("Failed to synchronize the Solr index for " + failures.keySet());
+            failures.values().forEach(exception::addSuppressed);
+
+            throw exception;
+        }
+    }
+
+    private void apply(Pair<DocumentReference, Action> entry)
+    {
+        if (entry.getValue() == Action.ADD || entry.getValue() == Action.UPDATE) {
+            // The database entry has not been indexed or the indexed version doesn't match the latest version from
+            // the database.
+            this.indexer.index(entry.getKey(), true);
+        } else if (entry.getValue() == Action.DELETE && getRequest().isRemoveMissing()) {
+            // The index entry doesn't exist anymore in the database.
+            this.indexer.delete(entry.getKey(), true);
+        }
+    }
+
+    private void compare(EntityReference partition,
+        BlockingQueue<Pair<EntityReference, Pair<DocumentReference, Action>>> queue,
+        Map<EntityReference, Exception> failures)
+    {
+        try {
+            DiffDocumentIterator<String> iterator = createDiffIterator(partition);
+            while (iterator.hasNext()) {
+                queue.put(new ImmutablePair<>(partition, iterator.next()));
+            }
+        } catch (InterruptedException e) {
+            failures.put(partition, e);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            failures.put(partition, e);
+        } finally {
+            // Notify the job thread that we are done with this partition, whatever happened. We don't use put() since
+            // the thread might have been interrupted.
+            try {
+                while (!queue.offer(new ImmutablePair<>(partition, null), 1, TimeUnit.SECONDS)) {
+                    // Wait for the job thread to free some space
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void onPartitionDone(EntityReference partition, Exception failure, File checkpoint,
+        Map<String, CompletableFuture<Void>> queuedWikis)
+    {
+        if (failure != null) {
+            this.logger.error("Failed to synchronize the Solr index for [{}].", partition, failure);
+        } else if (checkpoint != null) {
+            // Only wait for the documents queued by this job, not the ones queued by other jobs or modifications
+            queuedWikis.put(partition.getName(), this.indexer.flush());
+
+            saveCheckpoint(checkpoint, queuedWikis);
+        }
+    }
+
+    private void waitForIndexer(Map<String, CompletableFuture<Void>> queuedWikis) throws InterruptedException
+    {
+        if (!queuedWikis.isEmpty()) {
+            try {
+                CompletableFuture.allOf(queuedWikis.values().toArray(new CompletableFuture[0])).get();
+            } catch (CancellationException | ExecutionException e) {
+                this.logger.warn("The Solr indexer was stopped before handling all the synchronized documents.");
+            }
+        }
+    }
+
+    private DiffDocumentIterator<String> createDiffIterator(EntityReference rootReference)
+        throws ComponentLookupException
+    {
+        ComponentManager componentManager = this.componentManagerProvider.get();
+
+        // The iterators are stateful so we need new instances for each partition
+        DocumentIterator<String> solrIterator = componentManager.getInstance(DOCUMENT_ITERATOR_TYPE, "solr");
+        DocumentIterator<String> databaseIterator = componentManager.getInstance(DOCUMENT_ITERATOR_TYPE, "database");
+
+        DiffDocumentIterator<String> iterator = new DiffDocumentIterator<>(solrIterator, databaseIterator);
+        iterator.setRootReference(rootReference);
+
+        return iterator;
+    }
+
+    private List<String> getWikis(EntityReference rootReference) throws Exception
+    {
+        if (rootReference != null) {
+            return Collections.singletonList(rootReference.getName());
+        }
+
+        List<String> wikis = new ArrayList<>(this.wikiDescriptorManager.getAllIds());
+        Collections.sort(wikis);
+
+        return wikis;
+    }
+
+    private File getCheckpointFile(EntityReference rootReference)
+    {
+        String name;
+        if (rootReference == null) {
+            name = "farm";
+        } else {
+            name = "wiki-" + URLEncoder.encode(rootReference.getName(), StandardCharsets.UTF_8);
+        }
+
+        return new File(new File(this.environment.getPermanentDirectory(), CHECKPOINT_DIRECTORY), name);
+    }
+
+    private Set<String> loadCheckpoint(File checkpoint)
+    {
+        if (checkpoint.exists()
+            && checkpoint.lastModified() < System.currentTimeMillis() - CHECKPOINT_EXPIRATION) {
+            this.logger.info("Ignoring the expired checkpoint file [{}].", checkpoint);
+
+            try {
+                Files.deleteIfExists(checkpoint.toPath());
+            } catch (IOException e) {
+                this.logger.warn("Failed to delete the expired checkpoint file [{}].", checkpoint, e);
+            }
+        } else if (checkpoint.exists()) {
+            try {
+                return new HashSet<>(Files.readAllLines(checkpoint.toPath(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                this.logger.warn("Failed to read the checkpoint file [{}], starting the synchronization from scratch.",
+                    checkpoint, e);
+            }
+        }
+
+        return Collections.emptySet();
+    }
+
+    private void saveCheckpoint(File checkpoint, Map<String, CompletableFuture<Void>> queuedWikis)
+    {
+        if (checkpoint == null) {
+            return;
+        }
+
+        // The indexer is asynchronous: only consider a wiki synchronized once the indexer handled all the documents
+        // queued before it was fully compared
+        List<String> synchronizedWikis = new ArrayList<>();
+        for (Iterator<Map.Entry<String, CompletableFuture<Void>>> it = queuedWikis.entrySet().iterator();
+            it.hasNext();) {
+            Map.Entry<String, CompletableFuture<Void>> entry = it.next();
+            if (entry.getValue().isDone()) {
+                it.remove();
+
+                // The wiki will be synchronized again if the indexer was stopped
+                if (!entry.getValue().isCompletedExceptionally()) {
+                    synchronizedWikis.add(entry.getKey());
+                }
+            }
+        }
+
+        if (synchronizedWikis.isEmpty()) {
+            return;
+        }
+
+        try {
+            checkpoint.getParentFile().mkdirs();
+            Files.write(checkpoint.toPath(), synchronizedWikis, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            this.logger.warn("Failed to record the synchronization of {} in the checkpoint file [{}].",
+                synchronizedWikis, checkpoint, e);
+        }
+    }
+
+    /**
+     * Update the throughput and the estimated remaining time of the synchronization in the job status and regularly
+     * log them.
+     *
+     * @version $Id$
+     */
+    private final class SynchronizationReport
+    {
+        private long lastReport = System.currentTimeMillis();
+
+        SynchronizationReport(long total)
+        {
+            getStatus().startSynchronization(total);
+        }
+
+        void increment()
+        {
+            IndexerJobStatus status = getStatus();
+            status.incrementSynchronized();
+
+            long now = System.currentTimeMillis();
+            if (now - this.lastReport >= REPORT_INTERVAL) {
+                this.lastReport = now;
+
+                long remaining = status.getEstimatedRemainingTime();
+                IndexerJob.this.logger.info(
+                    "{} documents out of approximately {} synchronized ({} docs/s, estimated remaining time: {}s).",
+                    status.getSynchronizedCount(), status.getSynchronizationTotal(), status.getThroughput(),
+                    remaining >= 0 ? remaining : "?");
+            }
+        }
     }
 }
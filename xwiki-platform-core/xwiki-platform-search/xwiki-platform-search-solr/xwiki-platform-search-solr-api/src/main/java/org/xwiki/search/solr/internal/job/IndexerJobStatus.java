@@ -0,0 +1,121 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.job;
+
+import org.xwiki.job.DefaultJobStatus;
+import org.xwiki.logging.LoggerManager;
+import org.xwiki.observation.ObservationManager;
+
+/**
+ * The status of the {@link IndexerJob}, which exposes the throughput and the estimated remaining time of the
+ * synchronization of the Solr index with the database.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class IndexerJobStatus extends DefaultJobStatus<IndexerRequest>
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final long SECOND = 1000L;
+
+    private volatile long synchronizationStart;
+
+    private volatile long synchronizationTotal;
+
+    private volatile long synchronizedCount;
+
+    /**
+     * @param jobType the type of the job
+     * @param request the request provided when the job was started
+     * @param observationManager the observation manager
+     * @param loggerManager the logger manager
+     */
+    public IndexerJobStatus(String jobType, IndexerRequest request, ObservationManager observationManager,
+        LoggerManager loggerManager)
+    {
+        super(jobType, request, null, observationManager, loggerManager);
+    }
+
+    /**
+     * Indicate that the documents found different in the database and the index start to be synchronized.
+     *
+     * @param total the approximate number of documents to synchronize
+     */
+    void startSynchronization(long total)
+    {
+        this.synchronizationTotal = total;
+        this.synchronizedCount = 0;
+        this.synchronizationStart = System.currentTimeMillis();
+    }
+
+    /**
+     * Indicate that one more document has been synchronized.
+     */
+    void incrementSynchronized()
+    {
+        // Only the job thread modifies the count
+        this.synchronizedCount++;
+    }
+
+    /**
+     * @return the approximate number of documents to compare between the database and the index
+     */
+    public long getSynchronizationTotal()
+    {
+        return this.synchronizationTotal;
+    }
+
+    /**
+     * @return the number of documents compared between the database and the index so far
+     */
+    public long getSynchronizedCount()
+    {
+        return this.synchronizedCount;
+    }
+
+    /**
+     * @return the number of documents synchronized per second, 0 if the synchronization did not start yet
+     */
+    public long getThroughput()
+    {
+        if (this.synchronizationStart == 0) {
+            return 0;
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - this.synchronizationStart);
+
+        return this.synchronizedCount * SECOND / elapsed;
+    }
+
+    /**
+     * @return the estimated remaining time of the synchronization in seconds, -1 if it's unknown
+     */
+    public long getEstimatedRemainingTime()
+    {
+        long throughput = getThroughput();
+
+        if (throughput <= 0) {
+            return -1;
+        }
+
+        return Math.max(0, this.synchronizationTotal - this.synchronizedCount) / throughput;
+    }
+}
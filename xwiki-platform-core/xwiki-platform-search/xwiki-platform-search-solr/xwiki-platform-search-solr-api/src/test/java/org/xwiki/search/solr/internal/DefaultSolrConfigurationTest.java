@@ -31,6 +31,8 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 /**
@@ -126,4 +128,17 @@ public void synchronizeAtStartupMode()
             DefaultSolrConfiguration.SOLR_SYNCHRONIZE_AT_STARTUP_MODE_DEFAULT.name())).thenReturn("");
         assertEquals(SolrConfiguration.SynchronizeAtStartupMode.FARM, this.configuration.synchronizeAtStartupMode());
     }
+
+    @Test
+    public void getSynchronizationThreads()
+    {
+        when(this.source.getProperty(DefaultSolrConfiguration.SOLR_SYNCHRONIZATION_THREADS,
+            DefaultSolrConfiguration.SOLR_SYNCHRONIZATION_THREADS_DEFAULT)).thenReturn(42);
+
+        assertEquals(42, this.configuration.getSynchronizationThreads());
+
+        // The default of the interface should be the same as the default of the implementation
+        assertEquals(DefaultSolrConfiguration.SOLR_SYNCHRONIZATION_THREADS_DEFAULT,
+            mock(SolrConfiguration.class, CALLS_REAL_METHODS).getSynchronizationThreads());
+    }
 }
@@ -0,0 +1,309 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.job;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.api.SolrIndexerException;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import com.xpn.xwiki.internal.thread.ThreadFactoryManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate the synchronization done by {@link IndexerJob}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class IndexerJobTest
+{
+    private static final Type DOCUMENT_ITERATOR_TYPE =
+        new DefaultParameterizedType(null, DocumentIterator.class, String.class);
+
+    private static final DocumentReference DOCUMENT1 = new DocumentReference("wiki1", "Space", "Page");
+
+    private static final DocumentReference DOCUMENT2 = new DocumentReference("wiki2", "Space", "Page");
+
+    @InjectMockComponents
+    private IndexerJob job;
+
+    @MockComponent
+    private SolrIndexer indexer;
+
+    @MockComponent
+    private SolrConfiguration configuration;
+
+    @MockComponent
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private ThreadFactoryManager threadFactoryManager;
+
+    @MockComponent
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    private final Map<String, List<Pair<DocumentReference, String>>> database = new HashMap<>();
+
+    private final List<String> failingWikis = new ArrayList<>();
+
+    /**
+     * Iterate over the documents of the wiki passed as root reference.
+     */
+    private final class WikiDocumentIterator implements DocumentIterator<String>
+    {
+        private final Map<String, List<Pair<DocumentReference, String>>> documents;
+
+        private List<Pair<DocumentReference, String>> wikiDocuments = Collections.emptyList();
+
+        private Iterator<Pair<DocumentReference, String>> iterator;
+
+        private String wiki;
+
+        WikiDocumentIterator(Map<String, List<Pair<DocumentReference, String>>> documents)
+        {
+            this.documents = documents;
+        }
+
+        @Override
+        public void setRootReference(EntityReference rootReference)
+        {
+            this.wiki = rootReference.getName();
+            this.wikiDocuments = this.documents.getOrDefault(this.wiki, Collections.emptyList());
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (failingWikis.contains(this.wiki)) {
+                throw new RuntimeException("Failed to iterate over " + this.wiki);
+            }
+
+            return getIterator().hasNext();
+        }
+
+        @Override
+        public Pair<DocumentReference, String> next()
+        {
+            return getIterator().next();
+        }
+
+        @Override
+        public long size()
+        {
+            return this.wikiDocuments.size();
+        }
+
+        private Iterator<Pair<DocumentReference, String>> getIterator()
+        {
+            if (this.iterator == null) {
+                this.iterator = this.wikiDocuments.iterator();
+            }
+
+            return this.iterator;
+        }
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.configuration.getSynchronizationThreads()).thenReturn(2);
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        when(this.threadFactoryManager.newThreadFactory(anyString())).thenReturn(Executors.defaultThreadFactory());
+        when(this.wikiDescriptorManager.getAllIds()).thenReturn(Arrays.asList("wiki1", "wiki2"));
+        when(this.indexer.flush()).then(invocation -> CompletableFuture.completedFuture(null));
+
+        ComponentManager componentManager = mock(ComponentManager.class);
+        when(this.componentManagerProvider.get()).thenReturn(componentManager);
+        when(componentManager.getInstance(ExecutionContextManager.class))
+            .thenReturn(mock(ExecutionContextManager.class));
+        when(componentManager.getInstance(Execution.class)).thenReturn(mock(Execution.class));
+        when(componentManager.getInstance(DOCUMENT_ITERATOR_TYPE, "solr"))
+            .then(invocation -> new WikiDocumentIterator(Collections.emptyMap()));
+        when(componentManager.getInstance(DOCUMENT_ITERATOR_TYPE, "database"))
+            .then(invocation -> new WikiDocumentIterator(this.database));
+
+        this.database.put("wiki1", Arrays.asList(new ImmutablePair<>(DOCUMENT1, "1.1")));
+        this.database.put("wiki2", Arrays.asList(new ImmutablePair<>(DOCUMENT2, "1.1")));
+    }
+
+    private File getCheckpoint()
+    {
+        return new File(this.permanentDirectory, "solr/synchronization/farm");
+    }
+
+    private void writeCheckpoint(long lastModified, String... wikis) throws Exception
+    {
+        File checkpoint = getCheckpoint();
+        checkpoint.getParentFile().mkdirs();
+        Files.write(checkpoint.toPath(), Arrays.asList(wikis), StandardCharsets.UTF_8);
+        checkpoint.setLastModified(lastModified);
+    }
+
+    private void runJob() throws Exception
+    {
+        this.job.initialize(new IndexerRequest());
+        this.job.runInternal();
+    }
+
+    @Test
+    void synchronize() throws Exception
+    {
+        runJob();
+
+        verify(this.indexer).index(DOCUMENT1, true);
+        verify(this.indexer).index(DOCUMENT2, true);
+
+        // The synchronization is complete
+        assertFalse(getCheckpoint().exists());
+
+        IndexerJobStatus status = this.job.getStatus();
+        assertEquals(2, status.getSynchronizationTotal());
+        assertEquals(2, status.getSynchronizedCount());
+        // Nothing left to synchronize
+        assertTrue(status.getEstimatedRemainingTime() <= 0);
+    }
+
+    @Test
+    void synchronizeWhileTheIndexerIsBusy() throws Exception
+    {
+        this.failingWikis.add("wiki2");
+        // Other documents are always waiting to be indexed, which should not prevent recording the synchronized wikis
+        when(this.indexer.getQueueSize()).thenReturn(42);
+
+        assertThrows(SolrIndexerException.class, this::runJob);
+
+        assertEquals(Arrays.asList("wiki1"), Files.readAllLines(getCheckpoint().toPath()));
+    }
+
+    @Test
+    void synchronizeWithCheckpoint() throws Exception
+    {
+        writeCheckpoint(System.currentTimeMillis(), "wiki1");
+
+        runJob();
+
+        verify(this.indexer, never()).index(DOCUMENT1, true);
+        verify(this.indexer).index(DOCUMENT2, true);
+        assertFalse(getCheckpoint().exists());
+    }
+
+    @Test
+    void synchronizeWithExpiredCheckpoint() throws Exception
+    {
+        writeCheckpoint(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2), "wiki1");
+
+        runJob();
+
+        verify(this.indexer).index(DOCUMENT1, true);
+        verify(this.indexer).index(DOCUMENT2, true);
+        assertFalse(getCheckpoint().exists());
+    }
+
+    @Test
+    void synchronizeWithFailure() throws Exception
+    {
+        this.failingWikis.add("wiki2");
+
+        SolrIndexerException exception = assertThrows(SolrIndexerException.class, this::runJob);
+
+        assertTrue(exception.getMessage().contains("wiki2"));
+        verify(this.indexer).index(DOCUMENT1, true);
+
+        // The wiki which was synchronized is skipped next time
+        assertEquals(Arrays.asList("wiki1"), Files.readAllLines(getCheckpoint().toPath()));
+    }
+
+    @Test
+    void checkpointWaitsForTheIndexer() throws Exception
+    {
+        this.failingWikis.add("wiki2");
+        // The indexer never handles the queued documents
+        when(this.indexer.flush()).thenReturn(new CompletableFuture<>());
+
+        Thread thread = new Thread(() -> {
+            try {
+                runJob();
+            } catch (Exception e) {
+                // Expected when interrupted
+            }
+        });
+        thread.start();
+
+        verify(this.indexer, timeout(10000)).flush();
+
+        // The job was interrupted before the indexer handled the documents of the first wiki
+        thread.interrupt();
+        thread.join(10000);
+
+        assertFalse(thread.isAlive());
+        assertFalse(getCheckpoint().exists());
+    }
+}
@@ -20,6 +20,7 @@
 package org.xwiki.security.authorization;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Configuration of the {@link AuthorizationManager}.
@@ -34,4 +35,36 @@
      * @return the hints to be used for looking up the authorization settler.
      */
     String getAuthorizationSettler();
+
+    /**
+     * @return true if the accesses loaded in the security cache should be saved in the permanent directory and
+     *         loaded again at startup
+     * @since 15.0RC1
+     */
+    @Unstable
+    default boolean isCacheSnapshotEnabled()
+    {
+        return false;
+    }
+
+    /**
+     * @return the maximum number of accesses to remember in the security cache snapshot
+     * @since 15.0RC1
+     */
+    @Unstable
+    default int getCacheSnapshotSize()
+    {
+        return 10000;
+    }
+
+    /**
+     * @return the number of seconds between two saves of the security cache snapshot, 0 or less means the snapshot
+     *         is only saved when the instance is stopped
+     * @since 15.0RC1
+     */
+    @Unstable
+    default int getCacheSnapshotSaveInterval()
+    {
+        return 0;
+    }
 }
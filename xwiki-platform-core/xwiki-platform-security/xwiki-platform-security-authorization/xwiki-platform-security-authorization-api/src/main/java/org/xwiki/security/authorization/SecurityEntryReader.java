@@ -19,8 +19,12 @@
  */
 package org.xwiki.security.authorization;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.security.SecurityReference;
+import org.xwiki.stability.Unstable;
 
 /**
  * A security rules reader reads rules attached to a given entity.
@@ -41,4 +45,26 @@
      * @throws AuthorizationException on error.
      */
     SecurityRuleEntry read(SecurityReference entityReference) throws AuthorizationException;
+
+    /**
+     * Read the rules attached to several entities at once. Implementations are encouraged to override this method
+     * when reading several entities costs less than reading them one by one (for example to read all the missing
+     * levels of a hierarchy with a single request to the storage).
+     *
+     * @param entityReferences references to the entities
+     * @return the access rules read from the given references, in the same order
+     * @throws AuthorizationException on error
+     * @since 15.0RC1
+     */
+    @Unstable
+    default List<SecurityRuleEntry> read(List<SecurityReference> entityReferences) throws AuthorizationException
+    {
+        List<SecurityRuleEntry> entries = new ArrayList<>(entityReferences.size());
+
+        for (SecurityReference entityReference : entityReferences) {
+            entries.add(read(entityReference));
+        }
+
+        return entries;
+    }
 }
@@ -24,9 +24,11 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -91,6 +93,10 @@ public class DefaultSecurityCacheLoader implements SecurityCacheLoader
     @Inject
     private Provider<AuthorizationSettler> authorizationSettlerProvider;
 
+    /** Remember the loaded accesses to load them again after a restart. */
+    @Inject
+    private SecurityCacheSnapshot snapshot;
+
     /**
      * Implementation of the SecurityRuleEntry.
      */
@@ -154,7 +160,9 @@ public SecurityAccessEntry load(UserSecurityReference user, SecurityReference en
 
             try {
                 retries++;
-                return loadRequiredEntries(user, entity);
+                SecurityAccessEntry accessEntry = loadRequiredEntries(user, entity);
+                this.snapshot.record(user, entity);
+                return accessEntry;
             } catch (ParentEntryEvictedException e) {
                 lastException = e;
                 if (retries < MAX_RETRIES) {
@@ -445,7 +453,9 @@ private Deque<SecurityRuleEntry> getRules(SecurityReference entity)
     {
         Deque<SecurityRuleEntry> rules = new LinkedList<SecurityRuleEntry>();
         List<SecurityRuleEntry> emptyRuleEntryTail = new ArrayList<SecurityRuleEntry>();
-        for (SecurityReference ref : entity.getReversedSecurityReferenceChain()) {
+        Collection<SecurityReference> chain = entity.getReversedSecurityReferenceChain();
+        Map<SecurityReference, SecurityRuleEntry> readEntries = readMissingEntries(chain);
+        for (SecurityReference ref : chain) {
             SecurityRuleEntry entry = getSecurityCache().get(ref);
             if (entry == null) {
                 if (Right.getEnabledRights(ref.getType()).isEmpty()) {
@@ -453,7 +463,11 @@ private Deque<SecurityRuleEntry> getRules(SecurityReference entity)
                     entry = new EmptySecurityRuleEntry(ref);
                     emptyRuleEntryTail.add(entry);
                 } else {
-                    entry = securityEntryReader.read(ref);
+                    entry = readEntries.get(ref);
+                    if (entry == null) {
+                        // Not read in advance (might have been evicted in the meantime)
+                        entry = securityEntryReader.read(ref);
+                    }
                     if (!emptyRuleEntryTail.isEmpty()) {
                         // Add intermediate empty rules sets to the cache to hold this significant one
                         for (SecurityRuleEntry emptyRuleEntry : emptyRuleEntryTail) {
@@ -468,4 +482,40 @@ private Deque<SecurityRuleEntry> getRules(SecurityReference entity)
         }
         return rules;
     }
+
+    /**
+     * Read at once the rules of all the entities of the passed chain which are not yet in the cache.
+     *
+     * @param chain the reversed security reference chain of an entity
+     * @return the read entries, indexed by reference
+     * @throws AuthorizationException on error
+     */
+    private Map<SecurityReference, SecurityRuleEntry> readMissingEntries(Collection<SecurityReference> chain)
+        throws AuthorizationException
+    {
+        List<SecurityReference> missingReferences = new ArrayList<>();
+        for (SecurityReference ref : chain) {
+            if (getSecurityCache().get(ref) == null && !Right.getEnabledRights(ref.getType()).isEmpty()) {
+                missingReferences.add(ref);
+            }
+        }
+
+        // Nothing to gain when there is a single entry to read
+        if (missingReferences.size() < 2) {
+            return Collections.emptyMap();
+        }
+
+        List<SecurityRuleEntry> entries = this.securityEntryReader.read(missingReferences);
+
+        Map<SecurityReference, SecurityRuleEntry> readEntries = new HashMap<>();
+        if (entries != null && entries.size() == missingReferences.size()) {
+            for (int i = 0; i < entries.size(); ++i) {
+                if (entries.get(i) != null) {
+                    readEntries.put(missingReferences.get(i), entries.get(i));
+                }
+            }
+        }
+
+        return readEntries;
+    }
 }
@@ -0,0 +1,416 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.authorization.cache.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.cache.event.AbstractCacheEntryListener;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.security.SecurityReference;
+import org.xwiki.security.SecurityReferenceFactory;
+import org.xwiki.security.UserSecurityReference;
+import org.xwiki.security.authorization.AuthorizationManagerConfiguration;
+import org.xwiki.security.authorization.cache.SecurityCache;
+import org.xwiki.security.authorization.cache.SecurityCacheLoader;
+
+/**
+ * Default implementation of {@link SecurityCacheSnapshot}.
+ * <p>
+ * The snapshot only contains the (user, entity) pairs which were most recently loaded in the cache. The rules
+ * themselves are read again from the wiki when replaying the snapshot, which means it's impossible to end up with
+ * stale rules or group memberships in the cache, whatever happened to the wiki while the instance was down.
+ * <p>
+ * The recorded accesses are kept in a LRU cache bounded by the configured snapshot size. Since the cache cannot be
+ * iterated, the accesses it currently contains are also indexed by key, the index being maintained by listening to the
+ * cache entries additions and removals (including evictions).
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Singleton
+public class DefaultSecurityCacheSnapshot implements SecurityCacheSnapshot, Initializable, Disposable
+{
+    private static final String SNAPSHOT_PATH = "security/authorization/cache.snapshot";
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final char KEY_SEPARATOR = ':';
+
+    @Inject
+    private AuthorizationManagerConfiguration configuration;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private Provider<Environment> environmentProvider;
+
+    @Inject
+    private Provider<SecurityCacheLoader> loaderProvider;
+
+    @Inject
+    private Provider<SecurityCache> securityCacheProvider;
+
+    @Inject
+    private Provider<SecurityReferenceFactory> securityReferenceFactoryProvider;
+
+    @Inject
+    private Logger logger;
+
+    private boolean enabled;
+
+    private Cache<Access> cache;
+
+    /**
+     * The accesses currently stored in the cache, indexed by cache key.
+     */
+    private final Map<String, Access> accesses = new ConcurrentHashMap<>();
+
+    private final CacheEntryListener<Access> cacheListener = new AbstractCacheEntryListener<Access>()
+    {
+        @Override
+        public void cacheEntryAdded(CacheEntryEvent<Access> event)
+        {
+            DefaultSecurityCacheSnapshot.this.accesses.put(event.getEntry().getKey(), event.getEntry().getValue());
+        }
+
+        @Override
+        public void cacheEntryRemoved(CacheEntryEvent<Access> event)
+        {
+            DefaultSecurityCacheSnapshot.this.accesses.remove(event.getEntry().getKey());
+        }
+    };
+
+    private ScheduledExecutorService executor;
+
+    private static final class Access
+    {
+        private final EntityReference user;
+
+        private final EntityReference entity;
+
+        private Access(EntityReference user, EntityReference entity)
+        {
+            this.user = user;
+            this.entity = entity;
+        }
+
+        private String getKey()
+        {
+            StringBuilder builder = new StringBuilder();
+
+            appendKey(this.user, builder);
+            builder.append('\n');
+            appendKey(this.entity, builder);
+
+            return builder.toString();
+        }
+
+        private static void appendKey(EntityReference reference, StringBuilder builder)
+        {
+            if (reference != null) {
+                for (EntityReference element : reference.getReversedReferenceChain()) {
+                    // Prefix the name with its length so that it can contain any character
+                    builder.append(element.getType().ordinal());
+                    builder.append(KEY_SEPARATOR);
+                    builder.append(element.getName().length());
+                    builder.append(KEY_SEPARATOR);
+                    builder.append(element.getName());
+                }
+            }
+        }
+
+        private boolean involves(EntityReference reference)
+        {
+            return involves(this.user, reference) || involves(this.entity, reference);
+        }
+
+        private static boolean involves(EntityReference accessReference, EntityReference reference)
+        {
+            return accessReference != null
+                && (accessReference.equals(reference) || accessReference.hasParent(reference));
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Access)) {
+                return false;
+            }
+
+            Access other = (Access) obj;
+
+            return Objects.equals(this.user, other.user) && Objects.equals(this.entity, other.entity);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(this.user, this.entity);
+        }
+    }
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.enabled = this.configuration.isCacheSnapshotEnabled();
+
+        if (this.enabled) {
+            try {
+                this.cache = this.cacheManager.createNewCache(new LRUCacheConfiguration(
+                    "security.authorization.snapshot", this.configuration.getCacheSnapshotSize()));
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to create the security cache snapshot", e);
+            }
+            this.cache.addCacheEntryListener(this.cacheListener);
+
+            int interval = this.configuration.getCacheSnapshotSaveInterval();
+            if (interval > 0) {
+                this.executor = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                    .namingPattern("Security cache snapshot").daemon(true).build());
+                this.executor.scheduleWithFixedDelay(this::save, interval, interval, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.enabled) {
+            if (this.executor != null) {
+                this.executor.shutdownNow();
+            }
+
+            save();
+
+            this.cache.removeCacheEntryListener(this.cacheListener);
+            this.cache.dispose();
+        }
+    }
+
+    @Override
+    public void record(UserSecurityReference user, SecurityReference entity)
+    {
+        if (this.enabled) {
+            Access access =
+                new Access(user.getOriginalDocumentReference(), entity != null ? entity.getOriginalReference() : null);
+
+            this.cache.set(access.getKey(), access);
+        }
+    }
+
+    @Override
+    public void remove(EntityReference reference)
+    {
+        if (this.enabled) {
+            for (Map.Entry<String, Access> entry : this.accesses.entrySet()) {
+                if (entry.getValue().involves(reference)) {
+                    this.cache.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void replay()
+    {
+        if (!this.enabled) {
+            return;
+        }
+
+        File file = getFile();
+        if (!file.exists()) {
+            return;
+        }
+
+        List<Access> snapshot;
+        try {
+            snapshot = read(file);
+        } catch (Exception e) {
+            this.logger.warn("Failed to read the security cache snapshot [{}]: {}", file, e.getMessage());
+
+            return;
+        }
+
+        this.logger.info("Loading [{}] accesses from the security cache snapshot", snapshot.size());
+
+        long start = System.currentTimeMillis();
+        int loaded = 0;
+        for (Access access : snapshot) {
+            if (replay(access)) {
+                ++loaded;
+            }
+        }
+
+        this.logger.info("Loaded [{}] accesses from the security cache snapshot in [{}] ms", loaded,
+            System.currentTimeMillis() - start);
+    }
+
+    private boolean replay(Access access)
+    {
+        SecurityReferenceFactory factory = this.securityReferenceFactoryProvider.get();
+
+        try {
+            UserSecurityReference user =
+                factory.newUserReference(access.user != null ? new DocumentReference(access.user) : null);
+            SecurityReference entity = access.entity != null ? factory.newEntityReference(access.entity) : null;
+
+            if (entity == null || this.securityCacheProvider.get().get(user, entity) == null) {
+                this.loaderProvider.get().load(user, entity);
+            }
+
+            return true;
+        } catch (Exception e) {
+            // The entity or the user might not exist anymore
+            this.logger.debug("Failed to load the access of user [{}] on entity [{}]", access.user, access.entity, e);
+
+            return false;
+        }
+    }
+
+    @Override
+    public void save()
+    {
+        if (!this.enabled) {
+            return;
+        }
+
+        List<Access> snapshot = new ArrayList<>(this.accesses.values());
+
+        File file = getFile();
+        try {
+            write(snapshot, file);
+        } catch (Exception e) {
+            this.logger.warn("Failed to save the security cache snapshot [{}]: {}", file, e.getMessage());
+        }
+    }
+
+    private File getFile()
+    {
+        return new File(this.environmentProvider.get().getPermanentDirectory(), SNAPSHOT_PATH);
+    }
+
+    private void write(List<Access> snapshot, File file) throws IOException
+    {
+        file.getParentFile().mkdirs();
+
+        // Write in a temporary file first to never end up with a half written snapshot
+        File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream stream =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+            stream.writeInt(FORMAT_VERSION);
+            stream.writeInt(snapshot.size());
+            for (Access access : snapshot) {
+                writeReference(access.user, stream);
+                writeReference(access.entity, stream);
+            }
+        }
+
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeReference(EntityReference reference, DataOutputStream stream) throws IOException
+    {
+        if (reference == null) {
+            stream.writeInt(0);
+        } else {
+            List<EntityReference> elements = reference.getReversedReferenceChain();
+            stream.writeInt(elements.size());
+            for (EntityReference element : elements) {
+                stream.writeUTF(element.getType().name());
+                stream.writeUTF(element.getName());
+            }
+        }
+    }
+
+    private List<Access> read(File file) throws IOException
+    {
+        try (DataInputStream stream =
+            new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            int version = stream.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version [" + version + "]");
+            }
+
+            int size = stream.readInt();
+            List<Access> snapshot = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                EntityReference user = readReference(stream);
+                EntityReference entity = readReference(stream);
+                snapshot.add(new Access(user, entity));
+            }
+
+            return snapshot;
+        }
+    }
+
+    private EntityReference readReference(DataInputStream stream) throws IOException
+    {
+        EntityReference reference = null;
+
+        int size = stream.readInt();
+        for (int i = 0; i < size; ++i) {
+            EntityType type = EntityType.valueOf(stream.readUTF());
+            reference = new EntityReference(stream.readUTF(), type, reference);
+        }
+
+        return reference;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.authorization.cache.internal;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.security.SecurityReference;
+import org.xwiki.security.UserSecurityReference;
+
+/**
+ * Remember the accesses loaded in the security cache so that they can be loaded again (before serving any request)
+ * after a restart.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Role
+public interface SecurityCacheSnapshot
+{
+    /**
+     * Remember that the access of a user to an entity was loaded in the cache.
+     *
+     * @param user the user
+     * @param entity the entity, {@code null} for the default access of the user in its wiki
+     */
+    void record(UserSecurityReference user, SecurityReference entity);
+
+    /**
+     * Forget all the accesses involving the passed entity (or one of its children).
+     *
+     * @param reference the reference of the entity which does not exist anymore
+     */
+    void remove(EntityReference reference);
+
+    /**
+     * Load in the security cache the accesses found in the saved snapshot.
+     */
+    void replay();
+
+    /**
+     * Save the remembered accesses in the permanent directory.
+     */
+    void save();
+}
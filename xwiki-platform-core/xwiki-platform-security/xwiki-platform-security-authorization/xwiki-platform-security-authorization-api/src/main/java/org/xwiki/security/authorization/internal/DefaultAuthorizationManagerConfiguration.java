@@ -45,6 +45,12 @@ public class DefaultAuthorizationManagerConfiguration extends AbstractSecurityCo
     /** Prefix for right resolver configuration keys. */
     private static final String SETTLER = AUTHORIZATION + ".settler";
 
+    /** Prefix for security cache snapshot configuration keys. */
+    private static final String CACHE_SNAPSHOT = AUTHORIZATION + ".cache.snapshot";
+
+    /** Default maximum number of accesses in the security cache snapshot. */
+    private static final int DEFAULT_CACHE_SNAPSHOT_SIZE = 10000;
+
     /** Default hint for component manager. */
     private static final String DEFAULT_SETTLER = "default";
 
@@ -58,4 +64,22 @@ public String getAuthorizationSettler()
     {
         return configuration.getProperty(SETTLER, DEFAULT_SETTLER);
     }
+
+    @Override
+    public boolean isCacheSnapshotEnabled()
+    {
+        return configuration.getProperty(CACHE_SNAPSHOT + ".enabled", false);
+    }
+
+    @Override
+    public int getCacheSnapshotSize()
+    {
+        return configuration.getProperty(CACHE_SNAPSHOT + ".size", DEFAULT_CACHE_SNAPSHOT_SIZE);
+    }
+
+    @Override
+    public int getCacheSnapshotSaveInterval()
+    {
+        return configuration.getProperty(CACHE_SNAPSHOT + ".saveInterval", 0);
+    }
 }
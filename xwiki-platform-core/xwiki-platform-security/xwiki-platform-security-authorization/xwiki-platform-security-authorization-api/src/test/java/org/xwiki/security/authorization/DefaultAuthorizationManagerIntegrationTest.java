@@ -51,6 +51,7 @@
 import org.xwiki.security.authorization.cache.SecurityCacheRulesInvalidator;
 import org.xwiki.security.authorization.cache.internal.DefaultSecurityCache;
 import org.xwiki.security.authorization.cache.internal.DefaultSecurityCacheLoader;
+import org.xwiki.security.authorization.cache.internal.SecurityCacheSnapshot;
 import org.xwiki.security.authorization.cache.internal.TestCache;
 import org.xwiki.security.authorization.internal.AbstractSecurityRuleEntry;
 import org.xwiki.security.authorization.internal.DefaultAuthorizationSettler;
@@ -135,6 +136,10 @@ class DefaultAuthorizationManagerIntegrationTest extends AbstractAuthorizationTe
     @MockComponent
     private SecurityCacheRulesInvalidator securityCacheRulesInvalidator;
 
+    /** Mocked securityCacheSnapshot */
+    @MockComponent
+    private SecurityCacheSnapshot securityCacheSnapshot;
+
     /** Mocked cache */
     private TestCache<Object> cache;
 
@@ -20,10 +20,12 @@
 
 package org.xwiki.security.authorization.cache.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -59,8 +61,11 @@
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -101,6 +106,7 @@ public EntityReference answer(InvocationOnMock invocation) throws Throwable
         mocker.registerMockComponent(SecurityEntryReader.class);
         mocker.registerMockComponent(UserBridge.class);
         mocker.registerMockComponent(AuthorizationSettler.class);
+        mocker.registerMockComponent(SecurityCacheSnapshot.class);
         securityCacheLoader = mocker.getInstance(SecurityCacheLoader.class);
     }
 
@@ -162,4 +168,45 @@ public void loadWithConflictingInsertionException() throws Exception
             "Failed to load the cache in 5 attempts. Giving up. For user [Document wiki:Users.mflorea] and entity [Document wiki:Space.Document].",
             this.logRule.getMessage(0));
     }
+
+    @Test
+    public void loadReadsMissingEntriesAtOnce() throws Exception
+    {
+        DocumentReference userReference = new DocumentReference("wiki", "Users", "mflorea");
+        UserSecurityReference user = securityReferenceFactory.newUserReference(userReference);
+
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Document");
+        SecurityReference entity = securityReferenceFactory.newEntityReference(documentReference);
+        List<SecurityReference> chain = new ArrayList<>(entity.getReversedSecurityReferenceChain());
+
+        List<SecurityRuleEntry> entries = new ArrayList<>();
+        for (SecurityReference reference : chain) {
+            SecurityRuleEntry entry = mock(SecurityRuleEntry.class);
+            when(entry.getReference()).thenReturn(reference);
+            entries.add(entry);
+        }
+
+        SecurityEntryReader securityEntryReader = mocker.getInstance(SecurityEntryReader.class);
+        when(securityEntryReader.read(chain)).thenReturn(entries);
+
+        // The user and its groups are already in the cache
+        SecurityCache securityCache = mocker.getInstance(org.xwiki.security.authorization.cache.SecurityCache.class);
+        when(securityCache.getGroupsFor(user, null)).thenReturn(Collections.emptySet());
+
+        SecurityAccessEntry securityAccessEntry = mock(SecurityAccessEntry.class);
+        AuthorizationSettler authorizationSettler = mocker.getInstance(AuthorizationSettler.class);
+        Deque<SecurityRuleEntry> securityRuleEntries = new LinkedList<>();
+        entries.forEach(securityRuleEntries::push);
+        when(authorizationSettler.settle(user, Collections.emptySet(), securityRuleEntries))
+            .thenReturn(securityAccessEntry);
+
+        assertEquals(securityAccessEntry, securityCacheLoader.load(user, entity));
+
+        // All the levels were read with a single call and added to the cache
+        verify(securityEntryReader).read(anyList());
+        verify(securityEntryReader, never()).read(any(SecurityReference.class));
+        for (SecurityRuleEntry entry : entries) {
+            verify(securityCache).add(entry);
+        }
+    }
 }
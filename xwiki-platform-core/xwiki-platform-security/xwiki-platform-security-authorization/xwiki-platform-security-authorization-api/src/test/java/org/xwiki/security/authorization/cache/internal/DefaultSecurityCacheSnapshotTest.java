@@ -0,0 +1,179 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.authorization.cache.internal;
+
+import java.io.File;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.security.SecurityReference;
+import org.xwiki.security.SecurityReferenceFactory;
+import org.xwiki.security.UserSecurityReference;
+import org.xwiki.security.authorization.AuthorizationManagerConfiguration;
+import org.xwiki.security.authorization.SecurityAccessEntry;
+import org.xwiki.security.authorization.cache.SecurityCache;
+import org.xwiki.security.authorization.cache.SecurityCacheLoader;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link DefaultSecurityCacheSnapshot}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultSecurityCacheSnapshotTest
+{
+    private static final DocumentReference USER_REFERENCE = new DocumentReference("wiki", "XWiki", "user");
+
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    private static final DocumentReference OTHER_DOCUMENT_REFERENCE = new DocumentReference("wiki", "Other", "Page");
+
+    @InjectMockComponents
+    private DefaultSecurityCacheSnapshot snapshot;
+
+    @MockComponent
+    private AuthorizationManagerConfiguration configuration;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    @MockComponent
+    private SecurityCacheLoader loader;
+
+    @MockComponent
+    private SecurityCache securityCache;
+
+    @MockComponent
+    private SecurityReferenceFactory securityReferenceFactory;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    private UserSecurityReference user;
+
+    private SecurityReference document;
+
+    private SecurityReference otherDocument;
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        when(this.configuration.isCacheSnapshotEnabled()).thenReturn(true);
+        when(this.configuration.getCacheSnapshotSize()).thenReturn(10);
+        when(this.cacheManager.createNewCache(any(CacheConfiguration.class))).thenReturn(new TestCache<>());
+    }
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+
+        this.user = mock(UserSecurityReference.class);
+        when(this.user.getOriginalDocumentReference()).thenReturn(USER_REFERENCE);
+        when(this.securityReferenceFactory.newUserReference(USER_REFERENCE)).thenReturn(this.user);
+
+        this.document = mock(SecurityReference.class, "document");
+        when(this.document.getOriginalReference()).thenReturn(DOCUMENT_REFERENCE);
+        when(this.securityReferenceFactory.newEntityReference(DOCUMENT_REFERENCE)).thenReturn(this.document);
+
+        this.otherDocument = mock(SecurityReference.class, "otherDocument");
+        when(this.otherDocument.getOriginalReference()).thenReturn(OTHER_DOCUMENT_REFERENCE);
+        when(this.securityReferenceFactory.newEntityReference(OTHER_DOCUMENT_REFERENCE))
+            .thenReturn(this.otherDocument);
+    }
+
+    @Test
+    void saveAndReplay() throws Exception
+    {
+        this.snapshot.replay();
+
+        verify(this.loader, never()).load(any(), any());
+
+        this.snapshot.record(this.user, this.document);
+        this.snapshot.record(this.user, this.otherDocument);
+        this.snapshot.save();
+
+        assertTrue(new File(this.permanentDirectory, "security/authorization/cache.snapshot").exists());
+
+        this.snapshot.replay();
+
+        verify(this.loader).load(this.user, this.document);
+        verify(this.loader).load(this.user, this.otherDocument);
+    }
+
+    @Test
+    void remove() throws Exception
+    {
+        this.snapshot.record(this.user, this.document);
+        this.snapshot.record(this.user, this.otherDocument);
+
+        this.snapshot.remove(DOCUMENT_REFERENCE.getLastSpaceReference());
+        this.snapshot.save();
+        this.snapshot.replay();
+
+        verify(this.loader, never()).load(this.user, this.document);
+        verify(this.loader).load(this.user, this.otherDocument);
+    }
+
+    @Test
+    void recordSameAccessTwice() throws Exception
+    {
+        this.snapshot.record(this.user, this.document);
+        this.snapshot.record(this.user, this.document);
+        this.snapshot.save();
+        this.snapshot.replay();
+
+        verify(this.loader).load(this.user, this.document);
+    }
+
+    @Test
+    void replayWhenAlreadyCached() throws Exception
+    {
+        this.snapshot.record(this.user, this.document);
+        this.snapshot.save();
+
+        when(this.securityCache.get(this.user, this.document)).thenReturn(mock(SecurityAccessEntry.class));
+
+        this.snapshot.replay();
+
+        verify(this.loader, never()).load(this.user, this.document);
+        assertFalse(new File(this.permanentDirectory, "security/authorization/cache.snapshot.tmp").exists());
+    }
+}
@@ -22,7 +22,9 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -35,6 +37,7 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
@@ -57,8 +60,6 @@
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
-import com.xpn.xwiki.doc.XWikiDocument;
-import com.xpn.xwiki.objects.BaseObject;
 
 /**
  * The default implementation of the security rules reader, which reads rules from documents in a wiki.
@@ -82,6 +83,10 @@ public class DefaultSecurityEntryReader implements SecurityEntryReader
     /** Right set allowed for document creators. */
     private static final Set<Right> CREATOR_RIGHTS = new RightSet(Right.CREATOR);
 
+    private static final String PROPNAME_RIGHTSLOADER = "security.authorization.rightsLoader";
+
+    private static final String DEFAULT_RIGHTSLOADER = "document";
+
     /** Resolver for user and group names. */
     @Inject
     @Named("user")
@@ -94,6 +99,14 @@ public class DefaultSecurityEntryReader implements SecurityEntryReader
     @Inject
     private Provider<XWikiContext> xcontextProvider;
 
+    @Inject
+    @Named(DEFAULT_RIGHTSLOADER)
+    private RightsLoader documentLoader;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
     @Inject
     private Logger logger;
 
@@ -153,6 +166,29 @@ public String toString()
         }
     }
 
+    /**
+     * The documents and classes to read for a given entity.
+     */
+    private static final class EntityTarget
+    {
+        private final SecurityReference entity;
+
+        private final DocumentReference documentReference;
+
+        private final DocumentReference classReference;
+
+        private final WikiReference wikiReference;
+
+        private EntityTarget(SecurityReference entity, DocumentReference documentReference,
+            DocumentReference classReference, WikiReference wikiReference)
+        {
+            this.entity = entity;
+            this.documentReference = documentReference;
+            this.classReference = classReference;
+            this.wikiReference = wikiReference;
+        }
+    }
+
     /**
      * Load the rules from wiki documents.
      *
@@ -168,10 +204,49 @@ public SecurityRuleEntry read(SecurityReference entity) throws AuthorizationExce
             return null;
         }
 
-        if (entity.getOriginalReference() == null) {
-            // Public users (not logged in) are not stored anywhere and does not have their own rules
-            // More generally, any reference without a valid original reference should not be considered.
-            return new InternalSecurityRuleEntry(entity, Collections.<SecurityRule>emptyList());
+        return read(Collections.singletonList(entity)).get(0);
+    }
+
+    @Override
+    public List<SecurityRuleEntry> read(List<SecurityReference> entities) throws AuthorizationException
+    {
+        List<EntityTarget> targets = new ArrayList<>(entities.size());
+        Set<DocumentReference> documentReferences = new LinkedHashSet<>();
+        for (SecurityReference entity : entities) {
+            EntityTarget target = getTarget(entity);
+            targets.add(target);
+            if (target != null) {
+                documentReferences.add(target.documentReference);
+            }
+        }
+
+        // Load all the documents at once
+        Map<DocumentReference, RightsDocument> documents = documentReferences.isEmpty() ? Collections.emptyMap()
+            : getRightsLoader().load(documentReferences);
+
+        List<SecurityRuleEntry> entries = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); ++i) {
+            SecurityReference entity = entities.get(i);
+            EntityTarget target = targets.get(i);
+
+            if (entity == null) {
+                entries.add(null);
+            } else if (target == null) {
+                // Public users (not logged in) are not stored anywhere and does not have their own rules
+                // More generally, any reference without a valid original reference should not be considered.
+                entries.add(new InternalSecurityRuleEntry(entity, Collections.<SecurityRule>emptyList()));
+            } else {
+                entries.add(read(target, documents.get(target.documentReference)));
+            }
+        }
+
+        return entries;
+    }
+
+    private EntityTarget getTarget(SecurityReference entity) throws EntityTypeNotSupportedException
+    {
+        if (entity == null || entity.getOriginalReference() == null) {
+            return null;
         }
 
         DocumentReference documentReference;
@@ -201,20 +276,26 @@ public SecurityRuleEntry read(SecurityReference entity) throws AuthorizationExce
                 throw new EntityTypeNotSupportedException(entity.getType(), this);
         }
 
+        return new EntityTarget(entity, documentReference, classReference, wikiReference);
+    }
+
+    private SecurityRuleEntry read(EntityTarget target, RightsDocument document) throws AuthorizationException
+    {
         // Get standard rules
-        Collection<SecurityRule> rules = getSecurityRules(documentReference, classReference, wikiReference);
+        Collection<SecurityRule> rules =
+            getSecurityRules(target.documentReference, target.classReference, target.wikiReference, document);
 
         // Add extras rules
         XWikiContext xcontext = this.xcontextProvider.get();
         WikiReference currentWikiReference = xcontext.getWikiReference();
         try {
             // Switch to checked entity's wiki to get the right components
-            xcontext.setWikiReference(wikiReference);
+            xcontext.setWikiReference(target.wikiReference);
 
             List<SecurityEntryReaderExtra> extras =
                 this.componentManagerProvider.get().getInstanceList(SecurityEntryReaderExtra.class);
             for (SecurityEntryReaderExtra extra : extras) {
-                Collection<SecurityRule> extraRules = extra.read(entity);
+                Collection<SecurityRule> extraRules = extra.read(target.entity);
                 if (extraRules != null) {
                     rules.addAll(extraRules);
                 }
@@ -225,30 +306,22 @@ public SecurityRuleEntry read(SecurityReference entity) throws AuthorizationExce
             xcontext.setWikiReference(currentWikiReference);
         }
 
-        return new InternalSecurityRuleEntry(entity, rules);
+        return new InternalSecurityRuleEntry(target.entity, rules);
     }
 
-    /**
-     * Get the document.
-     * 
-     * @param documentReference reference to the document to be loaded.
-     * @return a list of matching base objects, or null if none where found.
-     * @throws AuthorizationException if an unexpected error occurs during retrieval.
-     */
-    private XWikiDocument getDocument(DocumentReference documentReference) throws AuthorizationException
+    private RightsLoader getRightsLoader()
     {
-        XWikiContext context = this.xcontextProvider.get();
+        String hint = this.configuration.getProperty(PROPNAME_RIGHTSLOADER, DEFAULT_RIGHTSLOADER);
 
-        try {
-            XWikiDocument doc = context.getWiki().getDocument(documentReference, context);
-            if (doc == null || doc.isNew()) {
-                return null;
+        if (hint != null && !DEFAULT_RIGHTSLOADER.equals(hint)) {
+            try {
+                return this.componentManagerProvider.get().getInstance(RightsLoader.class, hint);
+            } catch (ComponentLookupException e) {
+                this.logger.error("Failed to lookup the rights loader with hint [{}], using the default one", hint, e);
             }
-            return doc;
-        } catch (XWikiException e) {
-            throw new AuthorizationException(documentReference,
-                "Could not retrieve the document to check security access", e);
         }
+
+        return this.documentLoader;
     }
 
     /**
@@ -276,20 +349,21 @@ private DocumentReference getWikiOwner(WikiReference wikiReference) throws Autho
     }
 
     /**
-     * Read right objects from an XWikiDocument and return them as XWikiSecurityRule.
+     * Read right objects from a document and return them as XWikiSecurityRule.
      * 
      * @param documentReference reference to document to read
      * @param classReference reference to the right class to read
      * @param wikiReference reference to the wiki of the document
+     * @param doc the rights related information of the document or {@code null} if it does not exist
      * @return a collection of rules read from the document
      * @throws AuthorizationException on error reading object from the document
      */
     private Collection<SecurityRule> getSecurityRules(DocumentReference documentReference,
-        DocumentReference classReference, WikiReference wikiReference) throws AuthorizationException
+        DocumentReference classReference, WikiReference wikiReference, RightsDocument doc)
+        throws AuthorizationException
     {
         boolean isGlobalRightsReference = isGlobalRightsReference(documentReference);
         boolean isGlobalRightRequested = classReference.getName().equals(XWikiConstants.GLOBAL_CLASSNAME);
-        XWikiDocument doc = getDocument(documentReference);
 
         // Get implied rules (creator, owner, global rights restriction)
         List<SecurityRule> securityRules =
@@ -300,23 +374,19 @@ private Collection<SecurityRule> getSecurityRules(DocumentReference documentRefe
         }
 
         // Convert existing rules on the entity
-        List<BaseObject> baseObjects = doc.getXObjects(classReference);
-        if (baseObjects != null) {
-            for (BaseObject obj : baseObjects) {
-                if (obj != null) {
-                    SecurityRule rule;
-                    try {
-                        // Thanks to the resolver, the users and groups listed by the rights object, inherit
-                        // the wiki from the document, unless explicitly given.
-                        rule = XWikiSecurityRule.createNewRule(obj, resolver, wikiReference,
-                            isGlobalRightsReference && !isGlobalRightRequested);
-                    } catch (IllegalArgumentException e) {
-                        // Do not add badly formed security rules.
-                        continue;
-                    }
-                    securityRules.add(rule);
-                }
+        String className = XWikiConstants.XWIKI_SPACE + '.' + classReference.getName();
+        for (RightsObject obj : doc.getObjects(className)) {
+            SecurityRule rule;
+            try {
+                // Thanks to the resolver, the users and groups listed by the rights object, inherit
+                // the wiki from the document, unless explicitly given.
+                rule = XWikiSecurityRule.createNewRule(obj, resolver, wikiReference,
+                    isGlobalRightsReference && !isGlobalRightRequested);
+            } catch (IllegalArgumentException e) {
+                // Do not add badly formed security rules.
+                continue;
             }
+            securityRules.add(rule);
         }
 
         return securityRules;
@@ -332,7 +402,7 @@ private Collection<SecurityRule> getSecurityRules(DocumentReference documentRefe
      * @return a list of implied security rules, or an empty list of there none.
      * @throws AuthorizationException if anything goes wrong.
      */
-    private List<SecurityRule> getImpliedRules(DocumentReference documentReference, XWikiDocument document,
+    private List<SecurityRule> getImpliedRules(DocumentReference documentReference, RightsDocument document,
         boolean isGlobalRightsReference, boolean isGlobalRightRequested) throws AuthorizationException
     {
         List<SecurityRule> rules = new ArrayList<>();
@@ -0,0 +1,130 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.authorization.internal;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.security.authorization.AuthorizationException;
+import org.xwiki.security.internal.XWikiConstants;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.ListProperty;
+import com.xpn.xwiki.objects.PropertyInterface;
+
+/**
+ * Load the rights related information from the whole {@link XWikiDocument} (which end up in the document cache).
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Named("document")
+@Singleton
+public class DocumentRightsLoader implements RightsLoader
+{
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Override
+    public Map<DocumentReference, RightsDocument> load(Collection<DocumentReference> documentReferences)
+        throws AuthorizationException
+    {
+        Map<DocumentReference, RightsDocument> documents = new HashMap<>();
+
+        for (DocumentReference documentReference : documentReferences) {
+            XWikiDocument document = getDocument(documentReference);
+
+            if (document != null) {
+                RightsDocument rightsDocument =
+                    new RightsDocument(documentReference, document.getCreatorReference());
+
+                addObjects(document, XWikiConstants.LOCAL_CLASS, XWikiConstants.LOCAL_CLASS_REFERENCE,
+                    rightsDocument);
+                addObjects(document, XWikiConstants.GLOBAL_CLASS, XWikiConstants.GLOBAL_CLASS_REFERENCE,
+                    rightsDocument);
+
+                documents.put(documentReference, rightsDocument);
+            }
+        }
+
+        return documents;
+    }
+
+    private void addObjects(XWikiDocument document, String className, LocalDocumentReference classReference,
+        RightsDocument rightsDocument)
+    {
+        List<BaseObject> baseObjects = document.getXObjects(classReference);
+        if (baseObjects != null) {
+            for (BaseObject baseObject : baseObjects) {
+                if (baseObject != null) {
+                    RightsObject object = new RightsObject(className, baseObject.getNumber());
+
+                    object.setAllow(baseObject.getIntValue(XWikiConstants.ALLOW_FIELD_NAME));
+                    object.setLevels(getStringValue(baseObject, XWikiConstants.LEVELS_FIELD_NAME));
+                    object.setUsers(getStringValue(baseObject, XWikiConstants.USERS_FIELD_NAME));
+                    object.setGroups(getStringValue(baseObject, XWikiConstants.GROUPS_FIELD_NAME));
+
+                    rightsDocument.addObject(object);
+                }
+            }
+        }
+    }
+
+    private String getStringValue(BaseObject baseObject, String propertyName)
+    {
+        PropertyInterface property = baseObject.safeget(propertyName);
+
+        if (property instanceof ListProperty) {
+            return RightsObject.serializeList(((ListProperty) property).getList());
+        }
+
+        return baseObject.getStringValue(propertyName);
+    }
+
+    private XWikiDocument getDocument(DocumentReference documentReference) throws AuthorizationException
+    {
+        XWikiContext context = this.xcontextProvider.get();
+
+        try {
+            XWikiDocument doc = context.getWiki().getDocument(documentReference, context);
+            if (doc == null || doc.isNew()) {
+                return null;
+            }
+            return doc;
+        } catch (XWikiException e) {
+            throw new AuthorizationException(documentReference,
+                "Could not retrieve the document to check security access", e);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.authorization.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.security.authorization.AuthorizationException;
+import org.xwiki.security.internal.XWikiConstants;
+
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.objects.DBStringListProperty;
+import com.xpn.xwiki.objects.IntegerProperty;
+import com.xpn.xwiki.objects.LargeStringProperty;
+import com.xpn.xwiki.objects.StringListProperty;
+import com.xpn.xwiki.objects.StringProperty;
+import com.xpn.xwiki.objects.classes.ListClass;
+
+/**
+ * Load the rights related information directly from the database, without instantiating (and caching) the whole
+ * {@link com.xpn.xwiki.doc.XWikiDocument}. All the documents located in the same wiki are loaded with a fixed number
+ * of queries.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Named("hibernate")
+@Singleton
+public class HibernateRightsLoader implements RightsLoader
+{
+    private static final String NAMES = "names";
+
+    private static final String CLASSES = "classes";
+
+    private static final String VALUE = "value";
+
+    private static final List<String> RIGHTS_CLASSES =
+        Arrays.asList(XWikiConstants.LOCAL_CLASS, XWikiConstants.GLOBAL_CLASS);
+
+    private static final String DOCUMENTS_STATEMENT = "select doc.fullName, doc.creator from XWikiDocument doc "
+        + "where doc.fullName in (:names) and (doc.language is null or doc.language = '')";
+
+    private static final String PROPERTIES = "properties";
+
+    private static final String CLASSTYPE = "classType";
+
+    private static final List<String> PROPERTY_NAMES = Arrays.asList(XWikiConstants.ALLOW_FIELD_NAME,
+        XWikiConstants.LEVELS_FIELD_NAME, XWikiConstants.USERS_FIELD_NAME, XWikiConstants.GROUPS_FIELD_NAME);
+
+    // The class type is checked because some mappings share the same table (LargeStringProperty and
+    // StringListProperty) and would otherwise return the properties stored with the other mapping
+    private static final String PROPERTIES_WHERE = " where obj.id = prop.id.id and obj.name in (:names)"
+        + " and obj.className in (:classes) and prop.id.name in (:properties) and prop.classType = :classType";
+
+    private static final String PROPERTIES_STATEMENT =
+        "select obj.name, obj.className, obj.number, prop.id.name, prop.%s from BaseObject obj, %s prop"
+            + PROPERTIES_WHERE;
+
+    private static final String LIST_PROPERTIES_STATEMENT =
+        "select obj.name, obj.className, obj.number, prop.id.name, item from BaseObject obj, "
+            + DBStringListProperty.class.getSimpleName() + " prop join prop.list item" + PROPERTIES_WHERE
+            + " order by index(item)";
+
+    /**
+     * The mappings which can be used to store the properties of the rights objects (the standard ones are
+     * {@link IntegerProperty}, {@link StringProperty} and {@link LargeStringProperty}, but the storage of list
+     * properties can be changed) associated to the name of the field holding the value.
+     */
+    private static final Map<Class<? extends BaseProperty>, String> PROPERTY_MAPPINGS = new LinkedHashMap<>();
+
+    static {
+        PROPERTY_MAPPINGS.put(IntegerProperty.class, VALUE);
+        PROPERTY_MAPPINGS.put(StringProperty.class, VALUE);
+        PROPERTY_MAPPINGS.put(LargeStringProperty.class, VALUE);
+        PROPERTY_MAPPINGS.put(StringListProperty.class, "textValue");
+    }
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    @Named("user")
+    private DocumentReferenceResolver<String> userResolver;
+
+    @Override
+    public Map<DocumentReference, RightsDocument> load(Collection<DocumentReference> documentReferences)
+        throws AuthorizationException
+    {
+        // Group the documents by wiki since each wiki is stored in its own database
+        Map<WikiReference, Map<String, DocumentReference>> wikis = new LinkedHashMap<>();
+        for (DocumentReference documentReference : documentReferences) {
+            wikis.computeIfAbsent(documentReference.getWikiReference(), k -> new LinkedHashMap<>())
+                .put(this.localSerializer.serialize(documentReference), documentReference);
+        }
+
+        Map<DocumentReference, RightsDocument> documents = new HashMap<>();
+        for (Map.Entry<WikiReference, Map<String, DocumentReference>> entry : wikis.entrySet()) {
+            try {
+                load(entry.getKey(), entry.getValue(), documents);
+            } catch (QueryException e) {
+                throw new AuthorizationException(entry.getKey(),
+                    "Could not retrieve the rights objects to check security access", e);
+            }
+        }
+
+        return documents;
+    }
+
+    private void load(WikiReference wikiReference, Map<String, DocumentReference> references,
+        Map<DocumentReference, RightsDocument> documents) throws QueryException
+    {
+        List<String> names = new ArrayList<>(references.keySet());
+
+        // Documents
+        Map<String, RightsDocument> wikiDocuments = new HashMap<>();
+        Query documentsQuery = this.queryManager.createQuery(DOCUMENTS_STATEMENT, Query.HQL);
+        documentsQuery.setWiki(wikiReference.getName());
+        documentsQuery.bindValue(NAMES, names);
+        for (Object[] row : documentsQuery.<Object[]>execute()) {
+            DocumentReference documentReference = references.get(row[0]);
+            if (documentReference != null) {
+                String creator = (String) row[1];
+                DocumentReference creatorReference =
+                    StringUtils.isEmpty(creator) ? null : this.userResolver.resolve(creator, wikiReference);
+
+                RightsDocument document = new RightsDocument(documentReference, creatorReference);
+                wikiDocuments.put((String) row[0], document);
+                documents.put(documentReference, document);
+            }
+        }
+
+        if (wikiDocuments.isEmpty()) {
+            return;
+        }
+
+        // Rights objects properties
+        Map<String, Map<String, RightsObject>> objects = new HashMap<>();
+        List<String> existingNames = new ArrayList<>(wikiDocuments.keySet());
+        for (Map.Entry<Class<? extends BaseProperty>, String> mapping : PROPERTY_MAPPINGS.entrySet()) {
+            Query propertiesQuery = createPropertiesQuery(
+                String.format(PROPERTIES_STATEMENT, mapping.getValue(), mapping.getKey().getSimpleName()),
+                mapping.getKey(), wikiReference, existingNames);
+            boolean list = mapping.getKey() == StringListProperty.class;
+            for (Object[] row : propertiesQuery.<Object[]>execute()) {
+                Object value = row[4];
+                if (list) {
+                    value = RightsObject.serializeList(ListClass.getListFromString((String) value));
+                }
+                setValue(getObject(row, objects), (String) row[3], value);
+            }
+        }
+
+        // Relational list properties (one row per list item)
+        Map<List<Object>, List<String>> lists = new LinkedHashMap<>();
+        Query listPropertiesQuery = createPropertiesQuery(LIST_PROPERTIES_STATEMENT, DBStringListProperty.class,
+            wikiReference, existingNames);
+        for (Object[] row : listPropertiesQuery.<Object[]>execute()) {
+            lists.computeIfAbsent(Arrays.asList(row[0], row[1], row[2], row[3]), k -> new ArrayList<>())
+                .add((String) row[4]);
+        }
+        for (Map.Entry<List<Object>, List<String>> entry : lists.entrySet()) {
+            Object[] row = entry.getKey().toArray();
+            setValue(getObject(row, objects), (String) row[3], RightsObject.serializeList(entry.getValue()));
+        }
+
+        // Objects are sorted by number so that the rules are in the same order as when reading the document
+        for (Map.Entry<String, Map<String, RightsObject>> entry : objects.entrySet()) {
+            RightsDocument document = wikiDocuments.get(entry.getKey());
+            entry.getValue().values().stream().sorted(Comparator.comparingInt(RightsObject::getNumber))
+                .forEach(document::addObject);
+        }
+    }
+
+    private Query createPropertiesQuery(String statement, Class<? extends BaseProperty> propertyClass,
+        WikiReference wikiReference, List<String> names) throws QueryException
+    {
+        Query query = this.queryManager.createQuery(statement, Query.HQL);
+        query.setWiki(wikiReference.getName());
+        query.bindValue(NAMES, names);
+        query.bindValue(CLASSES, RIGHTS_CLASSES);
+        query.bindValue(PROPERTIES, PROPERTY_NAMES);
+        query.bindValue(CLASSTYPE, propertyClass.getName());
+
+        return query;
+    }
+
+    private RightsObject getObject(Object[] row, Map<String, Map<String, RightsObject>> objects)
+    {
+        String documentName = (String) row[0];
+        String className = (String) row[1];
+        int number = ((Number) row[2]).intValue();
+
+        return objects.computeIfAbsent(documentName, k -> new HashMap<>())
+            .computeIfAbsent(className + '/' + number, k -> new RightsObject(className, number));
+    }
+
+    private void setValue(RightsObject object, String propertyName, Object value)
+    {
+        if (XWikiConstants.ALLOW_FIELD_NAME.equals(propertyName)) {
+            object.setAllow(value instanceof Number ? ((Number) value).intValue() : 0);
+        } else {
+            // Same as BaseCollection#getStringValue()
+            String stringValue = value != null ? value.toString() : "";
+
+            if (XWikiConstants.LEVELS_FIELD_NAME.equals(propertyName)) {
+                object.setLevels(stringValue);
+            } else if (XWikiConstants.USERS_FIELD_NAME.equals(propertyName)) {
+                object.setUsers(stringValue);
+            } else if (XWikiConstants.GROUPS_FIELD_NAME.equals(propertyName)) {
+                object.setGroups(stringValue);
+            }
+        }
+    }
+}
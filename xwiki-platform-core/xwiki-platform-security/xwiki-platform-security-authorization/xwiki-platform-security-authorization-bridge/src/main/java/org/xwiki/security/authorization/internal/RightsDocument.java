@@ -0,0 +1,86 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.authorization.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.xwiki.model.reference.DocumentReference;
+
+/**
+ * The part of a document which is needed to compute the security rules attached to it: its creator and its rights
+ * objects.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class RightsDocument
+{
+    private final DocumentReference documentReference;
+
+    private final DocumentReference creatorReference;
+
+    private final List<RightsObject> objects = new ArrayList<>();
+
+    /**
+     * @param documentReference the reference of the document
+     * @param creatorReference the reference of the creator of the document
+     */
+    public RightsDocument(DocumentReference documentReference, DocumentReference creatorReference)
+    {
+        this.documentReference = documentReference;
+        this.creatorReference = creatorReference;
+    }
+
+    /**
+     * @return the reference of the document
+     */
+    public DocumentReference getDocumentReference()
+    {
+        return this.documentReference;
+    }
+
+    /**
+     * @return the reference of the creator of the document
+     */
+    public DocumentReference getCreatorReference()
+    {
+        return this.creatorReference;
+    }
+
+    /**
+     * @param object a rights object of the document
+     */
+    public void addObject(RightsObject object)
+    {
+        this.objects.add(object);
+    }
+
+    /**
+     * @param className the local name of the class
+     * @return the rights objects of the passed class
+     */
+    public List<RightsObject> getObjects(String className)
+    {
+        return this.objects.stream().filter(object -> className.equals(object.getClassName()))
+            .collect(Collectors.toList());
+    }
+}
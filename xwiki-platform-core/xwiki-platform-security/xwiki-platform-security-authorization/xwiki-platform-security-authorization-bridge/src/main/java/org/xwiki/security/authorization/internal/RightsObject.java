@@ -0,0 +1,150 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.authorization.internal;
+
+import java.util.List;
+
+import com.xpn.xwiki.objects.classes.ListClass;
+
+/**
+ * The raw values of a rights object (XWiki.XWikiRights or XWiki.XWikiGlobalRights), as needed to create a
+ * {@link XWikiSecurityRule}.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+public class RightsObject
+{
+    private static final String LIST_SEPARATOR = ",";
+
+    private final String className;
+
+    private final int number;
+
+    private int allow;
+
+    private String levels;
+
+    private String users;
+
+    private String groups;
+
+    /**
+     * @param className the local name of the class of the object
+     * @param number the number of the object
+     */
+    public RightsObject(String className, int number)
+    {
+        this.className = className;
+        this.number = number;
+    }
+
+    /**
+     * @return the local name of the class of the object
+     */
+    public String getClassName()
+    {
+        return this.className;
+    }
+
+    /**
+     * @return the number of the object
+     */
+    public int getNumber()
+    {
+        return this.number;
+    }
+
+    /**
+     * @return 1 if the rule allows the rights, anything else means deny
+     */
+    public int getAllow()
+    {
+        return this.allow;
+    }
+
+    /**
+     * @param allow 1 if the rule allows the rights, anything else means deny
+     */
+    public void setAllow(int allow)
+    {
+        this.allow = allow;
+    }
+
+    /**
+     * @return the serialized list of rights
+     */
+    public String getLevels()
+    {
+        return this.levels;
+    }
+
+    /**
+     * @param levels the serialized list of rights
+     */
+    public void setLevels(String levels)
+    {
+        this.levels = levels;
+    }
+
+    /**
+     * @return the serialized list of users
+     */
+    public String getUsers()
+    {
+        return this.users;
+    }
+
+    /**
+     * @param users the serialized list of users
+     */
+    public void setUsers(String users)
+    {
+        this.users = users;
+    }
+
+    /**
+     * @return the serialized list of groups
+     */
+    public String getGroups()
+    {
+        return this.groups;
+    }
+
+    /**
+     * @param groups the serialized list of groups
+     */
+    public void setGroups(String groups)
+    {
+        this.groups = groups;
+    }
+
+    /**
+     * Serialize the values of a property stored as a list (which is possible when the rights class was modified) the
+     * same way the rights classes serialize them when stored as a string.
+     *
+     * @param values the values of a list property
+     * @return the serialized values
+     */
+    public static String serializeList(List<String> values)
+    {
+        return ListClass.getStringFromList(values, LIST_SEPARATOR);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.authorization.internal;
+
+import java.util.Arrays;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.event.ApplicationReadyEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.WikiDeletedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.security.authorization.cache.internal.SecurityCacheSnapshot;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Load the security cache snapshot when the application is ready and forget the deleted entities.
+ *
+ * @version $Id$
+ * @since 15.0RC1
+ */
+@Component
+@Named(SecurityCacheSnapshotListener.NAME)
+@Singleton
+public class SecurityCacheSnapshotListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "org.xwiki.security.authorization.internal.SecurityCacheSnapshotListener";
+
+    @Inject
+    private SecurityCacheSnapshot snapshot;
+
+    /**
+     * Default constructor.
+     */
+    public SecurityCacheSnapshotListener()
+    {
+        super(NAME, Arrays.asList(new ApplicationReadyEvent(), new DocumentDeletedEvent(), new WikiDeletedEvent()));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof ApplicationReadyEvent) {
+            // Fill the cache before the first requests
+            this.snapshot.replay();
+        } else if (event instanceof DocumentDeletedEvent) {
+            this.snapshot.remove(((XWikiDocument) source).getDocumentReference());
+        } else if (event instanceof WikiDeletedEvent) {
+            this.snapshot.remove(new WikiReference(((WikiDeletedEvent) event).getWikiId()));
+        }
+    }
+}
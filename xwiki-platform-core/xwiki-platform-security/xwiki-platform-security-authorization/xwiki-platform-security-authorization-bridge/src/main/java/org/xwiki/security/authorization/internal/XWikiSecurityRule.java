@@ -87,20 +87,21 @@ protected XWikiSecurityRule(Set<Right> rights, RuleState state, Collection<Docum
     }
 
     /**
-     * Construct a more manageable java object from the corresponding
-     * xwiki object.
-     * @param obj An xwiki rights object.
+     * Construct a more manageable java object from the values of the corresponding xwiki object.
+     * @param allow 1 if the rule allows the rights, anything else means deny.
+     * @param levels the serialized list of rights.
+     * @param users the serialized list of users.
+     * @param groups the serialized list of groups.
      * @param resolver A document reference resolver for user and group pages.
      * @param wikiReference A reference to the wiki from which these rules are extracted.
      * @param disableEditRight when true, edit right is disregarded while building this rule.
-     * @throws IllegalArgumentException if the source object for the rules is badly formed.
      */
-    private XWikiSecurityRule(BaseObject obj, DocumentReferenceResolver<String> resolver,
-        WikiReference wikiReference, boolean disableEditRight)
+    private XWikiSecurityRule(int allow, String levels, String users, String groups,
+        DocumentReferenceResolver<String> resolver, WikiReference wikiReference, boolean disableEditRight)
     {
-        state = (obj.getIntValue(XWikiConstants.ALLOW_FIELD_NAME) == 1) ? RuleState.ALLOW : RuleState.DENY;
+        state = (allow == 1) ? RuleState.ALLOW : RuleState.DENY;
 
-        for (String level : LevelsClass.getListFromString(obj.getStringValue(XWikiConstants.LEVELS_FIELD_NAME))) {
+        for (String level : LevelsClass.getListFromString(levels)) {
             Right right = Right.toRight(level);
             if (right != Right.ILLEGAL && (!disableEditRight || right != Right.EDIT)) {
                 rights.add(right);
@@ -109,7 +110,7 @@ private XWikiSecurityRule(BaseObject obj, DocumentReferenceResolver<String> reso
 
         // No need to computes users when no right will match.
         if (rights.size() > 0) {
-            for (String user : UsersClass.getListFromString(obj.getStringValue(XWikiConstants.USERS_FIELD_NAME))) {
+            for (String user : UsersClass.getListFromString(users)) {
                 DocumentReference ref = resolver.resolve(user, wikiReference);
                 if (XWikiConstants.GUEST_USER.equals(ref.getName())) {
                     // In the database, Rights for public users (not logged in) are stored using a user named
@@ -120,7 +121,7 @@ private XWikiSecurityRule(BaseObject obj, DocumentReferenceResolver<String> reso
                 this.users.add(ref);
             }
 
-            for (String group : GroupsClass.getListFromString(obj.getStringValue(XWikiConstants.GROUPS_FIELD_NAME))) {
+            for (String group : GroupsClass.getListFromString(groups)) {
                 DocumentReference ref = resolver.resolve(group, wikiReference);
                 this.groups.add(ref);
 
@@ -142,7 +143,33 @@ private XWikiSecurityRule(BaseObject obj, DocumentReferenceResolver<String> reso
     static SecurityRule createNewRule(BaseObject obj, DocumentReferenceResolver<String> resolver,
         WikiReference wikiReference, boolean disableEditRight) throws IllegalArgumentException
     {
-        XWikiSecurityRule rule = new XWikiSecurityRule(obj, resolver, wikiReference, disableEditRight);
+        return createNewRule(obj.getIntValue(XWikiConstants.ALLOW_FIELD_NAME),
+            obj.getStringValue(XWikiConstants.LEVELS_FIELD_NAME), obj.getStringValue(XWikiConstants.USERS_FIELD_NAME),
+            obj.getStringValue(XWikiConstants.GROUPS_FIELD_NAME), resolver, wikiReference, disableEditRight);
+    }
+
+    /**
+     * Create and return a new Security rule based on the values of a rights object.
+     * @param obj the values of an xwiki rights object.
+     * @param resolver A document reference resolver for user and group pages.
+     * @param wikiReference A reference to the wiki from which these rules are extracted.
+     * @param disableEditRight when true, edit right is disregarded while building this rule.
+     * @return a newly created security rule.
+     * @throws IllegalArgumentException if the source object for the rules is badly formed.
+     * @since 15.0RC1
+     */
+    static SecurityRule createNewRule(RightsObject obj, DocumentReferenceResolver<String> resolver,
+        WikiReference wikiReference, boolean disableEditRight) throws IllegalArgumentException
+    {
+        return createNewRule(obj.getAllow(), obj.getLevels(), obj.getUsers(), obj.getGroups(), resolver,
+            wikiReference, disableEditRight);
+    }
+
+    private static SecurityRule createNewRule(int allow, String levels, String users, String groups,
+        DocumentReferenceResolver<String> resolver, WikiReference wikiReference, boolean disableEditRight)
+    {
+        XWikiSecurityRule rule =
+            new XWikiSecurityRule(allow, levels, users, groups, resolver, wikiReference, disableEditRight);
 
         if (rule.rights.size() == 0) {
             throw new IllegalArgumentException("No rights to build this rule.");
@@ -19,18 +19,29 @@
  */
 package org.xwiki.security.authorization.internal;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.security.DefaultSecurityReferenceFactory;
 import org.xwiki.security.SecurityReference;
 import org.xwiki.security.SecurityReferenceFactory;
 import org.xwiki.security.authorization.AuthorizationException;
+import org.xwiki.security.authorization.RuleState;
+import org.xwiki.security.authorization.SecurityRule;
 import org.xwiki.security.authorization.SecurityRuleEntry;
 import org.xwiki.security.internal.DefaultXWikiBridge;
+import org.xwiki.security.internal.XWikiConstants;
 import org.xwiki.test.annotation.BeforeComponent;
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.junit5.mockito.ComponentTest;
@@ -43,8 +54,13 @@
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.test.reference.ReferenceComponentList;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -70,6 +86,10 @@
     @MockComponent
     private XWikiContext context;
 
+    @MockComponent
+    @Named("document")
+    private RightsLoader documentLoader;
+
     private XWiki wiki;
 
     @BeforeComponent
@@ -99,4 +119,63 @@ void readUnexistingWikiReference() throws AuthorizationException, XWikiException
         assertTrue(ruleEntry.getRules().isEmpty());
         verify(wiki).getWikiOwner("foo", this.context);
     }
+
+    private List<SecurityRule> getDocumentRules(SecurityRuleEntry entry)
+    {
+        // Only keep the rules coming from the rights objects (the implied rules don't implement equals)
+        return entry.getRules().stream().filter(XWikiSecurityRule.class::isInstance).collect(Collectors.toList());
+    }
+
+    @Test
+    void readSeveralEntities() throws Exception
+    {
+        when(this.context.getWikiReference()).thenReturn(new WikiReference("xwiki"));
+        when(this.context.getMainXWiki()).thenReturn("xwiki");
+
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        SecurityReference wikiEntity = this.securityReferenceFactory.newEntityReference(new WikiReference("wiki"));
+        SecurityReference spaceEntity =
+            this.securityReferenceFactory.newEntityReference(documentReference.getLastSpaceReference());
+        SecurityReference documentEntity = this.securityReferenceFactory.newEntityReference(documentReference);
+
+        RightsDocument rightsDocument = new RightsDocument(documentReference, null);
+        RightsObject allow = new RightsObject(XWikiConstants.LOCAL_CLASS, 0);
+        allow.setAllow(1);
+        allow.setLevels("view");
+        allow.setUsers("XWiki.UserA");
+        rightsDocument.addObject(allow);
+        RightsObject deny = new RightsObject(XWikiConstants.LOCAL_CLASS, 1);
+        deny.setAllow(0);
+        deny.setLevels("edit");
+        deny.setGroups("XWiki.GroupA");
+        rightsDocument.addObject(deny);
+
+        when(this.documentLoader.load(any())).then(invocation -> {
+            Collection<DocumentReference> references = invocation.getArgument(0);
+            return references.contains(documentReference)
+                ? Collections.singletonMap(documentReference, rightsDocument) : Collections.emptyMap();
+        });
+
+        List<SecurityRuleEntry> entries =
+            this.defaultSecurityEntryReader.read(Arrays.asList(wikiEntity, spaceEntity, documentEntity, null));
+
+        // All the documents are loaded at once
+        verify(this.documentLoader).load(argThat(references -> references.size() == 3));
+
+        assertEquals(4, entries.size());
+        assertNull(entries.get(3));
+
+        List<SecurityRule> documentRules = getDocumentRules(entries.get(2));
+        assertEquals(2, documentRules.size());
+        assertEquals(RuleState.ALLOW, documentRules.get(0).getState());
+        assertEquals(RuleState.DENY, documentRules.get(1).getState());
+
+        // Same result as when reading the entities one by one
+        assertEquals(getDocumentRules(this.defaultSecurityEntryReader.read(wikiEntity)),
+            getDocumentRules(entries.get(0)));
+        assertEquals(getDocumentRules(this.defaultSecurityEntryReader.read(spaceEntity)),
+            getDocumentRules(entries.get(1)));
+        assertEquals(documentRules, getDocumentRules(this.defaultSecurityEntryReader.read(documentEntity)));
+        verify(this.documentLoader, times(4)).load(any());
+    }
 }
@@ -0,0 +1,246 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.authorization.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.security.authorization.RuleState;
+import org.xwiki.security.authorization.SecurityRule;
+import org.xwiki.security.internal.XWikiConstants;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.user.UserReferenceSerializer;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.objects.DBStringListProperty;
+import com.xpn.xwiki.objects.StringListProperty;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link HibernateRightsLoader} by comparing it with {@link DocumentRightsLoader}.
+ *
+ * @version $Id$
+ */
+@OldcoreTest
+@ReferenceComponentList
+@ComponentList({ DocumentRightsLoader.class, HibernateRightsLoader.class })
+class HibernateRightsLoaderTest
+{
+    private static final WikiReference WIKI_REFERENCE = new WikiReference("wiki");
+
+    private static final DocumentReference DOCUMENT_REFERENCE =
+        new DocumentReference("wiki", "Space", "WebPreferences");
+
+    private static final String DOCUMENT_NAME = "Space.WebPreferences";
+
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    @Named("document")
+    private UserReferenceSerializer<DocumentReference> documentUserSerializer;
+
+    private XWikiDocument document;
+
+    private RightsLoader documentLoader;
+
+    private RightsLoader hibernateLoader;
+
+    private DocumentReferenceResolver<String> userResolver;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+
+        this.document = new XWikiDocument(DOCUMENT_REFERENCE);
+        this.document.setNew(false);
+        doReturn(this.document).when(this.oldcore.getSpyXWiki()).getDocument(DOCUMENT_REFERENCE, xcontext);
+
+        // The queries are answered from the properties of the document objects, as they would be stored in the
+        // database
+        when(this.queryManager.createQuery(anyString(), eq(Query.HQL)))
+            .then(invocation -> createQuery(invocation.getArgument(0)));
+
+        this.documentLoader = this.oldcore.getMocker().getInstance(RightsLoader.class, "document");
+        this.hibernateLoader = this.oldcore.getMocker().getInstance(RightsLoader.class, "hibernate");
+        this.userResolver = this.oldcore.getMocker().getInstance(DocumentReferenceResolver.TYPE_STRING, "user");
+    }
+
+    private Query createQuery(String statement) throws Exception
+    {
+        Query query = mock(Query.class);
+
+        List<Object[]> rows = new ArrayList<>();
+        if (statement.contains("XWikiDocument doc")) {
+            rows.add(new Object[] { DOCUMENT_NAME, null });
+        } else {
+            for (List<BaseObject> objects : this.document.getXObjects().values()) {
+                for (BaseObject object : objects) {
+                    if (object != null) {
+                        addPropertyRows(statement, object, rows);
+                    }
+                }
+            }
+        }
+        when(query.<Object[]>execute()).thenReturn(rows);
+
+        return query;
+    }
+
+    private void addPropertyRows(String statement, BaseObject object, List<Object[]> rows)
+    {
+        String className = XWikiConstants.XWIKI_SPACE + '.' + object.getXClassReference().getName();
+
+        for (String propertyName : object.getPropertyList()) {
+            BaseProperty<?> property = (BaseProperty<?>) object.safeget(propertyName);
+            String mapping = property.getClass().getSimpleName();
+
+            if (property instanceof DBStringListProperty) {
+                if (statement.contains(", " + mapping + " prop join prop.list item")) {
+                    for (String item : ((DBStringListProperty) property).getList()) {
+                        rows.add(new Object[] { DOCUMENT_NAME, className, object.getNumber(), propertyName, item });
+                    }
+                }
+            } else if (statement.contains(", " + mapping + " prop where")) {
+                Object value = property instanceof StringListProperty
+                    ? ((StringListProperty) property).getTextValue() : property.getValue();
+                rows.add(new Object[] { DOCUMENT_NAME, className, object.getNumber(), propertyName, value });
+            }
+        }
+    }
+
+    private BaseObject newRightsObject(boolean global) throws Exception
+    {
+        return this.document.newXObject(
+            global ? XWikiConstants.GLOBAL_CLASS_REFERENCE : XWikiConstants.LOCAL_CLASS_REFERENCE,
+            this.oldcore.getXWikiContext());
+    }
+
+    private List<SecurityRule> getRules(RightsLoader loader, String className) throws Exception
+    {
+        Map<DocumentReference, RightsDocument> documents =
+            loader.load(Collections.singletonList(DOCUMENT_REFERENCE));
+
+        RightsDocument rightsDocument = documents.get(DOCUMENT_REFERENCE);
+        assertNotNull(rightsDocument);
+
+        List<SecurityRule> rules = new ArrayList<>();
+        for (RightsObject object : rightsDocument.getObjects(className)) {
+            rules.add(XWikiSecurityRule.createNewRule(object, this.userResolver, WIKI_REFERENCE, false));
+        }
+
+        return rules;
+    }
+
+    private void assertSameRules(String className) throws Exception
+    {
+        assertEquals(getRules(this.documentLoader, className), getRules(this.hibernateLoader, className));
+    }
+
+    @Test
+    void loadStandardStorage() throws Exception
+    {
+        BaseObject allowUsers = newRightsObject(true);
+        allowUsers.setIntValue(XWikiConstants.ALLOW_FIELD_NAME, 1);
+        allowUsers.setStringValue(XWikiConstants.LEVELS_FIELD_NAME, "view,edit");
+        allowUsers.setLargeStringValue(XWikiConstants.USERS_FIELD_NAME, "XWiki.UserA,XWiki.UserB");
+        allowUsers.setLargeStringValue(XWikiConstants.GROUPS_FIELD_NAME, "");
+
+        BaseObject denyGroup = newRightsObject(true);
+        denyGroup.setIntValue(XWikiConstants.ALLOW_FIELD_NAME, 0);
+        denyGroup.setStringValue(XWikiConstants.LEVELS_FIELD_NAME, "comment");
+        denyGroup.setLargeStringValue(XWikiConstants.USERS_FIELD_NAME, "");
+        denyGroup.setLargeStringValue(XWikiConstants.GROUPS_FIELD_NAME, "XWiki.GroupA,otherwiki:XWiki.GroupB");
+
+        BaseObject denyGuest = newRightsObject(false);
+        denyGuest.setIntValue(XWikiConstants.ALLOW_FIELD_NAME, 0);
+        denyGuest.setStringValue(XWikiConstants.LEVELS_FIELD_NAME, "view");
+        denyGuest.setLargeStringValue(XWikiConstants.USERS_FIELD_NAME, "XWiki.XWikiGuest");
+
+        assertSameRules(XWikiConstants.GLOBAL_CLASS);
+        assertSameRules(XWikiConstants.LOCAL_CLASS);
+
+        List<SecurityRule> globalRules = getRules(this.hibernateLoader, XWikiConstants.GLOBAL_CLASS);
+        assertEquals(2, globalRules.size());
+        assertEquals(RuleState.ALLOW, globalRules.get(0).getState());
+        assertEquals(RuleState.DENY, globalRules.get(1).getState());
+
+        List<SecurityRule> localRules = getRules(this.hibernateLoader, XWikiConstants.LOCAL_CLASS);
+        assertEquals(1, localRules.size());
+        assertEquals(RuleState.DENY, localRules.get(0).getState());
+    }
+
+    @Test
+    void loadListStorage() throws Exception
+    {
+        BaseObject stringList = newRightsObject(true);
+        stringList.setIntValue(XWikiConstants.ALLOW_FIELD_NAME, 1);
+        stringList.setStringListValue(XWikiConstants.LEVELS_FIELD_NAME, Arrays.asList("view", "edit"));
+        stringList.setStringListValue(XWikiConstants.USERS_FIELD_NAME, Arrays.asList("XWiki.UserA", "XWiki.UserB"));
+
+        BaseObject dbList = newRightsObject(true);
+        dbList.setIntValue(XWikiConstants.ALLOW_FIELD_NAME, 0);
+        dbList.setDBStringListValue(XWikiConstants.LEVELS_FIELD_NAME, Arrays.asList("admin", "delete"));
+        dbList.setDBStringListValue(XWikiConstants.GROUPS_FIELD_NAME,
+            Arrays.asList("XWiki.GroupA", "XWiki.GroupB"));
+
+        assertSameRules(XWikiConstants.GLOBAL_CLASS);
+
+        List<SecurityRule> rules = getRules(this.hibernateLoader, XWikiConstants.GLOBAL_CLASS);
+        assertEquals(2, rules.size());
+        assertEquals(RuleState.ALLOW, rules.get(0).getState());
+        assertTrue(rules.get(0).match(Right.EDIT));
+        assertEquals(RuleState.DENY, rules.get(1).getState());
+        assertTrue(rules.get(1).match(Right.DELETE));
+    }
+}
@@ -40,6 +40,7 @@
 import org.xwiki.localization.internal.DefaultContextualLocalizationManager;
 import org.xwiki.localization.internal.DefaultLocalizationManager;
 import org.xwiki.localization.internal.DefaultTranslationBundleContext;
+import org.xwiki.localization.internal.TranslationIndex;
 import org.xwiki.logging.internal.DefaultLoggerConfiguration;
 import org.xwiki.model.internal.DefaultModelContext;
 import org.xwiki.observation.internal.DefaultObservationManager;
@@ -279,6 +280,7 @@
     DefaultContextualLocalizationManager.class,
     DefaultLocalizationManager.class,
     DefaultTranslationBundleContext.class,
+    TranslationIndex.class,
     XWikiLocalizationContext.class,
 
     // Property Class Providers (needed when the page has xobjects)